@@ -0,0 +1 @@
+java -cp .\lib\ajedrez-gui-lib-2.0.0.jar;.\bin  juego.textui.BancoDePruebas %*
\ No newline at end of file
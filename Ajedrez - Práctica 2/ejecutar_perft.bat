@@ -0,0 +1,2 @@
+java -cp .\lib\ajedrez-gui-lib-2.0.0.jar;.\bin  juego.textui.ConsolaPerft %*
+
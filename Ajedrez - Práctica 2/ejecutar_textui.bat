@@ -1,2 +1,2 @@
-java -ea -cp .\lib\ajedrez-gui-lib-2.0.0.jar;.\bin  juego.textui.Ajedrez
+java -ea -cp .\lib\ajedrez-gui-lib-2.0.0.jar;.\bin  juego.textui.Ajedrez %*
 
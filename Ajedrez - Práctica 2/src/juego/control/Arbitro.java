@@ -1,13 +1,15 @@
 package juego.control;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 //IMPORTACIONES
 import juego.modelo.Celda;
 import juego.modelo.Color;
 import juego.modelo.CoordenadasIncorrectasException;
 import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+import juego.modelo.Zobrist;
 import juego.modelo.pieza.Alfil;
 import juego.modelo.pieza.Caballo;
 import juego.modelo.pieza.Dama;
@@ -30,6 +32,18 @@ import juego.util.Sentido;
 
 public class Arbitro{
 
+	//CONSTANTES:
+	/**
+	 * Tamaño mínimo del buffer de movimientos que se pasa a generarMovimientosLegales.
+	 * Ninguna posición de ajedrez tiene más movimientos.
+	 */
+	public static final int MAXIMO_MOVIMIENTOS = 256;
+	
+	/**
+	 * Letras de este juego equivalentes a las piezas PNBRQK de la notación FEN.
+	 */
+	private static final String LETRAS_FEN = "PCATDR";
+
 	//ATRIBUTOS:
 	/**
 	 * Objeto Tablero.
@@ -44,6 +58,26 @@ public class Arbitro{
 	 */
 	private int n_jugadas = 0;
 
+	/**
+	 * Tamaño inicial de la pila de deshacer, crece si se supera.
+	 */
+	private static final int TAMANO_INICIAL_PILA = 128;
+	
+	/**
+	 * Número de bits de una casilla en los registros de deshacer.
+	 */
+	private static final int BITS_CASILLA = 6;
+	
+	/**
+	 * Máscara de una casilla en los registros de deshacer.
+	 */
+	private static final int MASCARA_CASILLA = (1 << BITS_CASILLA) - 1;
+	
+	/**
+	 * Bit del registro de deshacer que indica que era el primer movimiento de la pieza.
+	 */
+	private static final int BIT_PRIMER_MOVIMIENTO = 1 << (2 * BITS_CASILLA);
+
 	/**
 	 * Color turno.
 	 */
@@ -55,19 +89,20 @@ public class Arbitro{
 	private boolean simulacroJaque;
 	
 	/**
-	 * Booleano usado durante la comprobación del jaque para evitar conflicto entre el color de las piezas, y el turno.
+	 * Pila de registros para deshacer movimientos. Cada registro empaqueta en un entero
+	 * la casilla de origen, la de destino, si era el primer movimiento y la casilla del rey.
 	 */
-	private boolean simulacroJaqueColor;
+	private int [] pilaDeshacer;
 	
 	/**
-	 * Referencia del rey negro.
+	 * Piezas capturadas en cada registro de la pila, null si no hubo captura.
 	 */
-	private Rey reyNegro;
+	private Pieza [] pilaCapturas;
 	
 	/**
-	 * Referencia del rey blanco.
+	 * Número de registros en la pila de deshacer.
 	 */
-	private Rey reyBlanco;
+	private int profundidadPila;
 
 	
 //--constructores--------------------------------------
@@ -80,7 +115,7 @@ public class Arbitro{
 	 * @see empezar
 	 * @see turno
 	 * @see simulacroJaque
-	 * @see simulacroJaqueColor
+	 * @see pilaDeshacer
 	 */
 	public  Arbitro(Tablero tablero){
 		this.tablero = tablero;
@@ -88,7 +123,9 @@ public class Arbitro{
 		empezar = false;
 		turno = Color.BLANCO;
 		simulacroJaque = false;
-		simulacroJaqueColor = false;
+		pilaDeshacer = new int [TAMANO_INICIAL_PILA];
+		pilaCapturas = new Pieza [TAMANO_INICIAL_PILA];
+		profundidadPila = 0;
 	
 	}
 
@@ -159,7 +196,6 @@ public class Arbitro{
 				
 
 			}
-			colocarReyes();
 		}
 		catch (CoordenadasIncorrectasException e) {
 			encadenarExcepciones(e);
@@ -170,6 +206,8 @@ public class Arbitro{
 //-------------------------------------------------------------------------------
 /**
  * Método que permite pasar las distintas piezas para generar tableros personalizados.
+ * El tablero localiza los reyes con sus máscaras, por lo que las referencias a los reyes
+ * se mantienen solo por compatibilidad.
  * @param piezas Array con las distintas Piezas.
  * @param coordenadas Posición donde se colocará cada piezas.
  * @param negro		Referencia a la pieza Rey de color negro pasada.
@@ -188,11 +226,135 @@ public class Arbitro{
 			
 
 			this.empezar = true;															//Permitimos que se pueda comenzar la partida. 
-			 colocarReyes(blanco, negro);
 		}//end if	
 	}//end method
 	
-
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que coloca las piezas a partir de una posición en notación FEN y fija el turno.
+	 * 
+	 * Se leen los dos primeros campos (piezas y turno) con las letras inglesas de las piezas
+	 * (PNBRQK, mayúsculas para las blancas). Los enroques y la captura al paso no existen en
+	 * este juego, por lo que el resto de campos se ignoran. Los peones fuera de su fila inicial
+	 * se marcan como ya movidos.
+	 * @param fen Posición en notación FEN.
+	 * @throws IllegalArgumentException si la notación no es válida.
+	 */
+	public void colocarPiezas(String fen) {
+		
+		String [] campos = fen.trim().split("\\s+");
+		String [] filas = campos[0].split("/");
+		if (filas.length != tablero.obtenerNumeroFilas())
+			throw new IllegalArgumentException("Número de filas incorrecto en la notación FEN: " + fen);
+		
+		for (int casilla = 0; casilla < TableroBits.NUMERO_CASILLAS; casilla++)		//Vaciamos el tablero
+			tablero.obtenerCelda(casilla).eliminarPieza();
+		
+		try {
+			for (int fila = 0; fila < filas.length; fila++) {
+				int columna = 0;
+				for (char letra : filas[fila].toCharArray()) {
+					if (Character.isDigit(letra)) {
+						columna += letra - '0';									//Casillas vacías
+						continue;
+					}
+					Color color = Character.isUpperCase(letra) ? Color.BLANCO : Color.NEGRO;
+					Pieza pieza = crearPieza(LETRAS_FEN.charAt(indiceLetraFEN(letra, fen)), color);
+					if (pieza instanceof Peon && fila != filaInicialPeon(color))
+						pieza.marcarPrimerMovimiento();
+					tablero.colocar(pieza, fila, columna++);
+				}
+				if (columna != tablero.obtenerNumeroColumnas())
+					throw new IllegalArgumentException("Número de columnas incorrecto en la notación FEN: " + fen);
+			}
+		}
+		catch (CoordenadasIncorrectasException e) {
+			throw new IllegalArgumentException("Posición fuera del tablero en la notación FEN: " + fen, e);
+		}
+		
+		turno = campos.length > 1 && campos[1].equals("b") ? Color.NEGRO : Color.BLANCO;
+		profundidadPila = 0;
+		empezar = true;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que obtiene la posición de una letra de pieza FEN en LETRAS_FEN.
+	 * @param letra Letra de la pieza en notación FEN.
+	 * @param fen Notación completa, para el mensaje de error.
+	 * @return índice de la letra.
+	 * @throws IllegalArgumentException si la letra no es de ninguna pieza.
+	 */
+	private static int indiceLetraFEN(char letra, String fen) {
+		
+		int indice = "PNBRQK".indexOf(Character.toUpperCase(letra));
+		if (indice < 0)
+			throw new IllegalArgumentException("Pieza desconocida '" + letra + "' en la notación FEN: " + fen);
+		return indice;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que devuelve la fila en la que empiezan los peones de un color.
+	 * @param color Color de los peones.
+	 * @return índice de la fila.
+	 */
+	private int filaInicialPeon(Color color) {
+		return color == Color.BLANCO ? tablero.obtenerNumeroFilas() - 2 : 1;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que crea una pieza a partir de su letra.
+	 * @param letra Letra de la pieza (P, C, A, T, D o R).
+	 * @param color Color de la pieza.
+	 * @return Pieza nueva sin mover.
+	 */
+	private static Pieza crearPieza(char letra, Color color) {
+		
+		switch (letra) {
+		case 'C':	return new Caballo(color);
+		case 'A':	return new Alfil(color);
+		case 'T':	return new Torre(color);
+		case 'D':	return new Dama(color);
+		case 'R':	return new Rey(color);
+		default:	return new Peon(color);
+		}
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que crea un árbitro independiente con un tablero nuevo en la misma posición.
+	 * 
+	 * Se copian las piezas con su estado de primer movimiento, el turno y el número de jugadas,
+	 * pero no la pila de deshacer. Permite explorar la misma posición desde varios hilos.
+	 * @return Árbitro copia del actual.
+	 */
+	public Arbitro copiar() {
+		
+		Tablero copiaTablero = new Tablero();
+		Arbitro copia = new Arbitro(copiaTablero);
+		
+		try {
+			for (int casilla = 0; casilla < TableroBits.NUMERO_CASILLAS; casilla++) {
+				Pieza pieza = tablero.obtenerCelda(casilla).obtenerPieza();
+				if (pieza != null) {
+					Pieza nueva = crearPieza(pieza.toChar(), pieza.obtenerColor());
+					if (!pieza.esPrimerMovimiento())
+						nueva.marcarPrimerMovimiento();
+					copiaTablero.colocar(nueva, TableroBits.fila(casilla), TableroBits.columna(casilla));
+				}
+			}
+		}
+		catch (CoordenadasIncorrectasException e) {
+			encadenarExcepciones(e);
+		}
+		
+		copia.turno = turno;
+		copia.empezar = empezar;
+		copia.n_jugadas = n_jugadas;
+		return copia;
+	}
 
 //-------------------------------------------------------------------------------		
 	
@@ -213,74 +375,33 @@ public class Arbitro{
 			if (origen.obtenerColorDePieza() == destino.obtenerColorDePieza())			//Una pieza amiga es una pieza del mismo color.
 				return false;
 		
-		if (esSimulacroJaque() == false && esSimulacroJaqueColor() == false)			//Si no estamos comprobando un JAQUE
+		if (esSimulacroJaque() == false)												//Si no estamos comprobando un JAQUE
 			if (origen.obtenerColorDePieza() != this.obtenerTurno())		
 				return false;															//El color del turno no coincide con el de la pieza a mover
 																						//Es un movimiento ilegal
 
-		List <Celda> celdas = tablero.obtenerCeldasEntreMedias(origen, destino);		//obtenemos las celdas que hay entre el movimiento.
-		
-		boolean hayPiezasEntreMedias = this.hayPiezasEntreMedias(celdas);				//Comprobamos si tienen piezas entre medias.
+		Sentido sentido = tablero.obtenerSentido(origen, destino);						//Calculamos el sentido del movimiento (comprueba los límites).
 		
-		Sentido sentido = tablero.obtenerSentido(origen, destino);						//Calculamos el sentido del movimiento.
+		boolean hayPiezasEntreMedias = !tablero.obtenerTableroBits().caminoLibre(		//Comprobamos con la máscara de ocupación si hay piezas entre medias.
+				TableroBits.casilla(origen.obtenerFila(), origen.obtenerColumna()),
+				TableroBits.casilla(destino.obtenerFila(), destino.obtenerColumna()));
 
 		return origen.obtenerPieza().esCorrectoMoverA(destino, sentido, hayPiezasEntreMedias);	//Calculamos para la pieza de origen si su movimiento es válido.
 }
-//-------------------------------------------------------------------------------
-	/**
-	 * Método que encuentra a los dos reyes de cada color para almacenarlos.
-	 * @see reyBlanco
-	 * @see reyNegro
-	 */
-	private void colocarReyes() {
-		
-		reyBlanco = encontrarRey(Color.BLANCO);
-		reyNegro  = encontrarRey(Color.NEGRO );
-	}
-//-------------------------------------------------------------------------------
-	/**
-	 * Método que actualiza las referencias de los reyes para almacenarlos.
-	 * @param blanco Rey de color blanco.
-	 * @param negro  Rey de color negro. 
-	 * @see reyBlanco
-	 * @see reyNegro
-	 */
-	private void colocarReyes(Rey blanco, Rey negro) {
-		
-		this.reyBlanco = blanco;
-		this.reyNegro  = negro ;
-		
-	}
-	
-//-------------------------------------------------------------------------------
-	
-	/**
-	 * Método que obtiene el rey a partir de un color. 
-	 * @param color Color a encontrar el rey.
-	 * @return la Pieza del Rey. 
-	 */
-	private Rey encontrarRey(Color color){
-		
-		return (Rey) obtenerPiezaReyEscaneo(color);
-		
-	}
 //-------------------------------------------------------------------------------
 	/**
 	 * Método de tipo getter que permite obtener las referencia de cada rey a partir de un color.
+	 * Se obtiene en tiempo constante a partir de la máscara de reyes del tablero.
 	 * @param color Color del rey que queremos.
-	 * @see reyBlanco
-	 * @see reyNegro
-	 * @return la Pieza del Rey.
+	 * @return la Pieza del Rey, o null si no hay rey de ese color.
 	 */
 	private Rey obtenerReyColor(Color color){
 		
-		if 	 (color == Color.BLANCO) {
-			return this.reyBlanco;
-		}
-		else {
-			return this.reyNegro;
-		}
-
+		Celda celda = tablero.obtenerCeldaRey(color);
+		if (celda == null)
+			return null;
+		else
+			return (Rey) celda.obtenerPieza();
 	}
 	
 //-------------------------------------------------------------------------------
@@ -296,35 +417,6 @@ public class Arbitro{
 		else
 			return false;
 	}
-//-------------------------------------------------------------------------------
-	/**
-	 * Método booleano que devuelve si una de las piezas pasadas es nula.
-	 * @param a Pieza a comprobar.
-	 * @param b Pieza a comprobar.
-	 * @return true si una de las celdas es nula, false si ninguna lo es. 
-	 */
-	private boolean algunaPiezaNula(Pieza a, Pieza b) {
-		if (a == null || b== null)
-			return true ;
-		else
-			return false;
-	}
-
-//-------------------------------------------------------------------------------
-	/**
-	 * Método que devuelve si en alguna de las celdas de la lista de celdas no está vacía.
-	 * @param celdas Lista  con las celdas.
-	 * @return True si una de las celdass no está vacía, False si todas están vacías. 
-	 */
-	private boolean hayPiezasEntreMedias(List<Celda> celdas) {
-		
-		for (int i=0; i< celdas.size(); i++)
-			if (celdas.get(i).estaVacia() == false)
-				return true;
-		
-		return false;
-	}
-	
 //-------------------------------------------------------------------------------
 	/**
 	 * Método que mueve la una pieza de Origen a Destino,comprueba si es primer movimiento e incrementa el número de turnos.
@@ -350,71 +442,340 @@ public class Arbitro{
 		}
 	
 //-------------------------------------------------------------------------------
+	/**
+	 * Método que realiza un movimiento reversible y cambia el turno.
+	 * 
+	 * Guarda en la pila de deshacer la pieza capturada, el estado de primer movimiento
+	 * y la casilla del rey, sin crear objetos nuevos. No comprueba la legalidad del
+	 * movimiento ni incrementa el contador de jugadas.
+	 * 
+	 * @param origen	Celda de origen del tablero.
+	 * @param destino	Celda de destino del tablero.
+	 * @see deshacerMovimiento
+	 */
+	public void hacerMovimiento (Celda origen, Celda destino) {
+		
+		assert origen != null 					: "Árbitro.hacerMovimiento: Origen Nulo";
+		assert origen.estaVacia() == false 		: "Árbitro.hacerMovimiento: Origen Vacío";
+		
+		Pieza pieza = origen.obtenerPieza();
+		Pieza capturada = destino.obtenerPieza();
+		
+		if (profundidadPila == pilaDeshacer.length) {						//Duplicamos la pila solo si se llena
+			pilaDeshacer = Arrays.copyOf(pilaDeshacer, pilaDeshacer.length * 2);
+			pilaCapturas = Arrays.copyOf(pilaCapturas, pilaCapturas.length * 2);
+		}
+		pilaDeshacer[profundidadPila] = empaquetarRegistro(origen, destino, pieza);
+		pilaCapturas[profundidadPila] = capturada;
+		profundidadPila++;
+		
+		if (pieza.esPrimerMovimiento())
+			pieza.marcarPrimerMovimiento();
+		
+		if (capturada != null)
+			capturada.establecerCelda(null);
+		destino.establecerPieza(pieza);
+		pieza.establecerCelda(destino);
+		origen.establecerPieza(null);
+		
+		turno = turno.obtenerContrario();
+	}
 	
-
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que deshace el último movimiento realizado con hacerMovimiento y restaura el turno.
+	 * @see hacerMovimiento
+	 */
+	public void deshacerMovimiento () {
+		
+		assert profundidadPila > 0 : "Árbitro.deshacerMovimiento: No hay movimientos que deshacer";
+		
+		profundidadPila--;
+		int registro = pilaDeshacer[profundidadPila];
+		Pieza capturada = pilaCapturas[profundidadPila];
+		pilaCapturas[profundidadPila] = null;								//No retenemos la pieza en la pila
+		
+		Celda origen  = tablero.obtenerCelda(registro & MASCARA_CASILLA);
+		Celda destino = tablero.obtenerCelda((registro >>> BITS_CASILLA) & MASCARA_CASILLA);
+		Pieza pieza = destino.obtenerPieza();
+		
+		destino.establecerPieza(capturada);
+		if (capturada != null)
+			capturada.establecerCelda(destino);
+		
+		if ((registro & BIT_PRIMER_MOVIMIENTO) != 0)
+			pieza.desmarcarPrimerMovimiento();
+		
+		origen.establecerPieza(pieza);
+		pieza.establecerCelda(origen);
+		
+		turno = turno.obtenerContrario();
+		
+		assert (obtenerCasillaRey(pieza.obtenerColor()) & MASCARA_CASILLA) == (registro >>> (2 * BITS_CASILLA + 1))
+				: "Árbitro.deshacerMovimiento: El rey no ha vuelto a su casilla";
+	}
 	
+//-------------------------------------------------------------------------------
 	/**
-	 * Está en Jaque.
-	 * Pasado un color, indica si el rey de ese color está en Jaque.
+	 * Método que genera todos los movimientos legales del jugador con el turno.
 	 * 
-	 * Durante la ejecución de este método se utiliza la bandera simulacroJaqueColor
-	 * @see simulacroJaqueColor
+	 * Los destinos de cada pieza se calculan con las reglas de su tipo sobre las máscaras
+	 * del tablero, y cada candidato se descarta si deja al propio rey en jaque. Para ello se
+	 * calculan una sola vez las piezas clavadas y las casillas que cubren el jaque, sin
+	 * simular cada movimiento.
+	 * Cada movimiento se codifica con Movimiento. El buffer se puede reutilizar entre llamadas.
 	 * 
-	 * @param color que vamos a comprobar.
-	 * @return True o false.
+	 * @param movimientos Buffer de al menos MAXIMO_MOVIMIENTOS posiciones.
+	 * @return número de movimientos legales escritos al principio del buffer.
+	 * @see MAXIMO_MOVIMIENTOS
+	 * @see obtenerCeldaOrigen
+	 * @see obtenerCeldaDestino
+	 * @see Movimiento
 	 */
+	public int generarMovimientosLegales (int [] movimientos) {
+		
+		Color color = obtenerTurno();
+		if (color == null)													//La partida no ha empezado
+			return 0;
+		
+		return GeneradorMovimientos.generarLegales(tablero.obtenerTableroBits(), color, movimientos, ~0L);
+	}
 	
-	public boolean estaEnJaque(Color color) {
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que genera todos los movimientos legales del jugador con el turno en una lista reutilizable.
+	 * @param lista Lista donde se escriben los movimientos, se vacía antes.
+	 * @return número de movimientos legales.
+	 * @see generarMovimientosLegales(int[])
+	 */
+	public int generarMovimientosLegales (ListaMovimientos lista) {
 		
-		marcarSimulacroJaqueColor(true);					//Activamos la bandera de JAQUE.
+		int total = generarMovimientosLegales(lista.obtenerBuffer(MAXIMO_MOVIMIENTOS));
+		lista.establecerNumeroMovimientos(total);
+		return total;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que comprueba si el jugador con el turno tiene algún movimiento legal.
+	 * 
+	 * No genera la lista: prueba las huidas del rey, después la captura de la pieza que da
+	 * jaque y las interposiciones, y para en el primer movimiento que encuentra.
+	 * 
+	 * @return true si puede mover, false si la partida no ha empezado o no tiene movimientos.
+	 * @see obtenerEstado
+	 */
+	public boolean tieneMovimientosLegales () {
 		
-		boolean esJaque = false;
-
-		try {
-			for (int i=0; i< tablero.obtenerNumeroFilas(); i++) {			//Escaneamos todo el tablero hasta obtener una pieza ENEMIGA
-				for (int j=0; j< tablero.obtenerNumeroColumnas(); j++) {	
-					Celda enemigo = tablero.obtenerCelda(i, j);
-					if (enemigo.obtenerColorDePieza() != color) {			//Si la celda cotiene a un enemigo, calculamos si puede llegar a la celda del rey
-						if (esMovimientoLegal(enemigo,obtenerReyColor(color).obtenerCelda())) {
-							esJaque = true;									//Si se puede llegar al REY, ES JAQUE.
-						}
-					}
-				}
-			}
-			marcarSimulacroJaqueColor(false);
-			return esJaque;
-		}catch(CoordenadasIncorrectasException e) {
-			encadenarExcepciones(e);
-		}
-		return esJaque;
+		Color color = obtenerTurno();
+		if (color == null)													//La partida no ha empezado
+			return false;
+		
+		return GeneradorMovimientos.tieneMovimientoLegal(tablero.obtenerTableroBits(), color);
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que devuelve el estado de la partida para el jugador con el turno.
+	 * Es lo bastante barato como para consultarlo tras cada movimiento.
+	 * 
+	 * @return NORMAL, JAQUE, JAQUE_MATE o AHOGADO; NORMAL si la partida no ha empezado.
+	 * @see EstadoPartida
+	 */
+	public EstadoPartida obtenerEstado () {
+		
+		Color color = obtenerTurno();
+		if (color == null)
+			return EstadoPartida.NORMAL;
+		
+		boolean jaque = estaEnJaque(color);
+		if (GeneradorMovimientos.tieneMovimientoLegal(tablero.obtenerTableroBits(), color))
+			return jaque ? EstadoPartida.JAQUE : EstadoPartida.NORMAL;
+		return jaque ? EstadoPartida.JAQUE_MATE : EstadoPartida.AHOGADO;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que genera solo las capturas legales del jugador con el turno en una lista reutilizable.
+	 * Los destinos se limitan a las casillas de las piezas contrarias antes de comprobar los jaques.
+	 * @param lista Lista donde se escriben las capturas, se vacía antes.
+	 * @return número de capturas legales.
+	 * @see generarMovimientosLegales(ListaMovimientos)
+	 */
+	public int generarCapturasLegales (ListaMovimientos lista) {
+		
+		Color color = obtenerTurno();
+		int total = 0;
+		if (color != null) {
+			TableroBits bits = tablero.obtenerTableroBits();
+			total = GeneradorMovimientos.generarLegales(bits, color, lista.obtenerBuffer(MAXIMO_MOVIMIENTOS),
+					bits.obtenerOcupadas(color.obtenerContrario()));
 		}
-
-//-------------------------------------------------------------------------------		
+		lista.establecerNumeroMovimientos(total);
+		return total;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que evalúa estáticamente un movimiento y el intercambio de capturas que le sigue
+	 * en su casilla de destino, sin hacer ningún movimiento.
+	 * Cada bando recaptura con su pieza de menor valor mientras le convenga; no se tienen en cuenta las clavadas.
+	 * @param movimiento Movimiento codificado de una pieza del tablero.
+	 * @return ganancia de material del bando que mueve, en centésimas de peón; negativa si pierde material.
+	 * @see Pieza
+	 */
+	public int evaluarIntercambio (int movimiento) {
+		return IntercambioEstatico.evaluar(tablero.obtenerTableroBits(), Movimiento.origen(movimiento), Movimiento.destino(movimiento));
+	}
+	
+//-------------------------------------------------------------------------------
 	/**
-	 * Método que obtiene la referencia de la pieza del rey a partir de las celdas del tablero.
-	 * @param colorReyBuscar Color del rey a buscar.
-	 * @return referencia de tipo pieza con el Rey.
+	 * Método que calcula cuánto material perdería la pieza de una celda si el contrario empezara
+	 * a capturar en ella. Sirve para avisar de piezas colgadas sin buscar.
+	 * @param celda Celda con la pieza amenazada.
+	 * @return material que gana el contrario, 0 si la celda está vacía o la pieza está bien defendida.
+	 * @see evaluarIntercambio(int)
 	 */
-	private Pieza obtenerPiezaReyEscaneo(Color colorReyBuscar) {
+	public int evaluarAmenaza (Celda celda) {
 		
+		Pieza pieza = celda.obtenerPieza();
+		if (pieza == null)
+			return 0;
+		return IntercambioEstatico.evaluarAmenaza(tablero.obtenerTableroBits(), obtenerCasilla(celda), pieza.obtenerColor().obtenerContrario());
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que codifica el movimiento entre dos celdas, con sus banderas según la posición actual.
+	 * @param origen Celda de origen con la pieza que se mueve.
+	 * @param destino Celda de destino.
+	 * @return movimiento codificado.
+	 * @see Movimiento
+	 */
+	public int codificarMovimiento (Celda origen, Celda destino) {
+		
+		int banderas = 0;
+		if (!destino.estaVacia())
+			banderas |= Movimiento.CAPTURA;
+		if (origen.obtenerPieza() instanceof Peon && Math.abs(origen.obtenerFila() - destino.obtenerFila()) == 2)
+			banderas |= Movimiento.DOBLE_AVANCE;
+		return Movimiento.codificar(obtenerCasilla(origen), obtenerCasilla(destino), banderas);
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que comprueba si un movimiento codificado es correcto, igual que con las celdas.
+	 * @param movimiento Movimiento codificado.
+	 * @return true si es legal, false si no lo es.
+	 * @see esMovimientoLegal(Celda, Celda)
+	 */
+	public boolean esMovimientoLegal (int movimiento) {
+		
+		boolean legal = false;
 		try {
-			for (int i=0; i< tablero.obtenerNumeroFilas(); i++) {			//Escaneamos todo el tablero en busca de un REY de color
-				for (int j=0; j< tablero.obtenerNumeroColumnas(); j++) {
-					if (tablero.obtenerCelda(i,j).estaVacia() == false)
-						if (tablero.obtenerCelda(i, j).obtenerPieza().toChar() == 'R')		//Si la pieza de esa celda es un rey
-							if (tablero.obtenerCelda(i, j).obtenerPieza().obtenerColor() == colorReyBuscar)		//y coincide con el color pasado
-								return tablero.obtenerCelda(i, j).obtenerPieza();		
-				}//Fin j
-			}//Fin i
+			legal = esMovimientoLegal(obtenerCeldaOrigen(movimiento), obtenerCeldaDestino(movimiento));
 		}
 		catch (CoordenadasIncorrectasException e) {
 			encadenarExcepciones(e);
 		}
-		return null;
+		return legal;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que realiza un movimiento codificado de forma reversible y cambia el turno.
+	 * @param movimiento Movimiento codificado.
+	 * @see hacerMovimiento(Celda, Celda)
+	 */
+	public void hacerMovimiento (int movimiento) {
+		hacerMovimiento(obtenerCeldaOrigen(movimiento), obtenerCeldaDestino(movimiento));
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que devuelve la celda de origen de un movimiento generado.
+	 * @param movimiento Movimiento codificado.
+	 * @return Celda de origen.
+	 */
+	public Celda obtenerCeldaOrigen (int movimiento) {
+		return tablero.obtenerCelda(Movimiento.origen(movimiento));
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que devuelve la celda de destino de un movimiento generado.
+	 * @param movimiento Movimiento codificado.
+	 * @return Celda de destino.
+	 */
+	public Celda obtenerCeldaDestino (int movimiento) {
+		return tablero.obtenerCelda(Movimiento.destino(movimiento));
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que empaqueta en un entero el registro de deshacer de un movimiento.
+	 * @param origen Celda de origen.
+	 * @param destino Celda de destino.
+	 * @param pieza Pieza que se mueve.
+	 * @return Registro con origen, destino, primer movimiento y casilla del rey.
+	 */
+	private int empaquetarRegistro (Celda origen, Celda destino, Pieza pieza) {
 		
+		int registro = obtenerCasilla(origen) | (obtenerCasilla(destino) << BITS_CASILLA);
+		if (pieza.esPrimerMovimiento())
+			registro |= BIT_PRIMER_MOVIMIENTO;
+		registro |= (obtenerCasillaRey(pieza.obtenerColor()) & MASCARA_CASILLA) << (2 * BITS_CASILLA + 1);
+		return registro;
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que obtiene la casilla del rey de un color.
+	 * @param color Color del rey.
+	 * @return índice entre 0 y 63, o -1 si no hay rey.
+	 */
+	private int obtenerCasillaRey (Color color) {
+		return tablero.obtenerTableroBits().obtenerCasillaRey(color);
 	}
 	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que obtiene el índice de casilla de una celda.
+	 * @param celda Celda del tablero.
+	 * @return índice entre 0 y 63.
+	 */
+	private int obtenerCasilla (Celda celda) {
+		return TableroBits.casilla(celda.obtenerFila(), celda.obtenerColumna());
+	}
+	
+//-------------------------------------------------------------------------------
 	
+
+	
+	/**
+	 * Está en Jaque.
+	 * Pasado un color, indica si el rey de ese color está en Jaque.
+	 * 
+	 * Se parte de la casilla del rey y se buscan atacantes recorriendo los ocho sentidos
+	 * hasta la primera pieza, y los saltos de caballo y peón, sin recorrer el tablero.
+	 * 
+	 * @param color que vamos a comprobar.
+	 * @return True o false.
+	 * @see TableroBits#estaAtacada(int, Color)
+	 */
+	
+	public boolean estaEnJaque(Color color) {
+		
+		TableroBits bits = tablero.obtenerTableroBits();
+		int casillaRey = bits.obtenerCasillaRey(color);
+		
+		if (casillaRey < 0)									//Sin rey no puede haber jaque
+			return false;
+		
+		return bits.estaAtacada(casillaRey, color.obtenerContrario());
+	}
+
+//-------------------------------------------------------------------------------		
 //-------------------------------------------------------------------------------	
 	
 	/**
@@ -435,13 +796,9 @@ public class Arbitro{
 		marcarSimulacroJaque(true);
 		
 		if (this.esMovimientoLegal(origen, destino)) {				//Comprobamos que la simulación sea posible
-			String tableroOriginal = tablero.toString();
-			
-			esJaque = simularMovimientoJaque(origen,destino);
-			
-			String tableroTrasSimulacro = tablero.toString();
+			esJaque = !esMovimientoSeguro(origen, destino);
 			
-			assert compararTableros(tableroOriginal, tableroTrasSimulacro) == true : "Los tableros no son iguales.";
+			assert esJaque == simularMovimientoJaque(origen,destino) : "Las clavadas no coinciden con la simulación.";
 		}
 		else
 			esJaque = false;
@@ -454,96 +811,47 @@ public class Arbitro{
 	}
 //------------------------------------------------------------------------------
 	/**
-	 * Método que simula un movimiento por Jaque.
+	 * Método que comprueba sin realizar el movimiento si el rey de la pieza movida queda a salvo,
+	 * a partir de las piezas clavadas y de las casillas que cubren el jaque.
 	 * @param origen Celda de origen.
-	 * @param destino Celda de destino
-	 * @return true o false
-	 * @throws CoordenadasIncorrectasException Lanza una excepción si una de las celdas no pertenecen al tablero.
+	 * @param destino Celda de destino.
+	 * @return true si el rey no queda en jaque, false si queda.
 	 */
-	private boolean simularMovimientoJaque (Celda origen, Celda destino) throws CoordenadasIncorrectasException {
+	private boolean esMovimientoSeguro (Celda origen, Celda destino) {
 
+		Color color = origen.obtenerColorDePieza();
+		TableroBits bits = tablero.obtenerTableroBits();
+		int casillaRey = bits.obtenerCasillaRey(color);
 		
-		////Creación de pieza de origien
-		Pieza nuevaPiezaOrigen = generarPieza(origen.obtenerPieza().toChar(), origen.obtenerColorDePieza());
-		copiarMovimientoPieza(origen.obtenerPieza(), nuevaPiezaOrigen);
-		
-		//Creación de pieza de destino
-		Pieza nuevaPiezaDestino = null;	//Inicialización de la pieza
-		if(!destino.estaVacia()) {
-			nuevaPiezaDestino = generarPieza(destino.obtenerPieza().toChar(), destino.obtenerColorDePieza());
-			copiarMovimientoPieza(destino.obtenerPieza(), nuevaPiezaDestino);
-		}
-			
-		//Movimiento de la pieza a simular (Origen a destino)
-		tablero.colocar(origen.obtenerPieza(), destino);
-		origen.establecerPieza(null);
-		
-		// Comprobamos si estamos en jaque
-		boolean esJaque = estaEnJaque(destino.obtenerColorDePieza());
-		
-		// Reestablecemos las piezas movidas.
-		destino.eliminarPieza();
-
-		if(nuevaPiezaDestino != null)
-			tablero.colocar(nuevaPiezaDestino, destino);
-		
-		tablero.colocar(nuevaPiezaOrigen, origen);
+		if (casillaRey < 0)											//Sin rey no puede haber jaque
+			return true;
 		
-		actualizarReferenciasReyes(nuevaPiezaOrigen );
-		actualizarReferenciasReyes(nuevaPiezaDestino);
-
-		return esJaque;
+		long atacantes = bits.obtenerAtacantes(casillaRey, color.obtenerContrario(), bits.obtenerOcupadas());
+		return GeneradorMovimientos.esSeguro(bits, color, casillaRey, GeneradorMovimientos.obtenerClavadas(bits, color, casillaRey),
+				GeneradorMovimientos.obtenerMascaraJaque(casillaRey, atacantes), obtenerCasilla(origen), obtenerCasilla(destino));
 	}
-//--------------------------------------------------------------------
+//------------------------------------------------------------------------------
 	/**
-	 * Método que actualiza las referencias de global si la pieza pasada es un Rey.
-	 * 
-	 * @param pieza Pieza a guardar.
+	 * Método que simula un movimiento por Jaque.
+	 * Se usa en las aserciones para contrastar la comprobación por clavadas.
+	 * @param origen Celda de origen.
+	 * @param destino Celda de destino
+	 * @return true o false
+	 * @see hacerMovimiento
+	 * @see deshacerMovimiento
 	 */
-	private void actualizarReferenciasReyes(Pieza pieza) {
-		
-		if (pieza != null) {
-			
-			if (pieza.toChar() == 'R') {
-				if (pieza.obtenerColor() == Color.BLANCO)
-					this.reyBlanco = (Rey) pieza;
-				else
-					this.reyNegro  = (Rey) pieza;
-			}//------------
-		}
-	}
+	private boolean simularMovimientoJaque (Celda origen, Celda destino) {
 
-//-------------------------------------------------------------------------------
-	/**
-	 * Método privado que permite averiguar si la pieza origina había sido movida,
-	 * y si es así, marcar dicho movimiento a la copia. 
-	 * @param original Pieza original en la que se obtendrá el movimiento.
-	 * @param copia    Pieza copiada en la que se grabará el movimiento.
-	 */
-	private void copiarMovimientoPieza (Pieza original, Pieza copia){
-		if (!algunaPiezaNula(original,copia)) {
-			if(original.esPrimerMovimiento() == false)
-				copia.marcarPrimerMovimiento();
-		}	
-	}
-//-------------------------------------------------------------------------------
-	
-	/**
-	 * Método que compara dos strings.
-	 * @param a Tablero 1.
-	 * @param b Tablero 2.
-	 * @return true si son iguales.
-	 */
-	private boolean compararTableros (String a, String b) {
+		Color color = origen.obtenerColorDePieza();
 		
-		if (a.equals(b))
-			return true;
-		else
-			return false;
+		hacerMovimiento(origen, destino);							//Movimiento reversible de la pieza a simular
+		boolean esJaque = estaEnJaque(color);						//Comprobamos si estamos en jaque
+		deshacerMovimiento();										//Reestablecemos las piezas movidas
 		
+		return esJaque;
 	}
-	
 //-------------------------------------------------------------------------------
+	
 	/**
 	 * Método que alterna la varaible simulacroJaque.
 	 * @param simulacro Estado actual del simulacro.
@@ -564,53 +872,6 @@ public class Arbitro{
 		return this.simulacroJaque;
 	}
 //-------------------------------------------------------------------------------
-	/**
-	 * Método que alterna la varaible simulacroJaqueColor.
-	 * @param simulacro Estado actual del simulacro.
-	 * @see simulacroJaqueColor
-	 */
-	private void marcarSimulacroJaqueColor (boolean simulacro) {
-		
-		simulacroJaqueColor = simulacro;
-	}
-//-------------------------------------------------------------------------------	
-	/**
-	 * Método que obtiene el valor de la vatriable simulacroJaqueColor.
-	 * @return true o false.
-	 * @see simulacroJaqueColor
-	 */
-	private boolean esSimulacroJaqueColor() {
-		
-		return this.simulacroJaqueColor;
-	}
-//-------------------------------------------------------------------------------
-	/**
-	 * Método que genera una pieza a partir del char correspondiente y un color.
-	 * @param c Char de la pieza.
-	 * @param color Color a generar la pieza.
-	 * @return Pieza. 
-	 */
-	private Pieza generarPieza (char c, Color color) {
-		
-		switch (c) {
-		case 'T':
-			return new Torre 	(color);
-		case 'A':
-			return new Alfil 	(color);
-		case 'R':
-			return new Rey 	 	(color);
-		case 'C':
-			return new Caballo 	(color);
-		case 'P':
-			return new Peon 	(color);
-		case 'D':
-			return new Dama 	(color);
-		}
-		return null;
-	}
-	
-//-------------------------------------------------------------------------------	
-	
 	/**
 	 * Método que genera la jugada en notación algebraica.
 	 * 
@@ -623,13 +884,21 @@ public class Arbitro{
 		
 		if (origen == null || destino == null)								//Si una de las celdas no está iniciada, devolvemos null
 			return null;
-				
-		String jugada = "";													//String con el que vamos a trabajar
 		
-		jugada += tablero.obtenerCoordenadaEnNotacionAlgebraica(origen);
-		jugada += tablero.obtenerCoordenadaEnNotacionAlgebraica(destino);
+		tablero.obtenerCelda(origen.obtenerFila(), origen.obtenerColumna());	//Comprobamos que ambas celdas estén en el tablero
+		tablero.obtenerCelda(destino.obtenerFila(), destino.obtenerColumna());
 		
-		return jugada;
+		return Movimiento.aTexto(Movimiento.codificar(obtenerCasilla(origen), obtenerCasilla(destino)));
+	}
+	
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que genera la jugada en notación algebraica de un movimiento codificado.
+	 * @param movimiento Movimiento codificado.
+	 * @return jugada en notación algebraica.
+	 */
+	public String obtenerJugadaEnNotacionAlgebraica(int movimiento) {
+		return Movimiento.aTexto(movimiento);
 	}
 	
 //-------------------------------------------------------------------------------
@@ -643,6 +912,31 @@ public class Arbitro{
 		return this.n_jugadas;
 	}
 	
+//-------------------------------------------------------------------------------
+	
+	/**
+	 * Método que devuelve la clave Zobrist de la posición actual, incluyendo el turno.
+	 * 
+	 * La parte del tablero se actualiza de forma incremental al colocar, eliminar y mover piezas,
+	 * por lo que sirve como identificador barato de la posición.
+	 * 
+	 * @return clave de 64 bits.
+	 * @see Tablero#obtenerClave()
+	 */
+	public long obtenerClave() {
+		return tablero.obtenerClave() ^ Zobrist.claveTurno(obtenerTurno());
+	}
+	
+//-------------------------------------------------------------------------------
+	
+	/**
+	 * Método que devuelve el tablero sobre el que arbitra.
+	 * @return Tablero de la partida.
+	 */
+	public Tablero obtenerTablero() {
+		return this.tablero;
+	}
+	
 //-------------------------------------------------------------------------------
 	
 	/**
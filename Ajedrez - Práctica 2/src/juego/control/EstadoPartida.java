@@ -0,0 +1,36 @@
+package juego.control;
+
+/**
+ * Tipo enumerado con el estado de la partida para el color que tiene el turno.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Arbitro#obtenerEstado()
+ */
+public enum EstadoPartida {
+	/**
+	 * Sin jaque y con algún movimiento legal.
+	 */
+	NORMAL,
+	/**
+	 * En jaque pero con algún movimiento que lo evita.
+	 */
+	JAQUE,
+	/**
+	 * En jaque y sin movimientos legales: la partida termina y gana el contrario.
+	 */
+	JAQUE_MATE,
+	/**
+	 * Sin jaque y sin movimientos legales: la partida termina en tablas.
+	 */
+	AHOGADO;
+
+	/**
+	 * Método que indica si el estado termina la partida.
+	 * @return true si es jaque mate o rey ahogado.
+	 */
+	public boolean esFinal() {
+		return this == JAQUE_MATE || this == AHOGADO;
+	}
+}
@@ -0,0 +1,314 @@
+package juego.control;
+
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+import juego.util.TablasPrecalculadas;
+
+/**
+ * Generador de movimientos por tipo de pieza sobre la representación en bits del tablero.
+ *
+ * Aplica las mismas reglas que Torre, Alfil, Dama, Caballo, Rey y Peon, pero calcula
+ * todos los destinos de cada pieza con máscaras en lugar de probar cada par de celdas.
+ * Los movimientos se codifican con Movimiento, marcando las capturas y los dobles avances.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Movimiento
+ */
+final class GeneradorMovimientos {
+
+	/**
+	 * Avance en casillas de un peón por fila.
+	 */
+	private static final int AVANCE_PEON = 8;
+
+	/**
+	 * Constructor privado, clase de utilidad.
+	 */
+	private GeneradorMovimientos() {
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que calcula los destinos de una pieza sin tener en cuenta los jaques.
+	 * @param bits Representación en bits del tablero.
+	 * @param casilla índice de la casilla de la pieza.
+	 * @param tipo Índice del tipo de pieza.
+	 * @param color Color de la pieza.
+	 * @return máscara de destinos.
+	 */
+	static long destinos(TableroBits bits, int casilla, int tipo, Color color) {
+
+		long propias = bits.obtenerOcupadas(color);
+		long ocupadas = bits.obtenerOcupadas();
+
+		switch (tipo) {
+		case TableroBits.CABALLO:
+			return TablasPrecalculadas.ataquesCaballo(casilla) & ~propias;
+		case TableroBits.ALFIL:
+			return TableroBits.ataquesDiagonales(casilla, ocupadas) & ~propias;
+		case TableroBits.TORRE:
+			return TableroBits.ataquesRectos(casilla, ocupadas) & ~propias;
+		case TableroBits.DAMA:
+			return (TableroBits.ataquesRectos(casilla, ocupadas) | TableroBits.ataquesDiagonales(casilla, ocupadas)) & ~propias;
+		case TableroBits.REY:
+			return TablasPrecalculadas.ataquesRey(casilla) & ~propias;
+		case TableroBits.PEON:
+			return destinosPeon(bits, casilla, color);
+		}
+		return 0L;
+	}
+
+	/**
+	 * Método que calcula los destinos de un peón: avance de una casilla, de dos en su primer
+	 * movimiento si ambas están vacías, y captura en diagonal hacia delante.
+	 * @param bits Representación en bits del tablero.
+	 * @param casilla índice de la casilla del peón.
+	 * @param color Color del peón.
+	 * @return máscara de destinos.
+	 */
+	private static long destinosPeon(TableroBits bits, int casilla, Color color) {
+
+		boolean haciaNorte = TableroBits.avanzaHaciaNorte(color);
+		int avance = haciaNorte ? -AVANCE_PEON : AVANCE_PEON;
+		long vacias = ~bits.obtenerOcupadas();
+		long destinos = TablasPrecalculadas.ataquesPeon(haciaNorte, casilla) & bits.obtenerOcupadas(color.obtenerContrario());
+
+		int uno = casilla + avance;
+		if (uno >= 0 && uno < TableroBits.NUMERO_CASILLAS && (vacias & (1L << uno)) != 0) {
+			destinos |= 1L << uno;
+			int dos = uno + avance;
+			if ((bits.obtenerPeonesSinMover() & (1L << casilla)) != 0
+					&& dos >= 0 && dos < TableroBits.NUMERO_CASILLAS && (vacias & (1L << dos)) != 0)
+				destinos |= 1L << dos;
+		}
+		return destinos;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que calcula las piezas propias clavadas: las que son la única pieza entre
+	 * su rey y una torre, alfil o dama contraria alineada con él.
+	 * @param bits Representación en bits del tablero.
+	 * @param color Color del rey.
+	 * @param casillaRey índice de la casilla del rey.
+	 * @return máscara de piezas clavadas.
+	 */
+	static long obtenerClavadas(TableroBits bits, Color color, int casillaRey) {
+
+		Color contrario = color.obtenerContrario();
+		long ocupadas = bits.obtenerOcupadas();
+		long damas = bits.obtenerMascara(contrario, TableroBits.DAMA);
+
+		//Piezas deslizantes contrarias que verían al rey en un tablero vacío
+		long deslizantes = (TableroBits.ataquesRectos(casillaRey, 0L) & (bits.obtenerMascara(contrario, TableroBits.TORRE) | damas))
+				| (TableroBits.ataquesDiagonales(casillaRey, 0L) & (bits.obtenerMascara(contrario, TableroBits.ALFIL) | damas));
+
+		long clavadas = 0L;
+		while (deslizantes != 0) {
+			int casilla = Long.numberOfTrailingZeros(deslizantes);
+			deslizantes &= deslizantes - 1;
+			long entreMedias = TablasPrecalculadas.entreMedias(casillaRey, casilla) & ocupadas;
+			if (Long.bitCount(entreMedias) == 1)							//Una única pieza entre medias
+				clavadas |= entreMedias & bits.obtenerOcupadas(color);
+		}
+		return clavadas;
+	}
+
+	/**
+	 * Método que calcula la máscara de jaque: casillas a las que debe ir una pieza que no es
+	 * el rey para cubrir o capturar a la pieza que da jaque.
+	 * @param casillaRey índice de la casilla del rey.
+	 * @param atacantes máscara de piezas que dan jaque al rey.
+	 * @return todas las casillas si no hay jaque, la pieza y las casillas entre medias con un
+	 * único jaque, y ninguna con jaque doble.
+	 */
+	static long obtenerMascaraJaque(int casillaRey, long atacantes) {
+
+		if (atacantes == 0)
+			return ~0L;
+		if ((atacantes & (atacantes - 1)) != 0)								//Jaque doble: solo puede mover el rey
+			return 0L;
+		return atacantes | TablasPrecalculadas.entreMedias(casillaRey, Long.numberOfTrailingZeros(atacantes));
+	}
+
+	/**
+	 * Método que comprueba si un movimiento pseudolegal deja al propio rey a salvo, sin realizarlo.
+	 *
+	 * Una pieza que no es el rey debe terminar en la máscara de jaque y, si está clavada, sobre
+	 * la línea que la une con su rey. El rey debe ir a una casilla no atacada, quitándolo de la
+	 * ocupación para que no tape los rayos que lo atacan.
+	 * @param bits Representación en bits del tablero.
+	 * @param color Color de la pieza que mueve.
+	 * @param casillaRey índice de la casilla del rey.
+	 * @param clavadas máscara de piezas clavadas.
+	 * @param mascaraJaque máscara de jaque.
+	 * @param origen índice de la casilla de origen.
+	 * @param destino índice de la casilla de destino.
+	 * @return true si el rey no queda en jaque, false si queda.
+	 * @see obtenerClavadas
+	 * @see obtenerMascaraJaque
+	 */
+	static boolean esSeguro(TableroBits bits, Color color, int casillaRey, long clavadas, long mascaraJaque,
+			int origen, int destino) {
+
+		if (origen == casillaRey)
+			return bits.obtenerAtacantes(destino, color.obtenerContrario(), bits.obtenerOcupadas() & ~(1L << origen)) == 0;
+
+		if ((mascaraJaque & (1L << destino)) == 0)
+			return false;
+		return (clavadas & (1L << origen)) == 0 || (obtenerLinea(casillaRey, origen) & (1L << destino)) != 0;
+	}
+
+	/**
+	 * Método que devuelve la línea desde el rey que pasa por una pieza clavada, hasta el borde.
+	 * @param casillaRey índice de la casilla del rey.
+	 * @param casilla índice de la casilla alineada con el rey.
+	 * @return máscara de la línea.
+	 */
+	private static long obtenerLinea(int casillaRey, int casilla) {
+		return TablasPrecalculadas.rayo(TablasPrecalculadas.indiceHorario(TablasPrecalculadas.sentidoEntre(casillaRey, casilla)), casillaRey);
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que genera todos los movimientos legales de un color.
+	 *
+	 * Las piezas clavadas y la máscara de jaque se calculan una vez por posición, de modo que
+	 * solo los movimientos del rey necesitan consultar los atacantes de su destino.
+	 * @param bits Representación en bits del tablero.
+	 * @param color Color que mueve.
+	 * @param movimientos Buffer donde se escriben los movimientos codificados.
+	 * @param objetivos máscara de los destinos permitidos, ~0L para todos.
+	 * @return número de movimientos generados.
+	 */
+	static int generarLegales(TableroBits bits, Color color, int [] movimientos, long objetivos) {
+
+		int total = generarPseudoLegales(bits, color, movimientos, objetivos);
+		int casillaRey = bits.obtenerCasillaRey(color);
+		if (casillaRey < 0)													//Sin rey no puede haber jaque
+			return total;
+
+		long clavadas = obtenerClavadas(bits, color, casillaRey);
+		long mascaraJaque = obtenerMascaraJaque(casillaRey,
+				bits.obtenerAtacantes(casillaRey, color.obtenerContrario(), bits.obtenerOcupadas()));
+
+		int legales = 0;
+		for (int i = 0; i < total; i++) {
+			int movimiento = movimientos[i];
+			if (esSeguro(bits, color, casillaRey, clavadas, mascaraJaque, Movimiento.origen(movimiento), Movimiento.destino(movimiento)))
+				movimientos[legales++] = movimiento;						//Compactamos los legales al principio
+		}
+		return legales;
+	}
+
+	/**
+	 * Método que comprueba si un color tiene algún movimiento legal, parando en el primero.
+	 *
+	 * Se prueban primero las huidas del rey. Con jaque doble no hay nada más que probar; con un
+	 * jaque simple solo valen la captura de la pieza que lo da y después las interposiciones en
+	 * la línea entre ella y el rey, y sin jaque cualquier movimiento de otra pieza. No escribe
+	 * ningún movimiento, por lo que no necesita buffer.
+	 * @param bits Representación en bits del tablero.
+	 * @param color Color que mueve.
+	 * @return true si tiene algún movimiento legal.
+	 */
+	static boolean tieneMovimientoLegal(TableroBits bits, Color color) {
+
+		int casillaRey = bits.obtenerCasillaRey(color);
+		Color contrario = color.obtenerContrario();
+		long ocupadas = bits.obtenerOcupadas();
+		if (casillaRey < 0)													//Sin rey no puede haber jaque
+			return hayDestinos(bits, color, bits.obtenerOcupadas(color), ~0L, casillaRey, 0L, ~0L);
+
+		long huidas = destinos(bits, casillaRey, TableroBits.REY, color);
+		long sinRey = ocupadas & ~(1L << casillaRey);
+		while (huidas != 0) {
+			int destino = Long.numberOfTrailingZeros(huidas);
+			huidas &= huidas - 1;
+			if (bits.obtenerAtacantes(destino, contrario, sinRey) == 0)
+				return true;
+		}
+
+		long atacantes = bits.obtenerAtacantes(casillaRey, contrario, ocupadas);
+		if ((atacantes & (atacantes - 1)) != 0)								//Jaque doble: solo podía mover el rey
+			return false;
+		long clavadas = obtenerClavadas(bits, color, casillaRey);
+		long piezas = bits.obtenerOcupadas(color) & ~(1L << casillaRey);
+		if (atacantes == 0)
+			return hayDestinos(bits, color, piezas, ~0L, casillaRey, clavadas, ~0L);
+
+		int casillaAtacante = Long.numberOfTrailingZeros(atacantes);
+		long captoras = bits.obtenerAtacantes(casillaAtacante, color, ocupadas) & piezas;
+		while (captoras != 0) {												//Captura de la pieza que da jaque
+			int origen = Long.numberOfTrailingZeros(captoras);
+			captoras &= captoras - 1;
+			if (esSeguro(bits, color, casillaRey, clavadas, atacantes, origen, casillaAtacante))
+				return true;
+		}
+		long entreMedias = TablasPrecalculadas.entreMedias(casillaRey, casillaAtacante);
+		return entreMedias != 0 && hayDestinos(bits, color, piezas, entreMedias, casillaRey, clavadas, entreMedias);
+	}
+
+	/**
+	 * Método que comprueba si alguna de unas piezas tiene un destino permitido que deja al rey a salvo.
+	 * @param bits Representación en bits del tablero.
+	 * @param color Color de las piezas.
+	 * @param piezas máscara de las piezas que se prueban.
+	 * @param objetivos máscara de los destinos permitidos.
+	 * @param casillaRey índice de la casilla del rey, o -1 si no hay.
+	 * @param clavadas máscara de piezas clavadas.
+	 * @param mascaraJaque máscara de jaque.
+	 * @return true si encuentra algún movimiento.
+	 */
+	private static boolean hayDestinos(TableroBits bits, Color color, long piezas, long objetivos, int casillaRey,
+			long clavadas, long mascaraJaque) {
+
+		while (piezas != 0) {
+			int origen = Long.numberOfTrailingZeros(piezas);
+			piezas &= piezas - 1;
+			long destinos = destinos(bits, origen, bits.obtenerTipo(origen), color) & objetivos;
+			if (casillaRey < 0 && destinos != 0)
+				return true;
+			while (destinos != 0) {
+				int destino = Long.numberOfTrailingZeros(destinos);
+				destinos &= destinos - 1;
+				if (esSeguro(bits, color, casillaRey, clavadas, mascaraJaque, origen, destino))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Método que genera todos los movimientos de un color sin tener en cuenta los jaques.
+	 * @param bits Representación en bits del tablero.
+	 * @param color Color que mueve.
+	 * @param movimientos Buffer donde se escriben los movimientos codificados.
+	 * @param objetivos máscara de los destinos permitidos, ~0L para todos.
+	 * @return número de movimientos generados.
+	 */
+	static int generarPseudoLegales(TableroBits bits, Color color, int [] movimientos, long objetivos) {
+
+		long contrarias = bits.obtenerOcupadas(color.obtenerContrario());
+		int total = 0;
+		for (int tipo = 0; tipo < TableroBits.NUMERO_TIPOS; tipo++) {
+			long piezas = bits.obtenerMascara(color, tipo);
+			while (piezas != 0) {
+				int origen = Long.numberOfTrailingZeros(piezas);
+				piezas &= piezas - 1;
+				long destinos = destinos(bits, origen, tipo, color) & objetivos;
+				while (destinos != 0) {
+					int destino = Long.numberOfTrailingZeros(destinos);
+					destinos &= destinos - 1;
+					int banderas = (contrarias & (1L << destino)) != 0 ? Movimiento.CAPTURA : 0;
+					if (tipo == TableroBits.PEON && Math.abs(destino - origen) == 2 * AVANCE_PEON)
+						banderas |= Movimiento.DOBLE_AVANCE;
+					movimientos[total++] = Movimiento.codificar(origen, destino, banderas);
+				}
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,135 @@
+package juego.control;
+
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+import juego.modelo.pieza.Alfil;
+import juego.modelo.pieza.Caballo;
+import juego.modelo.pieza.Dama;
+import juego.modelo.pieza.Peon;
+import juego.modelo.pieza.Rey;
+import juego.modelo.pieza.Torre;
+
+/**
+ * Evaluación estática de intercambios (SEE) sobre una casilla.
+ *
+ * Resuelve la secuencia de capturas en una casilla sin hacer movimientos: cada bando captura
+ * por turno con su pieza atacante de menor valor y puede dejar de capturar cuando no le
+ * conviene. Las piezas que capturan se quitan de la ocupación, de modo que aparecen los
+ * atacantes en rayos X detrás de ellas. No tiene en cuenta las clavadas.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Arbitro#evaluarIntercambio(int)
+ */
+final class IntercambioEstatico {
+
+	/**
+	 * Valor de cada tipo de pieza, indexado como en TableroBits.
+	 */
+	private static final int [] VALORES = {Peon.VALOR, Caballo.VALOR, Alfil.VALOR, Torre.VALOR, Dama.VALOR, Rey.VALOR};
+
+	/**
+	 * Número máximo de capturas en una casilla: todas las piezas del tablero.
+	 */
+	private static final int MAXIMO_CAPTURAS = 32;
+
+	/**
+	 * Constructor privado, clase de utilidad.
+	 */
+	private IntercambioEstatico() {
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que evalúa un movimiento y las capturas que le siguen en su casilla de destino.
+	 * @param bits Representación en bits del tablero.
+	 * @param origen índice de la casilla de la pieza que mueve.
+	 * @param destino índice de la casilla de destino.
+	 * @return ganancia de material del bando que mueve, en centésimas de peón.
+	 */
+	static int evaluar(TableroBits bits, int origen, int destino) {
+
+		Color color = bits.obtenerPieza(origen).obtenerColor();
+		int capturada = bits.obtenerTipo(destino);
+		return intercambiar(bits, destino, color, origen, bits.obtenerTipo(origen),
+				capturada < 0 ? 0 : VALORES[capturada], bits.obtenerOcupadas());
+	}
+
+	/**
+	 * Método que calcula cuánto material puede ganar un color capturando en una casilla.
+	 * @param bits Representación en bits del tablero.
+	 * @param casilla índice de la casilla, ocupada por una pieza del otro color.
+	 * @param atacante Color que captura.
+	 * @return ganancia de material, 0 si no le conviene capturar o no puede.
+	 */
+	static int evaluarAmenaza(TableroBits bits, int casilla, Color atacante) {
+
+		int capturada = bits.obtenerTipo(casilla);
+		if (capturada < 0)
+			return 0;
+		long ocupadas = bits.obtenerOcupadas();
+		long atacantes = bits.obtenerAtacantes(casilla, atacante, ocupadas);
+		if (atacantes == 0)
+			return 0;
+		int tipo = menorAtacante(bits, atacantes, atacante);
+		int origen = Long.numberOfTrailingZeros(atacantes & bits.obtenerMascara(atacante, tipo));
+		return Math.max(0, intercambiar(bits, casilla, atacante, origen, tipo, VALORES[capturada], ocupadas));
+	}
+
+	/**
+	 * Método que resuelve la secuencia de capturas a partir de la primera.
+	 * @param bits Representación en bits del tablero.
+	 * @param casilla índice de la casilla disputada.
+	 * @param color Color que hace la primera captura.
+	 * @param origen Casilla de la pieza que hace la primera captura.
+	 * @param tipo Tipo de la pieza que hace la primera captura.
+	 * @param valorCapturado Valor de la pieza capturada primero, 0 si la casilla está vacía.
+	 * @param ocupadas máscara de casillas ocupadas.
+	 * @return ganancia de material del color que empieza.
+	 */
+	private static int intercambiar(TableroBits bits, int casilla, Color color, int origen, int tipo, int valorCapturado, long ocupadas) {
+
+		int [] ganancias = new int [MAXIMO_CAPTURAS];
+		int profundidad = 0;
+		ganancias[0] = valorCapturado;
+		int valorEnCasilla = VALORES[tipo];
+		ocupadas &= ~(1L << origen);
+		Color turno = color.obtenerContrario();
+
+		while (true) {
+			long atacantes = bits.obtenerAtacantes(casilla, turno, ocupadas) & ocupadas;
+			if (atacantes == 0)
+				break;
+			int menor = menorAtacante(bits, atacantes, turno);
+			if (menor == TableroBits.REY
+					&& (bits.obtenerAtacantes(casilla, turno.obtenerContrario(), ocupadas) & ocupadas) != 0)
+				break;															//El rey no puede capturar una pieza defendida
+			profundidad++;
+			ganancias[profundidad] = valorEnCasilla - ganancias[profundidad - 1];
+			valorEnCasilla = VALORES[menor];
+			ocupadas &= ~Long.lowestOneBit(atacantes & bits.obtenerMascara(turno, menor));
+			turno = turno.obtenerContrario();
+		}
+
+		while (profundidad > 0) {												//Cada bando puede no recapturar
+			ganancias[profundidad - 1] = -Math.max(-ganancias[profundidad - 1], ganancias[profundidad]);
+			profundidad--;
+		}
+		return ganancias[0];
+	}
+
+	/**
+	 * Método que busca el tipo de menor valor entre los atacantes de un color.
+	 * @param bits Representación en bits del tablero.
+	 * @param atacantes máscara de atacantes, con al menos uno del color.
+	 * @param color Color de los atacantes.
+	 * @return índice del tipo de pieza.
+	 */
+	private static int menorAtacante(TableroBits bits, long atacantes, Color color) {
+		for (int tipo = TableroBits.PEON; tipo < TableroBits.REY; tipo++)
+			if ((atacantes & bits.obtenerMascara(color, tipo)) != 0)
+				return tipo;
+		return TableroBits.REY;
+	}
+}
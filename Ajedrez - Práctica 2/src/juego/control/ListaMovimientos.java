@@ -0,0 +1,155 @@
+package juego.control;
+
+import java.util.Arrays;
+
+/**
+ * Lista de movimientos codificados respaldada por un array de enteros.
+ *
+ * Está pensada para reutilizarse: se crea una por nivel de búsqueda y se vacía antes
+ * de cada generación, de modo que no se crean objetos al generar ni al recorrer.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Movimiento
+ */
+public final class ListaMovimientos {
+
+	/**
+	 * Movimientos codificados.
+	 */
+	private int [] movimientos;
+
+	/**
+	 * Número de movimientos de la lista.
+	 */
+	private int numeroMovimientos;
+
+//--constructores--------------------------------------
+
+	/**
+	 * Constructor con capacidad para cualquier posición.
+	 * @see Arbitro#MAXIMO_MOVIMIENTOS
+	 */
+	public ListaMovimientos() {
+		this(Arbitro.MAXIMO_MOVIMIENTOS);
+	}
+
+	/**
+	 * Constructor con una capacidad inicial.
+	 * @param capacidad Número de movimientos antes de tener que crecer.
+	 */
+	public ListaMovimientos(int capacidad) {
+		movimientos = new int [capacidad];
+		numeroMovimientos = 0;
+	}
+
+//--métodos-----------------------------------------------
+
+	/**
+	 * Método que añade un movimiento al final, creciendo si no cabe.
+	 * @param movimiento movimiento codificado.
+	 */
+	public void anadir(int movimiento) {
+		if (numeroMovimientos == movimientos.length)
+			movimientos = Arrays.copyOf(movimientos, Math.max(1, movimientos.length * 2));
+		movimientos[numeroMovimientos++] = movimiento;
+	}
+
+	/**
+	 * Método que obtiene un movimiento.
+	 * @param indice posición en la lista.
+	 * @return movimiento codificado.
+	 */
+	public int obtener(int indice) {
+		assert indice < numeroMovimientos : "ListaMovimientos.obtener: Índice fuera de la lista";
+		return movimientos[indice];
+	}
+
+	/**
+	 * Método que reemplaza un movimiento.
+	 * @param indice posición en la lista.
+	 * @param movimiento movimiento codificado.
+	 */
+	public void establecer(int indice, int movimiento) {
+		assert indice < numeroMovimientos : "ListaMovimientos.establecer: Índice fuera de la lista";
+		movimientos[indice] = movimiento;
+	}
+
+	/**
+	 * Método que intercambia dos movimientos, útil para ordenarlos.
+	 * @param i posición del primero.
+	 * @param j posición del segundo.
+	 */
+	public void intercambiar(int i, int j) {
+		int movimiento = movimientos[i];
+		movimientos[i] = movimientos[j];
+		movimientos[j] = movimiento;
+	}
+
+	/**
+	 * Método que busca un movimiento comparando solo origen y destino.
+	 * @param movimiento movimiento codificado, con o sin banderas.
+	 * @return posición en la lista, o -1 si no está.
+	 */
+	public int buscar(int movimiento) {
+		int casillas = Movimiento.casillas(movimiento);
+		for (int i = 0; i < numeroMovimientos; i++)
+			if (Movimiento.casillas(movimientos[i]) == casillas)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Método que devuelve el número de movimientos.
+	 * @return número de movimientos.
+	 */
+	public int obtenerNumeroMovimientos() {
+		return numeroMovimientos;
+	}
+
+	/**
+	 * Método que indica si la lista no tiene movimientos.
+	 * @return true si está vacía.
+	 */
+	public boolean estaVacia() {
+		return numeroMovimientos == 0;
+	}
+
+	/**
+	 * Método que vacía la lista sin liberar el array.
+	 */
+	public void vaciar() {
+		numeroMovimientos = 0;
+	}
+
+	/**
+	 * Método que devuelve el array interno para que el generador escriba en él directamente.
+	 * @param capacidad Capacidad mínima necesaria.
+	 * @return array de al menos esa capacidad.
+	 */
+	int [] obtenerBuffer(int capacidad) {
+		if (movimientos.length < capacidad)
+			movimientos = Arrays.copyOf(movimientos, capacidad);
+		return movimientos;
+	}
+
+	/**
+	 * Método que fija el número de movimientos escritos en el array interno.
+	 * @param numeroMovimientos número de movimientos válidos.
+	 */
+	void establecerNumeroMovimientos(int numeroMovimientos) {
+		this.numeroMovimientos = numeroMovimientos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder texto = new StringBuilder(numeroMovimientos * 5);
+		for (int i = 0; i < numeroMovimientos; i++) {
+			if (i > 0)
+				texto.append(' ');
+			texto.append(Movimiento.aTexto(movimientos[i]));
+		}
+		return texto.toString();
+	}
+}
@@ -0,0 +1,196 @@
+package juego.control;
+
+/**
+ * Codificación compacta de un movimiento en los 16 bits bajos de un entero.
+ *
+ * Bits 0-5: casilla de origen. Bits 6-11: casilla de destino. Bits 12-15: banderas.
+ * Las casillas se indexan como fila * 8 + columna, con la fila 0 arriba (fila 8 en notación
+ * algebraica). Como el origen y el destino nunca coinciden, el valor 0 se usa como movimiento nulo.
+ *
+ * Al ser un tipo primitivo, los movimientos se pueden generar, guardar en tablas y
+ * convertir sin crear objetos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see ListaMovimientos
+ */
+public final class Movimiento {
+
+	/**
+	 * Movimiento nulo, no corresponde a ningún movimiento real.
+	 */
+	public static final int NULO = 0;
+
+	/**
+	 * Bandera de captura: el destino tenía una pieza contraria.
+	 */
+	public static final int CAPTURA = 1 << 12;
+
+	/**
+	 * Bandera de avance de dos casillas de un peón.
+	 */
+	public static final int DOBLE_AVANCE = 1 << 13;
+
+	/**
+	 * Número de bits de una casilla.
+	 */
+	private static final int BITS_CASILLA = 6;
+
+	/**
+	 * Máscara de una casilla.
+	 */
+	private static final int MASCARA_CASILLA = (1 << BITS_CASILLA) - 1;
+
+	/**
+	 * Máscara de origen y destino, sin banderas.
+	 */
+	private static final int MASCARA_CASILLAS = (1 << (2 * BITS_CASILLA)) - 1;
+
+	/**
+	 * Máscara de las banderas.
+	 */
+	private static final int MASCARA_BANDERAS = 0xF << (2 * BITS_CASILLA);
+
+	/**
+	 * Lado del tablero.
+	 */
+	private static final int LADO = 8;
+
+	/**
+	 * Constructor privado, clase de utilidad.
+	 */
+	private Movimiento() {
+	}
+
+	/**
+	 * Método que codifica un movimiento sin banderas.
+	 * @param origen índice de la casilla de origen.
+	 * @param destino índice de la casilla de destino.
+	 * @return movimiento codificado.
+	 */
+	public static int codificar(int origen, int destino) {
+		return origen | (destino << BITS_CASILLA);
+	}
+
+	/**
+	 * Método que codifica un movimiento con banderas.
+	 * @param origen índice de la casilla de origen.
+	 * @param destino índice de la casilla de destino.
+	 * @param banderas combinación de CAPTURA y DOBLE_AVANCE.
+	 * @return movimiento codificado.
+	 */
+	public static int codificar(int origen, int destino, int banderas) {
+		return origen | (destino << BITS_CASILLA) | (banderas & MASCARA_BANDERAS);
+	}
+
+	/**
+	 * Método que obtiene la casilla de origen.
+	 * @param movimiento movimiento codificado.
+	 * @return índice de la casilla de origen.
+	 */
+	public static int origen(int movimiento) {
+		return movimiento & MASCARA_CASILLA;
+	}
+
+	/**
+	 * Método que obtiene la casilla de destino.
+	 * @param movimiento movimiento codificado.
+	 * @return índice de la casilla de destino.
+	 */
+	public static int destino(int movimiento) {
+		return (movimiento >>> BITS_CASILLA) & MASCARA_CASILLA;
+	}
+
+	/**
+	 * Método que obtiene las banderas.
+	 * @param movimiento movimiento codificado.
+	 * @return banderas del movimiento.
+	 */
+	public static int banderas(int movimiento) {
+		return movimiento & MASCARA_BANDERAS;
+	}
+
+	/**
+	 * Método que obtiene el movimiento sin banderas, para comparar solo origen y destino.
+	 * @param movimiento movimiento codificado.
+	 * @return origen y destino codificados.
+	 */
+	public static int casillas(int movimiento) {
+		return movimiento & MASCARA_CASILLAS;
+	}
+
+	/**
+	 * Método que indica si el movimiento es una captura.
+	 * @param movimiento movimiento codificado.
+	 * @return true si captura una pieza.
+	 */
+	public static boolean esCaptura(int movimiento) {
+		return (movimiento & CAPTURA) != 0;
+	}
+
+	/**
+	 * Método que indica si el movimiento es un avance de dos casillas de un peón.
+	 * @param movimiento movimiento codificado.
+	 * @return true si es un doble avance.
+	 */
+	public static boolean esDobleAvance(int movimiento) {
+		return (movimiento & DOBLE_AVANCE) != 0;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que escribe un movimiento en notación algebraica simple (por ejemplo e2e4).
+	 * @param movimiento movimiento codificado.
+	 * @return jugada de cuatro caracteres.
+	 */
+	public static String aTexto(int movimiento) {
+
+		char [] jugada = new char [4];
+		escribirCasilla(origen(movimiento), jugada, 0);
+		escribirCasilla(destino(movimiento), jugada, 2);
+		return new String(jugada);
+	}
+
+	/**
+	 * Método que escribe una casilla en notación algebraica en un array de caracteres.
+	 * @param casilla índice de la casilla.
+	 * @param texto array donde se escribe.
+	 * @param posicion posición del primer carácter.
+	 */
+	private static void escribirCasilla(int casilla, char [] texto, int posicion) {
+		texto[posicion]     = (char) ('a' + casilla % LADO);
+		texto[posicion + 1] = (char) ('8' - casilla / LADO);
+	}
+
+	/**
+	 * Método que lee un movimiento en notación algebraica simple, sin banderas.
+	 * @param jugada jugada de cuatro caracteres (por ejemplo e2e4).
+	 * @return movimiento codificado, o NULO si el formato no es correcto.
+	 */
+	public static int desdeTexto(String jugada) {
+
+		if (jugada == null || jugada.length() != 4)
+			return NULO;
+		int origen = leerCasilla(jugada, 0);
+		int destino = leerCasilla(jugada, 2);
+		if (origen < 0 || destino < 0 || origen == destino)
+			return NULO;
+		return codificar(origen, destino);
+	}
+
+	/**
+	 * Método que lee una casilla en notación algebraica.
+	 * @param texto texto con la casilla.
+	 * @param posicion posición del primer carácter.
+	 * @return índice de la casilla, o -1 si está fuera del tablero.
+	 */
+	private static int leerCasilla(String texto, int posicion) {
+
+		int columna = texto.charAt(posicion) - 'a';
+		int fila = '8' - texto.charAt(posicion + 1);
+		if (fila < 0 || fila >= LADO || columna < 0 || columna >= LADO)
+			return -1;
+		return fila * LADO + columna;
+	}
+}
@@ -0,0 +1,274 @@
+package juego.control;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recuento de nodos hoja (perft) del árbol de movimientos legales a una profundidad dada.
+ *
+ * Sirve para comprobar el generador de movimientos comparando con recuentos de referencia
+ * y para medir su velocidad. Permite desglosar el recuento por movimiento raíz (divide),
+ * repartir los movimientos raíz entre los hilos de un ForkJoinPool y, opcionalmente,
+ * reutilizar subárboles ya contados mediante una tabla indexada por la clave Zobrist.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Arbitro#generarMovimientosLegales(ListaMovimientos)
+ */
+public class Perft {
+
+	/**
+	 * Número de bits del recuento de nodos en una entrada de la tabla. El resto guarda la profundidad.
+	 */
+	private static final int BITS_NODOS = 56;
+
+	/**
+	 * Máscara del recuento de nodos en una entrada de la tabla.
+	 */
+	private static final long MASCARA_NODOS = (1L << BITS_NODOS) - 1;
+
+	/**
+	 * Árbitro sobre el que se realizan y deshacen los movimientos.
+	 */
+	private final Arbitro arbitro;
+
+	/**
+	 * Listas de movimientos, una por nivel del árbol.
+	 */
+	private ListaMovimientos [] movimientos;
+
+	/**
+	 * Claves de la tabla de subárboles, guardadas como clave XOR datos para detectar
+	 * escrituras concurrentes a medias. Null si no se usa tabla.
+	 */
+	private final long [] tablaClaves;
+
+	/**
+	 * Datos de la tabla de subárboles: profundidad y número de nodos.
+	 */
+	private final long [] tablaDatos;
+
+//--constructores--------------------------------------
+
+	/**
+	 * Constructor sin tabla de subárboles.
+	 * @param arbitro Árbitro con la posición de partida.
+	 */
+	public Perft(Arbitro arbitro) {
+		this(arbitro, 0);
+	}
+
+	/**
+	 * Constructor con tabla de subárboles.
+	 * @param arbitro Árbitro con la posición de partida.
+	 * @param bitsTabla Logaritmo en base 2 del número de entradas de la tabla, 0 para no usarla.
+	 */
+	public Perft(Arbitro arbitro, int bitsTabla) {
+		this(arbitro, bitsTabla == 0 ? null : new long [1 << bitsTabla], bitsTabla == 0 ? null : new long [1 << bitsTabla]);
+	}
+
+	/**
+	 * Constructor que comparte la tabla de subárboles con otros recuentos.
+	 * @param arbitro Árbitro con la posición de partida.
+	 * @param tablaClaves Claves de la tabla, o null.
+	 * @param tablaDatos Datos de la tabla, o null.
+	 */
+	private Perft(Arbitro arbitro, long [] tablaClaves, long [] tablaDatos) {
+		this.arbitro = arbitro;
+		this.tablaClaves = tablaClaves;
+		this.tablaDatos = tablaDatos;
+		this.movimientos = new ListaMovimientos [0];
+	}
+
+//--métodos-----------------------------------------------
+
+	/**
+	 * Método que cuenta los nodos hoja a una profundidad.
+	 * @param profundidad Número de movimientos, mayor o igual que 0.
+	 * @return número de nodos hoja.
+	 */
+	public long contar(int profundidad) {
+		reservarListas(profundidad);
+		return contar(profundidad, 0);
+	}
+
+	/**
+	 * Método que cuenta los nodos hoja bajo cada movimiento raíz.
+	 * @param profundidad Número de movimientos, mayor o igual que 1.
+	 * @return recuento por movimiento en notación algebraica, en orden de generación.
+	 */
+	public Map<String, Long> dividir(int profundidad) {
+
+		reservarListas(profundidad);
+		Map<String, Long> resultado = new LinkedHashMap<>();
+		ListaMovimientos raiz = movimientos[0];
+		int total = arbitro.generarMovimientosLegales(raiz);
+
+		for (int i = 0; i < total; i++) {
+			arbitro.hacerMovimiento(raiz.obtener(i));
+			long nodos = contar(profundidad - 1, 1);
+			arbitro.deshacerMovimiento();
+			resultado.put(Movimiento.aTexto(raiz.obtener(i)), nodos);
+		}
+		return resultado;
+	}
+
+	/**
+	 * Método que cuenta los nodos hoja repartiendo los movimientos raíz entre los hilos de un pool.
+	 * Cada tarea trabaja sobre su propia copia del árbitro y comparten la tabla de subárboles.
+	 * @param profundidad Número de movimientos, mayor o igual que 0.
+	 * @param pool Pool de hilos.
+	 * @return número de nodos hoja.
+	 */
+	public long contarEnParalelo(int profundidad, ForkJoinPool pool) {
+
+		if (profundidad < 2)
+			return contar(profundidad);
+		long nodos = 0;
+		for (long parcial : dividirEnParalelo(profundidad, pool).values())
+			nodos += parcial;
+		return nodos;
+	}
+
+	/**
+	 * Método que cuenta los nodos hoja bajo cada movimiento raíz repartiéndolos entre los hilos de un pool.
+	 * @param profundidad Número de movimientos, mayor o igual que 1.
+	 * @param pool Pool de hilos.
+	 * @return recuento por movimiento en notación algebraica, en orden de generación.
+	 */
+	public Map<String, Long> dividirEnParalelo(int profundidad, ForkJoinPool pool) {
+
+		ListaMovimientos raiz = new ListaMovimientos();
+		int total = arbitro.generarMovimientosLegales(raiz);
+
+		List<RecuentoRaiz> tareas = new ArrayList<>(total);
+		for (int i = 0; i < total; i++)
+			tareas.add(new RecuentoRaiz(raiz.obtener(i), profundidad - 1));
+		for (RecuentoRaiz tarea : tareas)
+			pool.execute(tarea);
+
+		Map<String, Long> resultado = new LinkedHashMap<>();
+		for (int i = 0; i < total; i++)
+			resultado.put(Movimiento.aTexto(raiz.obtener(i)), tareas.get(i).join());
+		return resultado;
+	}
+
+	/**
+	 * Método recursivo de recuento. En el último nivel basta con el número de movimientos legales.
+	 * @param profundidad Profundidad restante.
+	 * @param nivel Nivel actual, índice de la lista de movimientos.
+	 * @return número de nodos hoja.
+	 */
+	private long contar(int profundidad, int nivel) {
+
+		if (profundidad == 0)
+			return 1;
+
+		long clave = 0;
+		if (tablaClaves != null) {
+			clave = arbitro.obtenerClave();
+			long nodos = consultarTabla(clave, profundidad);
+			if (nodos >= 0)
+				return nodos;
+		}
+
+		ListaMovimientos lista = movimientos[nivel];
+		int total = arbitro.generarMovimientosLegales(lista);
+		if (profundidad == 1)
+			return total;
+
+		long nodos = 0;
+		for (int i = 0; i < total; i++) {
+			arbitro.hacerMovimiento(lista.obtener(i));
+			nodos += contar(profundidad - 1, nivel + 1);
+			arbitro.deshacerMovimiento();
+		}
+
+		if (tablaClaves != null)
+			guardarEnTabla(clave, profundidad, nodos);
+		return nodos;
+	}
+
+	/**
+	 * Método que busca en la tabla el recuento de una posición a una profundidad.
+	 * @param clave Clave Zobrist de la posición.
+	 * @param profundidad Profundidad restante.
+	 * @return número de nodos, o -1 si no está.
+	 */
+	private long consultarTabla(long clave, int profundidad) {
+
+		int indice = (int) clave & (tablaClaves.length - 1);
+		long datos = tablaDatos[indice];
+		if ((tablaClaves[indice] ^ datos) != clave || (datos >>> BITS_NODOS) != profundidad)
+			return -1;
+		return datos & MASCARA_NODOS;
+	}
+
+	/**
+	 * Método que guarda en la tabla el recuento de una posición, reemplazando la entrada anterior.
+	 * @param clave Clave Zobrist de la posición.
+	 * @param profundidad Profundidad restante.
+	 * @param nodos Número de nodos hoja.
+	 */
+	private void guardarEnTabla(long clave, int profundidad, long nodos) {
+
+		int indice = (int) clave & (tablaClaves.length - 1);
+		long datos = ((long) profundidad << BITS_NODOS) | (nodos & MASCARA_NODOS);
+		tablaDatos[indice] = datos;
+		tablaClaves[indice] = clave ^ datos;
+	}
+
+	/**
+	 * Método que asegura una lista de movimientos por nivel.
+	 * @param profundidad Número de niveles necesarios.
+	 */
+	private void reservarListas(int profundidad) {
+
+		if (movimientos.length < profundidad) {
+			movimientos = new ListaMovimientos [profundidad];
+			for (int i = 0; i < profundidad; i++)
+				movimientos[i] = new ListaMovimientos();
+		}
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Tarea que cuenta los nodos bajo un movimiento raíz sobre una copia del árbitro.
+	 */
+	private class RecuentoRaiz extends RecursiveTask<Long> {
+
+		/** Número de versión para la serialización. */
+		private static final long serialVersionUID = 1L;
+
+		/** Copia del árbitro, hecha en el hilo que crea la tarea. */
+		private final Arbitro copia;
+
+		/** Movimiento raíz codificado. */
+		private final int movimiento;
+
+		/** Profundidad restante tras el movimiento raíz. */
+		private final int profundidad;
+
+		/**
+		 * Constructor de la tarea.
+		 * @param movimiento Movimiento raíz codificado.
+		 * @param profundidad Profundidad restante tras el movimiento.
+		 */
+		RecuentoRaiz(int movimiento, int profundidad) {
+			this.copia = arbitro.copiar();
+			this.movimiento = movimiento;
+			this.profundidad = profundidad;
+		}
+
+		@Override
+		protected Long compute() {
+			copia.hacerMovimiento(movimiento);
+			return new Perft(copia, tablaClaves, tablaDatos).contar(profundidad);
+		}
+	}
+}
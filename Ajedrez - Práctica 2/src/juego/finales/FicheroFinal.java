@@ -0,0 +1,431 @@
+package juego.finales;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Fichero de consulta de un final, comprimido por bloques y proyectado en memoria.
+ *
+ * Hay dos tipos: el de resultados (WDL) guarda para cada posición si el que mueve gana, pierde
+ * o es tablas, y el de distancias guarda la distancia al mate de TablaFinal. El generador
+ * calcula la distancia al mate y no la distancia a la siguiente captura o movimiento de peón
+ * (DTZ), que solo hace falta con la regla de los cincuenta movimientos, que este juego no tiene;
+ * el fichero de distancias hace su papel. El de resultados es mucho más pequeño y basta para
+ * cortar la búsqueda; el de distancias permite elegir el movimiento que acerca el mate.
+ *
+ * Los valores, un byte por posición, se comprimen con Deflate en bloques de POSICIONES_BLOQUE
+ * posiciones. Al consultar solo se descomprime el bloque de la posición, que se guarda en una
+ * caché de bloques que descarta el usado hace más tiempo (LRU). Las consultas están
+ * sincronizadas y, si el bloque está en la caché, no reservan memoria.
+ *
+ * El fichero, en orden little-endian, tiene el formato:
+ * <pre>
+ * int   MAGICO, VERSION, tipo, piezas
+ * byte  nombre[piezas]              letras del final, como "KQK"
+ * int   posicionesBloque, bloques
+ * int   desplazamientos[bloques + 1] inicio de cada bloque comprimido desde el primero
+ * byte  bloques comprimidos
+ * </pre>
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see SondaFinales
+ */
+public final class FicheroFinal {
+
+	/**
+	 * Número mágico al inicio del fichero: "FCAJ".
+	 */
+	public static final int MAGICO = 0x4A414346;
+
+	/**
+	 * Versión del formato del fichero.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Tipo del fichero de resultados: 0 tablas, RESULTADO_GANADA o RESULTADO_PERDIDA.
+	 */
+	public static final int RESULTADOS = 0;
+
+	/**
+	 * Tipo del fichero de distancias: distancia al mate más uno, o 0 si es tablas.
+	 */
+	public static final int DISTANCIAS = 1;
+
+	/**
+	 * Valores del fichero de resultados.
+	 */
+	public static final int RESULTADO_GANADA = 1, RESULTADO_PERDIDA = 2;
+
+	/**
+	 * Extensiones de los ficheros de cada tipo.
+	 */
+	public static final String [] EXTENSIONES = {".wdl", ".dtm"};
+
+	/**
+	 * Posiciones de cada bloque.
+	 */
+	public static final int POSICIONES_BLOQUE = 1 << 15;
+
+	/**
+	 * Bloques de la caché por defecto.
+	 */
+	public static final int BLOQUES_CACHE = 64;
+
+	/**
+	 * Piezas del final.
+	 */
+	private final Material material;
+
+	/**
+	 * Tipo del fichero.
+	 */
+	private final int tipo;
+
+	/**
+	 * Fichero proyectado, usado solo por el hilo que tiene el cerrojo.
+	 */
+	private final ByteBuffer datos;
+
+	/**
+	 * Posición del primer bloque comprimido en el fichero.
+	 */
+	private final int inicioBloques;
+
+	/**
+	 * Inicio de cada bloque comprimido, más el final del último.
+	 */
+	private final int [] desplazamientos;
+
+	/**
+	 * Descompresor reutilizado.
+	 */
+	private final Inflater descompresor = new Inflater();
+
+	/**
+	 * Bloques descomprimidos de la caché.
+	 */
+	private final byte [][] cache;
+
+	/**
+	 * Bloque guardado en cada hueco de la caché, o -1.
+	 */
+	private final int [] bloqueDeHueco;
+
+	/**
+	 * Hueco de la caché de cada bloque, o -1 si no está.
+	 */
+	private final int [] huecoDeBloque;
+
+	/**
+	 * Lista de huecos de la caché del usado más recientemente al que menos.
+	 */
+	private final int [] anterior, siguiente;
+
+	/**
+	 * Primer y último hueco de la lista.
+	 */
+	private int primero = -1, ultimo = -1;
+
+	/**
+	 * Huecos de la caché ocupados.
+	 */
+	private int ocupados;
+
+	/**
+	 * Consultas con el bloque en la caché y bloques descomprimidos.
+	 */
+	private long aciertos, fallos;
+
+	/**
+	 * Constructor de la clase.
+	 * @param material Piezas del final.
+	 * @param tipo Tipo del fichero.
+	 * @param datos Fichero proyectado.
+	 * @param inicioBloques Posición del primer bloque comprimido.
+	 * @param desplazamientos Inicio de cada bloque comprimido.
+	 * @param bloquesCache Bloques de la caché.
+	 */
+	private FicheroFinal(Material material, int tipo, ByteBuffer datos, int inicioBloques, int [] desplazamientos, int bloquesCache) {
+		this.material = material;
+		this.tipo = tipo;
+		this.datos = datos;
+		this.inicioBloques = inicioBloques;
+		this.desplazamientos = desplazamientos;
+		this.cache = new byte [bloquesCache][POSICIONES_BLOQUE];
+		this.bloqueDeHueco = new int [bloquesCache];
+		this.anterior = new int [bloquesCache];
+		this.siguiente = new int [bloquesCache];
+		this.huecoDeBloque = new int [desplazamientos.length - 1];
+		Arrays.fill(huecoDeBloque, -1);
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que abre un fichero proyectándolo en memoria, sin descomprimir nada.
+	 * @param fichero Ruta del fichero.
+	 * @param bloquesCache Bloques descomprimidos que se guardan en la caché, al menos 1.
+	 * @return fichero abierto.
+	 * @throws IOException si no se puede leer o el formato no es válido.
+	 * @throws IllegalArgumentException si la caché no tiene ningún bloque.
+	 */
+	public static FicheroFinal abrir(Path fichero, int bloquesCache) throws IOException {
+
+		if (bloquesCache <= 0)
+			throw new IllegalArgumentException("La caché debe tener algún bloque: " + bloquesCache);
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+			long tamano = canal.size();
+			if (tamano < 6 * Integer.BYTES || tamano > Integer.MAX_VALUE)
+				throw new IOException("Tamaño de fichero de final incorrecto: " + fichero);
+			ByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano).order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.getInt() != MAGICO || buffer.getInt() != VERSION)
+				throw new IOException("Formato de fichero de final incorrecto: " + fichero);
+			int tipo = buffer.getInt(), piezas = buffer.getInt();
+			if ((tipo != RESULTADOS && tipo != DISTANCIAS) || piezas < 2 || piezas > GeneradorFinales.MAXIMO_PIEZAS)
+				throw new IOException("Formato de fichero de final incorrecto: " + fichero);
+			byte [] nombre = new byte [piezas];
+			buffer.get(nombre);
+			Material material;
+			try {
+				material = new Material(new String(nombre, StandardCharsets.US_ASCII));
+			}
+			catch (IllegalArgumentException e) {
+				throw new IOException("Final incorrecto en el fichero: " + fichero, e);
+			}
+
+			int posicionesBloque = buffer.getInt(), bloques = buffer.getInt();
+			if (posicionesBloque != POSICIONES_BLOQUE || bloques != numeroBloques(material)
+					|| buffer.remaining() < (bloques + 1) * Integer.BYTES)
+				throw new IOException("Bloques incorrectos en el fichero de final: " + fichero);
+			int [] desplazamientos = new int [bloques + 1];
+			buffer.asIntBuffer().get(desplazamientos);
+			int inicioBloques = buffer.position() + desplazamientos.length * Integer.BYTES;
+			for (int i = 0; i < bloques; i++)
+				if (desplazamientos[i] > desplazamientos[i + 1])
+					throw new IOException("Bloques incorrectos en el fichero de final: " + fichero);
+			if (desplazamientos[0] != 0 || inicioBloques + (long) desplazamientos[bloques] != tamano)
+				throw new IOException("Tamaño de fichero de final incorrecto: " + fichero);
+			return new FicheroFinal(material, tipo, buffer, inicioBloques, desplazamientos, bloquesCache);
+		}
+	}
+
+	/**
+	 * Método que escribe el fichero de un tipo a partir de una tabla generada.
+	 * @param tabla Tabla del final.
+	 * @param tipo RESULTADOS o DISTANCIAS.
+	 * @param fichero Ruta del fichero.
+	 * @throws IOException si no se puede escribir.
+	 * @throws IllegalArgumentException si el tipo no es válido.
+	 */
+	public static void escribir(TablaFinal tabla, int tipo, Path fichero) throws IOException {
+
+		if (tipo != RESULTADOS && tipo != DISTANCIAS)
+			throw new IllegalArgumentException("Tipo de fichero de final desconocido: " + tipo);
+		Material material = tabla.obtenerPiezas();
+		int bloques = numeroBloques(material);
+		int [] desplazamientos = new int [bloques + 1];
+		ByteArrayOutputStream comprimidos = new ByteArrayOutputStream();
+		byte [] valores = new byte [POSICIONES_BLOQUE];
+		byte [] salida = new byte [POSICIONES_BLOQUE];
+		Deflater compresor = new Deflater(Deflater.BEST_COMPRESSION);
+
+		try {
+			for (int bloque = 0; bloque < bloques; bloque++) {
+				int longitud = longitudBloque(material, bloque);
+				for (int i = 0; i < longitud; i++) {
+					int distancia = tabla.obtenerDistancia(bloque * POSICIONES_BLOQUE + i);
+					if (tipo == DISTANCIAS)
+						valores[i] = (byte) (distancia + 1);
+					else
+						valores[i] = (byte) (distancia == TablaFinal.TABLAS ? 0
+								: TablaFinal.esGanada(distancia) ? RESULTADO_GANADA : RESULTADO_PERDIDA);
+				}
+				compresor.reset();
+				compresor.setInput(valores, 0, longitud);
+				compresor.finish();
+				while (!compresor.finished())
+					comprimidos.write(salida, 0, compresor.deflate(salida));
+				desplazamientos[bloque + 1] = comprimidos.size();
+			}
+		}
+		finally {
+			compresor.end();
+		}
+
+		byte [] nombre = material.obtenerNombre().getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buffer = ByteBuffer.allocate(6 * Integer.BYTES + nombre.length + desplazamientos.length * Integer.BYTES
+				+ comprimidos.size()).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGICO).putInt(VERSION).putInt(tipo).putInt(nombre.length).put(nombre);
+		buffer.putInt(POSICIONES_BLOQUE).putInt(bloques);
+		for (int desplazamiento : desplazamientos)
+			buffer.putInt(desplazamiento);
+		buffer.put(comprimidos.toByteArray());
+		Files.write(fichero, buffer.array());
+	}
+
+	/**
+	 * Método que calcula el número de bloques de un final.
+	 * @param material Piezas del final.
+	 * @return número de bloques.
+	 */
+	private static int numeroBloques(Material material) {
+		return (material.obtenerNumeroPosiciones() + POSICIONES_BLOQUE - 1) / POSICIONES_BLOQUE;
+	}
+
+	/**
+	 * Método que calcula las posiciones de un bloque, menos en el último si no está completo.
+	 * @param material Piezas del final.
+	 * @param bloque Número de bloque.
+	 * @return número de posiciones.
+	 */
+	private static int longitudBloque(Material material, int bloque) {
+		return Math.min(POSICIONES_BLOQUE, material.obtenerNumeroPosiciones() - bloque * POSICIONES_BLOQUE);
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que devuelve el nombre del final.
+	 * @return nombre, como "KQK".
+	 */
+	public String obtenerMaterial() {
+		return material.obtenerNombre();
+	}
+
+	/**
+	 * Método que devuelve las piezas del final.
+	 * @return piezas del final.
+	 */
+	Material obtenerPiezas() {
+		return material;
+	}
+
+	/**
+	 * Método que devuelve el tipo del fichero.
+	 * @return RESULTADOS o DISTANCIAS.
+	 */
+	public int obtenerTipo() {
+		return tipo;
+	}
+
+	/**
+	 * Método que devuelve el valor guardado de una posición, descomprimiendo su bloque si no está en la caché.
+	 * @param indice Índice de la posición, como en TablaFinal.
+	 * @return valor según el tipo del fichero.
+	 * @throws IllegalStateException si el bloque está dañado.
+	 */
+	public synchronized int obtenerValor(int indice) {
+
+		int bloque = indice / POSICIONES_BLOQUE;
+		int hueco = huecoDeBloque[bloque];
+		if (hueco < 0)
+			hueco = descomprimir(bloque);
+		else {
+			aciertos++;
+			if (hueco != primero) {
+				quitarDeLista(hueco);
+				ponerPrimero(hueco);
+			}
+		}
+		return cache[hueco][indice % POSICIONES_BLOQUE] & 0xFF;
+	}
+
+	/**
+	 * Método que descomprime un bloque en el hueco libre o en el del bloque usado hace más tiempo.
+	 * @param bloque Número de bloque.
+	 * @return hueco de la caché.
+	 */
+	private int descomprimir(int bloque) {
+
+		int hueco;
+		if (ocupados < cache.length)
+			hueco = ocupados++;
+		else {
+			hueco = ultimo;
+			quitarDeLista(hueco);
+			huecoDeBloque[bloqueDeHueco[hueco]] = -1;
+		}
+
+		datos.limit(inicioBloques + desplazamientos[bloque + 1]).position(inicioBloques + desplazamientos[bloque]);
+		descompresor.reset();
+		descompresor.setInput(datos);
+		try {
+			int longitud = longitudBloque(material, bloque);
+			int leidos = 0;
+			while (leidos < longitud && !descompresor.finished())
+				leidos += descompresor.inflate(cache[hueco], leidos, longitud - leidos);
+			if (leidos != longitud)
+				throw new IllegalStateException("Bloque " + bloque + " incompleto en el final " + material.obtenerNombre());
+		}
+		catch (DataFormatException e) {
+			throw new IllegalStateException("Bloque " + bloque + " dañado en el final " + material.obtenerNombre(), e);
+		}
+		finally {
+			datos.clear();
+		}
+
+		fallos++;
+		bloqueDeHueco[hueco] = bloque;
+		huecoDeBloque[bloque] = hueco;
+		ponerPrimero(hueco);
+		return hueco;
+	}
+
+	/**
+	 * Método que quita un hueco de la lista de uso.
+	 * @param hueco Hueco de la caché.
+	 */
+	private void quitarDeLista(int hueco) {
+		if (anterior[hueco] >= 0)
+			siguiente[anterior[hueco]] = siguiente[hueco];
+		else
+			primero = siguiente[hueco];
+		if (siguiente[hueco] >= 0)
+			anterior[siguiente[hueco]] = anterior[hueco];
+		else
+			ultimo = anterior[hueco];
+	}
+
+	/**
+	 * Método que pone un hueco al principio de la lista de uso.
+	 * @param hueco Hueco de la caché.
+	 */
+	private void ponerPrimero(int hueco) {
+		anterior[hueco] = -1;
+		siguiente[hueco] = primero;
+		if (primero >= 0)
+			anterior[primero] = hueco;
+		primero = hueco;
+		if (ultimo < 0)
+			ultimo = hueco;
+	}
+
+	/**
+	 * Método que devuelve el número de consultas resueltas con la caché.
+	 * @return aciertos.
+	 */
+	public synchronized long obtenerAciertos() {
+		return aciertos;
+	}
+
+	/**
+	 * Método que devuelve el número de bloques descomprimidos.
+	 * @return fallos de la caché.
+	 */
+	public synchronized long obtenerFallos() {
+		return fallos;
+	}
+}
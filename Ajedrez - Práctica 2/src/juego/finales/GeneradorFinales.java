@@ -0,0 +1,688 @@
+package juego.finales;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+import juego.util.TablasPrecalculadas;
+
+/**
+ * Generador de tablas de finales por análisis retrógrado.
+ *
+ * Recorre todas las posiciones del índice denso de un final de hasta MAXIMO_PIEZAS piezas con
+ * las mismas reglas de movimiento que Rey, Dama, Torre, Alfil, Caballo y Peon (sin coronación,
+ * enroque ni captura al paso, que este juego no tiene). Primero marca las posiciones ilegales y
+ * los mates, y después avanza medio movimiento cada vez: en la iteración k solo se examinan las
+ * posiciones de las que se llega deshaciendo un movimiento a alguna resuelta en la iteración
+ * anterior, y se comprueba con sus movimientos si ganan (k impar: algún movimiento lleva a una
+ * derrota del rival) o pierden (k par: todos llevan a victorias del rival). Las capturas llevan
+ * a finales con una pieza menos, que se generan antes. Lo que no se resuelve es tablas.
+ *
+ * Cada pasada reparte el índice en tramos entre los hilos de un ForkJoinPool. Cada cierto tiempo
+ * se guarda un punto de control en el directorio, de modo que una generación interrumpida
+ * continúa donde se quedó. Las tablas terminadas se guardan en el directorio como nombre.tfa
+ * y se reutilizan.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see TablaFinal
+ */
+public class GeneradorFinales {
+
+	/**
+	 * Número máximo de piezas de un final, reyes incluidos.
+	 */
+	public static final int MAXIMO_PIEZAS = 4;
+
+	/**
+	 * Extensión de las tablas terminadas.
+	 */
+	public static final String EXTENSION = ".tfa";
+
+	/**
+	 * Extensión de los puntos de control.
+	 */
+	private static final String EXTENSION_CONTROL = ".pc";
+
+	/**
+	 * Número mágico al inicio de un punto de control: "PCAJ".
+	 */
+	private static final int MAGICO_CONTROL = 0x4A414350;
+
+	/**
+	 * Milisegundos entre puntos de control por defecto.
+	 */
+	private static final long INTERVALO_POR_DEFECTO = 60_000;
+
+	/**
+	 * Posiciones por tramo de una pasada, múltiplo de 64.
+	 */
+	private static final int TRAMO_MINIMO = 1 << 12;
+
+	/**
+	 * Valor de las posiciones sin resolver y de las ilegales.
+	 */
+	private static final int DESCONOCIDA = 0, ILEGAL = 0xFF;
+
+	/**
+	 * Tipos de pasada.
+	 */
+	private static final int INICIAR = 0, VERIFICAR = 1, PROPAGAR = 2;
+
+	/**
+	 * Avance en casillas de un peón por fila.
+	 */
+	private static final int AVANCE_PEON = 8;
+
+	/**
+	 * Directorio de las tablas y los puntos de control.
+	 */
+	private final Path directorio;
+
+	/**
+	 * Pool de hilos.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Tablas ya generadas o cargadas, por nombre.
+	 */
+	private final Map<String, TablaFinal> tablas = new HashMap<>();
+
+	/**
+	 * Milisegundos entre puntos de control.
+	 */
+	private long intervaloPuntosControl = INTERVALO_POR_DEFECTO;
+
+	/**
+	 * Iteraciones que quedan antes de detenerse, para pruebas.
+	 */
+	private int iteracionesRestantes = Integer.MAX_VALUE;
+
+//--constructores--------------------------------------
+
+	/**
+	 * Constructor de la clase.
+	 * @param directorio Directorio de las tablas y los puntos de control.
+	 * @param pool Pool de hilos.
+	 */
+	public GeneradorFinales(Path directorio, ForkJoinPool pool) {
+		this.directorio = directorio;
+		this.pool = pool;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que establece cada cuánto se guarda un punto de control.
+	 * @param milisegundos Milisegundos entre puntos de control, 0 para guardarlo en cada iteración.
+	 */
+	public void establecerIntervaloPuntosControl(long milisegundos) {
+		this.intervaloPuntosControl = milisegundos;
+	}
+
+	/**
+	 * Método que detiene la generación tras un número de iteraciones, guardando un punto de control.
+	 * @param iteraciones Iteraciones que se realizan antes de detenerse.
+	 */
+	void establecerIteracionesMaximas(int iteraciones) {
+		this.iteracionesRestantes = iteraciones;
+	}
+
+	/**
+	 * Método que genera la tabla de un final, o la carga si ya está en el directorio.
+	 * Antes genera o carga los finales a los que se llega capturando.
+	 * @param nombre Nombre del final, como "KQK" o "KBNK".
+	 * @return tabla del final.
+	 * @throws IOException si no se pueden leer o escribir los ficheros, o si la generación se detiene.
+	 * @throws IllegalArgumentException si el nombre no es válido.
+	 */
+	public TablaFinal generar(String nombre) throws IOException {
+		return generar(new Material(nombre));
+	}
+
+	/**
+	 * Método que genera o carga la tabla de un final.
+	 * @param material Piezas del final.
+	 * @return tabla del final.
+	 * @throws IOException si no se pueden leer o escribir los ficheros, o si la generación se detiene.
+	 */
+	private TablaFinal generar(Material material) throws IOException {
+
+		TablaFinal tabla = tablas.get(material.obtenerNombre());
+		if (tabla != null)
+			return tabla;
+		Path fichero = directorio.resolve(material.obtenerNombre() + EXTENSION);
+		if (Files.exists(fichero))
+			tabla = TablaFinal.cargar(fichero);
+		else {
+			tabla = new Generacion(material).ejecutar();
+			tabla.guardar(fichero);
+			Files.deleteIfExists(directorio.resolve(material.obtenerNombre() + EXTENSION_CONTROL));
+		}
+		tablas.put(material.obtenerNombre(), tabla);
+		return tabla;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Estado de la generación de un final.
+	 */
+	private final class Generacion {
+
+		/** Piezas del final. */
+		private final Material material;
+
+		/** Número de piezas. */
+		private final int piezas;
+
+		/** Bit del turno en el índice. */
+		private final int bitTurno;
+
+		/** Distancia al mate más uno de cada posición, DESCONOCIDA o ILEGAL. */
+		private final byte [] valores;
+
+		/** Mejor resultado por captura de cada posición, codificado como valores. */
+		private final byte [] salidas;
+
+		/** Tablas a las que se llega capturando cada pieza, null para los reyes. */
+		private final TablaFinal [] subtablas;
+
+		/** Posiciones a examinar en la siguiente iteración, un bit por posición. */
+		private AtomicLongArray candidatos;
+
+		/**
+		 * Constructor de la generación.
+		 * @param material Piezas del final.
+		 */
+		Generacion(Material material) {
+			this.material = material;
+			this.piezas = material.obtenerNumeroPiezas();
+			this.bitTurno = 1 << (6 * piezas);
+			this.valores = new byte [material.obtenerNumeroPosiciones()];
+			this.salidas = new byte [valores.length];
+			this.subtablas = new TablaFinal [piezas];
+			this.candidatos = new AtomicLongArray(valores.length / Long.SIZE + 1);
+		}
+
+		/**
+		 * Método que genera la tabla, continuando desde el punto de control si lo hay.
+		 * @return tabla generada.
+		 * @throws IOException si no se pueden leer o escribir los ficheros, o si la generación se detiene.
+		 */
+		TablaFinal ejecutar() throws IOException {
+
+			for (int i = 2; i < piezas; i++)
+				subtablas[i] = generar(material.sinPieza(i));
+
+			pasar(INICIAR, 0);
+			int salidaMaxima = 0;
+			for (byte salida : salidas)
+				salidaMaxima = Math.max(salidaMaxima, salida & 0xFF);
+
+			Path control = directorio.resolve(material.obtenerNombre() + EXTENSION_CONTROL);
+			int iteracion = Files.exists(control) ? cargarControl(control) : 0;
+			if (iteracion == 0)
+				pasar(PROPAGAR, 0);												//Los mates recién marcados
+			long ultimoControl = System.currentTimeMillis();
+
+			for (iteracion++; ; iteracion++) {
+				if (iteracion + 1 >= ILEGAL)
+					throw new IllegalStateException("Distancia al mate demasiado larga en " + material.obtenerNombre());
+				long nuevas = pasar(VERIFICAR, iteracion);
+				candidatos = new AtomicLongArray(candidatos.length());
+				if (nuevas > 0)
+					pasar(PROPAGAR, iteracion);
+				else if (iteracion + 1 >= salidaMaxima)
+					break;														//Ni resueltas ni capturas que esperen a más distancia
+
+				if (--iteracionesRestantes <= 0) {
+					guardarControl(control, iteracion);
+					throw new InterruptedIOException("Generación de " + material.obtenerNombre() + " detenida en la iteración " + iteracion);
+				}
+				if (System.currentTimeMillis() - ultimoControl >= intervaloPuntosControl) {
+					guardarControl(control, iteracion);
+					ultimoControl = System.currentTimeMillis();
+				}
+			}
+			return TablaFinal.empaquetar(material, valores, ILEGAL - 1);
+		}
+
+		/**
+		 * Método que recorre todo el índice en paralelo.
+		 * @param tipo Tipo de pasada.
+		 * @param iteracion Iteración actual.
+		 * @return número de posiciones resueltas.
+		 */
+		private long pasar(int tipo, int iteracion) {
+			return pool.invoke(new Pasada(tipo, iteracion, 0, valores.length));
+		}
+
+		/**
+		 * Método que guarda el estado tras una iteración completa.
+		 * @param control Ruta del punto de control.
+		 * @param iteracion Iteración completada.
+		 * @throws IOException si no se puede escribir.
+		 */
+		private void guardarControl(Path control, int iteracion) throws IOException {
+
+			byte [] nombre = material.obtenerNombre().getBytes(StandardCharsets.US_ASCII);
+			ByteBuffer buffer = ByteBuffer.allocate(3 * Integer.BYTES + nombre.length + valores.length
+					+ candidatos.length() * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGICO_CONTROL).putInt(nombre.length).put(nombre).putInt(iteracion).put(valores);
+			for (int i = 0; i < candidatos.length(); i++)
+				buffer.putLong(candidatos.get(i));
+
+			Path temporal = directorio.resolve(material.obtenerNombre() + EXTENSION_CONTROL + ".tmp");
+			Files.write(temporal, buffer.array());								//Si se corta al escribir, queda el anterior
+			Files.move(temporal, control, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		/**
+		 * Método que recupera el estado de un punto de control.
+		 * @param control Ruta del punto de control.
+		 * @return iteración completada.
+		 * @throws IOException si no se puede leer o no corresponde a este final.
+		 */
+		private int cargarControl(Path control) throws IOException {
+
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(control)).order(ByteOrder.LITTLE_ENDIAN);
+			byte [] nombre = material.obtenerNombre().getBytes(StandardCharsets.US_ASCII);
+			if (buffer.remaining() != 3 * Integer.BYTES + nombre.length + valores.length + candidatos.length() * Long.BYTES
+					|| buffer.getInt() != MAGICO_CONTROL || buffer.getInt() != nombre.length)
+				throw new IOException("Punto de control incorrecto: " + control);
+			byte [] leido = new byte [nombre.length];
+			buffer.get(leido);
+			if (!material.obtenerNombre().equals(new String(leido, StandardCharsets.US_ASCII)))
+				throw new IOException("Punto de control de otro final: " + control);
+			int iteracion = buffer.getInt();
+			buffer.get(valores);
+			for (int i = 0; i < candidatos.length(); i++)
+				candidatos.set(i, buffer.getLong());
+			return iteracion;
+		}
+
+//-------------------------------------------------------------------------------
+		/**
+		 * Método que marca las posiciones ilegales y los mates y calcula el resultado de las capturas.
+		 * @param indice Índice de la posición.
+		 * @param posicion Posición de trabajo del hilo.
+		 */
+		private void iniciar(int indice, Posicion posicion) {
+
+			if (!posicion.decodificar(indice) || posicion.estaEnJaque(posicion.turno ^ 1)) {
+				valores[indice] = (byte) ILEGAL;
+				return;
+			}
+			posicion.recorrer(indice, true);
+			if (posicion.movimientos == 0)
+				valores[indice] = (byte) (posicion.estaEnJaque(posicion.turno) ? 1 : DESCONOCIDA);	//Mate o ahogado
+			else if (posicion.minimaDerrota != Integer.MAX_VALUE)
+				salidas[indice] = (byte) (posicion.minimaDerrota + 2);
+			else if (posicion.capturas > 0 && posicion.capturasGanadas == posicion.capturas)
+				salidas[indice] = (byte) (posicion.maximaVictoria + 2);
+		}
+
+		/**
+		 * Método que comprueba si una posición se resuelve en esta iteración.
+		 * @param indice Índice de la posición.
+		 * @param iteracion Distancia al mate que se busca.
+		 * @param posicion Posición de trabajo del hilo.
+		 * @return true si se ha resuelto.
+		 */
+		private boolean verificar(int indice, int iteracion, Posicion posicion) {
+
+			posicion.decodificar(indice);
+			posicion.recorrer(indice, false);
+			boolean resuelta = (iteracion & 1) == 1
+					? posicion.minimaDerrota <= iteracion - 1
+					: posicion.movimientos > 0 && posicion.ganadas == posicion.movimientos && posicion.maximaVictoria <= iteracion - 1;
+			if (resuelta)
+				valores[indice] = (byte) (iteracion + 1);
+			return resuelta;
+		}
+
+		/**
+		 * Método que marca como candidatas las posiciones desde las que se llega a una
+		 * deshaciendo un movimiento sin captura del bando que no mueve.
+		 * @param indice Índice de la posición resuelta.
+		 * @param posicion Posición de trabajo del hilo.
+		 */
+		private void propagar(int indice, Posicion posicion) {
+
+			posicion.decodificar(indice);
+			int color = posicion.turno ^ 1;
+			long ocupadas = posicion.ocupadas[0] | posicion.ocupadas[1];
+			for (int i = 0; i < piezas; i++) {
+				if (material.obtenerColor(i) != color)
+					continue;
+				int casilla = posicion.casillas[i];
+				long origenes = material.obtenerTipo(i) == TableroBits.PEON
+						? origenesPeon(color, casilla, ocupadas)
+						: ataques(i, casilla, ocupadas) & ~ocupadas;
+				for (; origenes != 0; origenes &= origenes - 1) {
+					int anterior = (indice ^ bitTurno) + ((Long.numberOfTrailingZeros(origenes) - casilla) << (6 * i));
+					if (valores[anterior] == DESCONOCIDA)
+						candidatos.accumulateAndGet(anterior >>> 6, 1L << (anterior & 63), (a, b) -> a | b);
+				}
+			}
+		}
+
+		/**
+		 * Método que calcula de qué casillas pudo llegar un peón sin capturar.
+		 * @param color Índice (ordinal) del color del peón.
+		 * @param casilla índice de la casilla del peón.
+		 * @param ocupadas máscara de casillas ocupadas.
+		 * @return máscara de casillas de origen.
+		 */
+		private long origenesPeon(int color, int casilla, long ocupadas) {
+
+			int retroceso = color == Color.BLANCO.ordinal() ? AVANCE_PEON : -AVANCE_PEON;
+			int uno = casilla + retroceso;
+			if (uno < 0 || uno >= TableroBits.NUMERO_CASILLAS || (ocupadas & (1L << uno)) != 0 || filaImposible(color, uno))
+				return 0L;
+			long origenes = 1L << uno;
+			int dos = uno + retroceso;
+			if (TableroBits.fila(dos) == filaInicial(color) && (ocupadas & (1L << dos)) == 0)
+				origenes |= 1L << dos;
+			return origenes;
+		}
+
+		/**
+		 * Método que calcula las casillas que ataca una pieza.
+		 * @param pieza Posición de la pieza en el final.
+		 * @param casilla índice de la casilla de la pieza.
+		 * @param ocupadas máscara de casillas ocupadas.
+		 * @return máscara de casillas atacadas.
+		 */
+		private long ataques(int pieza, int casilla, long ocupadas) {
+
+			switch (material.obtenerTipo(pieza)) {
+			case TableroBits.CABALLO:
+				return TablasPrecalculadas.ataquesCaballo(casilla);
+			case TableroBits.ALFIL:
+				return TableroBits.ataquesDiagonales(casilla, ocupadas);
+			case TableroBits.TORRE:
+				return TableroBits.ataquesRectos(casilla, ocupadas);
+			case TableroBits.DAMA:
+				return TableroBits.ataquesRectos(casilla, ocupadas) | TableroBits.ataquesDiagonales(casilla, ocupadas);
+			case TableroBits.REY:
+				return TablasPrecalculadas.ataquesRey(casilla);
+			default:
+				return TablasPrecalculadas.ataquesPeon(material.obtenerColor(pieza) == Color.BLANCO.ordinal(), casilla);
+			}
+		}
+
+//-------------------------------------------------------------------------------
+		/**
+		 * Posición decodificada del índice y resumen de sus movimientos, una por hilo.
+		 */
+		private final class Posicion {
+
+			/** Casilla de cada pieza. */
+			final int [] casillas = new int [piezas];
+
+			/** Índice (ordinal) del color que mueve. */
+			int turno;
+
+			/** Casillas ocupadas por cada color. */
+			final long [] ocupadas = new long [2];
+
+			/** Movimientos legales recorridos y cuántos llevan a victorias conocidas del rival. */
+			int movimientos, ganadas;
+
+			/** Capturas legales y cuántas llevan a victorias del rival. */
+			int capturas, capturasGanadas;
+
+			/** Menor distancia de las derrotas del rival y mayor de sus victorias. */
+			int minimaDerrota, maximaVictoria;
+
+			/**
+			 * Método que coloca las piezas de un índice.
+			 * @param indice Índice de la posición.
+			 * @return false si dos piezas comparten casilla o hay un peón en una fila imposible.
+			 */
+			boolean decodificar(int indice) {
+
+				turno = indice >>> (6 * piezas);
+				ocupadas[0] = ocupadas[1] = 0;
+				boolean valida = true;
+				for (int i = 0; i < piezas; i++) {
+					int casilla = (indice >>> (6 * i)) & 63;
+					int color = material.obtenerColor(i);
+					casillas[i] = casilla;
+					if (((ocupadas[0] | ocupadas[1]) & (1L << casilla)) != 0
+							|| (material.obtenerTipo(i) == TableroBits.PEON && filaImposible(color, casilla)))
+						valida = false;
+					ocupadas[color] |= 1L << casilla;
+				}
+				return valida;
+			}
+
+			/**
+			 * Método que indica si el rey de un color está atacado.
+			 * @param color Índice (ordinal) del color del rey.
+			 * @return true si está en jaque.
+			 */
+			boolean estaEnJaque(int color) {
+				return atacada(casillas[color], color ^ 1, ocupadas[0] | ocupadas[1], -1);
+			}
+
+			/**
+			 * Método que indica si una casilla está atacada por alguna pieza de un color.
+			 * @param casilla índice de la casilla.
+			 * @param atacante Índice (ordinal) del color atacante.
+			 * @param ocupadas máscara de casillas ocupadas.
+			 * @param capturada Pieza que no cuenta por estar capturada, o -1.
+			 * @return true si está atacada.
+			 */
+			private boolean atacada(int casilla, int atacante, long ocupadas, int capturada) {
+				for (int i = 0; i < piezas; i++)
+					if (material.obtenerColor(i) == atacante && i != capturada
+							&& (ataques(i, casillas[i], ocupadas) & (1L << casilla)) != 0)
+						return true;
+				return false;
+			}
+
+			/**
+			 * Método que recorre los movimientos legales del color que mueve y resume sus resultados.
+			 * @param indice Índice de la posición.
+			 * @param soloCapturas true para resumir solo las capturas, contando todos los movimientos.
+			 */
+			void recorrer(int indice, boolean soloCapturas) {
+
+				movimientos = ganadas = capturas = capturasGanadas = 0;
+				minimaDerrota = Integer.MAX_VALUE;
+				maximaVictoria = -1;
+				long todas = ocupadas[0] | ocupadas[1];
+				long rivales = ocupadas[turno ^ 1];
+
+				for (int i = 0; i < piezas; i++) {
+					if (material.obtenerColor(i) != turno)
+						continue;
+					int origen = casillas[i];
+					long destinos = material.obtenerTipo(i) == TableroBits.PEON
+							? destinosPeon(origen, todas, rivales)
+							: ataques(i, origen, todas) & ~ocupadas[turno];
+					for (; destinos != 0; destinos &= destinos - 1) {
+						int destino = Long.numberOfTrailingZeros(destinos);
+						int capturada = (rivales & (1L << destino)) != 0 ? piezaEn(destino) : -1;
+						long despues = (todas & ~(1L << origen)) | (1L << destino);
+						int rey = i == turno ? destino : casillas[turno];
+						if (atacada(rey, turno ^ 1, despues, capturada))
+							continue;													//Deja al rey en jaque
+
+						movimientos++;
+						int distancia;
+						if (capturada < 0) {
+							if (soloCapturas)
+								continue;
+							distancia = (valores[(indice ^ bitTurno) + ((destino - origen) << (6 * i))] & 0xFF) - 1;
+						}
+						else {
+							capturas++;
+							distancia = subtablas[capturada].obtenerDistancia(indiceSinPieza(i, destino, capturada));
+						}
+						if (distancia < 0)
+							continue;													//Sin resolver o tablas
+						if ((distancia & 1) == 0)
+							minimaDerrota = Math.min(minimaDerrota, distancia);
+						else {
+							ganadas++;
+							if (capturada >= 0)
+								capturasGanadas++;
+							maximaVictoria = Math.max(maximaVictoria, distancia);
+						}
+					}
+				}
+			}
+
+			/**
+			 * Método que calcula los destinos de un peón del color que mueve.
+			 * @param casilla índice de la casilla del peón.
+			 * @param todas máscara de casillas ocupadas.
+			 * @param rivales máscara de casillas del rival.
+			 * @return máscara de destinos.
+			 */
+			private long destinosPeon(int casilla, long todas, long rivales) {
+
+				boolean haciaNorte = turno == Color.BLANCO.ordinal();
+				int avance = haciaNorte ? -AVANCE_PEON : AVANCE_PEON;
+				long destinos = TablasPrecalculadas.ataquesPeon(haciaNorte, casilla) & rivales;
+				int uno = casilla + avance;
+				if (uno >= 0 && uno < TableroBits.NUMERO_CASILLAS && (todas & (1L << uno)) == 0) {
+					destinos |= 1L << uno;
+					int dos = uno + avance;
+					if (TableroBits.fila(casilla) == filaInicial(turno) && (todas & (1L << dos)) == 0)
+						destinos |= 1L << dos;
+				}
+				return destinos;
+			}
+
+			/**
+			 * Método que busca la pieza del rival que ocupa una casilla.
+			 * @param casilla índice de la casilla.
+			 * @return posición de la pieza en el final.
+			 */
+			private int piezaEn(int casilla) {
+				int i = 0;
+				while (casillas[i] != casilla || material.obtenerColor(i) == turno)
+					i++;
+				return i;
+			}
+
+			/**
+			 * Método que calcula el índice en la subtabla de la posición tras una captura.
+			 * @param pieza Pieza que captura.
+			 * @param destino índice de la casilla de destino.
+			 * @param capturada Pieza capturada.
+			 * @return índice en la subtabla.
+			 */
+			private int indiceSinPieza(int pieza, int destino, int capturada) {
+				int indice = (turno ^ 1) << (6 * (piezas - 1));
+				for (int i = 0, j = 0; i < piezas; i++)
+					if (i != capturada)
+						indice |= (i == pieza ? destino : casillas[i]) << (6 * j++);
+				return indice;
+			}
+		}
+
+//-------------------------------------------------------------------------------
+		/**
+		 * Tarea que aplica una pasada a un tramo del índice, dividiéndolo entre los hilos.
+		 */
+		private final class Pasada extends RecursiveTask<Long> {
+
+			/** Número de versión para la serialización. */
+			private static final long serialVersionUID = 1L;
+
+			/** Tipo de pasada. */
+			private final int tipo;
+
+			/** Iteración actual. */
+			private final int iteracion;
+
+			/** Primer índice del tramo y siguiente al último. */
+			private final int desde, hasta;
+
+			/**
+			 * Constructor de la tarea.
+			 * @param tipo Tipo de pasada.
+			 * @param iteracion Iteración actual.
+			 * @param desde Primer índice del tramo.
+			 * @param hasta Siguiente al último índice del tramo.
+			 */
+			Pasada(int tipo, int iteracion, int desde, int hasta) {
+				this.tipo = tipo;
+				this.iteracion = iteracion;
+				this.desde = desde;
+				this.hasta = hasta;
+			}
+
+			@Override
+			protected Long compute() {
+
+				if (hasta - desde > TRAMO_MINIMO) {
+					int medio = (desde + hasta) >>> 1;
+					Pasada izquierda = new Pasada(tipo, iteracion, desde, medio);
+					izquierda.fork();
+					long derecha = new Pasada(tipo, iteracion, medio, hasta).compute();
+					return izquierda.join() + derecha;
+				}
+
+				Posicion posicion = new Posicion();
+				long resueltas = 0;
+				for (int indice = desde; indice < hasta; indice++) {
+					int valor = valores[indice] & 0xFF;
+					switch (tipo) {
+					case INICIAR:
+						iniciar(indice, posicion);
+						break;
+					case VERIFICAR:
+						if (valor == DESCONOCIDA && ((candidatos.get(indice >>> 6) & (1L << (indice & 63))) != 0
+								|| (salidas[indice] & 0xFF) == iteracion + 1) && verificar(indice, iteracion, posicion))
+							resueltas++;
+						break;
+					default:
+						if (valor == iteracion + 1)
+							propagar(indice, posicion);
+						break;
+					}
+				}
+				return resueltas;
+			}
+		}
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que devuelve la fila inicial de los peones de un color.
+	 * @param color Índice (ordinal) del color.
+	 * @return índice de la fila.
+	 */
+	private static int filaInicial(int color) {
+		return color == Color.BLANCO.ordinal() ? 6 : 1;
+	}
+
+	/**
+	 * Método que indica si un peón de un color nunca puede estar en una casilla: la primera fila de su bando.
+	 * @param color Índice (ordinal) del color.
+	 * @param casilla índice de la casilla.
+	 * @return true si es imposible.
+	 */
+	private static boolean filaImposible(int color, int casilla) {
+		return TableroBits.fila(casilla) == (color == Color.BLANCO.ordinal() ? 7 : 0);
+	}
+}
@@ -0,0 +1,204 @@
+package juego.finales;
+
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+
+/**
+ * Piezas de un final, en el orden en que se indexan sus posiciones.
+ *
+ * Se escribe con las letras inglesas de las piezas, primero el rey blanco y sus piezas y después
+ * el rey negro y las suyas: "KQK" es rey y dama contra rey, "KBNK" rey, alfil y caballo contra rey
+ * y "KQKR" rey y dama contra rey y torre. La pieza 0 es siempre el rey blanco, la 1 el rey negro
+ * y después van las blancas y las negras en el orden escrito.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+final class Material {
+
+	/**
+	 * Letras de los tipos en el orden de sus índices en TableroBits.
+	 */
+	private static final String LETRAS = "PNBRQK";
+
+	/**
+	 * Número de firmas distintas: tres valores (0, 1 o 2 piezas) para cada color y tipo salvo el rey.
+	 */
+	static final int FIRMAS = 59049;
+
+	/**
+	 * Potencias de 3 de cada color y tipo en la firma.
+	 */
+	private static final int [] POTENCIAS = new int [2 * TableroBits.REY];
+
+	static {
+		POTENCIAS[0] = 1;
+		for (int i = 1; i < POTENCIAS.length; i++)
+			POTENCIAS[i] = POTENCIAS[i - 1] * 3;
+	}
+
+	/**
+	 * Nombre del final.
+	 */
+	private final String nombre;
+
+	/**
+	 * Índice (ordinal) del color de cada pieza.
+	 */
+	private final int [] colores;
+
+	/**
+	 * Índice del tipo de cada pieza.
+	 */
+	private final int [] tipos;
+
+	/**
+	 * Constructor de la clase.
+	 * @param nombre Nombre del final, como "KQK".
+	 * @throws IllegalArgumentException si el nombre no es válido o tiene más de GeneradorFinales.MAXIMO_PIEZAS piezas.
+	 */
+	Material(String nombre) {
+
+		int segundoRey = nombre.indexOf('K', 1);
+		if (!nombre.startsWith("K") || segundoRey < 0 || nombre.indexOf('K', segundoRey + 1) >= 0
+				|| nombre.length() > GeneradorFinales.MAXIMO_PIEZAS)
+			throw new IllegalArgumentException("Final incorrecto: " + nombre);
+
+		this.nombre = nombre;
+		colores = new int [nombre.length()];
+		tipos = new int [nombre.length()];
+		colores[1] = Color.NEGRO.ordinal();
+		tipos[0] = tipos[1] = TableroBits.REY;
+		int pieza = 2;
+		for (int i = 1; i < nombre.length(); i++) {
+			if (i == segundoRey)
+				continue;
+			int tipo = LETRAS.indexOf(nombre.charAt(i));
+			if (tipo < 0 || tipo == TableroBits.REY)
+				throw new IllegalArgumentException("Pieza desconocida '" + nombre.charAt(i) + "' en el final: " + nombre);
+			colores[pieza] = (i < segundoRey ? Color.BLANCO : Color.NEGRO).ordinal();
+			tipos[pieza++] = tipo;
+		}
+	}
+
+	/**
+	 * Método que devuelve el nombre del final.
+	 * @return nombre, como "KQK".
+	 */
+	String obtenerNombre() {
+		return nombre;
+	}
+
+	/**
+	 * Método que devuelve el número de piezas, reyes incluidos.
+	 * @return número de piezas.
+	 */
+	int obtenerNumeroPiezas() {
+		return tipos.length;
+	}
+
+	/**
+	 * Método que devuelve el color de una pieza.
+	 * @param pieza Posición de la pieza en el final.
+	 * @return índice (ordinal) del color.
+	 */
+	int obtenerColor(int pieza) {
+		return colores[pieza];
+	}
+
+	/**
+	 * Método que devuelve el tipo de una pieza.
+	 * @param pieza Posición de la pieza en el final.
+	 * @return índice del tipo.
+	 */
+	int obtenerTipo(int pieza) {
+		return tipos[pieza];
+	}
+
+	/**
+	 * Método que devuelve el número de posiciones del índice: casilla de cada pieza y turno.
+	 * @return número de posiciones.
+	 */
+	int obtenerNumeroPosiciones() {
+		return 2 << (6 * tipos.length);
+	}
+
+	/**
+	 * Método que calcula la firma del final: el número de piezas de cada color y tipo, sin los reyes,
+	 * como cifras en base 3.
+	 * @param invertido Si se intercambian los colores.
+	 * @return firma, menor que FIRMAS.
+	 */
+	int firma(boolean invertido) {
+
+		int firma = 0;
+		for (int i = 2; i < tipos.length; i++) {
+			int color = colores[i] ^ (invertido ? 1 : 0);
+			firma += POTENCIAS[color * TableroBits.REY + tipos[i]];
+		}
+		return firma;
+	}
+
+	/**
+	 * Método que calcula la firma de las piezas de un tablero, como la de un final.
+	 * @param tablero Representación en bits del tablero.
+	 * @return firma, o -1 si hay más de dos piezas iguales de un color.
+	 */
+	static int firma(TableroBits tablero) {
+
+		int firma = 0;
+		for (int tipo = 0; tipo < TableroBits.REY; tipo++) {								//Sin Color.values(), que crea un array
+			int blancas = Long.bitCount(tablero.obtenerMascara(Color.BLANCO, tipo));
+			int negras = Long.bitCount(tablero.obtenerMascara(Color.NEGRO, tipo));
+			if (blancas > 2 || negras > 2)
+				return -1;
+			firma += blancas * POTENCIAS[tipo] + negras * POTENCIAS[TableroBits.REY + tipo];
+		}
+		return firma;
+	}
+
+	/**
+	 * Método que calcula el índice de una posición del tablero.
+	 * Si hay varias piezas iguales de un color da igual cuál va primero: ambas posiciones valen lo mismo.
+	 * Con los colores invertidos, las piezas blancas del final se buscan entre las negras del tablero, el
+	 * tablero se refleja de arriba abajo y se cambia el turno, de modo que "KQK" sirve también para la
+	 * dama negra contra el rey blanco.
+	 * @param tablero Representación en bits del tablero.
+	 * @param turno Color que mueve.
+	 * @param invertido Si se intercambian los colores.
+	 * @return índice, o -1 si las piezas del tablero no son las del final.
+	 */
+	int indice(TableroBits tablero, Color turno, boolean invertido) {
+
+		if (Long.bitCount(tablero.obtenerOcupadas()) != tipos.length)
+			return -1;
+		int reflejo = invertido ? 56 : 0;												//Invierte la fila de la casilla
+		int indice = (turno.ordinal() ^ (invertido ? 1 : 0)) << (6 * tipos.length);
+		long usadas = 0;
+		for (int i = 0; i < tipos.length; i++) {
+			Color color = (colores[i] == Color.BLANCO.ordinal()) != invertido ? Color.BLANCO : Color.NEGRO;
+			long libres = tablero.obtenerMascara(color, tipos[i]) & ~usadas;
+			if (libres == 0)
+				return -1;
+			int casilla = Long.numberOfTrailingZeros(libres);
+			usadas |= 1L << casilla;
+			indice |= (casilla ^ reflejo) << (6 * i);
+		}
+		return indice;
+	}
+
+	/**
+	 * Método que devuelve el final que queda al capturar una pieza, con las demás en el mismo orden.
+	 * @param capturada Posición de la pieza capturada, que no puede ser un rey.
+	 * @return final sin la pieza.
+	 */
+	Material sinPieza(int capturada) {
+
+		StringBuilder blancas = new StringBuilder("K"), negras = new StringBuilder("K");
+		for (int i = 2; i < tipos.length; i++)
+			if (i != capturada)
+				(colores[i] == Color.BLANCO.ordinal() ? blancas : negras).append(LETRAS.charAt(tipos[i]));
+		return new Material(blancas.append(negras).toString());
+	}
+}
@@ -0,0 +1,171 @@
+package juego.finales;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+
+/**
+ * Consulta de los ficheros de finales de un directorio para cualquier posición con pocas piezas.
+ *
+ * Cada fichero se indexa por la firma de su final, el número de piezas de cada color y tipo, y
+ * también por la de su final con los colores cambiados: "KQK" responde igual para la dama negra
+ * contra el rey blanco reflejando el tablero. Las consultas no reservan memoria salvo al
+ * descomprimir un bloque que no está en la caché, y se pueden hacer desde varios hilos a la vez,
+ * ya que cada fichero tiene su propio cerrojo.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see FicheroFinal
+ */
+public final class SondaFinales {
+
+	/**
+	 * Resultados de consultarResultado desde el punto de vista del que mueve.
+	 */
+	public static final int GANADA = 1, TABLAS = 0, PERDIDA = -1;
+
+	/**
+	 * Resultado o distancia de una posición que no está en ningún fichero.
+	 */
+	public static final int DESCONOCIDA = Integer.MIN_VALUE;
+
+	/**
+	 * Ficheros de cada tipo por firma del final, null si no hay.
+	 */
+	private final FicheroFinal [][] ficheros = new FicheroFinal [2][Material.FIRMAS];
+
+	/**
+	 * Si el fichero de cada tipo y firma es el del final con los colores cambiados.
+	 */
+	private final boolean [][] invertidos = new boolean [2][Material.FIRMAS];
+
+	/**
+	 * Número de ficheros añadidos.
+	 */
+	private int numeroFicheros;
+
+	/**
+	 * Método que abre todos los ficheros de finales de un directorio, con la caché por defecto.
+	 * @param directorio Directorio de los ficheros .wdl y .dtm.
+	 * @return sonda con los ficheros abiertos.
+	 * @throws IOException si no se puede leer algún fichero.
+	 */
+	public static SondaFinales abrir(Path directorio) throws IOException {
+		return abrir(directorio, FicheroFinal.BLOQUES_CACHE);
+	}
+
+	/**
+	 * Método que abre todos los ficheros de finales de un directorio.
+	 * @param directorio Directorio de los ficheros .wdl y .dtm.
+	 * @param bloquesCache Bloques descomprimidos que se guardan de cada fichero.
+	 * @return sonda con los ficheros abiertos.
+	 * @throws IOException si no se puede leer algún fichero.
+	 */
+	public static SondaFinales abrir(Path directorio, int bloquesCache) throws IOException {
+
+		SondaFinales sonda = new SondaFinales();
+		try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio,
+				"*{" + FicheroFinal.EXTENSIONES[0] + "," + FicheroFinal.EXTENSIONES[1] + "}")) {
+			for (Path fichero : contenido)
+				sonda.anadir(FicheroFinal.abrir(fichero, bloquesCache));
+		}
+		return sonda;
+	}
+
+	/**
+	 * Método que añade un fichero a la sonda, sustituyendo al del mismo final y tipo si lo hay.
+	 * @param fichero Fichero abierto.
+	 */
+	public void anadir(FicheroFinal fichero) {
+
+		Material material = fichero.obtenerPiezas();
+		int tipo = fichero.obtenerTipo();
+		int firmaInvertida = material.firma(true);
+		if (ficheros[tipo][firmaInvertida] == null || invertidos[tipo][firmaInvertida]) {
+			ficheros[tipo][firmaInvertida] = fichero;
+			invertidos[tipo][firmaInvertida] = true;
+		}
+		ficheros[tipo][material.firma(false)] = fichero;			//Con piezas simétricas gana el sentido directo
+		invertidos[tipo][material.firma(false)] = false;
+		numeroFicheros++;
+	}
+
+	/**
+	 * Método que devuelve el número de ficheros añadidos.
+	 * @return número de ficheros.
+	 */
+	public int obtenerNumeroFicheros() {
+		return numeroFicheros;
+	}
+
+	/**
+	 * Método que indica si la sonda tiene los dos tipos de fichero de un final, en algún sentido.
+	 * @param nombre Nombre del final, como "KQK".
+	 * @return true si puede responder resultados y distancias.
+	 * @throws IllegalArgumentException si el nombre no es válido.
+	 */
+	public boolean tieneFinal(String nombre) {
+		int firma = new Material(nombre).firma(false);
+		return ficheros[FicheroFinal.RESULTADOS][firma] != null && ficheros[FicheroFinal.DISTANCIAS][firma] != null;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que consulta si el que mueve gana, pierde o hace tablas.
+	 * Si solo está el fichero de distancias se responde con él.
+	 * @param tablero Representación en bits del tablero.
+	 * @param turno Color que mueve.
+	 * @return GANADA, TABLAS, PERDIDA o DESCONOCIDA.
+	 */
+	public int consultarResultado(TableroBits tablero, Color turno) {
+
+		int firma = firma(tablero);
+		if (firma <= 0)
+			return firma == 0 ? TABLAS : DESCONOCIDA;
+		FicheroFinal fichero = ficheros[FicheroFinal.RESULTADOS][firma];
+		if (fichero == null) {
+			int distancia = consultarDistancia(tablero, turno);
+			return distancia == DESCONOCIDA ? DESCONOCIDA
+					: distancia == TablaFinal.TABLAS ? TABLAS : TablaFinal.esGanada(distancia) ? GANADA : PERDIDA;
+		}
+		int indice = fichero.obtenerPiezas().indice(tablero, turno, invertidos[FicheroFinal.RESULTADOS][firma]);
+		switch (fichero.obtenerValor(indice)) {
+		case FicheroFinal.RESULTADO_GANADA:		return GANADA;
+		case FicheroFinal.RESULTADO_PERDIDA:	return PERDIDA;
+		default:								return TABLAS;
+		}
+	}
+
+	/**
+	 * Método que consulta la distancia al mate del que mueve.
+	 * @param tablero Representación en bits del tablero.
+	 * @param turno Color que mueve.
+	 * @return medios movimientos hasta el mate, impar si gana el que mueve, TablaFinal.TABLAS o DESCONOCIDA.
+	 */
+	public int consultarDistancia(TableroBits tablero, Color turno) {
+
+		int firma = firma(tablero);
+		if (firma <= 0)
+			return firma == 0 ? TablaFinal.TABLAS : DESCONOCIDA;
+		FicheroFinal fichero = ficheros[FicheroFinal.DISTANCIAS][firma];
+		if (fichero == null)
+			return DESCONOCIDA;
+		return fichero.obtenerValor(fichero.obtenerPiezas().indice(tablero, turno, invertidos[FicheroFinal.DISTANCIAS][firma])) - 1;
+	}
+
+	/**
+	 * Método que calcula la firma de las piezas si la posición puede estar en algún fichero.
+	 * @param tablero Representación en bits del tablero.
+	 * @return firma, 0 si solo quedan los reyes o -1 si hay demasiadas piezas.
+	 */
+	private static int firma(TableroBits tablero) {
+		if (Long.bitCount(tablero.obtenerOcupadas()) > GeneradorFinales.MAXIMO_PIEZAS)
+			return -1;
+		return Material.firma(tablero);
+	}
+}
@@ -0,0 +1,258 @@
+package juego.finales;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+
+/**
+ * Tabla de distancias al mate de todas las posiciones de un final, empaquetada en bits.
+ *
+ * Cada posición se identifica por la casilla de cada pieza, en el orden de Material, y por el
+ * color que mueve: indice = turno * 64^n + suma(casilla[i] * 64^i). Para cada una se guarda con
+ * el mínimo número de bits la distancia al mate en medios movimientos más uno, o 0 si es tablas
+ * o no es legal. Una distancia impar es victoria del que mueve y una par, derrota; 0 es que ya
+ * está en jaque mate.
+ *
+ * El fichero, en orden little-endian, tiene el formato:
+ * <pre>
+ * int   MAGICO, VERSION, bits, distanciaMaxima, piezas
+ * byte  nombre[piezas]              letras del final, como "KQK"
+ * long  datos[]                     valores de bits en bits, del bit bajo al alto
+ * </pre>
+ * Una tabla es inmutable y se puede compartir entre hilos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see GeneradorFinales
+ */
+public final class TablaFinal {
+
+	/**
+	 * Número mágico al inicio del fichero: "TFAJ".
+	 */
+	public static final int MAGICO = 0x4A414654;
+
+	/**
+	 * Versión del formato del fichero.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Distancia de las posiciones en tablas.
+	 */
+	public static final int TABLAS = -1;
+
+	/**
+	 * Bytes de la cabecera sin el nombre.
+	 */
+	private static final int BYTES_CABECERA = 5 * Integer.BYTES;
+
+	/**
+	 * Piezas del final.
+	 */
+	private final Material material;
+
+	/**
+	 * Bits por posición.
+	 */
+	private final int bits;
+
+	/**
+	 * Mayor distancia al mate de la tabla.
+	 */
+	private final int distanciaMaxima;
+
+	/**
+	 * Valores empaquetados.
+	 */
+	private final long [] datos;
+
+	/**
+	 * Constructor de la clase.
+	 * @param material Piezas del final.
+	 * @param bits Bits por posición.
+	 * @param distanciaMaxima Mayor distancia al mate.
+	 * @param datos Valores empaquetados.
+	 */
+	private TablaFinal(Material material, int bits, int distanciaMaxima, long [] datos) {
+		this.material = material;
+		this.bits = bits;
+		this.distanciaMaxima = distanciaMaxima;
+		this.datos = datos;
+	}
+
+	/**
+	 * Método que empaqueta los valores de un final ya generado.
+	 * @param material Piezas del final.
+	 * @param valores Distancia más uno de cada posición, 0 si es tablas y ilegal los valores mayores que limite.
+	 * @param limite Mayor valor válido.
+	 * @return tabla empaquetada.
+	 */
+	static TablaFinal empaquetar(Material material, byte [] valores, int limite) {
+
+		int maximo = 0;
+		for (byte valor : valores)
+			if ((valor & 0xFF) <= limite)
+				maximo = Math.max(maximo, valor & 0xFF);
+		int bits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(maximo));
+		long [] datos = new long [numeroPalabras(valores.length, bits)];
+		for (int i = 0; i < valores.length; i++) {
+			long valor = (valores[i] & 0xFF) <= limite ? valores[i] & 0xFF : 0;
+			long bit = (long) i * bits;
+			int palabra = (int) (bit >>> 6), desplazamiento = (int) (bit & 63);
+			datos[palabra] |= valor << desplazamiento;
+			if (desplazamiento + bits > Long.SIZE)							//El valor continúa en la siguiente palabra
+				datos[palabra + 1] |= valor >>> (Long.SIZE - desplazamiento);
+		}
+		return new TablaFinal(material, bits, maximo - 1, datos);
+	}
+
+	/**
+	 * Método que calcula el número de palabras de los datos.
+	 * @param posiciones Número de posiciones.
+	 * @param bits Bits por posición.
+	 * @return número de palabras de 64 bits.
+	 */
+	private static int numeroPalabras(int posiciones, int bits) {
+		return (int) (((long) posiciones * bits + Long.SIZE - 1) / Long.SIZE);
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que carga una tabla de un fichero, proyectándolo en memoria.
+	 * @param fichero Ruta del fichero.
+	 * @return tabla cargada.
+	 * @throws IOException si no se puede leer o el formato no es válido.
+	 */
+	public static TablaFinal cargar(Path fichero) throws IOException {
+
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+			long tamano = canal.size();
+			if (tamano < BYTES_CABECERA)
+				throw new IOException("Fichero de final demasiado corto: " + fichero);
+			MappedByteBuffer proyectado = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+			ByteBuffer buffer = proyectado.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.getInt() != MAGICO || buffer.getInt() != VERSION)
+				throw new IOException("Formato de final incorrecto: " + fichero);
+			int bits = buffer.getInt(), distanciaMaxima = buffer.getInt(), piezas = buffer.getInt();
+			if (bits <= 0 || bits > Byte.SIZE || piezas < 2 || piezas > GeneradorFinales.MAXIMO_PIEZAS)
+				throw new IOException("Formato de final incorrecto: " + fichero);
+			byte [] nombre = new byte [piezas];
+			buffer.get(nombre);
+			Material material;
+			try {
+				material = new Material(new String(nombre, StandardCharsets.US_ASCII));
+			}
+			catch (IllegalArgumentException e) {
+				throw new IOException("Final incorrecto en el fichero: " + fichero, e);
+			}
+
+			long [] datos = new long [numeroPalabras(material.obtenerNumeroPosiciones(), bits)];
+			if (tamano != BYTES_CABECERA + piezas + (long) datos.length * Long.BYTES)
+				throw new IOException("Tamaño de final incorrecto: " + fichero);
+			buffer.asLongBuffer().get(datos);
+			return new TablaFinal(material, bits, distanciaMaxima, datos);
+		}
+	}
+
+	/**
+	 * Método que guarda la tabla en un fichero con el formato que lee cargar.
+	 * @param fichero Ruta del fichero.
+	 * @throws IOException si no se puede escribir.
+	 */
+	public void guardar(Path fichero) throws IOException {
+
+		byte [] nombre = material.obtenerNombre().getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buffer = ByteBuffer.allocate(BYTES_CABECERA + nombre.length + datos.length * Long.BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGICO).putInt(VERSION).putInt(bits).putInt(distanciaMaxima).putInt(nombre.length).put(nombre);
+		buffer.asLongBuffer().put(datos);
+		Files.write(fichero, buffer.array());
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que devuelve el nombre del final.
+	 * @return nombre, como "KQK".
+	 */
+	public String obtenerMaterial() {
+		return material.obtenerNombre();
+	}
+
+	/**
+	 * Método que devuelve las piezas del final.
+	 * @return piezas del final.
+	 */
+	Material obtenerPiezas() {
+		return material;
+	}
+
+	/**
+	 * Método que devuelve el número de posiciones del índice.
+	 * @return número de posiciones.
+	 */
+	public int obtenerNumeroPosiciones() {
+		return material.obtenerNumeroPosiciones();
+	}
+
+	/**
+	 * Método que devuelve los bits con los que se guarda cada posición.
+	 * @return bits por posición.
+	 */
+	public int obtenerBitsPorPosicion() {
+		return bits;
+	}
+
+	/**
+	 * Método que devuelve la mayor distancia al mate de la tabla.
+	 * @return distancia en medios movimientos, o TABLAS si no hay ningún mate.
+	 */
+	public int obtenerDistanciaMaxima() {
+		return distanciaMaxima;
+	}
+
+	/**
+	 * Método que devuelve la distancia al mate de una posición.
+	 * @param indice Índice de la posición.
+	 * @return medios movimientos hasta el mate, impar si gana el que mueve, o TABLAS.
+	 */
+	public int obtenerDistancia(int indice) {
+		long bit = (long) indice * bits;
+		int palabra = (int) (bit >>> 6), desplazamiento = (int) (bit & 63);
+		long valor = datos[palabra] >>> desplazamiento;
+		if (desplazamiento + bits > Long.SIZE)
+			valor |= datos[palabra + 1] << (Long.SIZE - desplazamiento);
+		return (int) (valor & ((1L << bits) - 1)) - 1;
+	}
+
+	/**
+	 * Método que indica si una distancia al mate es victoria del que mueve.
+	 * @param distancia Distancia devuelta por obtenerDistancia.
+	 * @return true si es impar.
+	 */
+	public static boolean esGanada(int distancia) {
+		return distancia != TABLAS && (distancia & 1) == 1;
+	}
+
+	/**
+	 * Método que calcula el índice de una posición del tablero.
+	 * Si hay varias piezas iguales de un color da igual cuál va primero: ambas posiciones valen lo mismo.
+	 * @param tablero Representación en bits del tablero.
+	 * @param turno Color que mueve.
+	 * @return índice, o -1 si las piezas del tablero no son las del final.
+	 */
+	public int indice(TableroBits tablero, Color turno) {
+		return material.indice(tablero, turno, false);
+	}
+}
@@ -0,0 +1,9 @@
+/**
+ * Paquete con la generación y consulta de tablas de finales
+ * de pocas piezas con la distancia al mate de cada posición.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+package juego.finales;
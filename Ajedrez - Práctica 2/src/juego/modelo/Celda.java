@@ -28,6 +28,11 @@ public class Celda{
 	 */
 	private Pieza pieza;
 	
+	/**
+	 * Representación en bits del tablero al que pertenece la celda, null si la celda está suelta.
+	 */
+	private TableroBits bits;
+	
 	//Constructores
 	
 	/**
@@ -53,7 +58,8 @@ public class Celda{
 		if (pieza != null) {
 			pieza.establecerCelda(null);
 			pieza = null;
-			
+			if (bits != null)
+				bits.quitar(TableroBits.casilla(fila, columna));
 		}
 	}
 	
@@ -73,6 +79,18 @@ public class Celda{
 	 */
 	public void establecerPieza(Pieza pieza) {
 		this.pieza=pieza;
+		if (bits != null)
+			bits.colocar(TableroBits.casilla(fila, columna), pieza);
+	}
+	
+	/**
+	 * Método que asocia la celda a la representación en bits de su tablero.
+	 * A partir de ese momento cada cambio de pieza se refleja en las máscaras.
+	 * @param bits Representación en bits del tablero.
+	 * @see bits
+	 */
+	void vincular(TableroBits bits) {
+		this.bits = bits;
 	}
 	
 	/**
@@ -44,4 +44,15 @@ public enum Color{
 		return caracter;
 		
 	}
+
+	/**
+	 * Getter que devuelve el color contrario.
+	 * 
+	 * @return NEGRO si es BLANCO, BLANCO si es NEGRO.
+	 */
+	public Color obtenerContrario(){
+		
+		return this == BLANCO ? NEGRO : BLANCO;
+		
+	}
 }
\ No newline at end of file
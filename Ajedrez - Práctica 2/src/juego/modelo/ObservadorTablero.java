@@ -0,0 +1,31 @@
+package juego.modelo;
+
+/**
+ * Interfaz de los objetos que siguen los cambios de piezas de un tablero.
+ *
+ * TableroBits avisa al observador cada vez que coloca o quita una pieza, de modo que
+ * puede mantener sus propios datos de forma incremental sin recorrer el tablero.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see TableroBits#establecerObservador(ObservadorTablero)
+ */
+public interface ObservadorTablero {
+
+	/**
+	 * Método que recibe una pieza colocada en el tablero.
+	 * @param color Índice (ordinal) del color.
+	 * @param tipo Índice del tipo de pieza.
+	 * @param casilla índice de la casilla.
+	 */
+	public void piezaColocada(int color, int tipo, int casilla);
+
+	/**
+	 * Método que recibe una pieza quitada del tablero.
+	 * @param color Índice (ordinal) del color.
+	 * @param tipo Índice del tipo de pieza.
+	 * @param casilla índice de la casilla.
+	 */
+	public void piezaQuitada(int color, int tipo, int casilla);
+}
@@ -0,0 +1,198 @@
+package juego.modelo;
+
+import juego.modelo.pieza.Alfil;
+import juego.modelo.pieza.Caballo;
+import juego.modelo.pieza.Dama;
+import juego.modelo.pieza.Peon;
+import juego.modelo.pieza.Torre;
+
+/**
+ * Valores de cada pieza en cada casilla para la evaluación incremental.
+ *
+ * Cada combinación de color, tipo y casilla tiene un valor de medio juego y otro de final,
+ * que suman el material de la pieza y la bonificación de la casilla. La fase de la partida
+ * se mide con las piezas que quedan: caballos y alfiles cuentan 1, torres 2 y damas 4,
+ * hasta FASE_MAXIMA con todas las piezas iniciales. TableroBits suma estos valores al
+ * colocar y quitar piezas, igual que la clave Zobrist.
+ *
+ * Las tablas se escriben desde el punto de vista de las blancas, con la fila 8 del ajedrez
+ * arriba como en los índices de casilla; las de las negras son su reflejo vertical.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see TableroBits
+ */
+public final class TablasPosicion {
+
+	/** Fase de la partida con todas las piezas iniciales. */
+	public static final int FASE_MAXIMA = 24;
+
+	/** Material de cada tipo de pieza, el rey no cuenta. */
+	private static final int [] MATERIAL = {Peon.VALOR, Caballo.VALOR, Alfil.VALOR, Torre.VALOR, Dama.VALOR, 0};
+
+	/** Contribución de cada tipo de pieza a la fase. */
+	private static final int [] FASES = {0, 1, 1, 2, 4, 0};
+
+	/** Casillas del peón en el medio juego. */
+	private static final int [] PEON_MEDIO = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 10,  10,  20,  30,  30,  20,  10,  10,
+		  5,   5,  10,  25,  25,  10,   5,   5,
+		  0,   0,   0,  20,  20,   0,   0,   0,
+		  5,  -5, -10,   0,   0, -10,  -5,   5,
+		  5,  10,  10, -20, -20,  10,  10,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	/** Casillas del peón en el final: cuenta el avance. */
+	private static final int [] PEON_FINAL = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 60,  60,  60,  60,  60,  60,  60,  60,
+		 40,  40,  40,  40,  40,  40,  40,  40,
+		 25,  25,  25,  25,  25,  25,  25,  25,
+		 10,  10,  10,  10,  10,  10,  10,  10,
+		  5,   5,   5,   5,   5,   5,   5,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	/** Casillas del caballo. */
+	private static final int [] CABALLO = {
+		-50, -40, -30, -30, -30, -30, -40, -50,
+		-40, -20,   0,   0,   0,   0, -20, -40,
+		-30,   0,  10,  15,  15,  10,   0, -30,
+		-30,   5,  15,  20,  20,  15,   5, -30,
+		-30,   0,  15,  20,  20,  15,   0, -30,
+		-30,   5,  10,  15,  15,  10,   5, -30,
+		-40, -20,   0,   5,   5,   0, -20, -40,
+		-50, -40, -30, -30, -30, -30, -40, -50
+	};
+
+	/** Casillas del alfil. */
+	private static final int [] ALFIL = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   5,   5,  10,  10,   5,   5, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,  10,  10,  10,  10,  10,  10, -10,
+		-10,   5,   0,   0,   0,   0,   5, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20
+	};
+
+	/** Casillas de la torre. */
+	private static final int [] TORRE = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  5,  10,  10,  10,  10,  10,  10,   5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		  0,   0,   0,   5,   5,   0,   0,   0
+	};
+
+	/** Casillas de la dama. */
+	private static final int [] DAMA = {
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		 -5,   0,   5,   5,   5,   5,   0,  -5,
+		  0,   0,   5,   5,   5,   5,   0,  -5,
+		-10,   5,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,   0,   0,   0,   0, -10,
+		-20, -10, -10,  -5,  -5, -10, -10, -20
+	};
+
+	/** Casillas del rey en el medio juego: resguardado detrás de sus peones. */
+	private static final int [] REY_MEDIO = {
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-20, -30, -30, -40, -40, -30, -30, -20,
+		-10, -20, -20, -20, -20, -20, -20, -10,
+		 20,  20,   0,   0,   0,   0,  20,  20,
+		 20,  30,  10,   0,   0,  10,  30,  20
+	};
+
+	/** Casillas del rey en el final: hacia el centro. */
+	private static final int [] REY_FINAL = {
+		-50, -40, -30, -20, -20, -30, -40, -50,
+		-30, -20, -10,   0,   0, -10, -20, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -30,   0,   0,   0,   0, -30, -30,
+		-50, -30, -30, -30, -30, -30, -30, -50
+	};
+
+	/** Valores de medio juego por color, tipo y casilla, material incluido. */
+	private static final int [][][] MEDIO_JUEGO =
+			new int [Color.values().length][TableroBits.NUMERO_TIPOS][TableroBits.NUMERO_CASILLAS];
+
+	/** Valores de final por color, tipo y casilla, material incluido. */
+	private static final int [][][] FINAL =
+			new int [Color.values().length][TableroBits.NUMERO_TIPOS][TableroBits.NUMERO_CASILLAS];
+
+	static {
+		int [][] medio = {PEON_MEDIO, CABALLO, ALFIL, TORRE, DAMA, REY_MEDIO};
+		int [][] fin = {PEON_FINAL, CABALLO, ALFIL, TORRE, DAMA, REY_FINAL};
+		for (Color color : Color.values())
+			for (int tipo = 0; tipo < TableroBits.NUMERO_TIPOS; tipo++)
+				for (int casilla = 0; casilla < TableroBits.NUMERO_CASILLAS; casilla++) {
+					int vista = color == Color.BLANCO ? casilla : casilla ^ 56;		//Reflejo vertical para las negras
+					MEDIO_JUEGO[color.ordinal()][tipo][casilla] = MATERIAL[tipo] + medio[tipo][vista];
+					FINAL[color.ordinal()][tipo][casilla] = MATERIAL[tipo] + fin[tipo][vista];
+				}
+	}
+
+	/**
+	 * Constructor privado, clase de utilidad.
+	 */
+	private TablasPosicion() {
+	}
+
+	/**
+	 * Método que devuelve el material de un tipo de pieza.
+	 * @param tipo Índice del tipo de pieza.
+	 * @return valor en centésimas de peón, 0 para el rey.
+	 */
+	public static int material(int tipo) {
+		return MATERIAL[tipo];
+	}
+
+	/**
+	 * Método que devuelve lo que aporta un tipo de pieza a la fase de la partida.
+	 * @param tipo Índice del tipo de pieza.
+	 * @return peso en la fase.
+	 */
+	public static int fase(int tipo) {
+		return FASES[tipo];
+	}
+
+	/**
+	 * Método que devuelve el valor de medio juego de una pieza en una casilla.
+	 * @param color Índice (ordinal) del color.
+	 * @param tipo Índice del tipo de pieza.
+	 * @param casilla índice de la casilla.
+	 * @return material más bonificación de la casilla.
+	 */
+	public static int medioJuego(int color, int tipo, int casilla) {
+		return MEDIO_JUEGO[color][tipo][casilla];
+	}
+
+	/**
+	 * Método que devuelve el valor de final de una pieza en una casilla.
+	 * @param color Índice (ordinal) del color.
+	 * @param tipo Índice del tipo de pieza.
+	 * @param casilla índice de la casilla.
+	 * @return material más bonificación de la casilla.
+	 */
+	public static int finalPartida(int color, int tipo, int casilla) {
+		return FINAL[color][tipo][casilla];
+	}
+}
@@ -3,6 +3,7 @@ package juego.modelo;
 import juego.modelo.Tablero;
 import juego.modelo.pieza.Pieza;
 import juego.util.Sentido;
+import juego.util.TablasPrecalculadas;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,6 +36,16 @@ public class Tablero{
 	 */
 	private List<List<Celda>> celdas;
 	
+	/**
+	 * Celdas indexadas por casilla (fila * 8 + columna) para acceso directo.
+	 */
+	private Celda [] casillas;
+	
+	/**
+	 * Representación en mapas de bits del tablero, sincronizada con las celdas.
+	 */
+	private TableroBits bits;
+	
 	
 	
 	//Constructores-------------------------------
@@ -47,12 +58,17 @@ public class Tablero{
 	 */
 	public Tablero () {
 		celdas = new ArrayList<List<Celda>>(NUMERO_FILAS);
+		casillas = new Celda [NUMERO_FILAS * NUMERO_COLUMNAS];
+		bits = new TableroBits();
 			
 		for (int i=0; i< NUMERO_FILAS; i++) {
 			celdas.add(new ArrayList<Celda>(NUMERO_COLUMNAS));
 			for (int j=0; j< NUMERO_COLUMNAS;j++) {
 				
-				celdas.get(i).add(new Celda (i,j));
+				Celda celda = new Celda (i,j);
+				celda.vincular(bits);							//Cada cambio en la celda actualiza las máscaras
+				celdas.get(i).add(celda);
+				casillas[TableroBits.casilla(i, j)] = celda;
 			}//fin j
 		}//fin i
 		
@@ -121,6 +137,37 @@ public class Tablero{
 
 	}
 
+//--------------------------------------------------------
+	/**
+	 * Método que devuelve una Celda a partir de su índice de casilla, sin comprobación de límites.
+	 * @param casilla índice entre 0 y 63 (fila * 8 + columna).
+	 * @return La celda de esa casilla.
+	 */
+	public Celda obtenerCelda (int casilla) {
+		return casillas[casilla];
+	}
+	
+//--------------------------------------------------------
+	/**
+	 * Método que devuelve la representación en mapas de bits del tablero.
+	 * @return TableroBits sincronizado con las celdas.
+	 * @see bits
+	 */
+	public TableroBits obtenerTableroBits() {
+		return bits;
+	}
+
+//--------------------------------------------------------
+	/**
+	 * Método que devuelve la clave Zobrist de la colocación actual de las piezas.
+	 * Se actualiza de forma incremental cada vez que se coloca o elimina una pieza.
+	 * @return clave de 64 bits.
+	 * @see TableroBits#obtenerClave()
+	 */
+	public long obtenerClave() {
+		return bits.obtenerClave();
+	}
+
 //--------------------------------------------------------
 	
 	/**
@@ -202,8 +249,6 @@ public class Tablero{
 		assert origen != null  : "CELD.INTERM: Celda origen nula";
 		assert destino != null : "CELD.INTERM: Celda destino nula";
 		
-		List<Celda> celdas = new ArrayList <Celda>();
-		
 		//Comprobamos que ambas celdas se encuentran en el tablero.
 		
 		if (this.estaEnTablero(origen.obtenerFila(), origen.obtenerColumna()) == false ) 
@@ -211,34 +256,22 @@ public class Tablero{
 		if (this.estaEnTablero(destino.obtenerFila(), destino.obtenerColumna()) == false)
 			throw new CoordenadasIncorrectasException();
 		
-		Sentido sentido = obtenerSentido (origen,destino);		//Obtenemos el sentido en el que están ambas celdas.
+		int casillaOrigen  = TableroBits.casilla(origen.obtenerFila(), origen.obtenerColumna());
+		int casillaDestino = TableroBits.casilla(destino.obtenerFila(), destino.obtenerColumna());
 		
-		if (sentido==null)										//Si no es un sentido válido, devolvemos la lista vacía.
-			return celdas;
+		Sentido sentido = TablasPrecalculadas.sentidoEntre(casillaOrigen, casillaDestino);	//Sentido precalculado entre ambas celdas.
+		long entreMedias = TablasPrecalculadas.entreMedias(casillaOrigen, casillaDestino);	//Máscara precalculada de las casillas intermedias.
 		
-		//Calculamos el número de filas y columnas que avanza el movimiento, así como la dirección (ya que tienen signo)
-		int horizontal = destino.obtenerColumna() - origen.obtenerColumna();		 //Columna destino -  columna origen
-		int vertical   = destino.obtenerFila()    - origen.obtenerFila();    		 //Fila destino    -  fila origen
+		List<Celda> celdas = new ArrayList <Celda>(Long.bitCount(entreMedias));
 		
-		//Creamos 2 valores temporales con los que recorreremos el tablero
-		int tmp_h = origen.obtenerFila();
-		int tmp_v = origen.obtenerColumna();
-		
-		
-		int bucle;
-		//Calculamos el número de iteraciones del bucle.
-		if (Math.abs(vertical)-Math.abs(horizontal) == 0)			//Si es diagonal
-			bucle = Math.abs(vertical);								//Ambas son iguales (Avanza en X lo mismo que en Y)
-		else 
-			bucle = Math.abs(horizontal+vertical);					//Si no es diagonal, uno de los dos es 0, por lo que el bucle es la suma (uno de ellos)
+		if (sentido==null)										//Si no es un sentido válido, devolvemos la lista vacía.
+			return celdas;
 		
+		//Recorremos desde origen hacia destino para mantener el orden de las celdas
+		int paso = sentido.obtenerDesplazamientoEnFilas() * NUMERO_COLUMNAS + sentido.obtenerDesplazamientoEnColumnas();
 		
-		for (int i=0; i<bucle-1; i++) {
-			tmp_h += sentido.obtenerDesplazamientoEnFilas();
-			tmp_v += sentido.obtenerDesplazamientoEnColumnas();
-			
-			celdas.add(this.obtenerCelda(tmp_h,tmp_v ));
-		}
+		for (int casilla = casillaOrigen + paso; casilla != casillaDestino; casilla += paso)
+			celdas.add(casillas[casilla]);
 			
 		
 		return celdas;
@@ -275,7 +308,7 @@ public class Tablero{
 			throw new CoordenadasIncorrectasException();
 		
 		
-		return (char)(columna+97)+""+(char)(56-fila);
+		return new String(new char [] {(char)(columna+97), (char)(56-fila)});
 	}
 //--------------------------------------------------------	
 	/**
@@ -298,31 +331,54 @@ public class Tablero{
 //-----------------------------------------------------------
 	/**
 	 * 
-	 * Esta función utiliza un doble bucle para contar el número de celdas que contienen .
+	 * Esta función cuenta el número de celdas que contienen
 	 * un pieza del mismo color que el pasado como parámetro.
 	 * 
+	 * Se obtiene a partir de la máscara del color, sin recorrer las celdas.
+	 * 
 	 * @param color Tipo enumerado color.
 	 * @return nPiezasColor Devuelve el número de piezas que hay en el tablero cuyo color coincide con el pasado al método.
 	 */
 	public int obtenerNumeroPiezas (Color color) {
-		//personal
-		int nPiezasColor=0;
-		try {
-			for (int i=0; i<obtenerNumeroFilas(); i++) {
-				for (int j=0; j<obtenerNumeroColumnas(); j++) {
-					
-					Celda celda = obtenerCelda (i,j);
-					if (celda.estaVacia() == false) {
-						if (celda.obtenerPieza().obtenerColor().equals(color))
-							nPiezasColor++;
-					}
-				}//Fin for j
-			}//fin for i
-		}
-		catch (CoordenadasIncorrectasException e) {
-			encadenarExcepciones(e);
+		
+		return bits.obtenerNumeroPiezas(color);
+	}
+	
+//-----------------------------------------------------------
+	/**
+	 * Método que devuelve la celda en la que se encuentra el rey de un color, en tiempo constante.
+	 * 
+	 * @param color Color del rey.
+	 * @return Celda del rey o null si no hay rey de ese color.
+	 */
+	public Celda obtenerCeldaRey (Color color) {
+		
+		int casilla = bits.obtenerCasillaRey(color);
+		if (casilla < 0)
+			return null;
+		else
+			return casillas[casilla];
+	}
+	
+//-----------------------------------------------------------
+	/**
+	 * Método que devuelve las celdas ocupadas por piezas de un color.
+	 * 
+	 * Solo se visitan las casillas activas en la máscara del color.
+	 * 
+	 * @param color Color de las piezas.
+	 * @return Lista con las celdas ocupadas, ordenadas por fila y columna.
+	 */
+	public List<Celda> obtenerCeldasOcupadas (Color color) {
+		
+		long mascara = bits.obtenerOcupadas(color);
+		List<Celda> ocupadas = new ArrayList<Celda>(Long.bitCount(mascara));
+		
+		while (mascara != 0) {
+			ocupadas.add(casillas[Long.numberOfTrailingZeros(mascara)]);
+			mascara &= mascara - 1;								//Eliminamos el bit ya visitado
 		}
-			return nPiezasColor;
+		return ocupadas;
 	}
 	
 	
@@ -375,59 +431,9 @@ public class Tablero{
 		if (this.estaEnTablero(destino.obtenerFila(), destino.obtenerColumna()) == false)
 			throw new CoordenadasIncorrectasException();
 		
-		int horizontal = destino.obtenerColumna() - origen.obtenerColumna();		 //Columna destino -  columna origen
-		int vertical   = destino.obtenerFila()    - origen.obtenerFila();    		 //Fila destino    -  fila origen
-
-		Sentido [] a_sentido = {Sentido.VERTICAL_N,Sentido.DIAGONAL_NE,Sentido.HORIZONTAL_E,Sentido.DIAGONAL_SE,
-								Sentido.VERTICAL_S,Sentido.DIAGONAL_SO,Sentido.HORIZONTAL_O,Sentido.DIAGONAL_NO};
-		
-		int id;				//indiceDireccion, se usa para devolver la posición de a_sentido;
-		
-		//Funcionamiento:
-		/* Imaginemos que tenemos un array con 8 posiciones [0-7], y colocamos cada índice la posición en su equivalente en
-		 * los 8 puntos cardinales (Sentido [] a_sentido)
-		 * 
-		 * Una vez los ordenamos como en el array, avanzamos en el sentido de las agujas del reloj y siendo 'O' la
-		 * la celda origen, cuando hacemos un moviemiento, horizontal y vertical tienen un valor (Positivo, negativo o 0)
-		 * 
-		 *  Dependiendo de esos valores tienden a ir a uno de esos cuadrantes, que corresponde con los ÍNDICES IMPARES del array
-		 *  o a uno de los ejes, correspondiente con los índices pares
-		 *  
-		 *  Luego, los movimientos diagonales tienen que ser 1:1, una casilla horizontal por cada casilla vertical, o no son válidos
-		 *  Por ello, dependiendo de cada cuadrante, H y V serán iguales, ó H+V = 0 (ya que uno es negativo)
-		 * 
-		 * 
-		 * 
-		 * 			[0]									|				  vertical negativa
-		 * 		[7]		[1]						C7		|     C1
-		 * 	[6]				[2]				------------O---------------- vertical = 0
-		 * 		[5]		[3]						C5		|     C3
-		 * 			[4]									|				  vertical positiva 
-		 * 								h negativa	horizontal = 0  h positiva
-		 */
-		
-		//El siguiente planteamiento adaptado a un algoritmo quedaría tal que así:
-		
-		if 		(vertical < 0 && horizontal == 0)
-			id = 0;	//N
-		else if (vertical < 0 && horizontal > 0 && (horizontal + vertical) == 0)
-			id = 1; //N E
-		else if (vertical == 0 && horizontal > 0)
-			id = 2; //E
-		else if (vertical > 0 && horizontal > 0 && (horizontal == vertical) )
-			id = 3; //S E
-		else if (vertical > 0 && horizontal == 0)
-			id = 4; //S
-		else if (vertical > 0 && horizontal < 0 && (horizontal + vertical) == 0)
-			id = 5; //S O
-		else if (vertical == 0 && horizontal < 0)
-			id = 6; // O
-		else if (vertical < 0 && horizontal < 0 && (horizontal == vertical))
-			id = 7; //N O
-		else
-			return null;
-		
-		return a_sentido [id];
+		//El sentido entre cada par de casillas se precalcula una única vez al cargar TablasPrecalculadas.
+		return TablasPrecalculadas.sentidoEntre(TableroBits.casilla(origen.obtenerFila(), origen.obtenerColumna()),
+				TableroBits.casilla(destino.obtenerFila(), destino.obtenerColumna()));
 	}
 	
 //-----------------------------------------------------------	
@@ -0,0 +1,567 @@
+package juego.modelo;
+
+import java.util.Arrays;
+
+import juego.modelo.pieza.Pieza;
+import juego.util.TablasPrecalculadas;
+
+/**
+ * Representación del tablero mediante mapas de bits (bitboards).
+ *
+ * Cada combinación de color y tipo de pieza tiene una máscara de 64 bits en la que
+ * el bit i está activo si hay una pieza de ese tipo y color en la casilla i.
+ * La casilla se calcula como fila * 8 + columna, con la fila 0 arriba (fila 8 del ajedrez).
+ *
+ * Las celdas de un Tablero mantienen esta representación sincronizada cada vez que
+ * se coloca o se elimina una pieza, de forma que las consultas del árbitro se
+ * resuelven con operaciones sobre máscaras en lugar de recorrer las listas de celdas.
+ * Con cada cambio se actualizan también la clave Zobrist, el material, las puntuaciones
+ * de medio juego y final de cada color y la fase de la partida.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+public final class TableroBits {
+
+	//Constantes
+	/**
+	 * Índice del tipo peón.
+	 */
+	public static final int PEON = 0;
+	/**
+	 * Índice del tipo caballo.
+	 */
+	public static final int CABALLO = 1;
+	/**
+	 * Índice del tipo alfil.
+	 */
+	public static final int ALFIL = 2;
+	/**
+	 * Índice del tipo torre.
+	 */
+	public static final int TORRE = 3;
+	/**
+	 * Índice del tipo dama.
+	 */
+	public static final int DAMA = 4;
+	/**
+	 * Índice del tipo rey.
+	 */
+	public static final int REY = 5;
+	/**
+	 * Número de tipos de pieza distintos.
+	 */
+	public static final int NUMERO_TIPOS = 6;
+	/**
+	 * Número de casillas del tablero.
+	 */
+	public static final int NUMERO_CASILLAS = 64;
+	/**
+	 * Lado del tablero (filas y columnas).
+	 */
+	private static final int LADO = 8;
+
+	//Atributos
+	/**
+	 * Máscaras de ocupación por color (índice del ordinal) y tipo de pieza.
+	 */
+	private final long [][] mascaras;
+
+	/**
+	 * Máscaras de ocupación por color.
+	 */
+	private final long [] ocupadasColor;
+
+	/**
+	 * Piezas colocadas en cada casilla, null si está vacía.
+	 */
+	private final Pieza [] piezas;
+
+	/**
+	 * Índice del tipo de la pieza de cada casilla, -1 si está vacía.
+	 */
+	private final byte [] tipos;
+
+	/**
+	 * Máscara de los peones que aún no han realizado su primer movimiento.
+	 */
+	private long peonesSinMover;
+
+	/**
+	 * Clave Zobrist de la colocación de piezas, actualizada en cada cambio.
+	 */
+	private long clave;
+
+	/**
+	 * Clave Zobrist de los peones solos, para la tabla de estructura de peones.
+	 */
+	private long clavePeones;
+
+	/**
+	 * Material de cada color, sin contar el rey.
+	 */
+	private final int [] material;
+
+	/**
+	 * Puntuación de medio juego de cada color: material y casillas de sus piezas.
+	 */
+	private final int [] medioJuego;
+
+	/**
+	 * Puntuación de final de cada color: material y casillas de sus piezas.
+	 */
+	private final int [] finalPartida;
+
+	/**
+	 * Suma de las fases de las piezas del tablero, sin limitar.
+	 * @see TablasPosicion#fase(int)
+	 */
+	private int fase;
+
+	/**
+	 * Objeto al que se avisa de cada pieza colocada o quitada, o null.
+	 */
+	private ObservadorTablero observador;
+
+	//Constructores-------------------------------
+
+	/**
+	 * Constructor que genera una representación vacía.
+	 */
+	public TableroBits() {
+		mascaras = new long [Color.values().length][NUMERO_TIPOS];
+		ocupadasColor = new long [Color.values().length];
+		piezas = new Pieza [NUMERO_CASILLAS];
+		tipos = new byte [NUMERO_CASILLAS];
+		Arrays.fill(tipos, (byte) -1);
+		material = new int [Color.values().length];
+		medioJuego = new int [Color.values().length];
+		finalPartida = new int [Color.values().length];
+	}
+
+	//Métodos-------------------------------------------
+
+	/**
+	 * Método que calcula el índice de casilla a partir de la fila y la columna.
+	 * @param fila de la celda.
+	 * @param columna de la celda.
+	 * @return índice entre 0 y 63.
+	 */
+	public static int casilla(int fila, int columna) {
+		return fila * LADO + columna;
+	}
+
+	/**
+	 * Método que obtiene la fila de un índice de casilla.
+	 * @param casilla índice de la casilla.
+	 * @return fila.
+	 */
+	public static int fila(int casilla) {
+		return casilla >>> 3;
+	}
+
+	/**
+	 * Método que obtiene la columna de un índice de casilla.
+	 * @param casilla índice de la casilla.
+	 * @return columna.
+	 */
+	public static int columna(int casilla) {
+		return casilla & (LADO - 1);
+	}
+
+	/**
+	 * Método que convierte la letra de una pieza en su índice de tipo.
+	 * @param letra Letra de la pieza (P, C, A, T, D, R).
+	 * @return índice del tipo o -1 si la letra no corresponde con ninguna pieza.
+	 */
+	public static int indiceTipo(char letra) {
+		switch (letra) {
+		case 'P':
+			return PEON;
+		case 'C':
+			return CABALLO;
+		case 'A':
+			return ALFIL;
+		case 'T':
+			return TORRE;
+		case 'D':
+			return DAMA;
+		case 'R':
+			return REY;
+		}
+		return -1;
+	}
+
+//--------------------------------------------------------
+	/**
+	 * Método que actualiza una casilla con la pieza pasada, eliminando la que hubiese antes.
+	 * Si la pieza es nula la casilla queda vacía.
+	 * @param casilla índice de la casilla.
+	 * @param pieza Pieza a colocar o null.
+	 */
+	void colocar(int casilla, Pieza pieza) {
+		quitar(casilla);
+		if (pieza != null) {
+			long bit = 1L << casilla;
+			int color = pieza.obtenerColor().ordinal();
+			int tipo = indiceTipo(pieza.toChar());
+			mascaras[color][tipo] |= bit;
+			ocupadasColor[color] |= bit;
+			piezas[casilla] = pieza;
+			tipos[casilla] = (byte) tipo;
+			clave ^= Zobrist.clavePieza(color, tipo, casilla);
+			if (tipo == PEON)
+				clavePeones ^= Zobrist.clavePieza(color, tipo, casilla);
+			material[color] += TablasPosicion.material(tipo);
+			medioJuego[color] += TablasPosicion.medioJuego(color, tipo, casilla);
+			finalPartida[color] += TablasPosicion.finalPartida(color, tipo, casilla);
+			fase += TablasPosicion.fase(tipo);
+			if (observador != null)
+				observador.piezaColocada(color, tipo, casilla);
+			if (tipo == PEON && pieza.esPrimerMovimiento()) {
+				peonesSinMover |= bit;
+				clave ^= Zobrist.clavePeonSinMover(casilla);
+			}
+		}
+	}
+
+	/**
+	 * Método que vacía una casilla.
+	 * @param casilla índice de la casilla.
+	 */
+	void quitar(int casilla) {
+		Pieza pieza = piezas[casilla];
+		if (pieza != null) {
+			long bit = 1L << casilla;
+			int color = pieza.obtenerColor().ordinal();
+			int tipo = indiceTipo(pieza.toChar());
+			mascaras[color][tipo] &= ~bit;
+			ocupadasColor[color] &= ~bit;
+			piezas[casilla] = null;
+			tipos[casilla] = -1;
+			clave ^= Zobrist.clavePieza(color, tipo, casilla);
+			if (tipo == PEON)
+				clavePeones ^= Zobrist.clavePieza(color, tipo, casilla);
+			material[color] -= TablasPosicion.material(tipo);
+			medioJuego[color] -= TablasPosicion.medioJuego(color, tipo, casilla);
+			finalPartida[color] -= TablasPosicion.finalPartida(color, tipo, casilla);
+			fase -= TablasPosicion.fase(tipo);
+			if (observador != null)
+				observador.piezaQuitada(color, tipo, casilla);
+			if ((peonesSinMover & bit) != 0) {						//Usamos el estado guardado, la pieza pudo marcarse antes de quitarla
+				peonesSinMover &= ~bit;
+				clave ^= Zobrist.clavePeonSinMover(casilla);
+			}
+		}
+	}
+
+	/**
+	 * Método que establece el objeto al que se avisa de cada pieza colocada o quitada.
+	 * Solo hay uno; el nuevo sustituye al anterior.
+	 * @param observador Observador, o null para no avisar a nadie.
+	 */
+	public void establecerObservador(ObservadorTablero observador) {
+		this.observador = observador;
+	}
+
+	/**
+	 * Método que devuelve el objeto al que se avisa de cada pieza colocada o quitada.
+	 * @return observador, o null si no hay.
+	 */
+	public ObservadorTablero obtenerObservador() {
+		return observador;
+	}
+
+//--------------------------------------------------------
+	/**
+	 * Método que devuelve la máscara de un tipo de pieza de un color.
+	 * @param color Color de las piezas.
+	 * @param tipo Índice del tipo de pieza.
+	 * @return máscara de 64 bits.
+	 */
+	public long obtenerMascara(Color color, int tipo) {
+		return mascaras[color.ordinal()][tipo];
+	}
+
+	/**
+	 * Método que devuelve la máscara con todas las piezas de un color.
+	 * @param color Color de las piezas.
+	 * @return máscara de 64 bits.
+	 */
+	public long obtenerOcupadas(Color color) {
+		return ocupadasColor[color.ordinal()];
+	}
+
+	/**
+	 * Método que devuelve la máscara con todas las casillas ocupadas.
+	 * @return máscara de 64 bits.
+	 */
+	public long obtenerOcupadas() {
+		return ocupadasColor[0] | ocupadasColor[1];
+	}
+
+	/**
+	 * Método que devuelve la casilla del rey de un color en tiempo constante.
+	 * @param color Color del rey.
+	 * @return índice de la casilla, o -1 si no hay rey de ese color.
+	 */
+	public int obtenerCasillaRey(Color color) {
+		long reyes = mascaras[color.ordinal()][REY];
+		return reyes == 0 ? -1 : Long.numberOfTrailingZeros(reyes);
+	}
+
+	/**
+	 * Método que devuelve el número de piezas de un color.
+	 * @param color Color de las piezas.
+	 * @return número de bits activos en la máscara del color.
+	 */
+	public int obtenerNumeroPiezas(Color color) {
+		return Long.bitCount(ocupadasColor[color.ordinal()]);
+	}
+
+	/**
+	 * Método que devuelve la pieza de una casilla.
+	 * @param casilla índice de la casilla.
+	 * @return Pieza o null si está vacía.
+	 */
+	public Pieza obtenerPieza(int casilla) {
+		return piezas[casilla];
+	}
+
+	/**
+	 * Método que devuelve el tipo de la pieza de una casilla sin consultar la pieza.
+	 * @param casilla índice de la casilla.
+	 * @return índice del tipo de pieza, o -1 si está vacía.
+	 */
+	public int obtenerTipo(int casilla) {
+		return tipos[casilla];
+	}
+
+	/**
+	 * Método que devuelve la máscara de los peones que aún pueden avanzar dos casillas.
+	 * @return máscara de 64 bits.
+	 * @see peonesSinMover
+	 */
+	public long obtenerPeonesSinMover() {
+		return peonesSinMover;
+	}
+
+	/**
+	 * Método que devuelve la clave Zobrist de la colocación de piezas, sin incluir el turno.
+	 * @return clave de 64 bits.
+	 * @see clave
+	 */
+	public long obtenerClave() {
+		return clave;
+	}
+
+	/**
+	 * Método que devuelve la clave Zobrist de la posición de los peones, sin el resto de piezas.
+	 * @return clave de 64 bits, 0 si no hay peones.
+	 * @see clavePeones
+	 */
+	public long obtenerClavePeones() {
+		return clavePeones;
+	}
+
+	/**
+	 * Método que recalcula desde cero la clave Zobrist de los peones.
+	 * @return clave de 64 bits.
+	 */
+	public long calcularClavePeones() {
+		long calculada = 0L;
+		for (Color color : Color.values()) {
+			long peones = mascaras[color.ordinal()][PEON];
+			for (; peones != 0; peones &= peones - 1)
+				calculada ^= Zobrist.clavePieza(color.ordinal(), PEON, Long.numberOfTrailingZeros(peones));
+		}
+		return calculada;
+	}
+
+	/**
+	 * Método que recalcula desde cero la clave Zobrist de la colocación de piezas.
+	 * Permite comprobar que la clave incremental es correcta.
+	 * @return clave de 64 bits.
+	 */
+	public long calcularClave() {
+		long calculada = 0L;
+		for (int casilla = 0; casilla < NUMERO_CASILLAS; casilla++) {
+			Pieza pieza = piezas[casilla];
+			if (pieza != null) {
+				calculada ^= Zobrist.clavePieza(pieza.obtenerColor().ordinal(), indiceTipo(pieza.toChar()), casilla);
+				if ((peonesSinMover & (1L << casilla)) != 0)
+					calculada ^= Zobrist.clavePeonSinMover(casilla);
+			}
+		}
+		return calculada;
+	}
+
+	/**
+	 * Método que devuelve el material de un color en tiempo constante.
+	 * @param color Color de las piezas.
+	 * @return suma de los valores de sus piezas, sin contar el rey.
+	 */
+	public int obtenerMaterial(Color color) {
+		return material[color.ordinal()];
+	}
+
+	/**
+	 * Método que devuelve la puntuación de medio juego de un color en tiempo constante.
+	 * @param color Color de las piezas.
+	 * @return material y bonificaciones de casilla de medio juego.
+	 * @see TablasPosicion#medioJuego(int, int, int)
+	 */
+	public int obtenerMedioJuego(Color color) {
+		return medioJuego[color.ordinal()];
+	}
+
+	/**
+	 * Método que devuelve la puntuación de final de un color en tiempo constante.
+	 * @param color Color de las piezas.
+	 * @return material y bonificaciones de casilla de final.
+	 * @see TablasPosicion#finalPartida(int, int, int)
+	 */
+	public int obtenerFinal(Color color) {
+		return finalPartida[color.ordinal()];
+	}
+
+	/**
+	 * Método que devuelve la fase de la partida.
+	 * @return entre 0 (solo reyes y peones) y TablasPosicion.FASE_MAXIMA (todas las piezas).
+	 */
+	public int obtenerFase() {
+		return Math.min(fase, TablasPosicion.FASE_MAXIMA);
+	}
+
+	/**
+	 * Método que recalcula desde cero el material, las puntuaciones y la fase y los compara con los incrementales.
+	 * @return true si coinciden.
+	 */
+	public boolean comprobarEvaluacion() {
+		int [] materialCalculado = new int [material.length];
+		int [] medioCalculado = new int [medioJuego.length];
+		int [] finalCalculado = new int [finalPartida.length];
+		int faseCalculada = 0;
+		for (int casilla = 0; casilla < NUMERO_CASILLAS; casilla++) {
+			Pieza pieza = piezas[casilla];
+			if (pieza != null) {
+				int color = pieza.obtenerColor().ordinal();
+				int tipo = indiceTipo(pieza.toChar());
+				materialCalculado[color] += TablasPosicion.material(tipo);
+				medioCalculado[color] += TablasPosicion.medioJuego(color, tipo, casilla);
+				finalCalculado[color] += TablasPosicion.finalPartida(color, tipo, casilla);
+				faseCalculada += TablasPosicion.fase(tipo);
+			}
+		}
+		return Arrays.equals(materialCalculado, material) && Arrays.equals(medioCalculado, medioJuego)
+				&& Arrays.equals(finalCalculado, finalPartida) && faseCalculada == fase;
+	}
+
+	/**
+	 * Método que indica si una casilla está vacía.
+	 * @param casilla índice de la casilla.
+	 * @return true si no hay pieza.
+	 */
+	public boolean estaVacia(int casilla) {
+		return (obtenerOcupadas() & (1L << casilla)) == 0;
+	}
+
+//--------------------------------------------------------
+	/**
+	 * Método que comprueba si no hay piezas entre dos casillas alineadas, sin reservar memoria.
+	 * Si las casillas no están en la misma fila, columna o diagonal el camino se considera libre.
+	 * @param origen índice de la casilla de origen.
+	 * @param destino índice de la casilla de destino.
+	 * @return true si todas las casillas intermedias están vacías.
+	 */
+	public boolean caminoLibre(int origen, int destino) {
+		return (TablasPrecalculadas.entreMedias(origen, destino) & obtenerOcupadas()) == 0;
+	}
+
+//--------------------------------------------------------
+	/**
+	 * Método que calcula las casillas alcanzadas desde una casilla en un sentido hasta la primera pieza.
+	 * La casilla de la primera pieza encontrada se incluye.
+	 * @param indiceHorario índice del sentido en el orden de las agujas del reloj.
+	 * @param casilla índice de la casilla de origen.
+	 * @param ocupadas máscara de casillas ocupadas.
+	 * @return máscara de casillas alcanzadas.
+	 */
+	private static long ataquesRayo(int indiceHorario, int casilla, long ocupadas) {
+		long rayo = TablasPrecalculadas.rayo(indiceHorario, casilla);
+		long bloqueos = rayo & ocupadas;
+		if (bloqueos != 0) {
+			int primera = TablasPrecalculadas.esRayoCreciente(indiceHorario)
+					? Long.numberOfTrailingZeros(bloqueos)
+					: (NUMERO_CASILLAS - 1) - Long.numberOfLeadingZeros(bloqueos);
+			rayo ^= TablasPrecalculadas.rayo(indiceHorario, primera);	//Quitamos lo que hay detrás de la primera pieza
+		}
+		return rayo;
+	}
+
+	/**
+	 * Método que calcula las casillas alcanzadas en línea recta desde una casilla.
+	 * @param casilla índice de la casilla de origen.
+	 * @param ocupadas máscara de casillas ocupadas.
+	 * @return máscara de casillas alcanzadas, incluidas las primeras piezas de cada sentido.
+	 */
+	public static long ataquesRectos(int casilla, long ocupadas) {
+		return ataquesRayo(0, casilla, ocupadas) | ataquesRayo(2, casilla, ocupadas)
+				| ataquesRayo(4, casilla, ocupadas) | ataquesRayo(6, casilla, ocupadas);
+	}
+
+	/**
+	 * Método que calcula las casillas alcanzadas en diagonal desde una casilla.
+	 * @param casilla índice de la casilla de origen.
+	 * @param ocupadas máscara de casillas ocupadas.
+	 * @return máscara de casillas alcanzadas, incluidas las primeras piezas de cada sentido.
+	 */
+	public static long ataquesDiagonales(int casilla, long ocupadas) {
+		return ataquesRayo(1, casilla, ocupadas) | ataquesRayo(3, casilla, ocupadas)
+				| ataquesRayo(5, casilla, ocupadas) | ataquesRayo(7, casilla, ocupadas);
+	}
+
+	/**
+	 * Método que indica si un color avanza sus peones hacia el norte (filas menores).
+	 * @param color Color de los peones.
+	 * @return true para las blancas.
+	 */
+	public static boolean avanzaHaciaNorte(Color color) {
+		return color == Color.BLANCO;
+	}
+
+//--------------------------------------------------------
+	/**
+	 * Método que indica si una casilla está atacada por alguna pieza de un color.
+	 * @param casilla índice de la casilla.
+	 * @param atacante Color de las piezas atacantes.
+	 * @return true si alguna pieza del color puede llegar a la casilla.
+	 */
+	public boolean estaAtacada(int casilla, Color atacante) {
+		return obtenerAtacantes(casilla, atacante, obtenerOcupadas()) != 0;
+	}
+
+	/**
+	 * Método que calcula las piezas de un color que atacan una casilla.
+	 *
+	 * Se parte de la casilla atacada: se recorren los ocho sentidos hasta la primera pieza
+	 * y se comprueban los saltos de caballo, las casillas adyacentes y las diagonales de los peones.
+	 * El coste es constante y no reserva memoria.
+	 *
+	 * @param casilla índice de la casilla.
+	 * @param atacante Color de las piezas atacantes.
+	 * @param ocupadas máscara de casillas ocupadas a considerar.
+	 * @return máscara con las casillas de las piezas atacantes.
+	 */
+	public long obtenerAtacantes(int casilla, Color atacante, long ocupadas) {
+		long [] piezasAtacante = mascaras[atacante.ordinal()];
+		long damas = piezasAtacante[DAMA];
+
+		return (TablasPrecalculadas.ataquesCaballo(casilla) & piezasAtacante[CABALLO])
+				| (TablasPrecalculadas.ataquesRey(casilla) & piezasAtacante[REY])
+				| (TablasPrecalculadas.ataquesPeon(!avanzaHaciaNorte(atacante), casilla) & piezasAtacante[PEON])
+				| (ataquesRectos(casilla, ocupadas) & (piezasAtacante[TORRE] | damas) & ocupadas)
+				| (ataquesDiagonales(casilla, ocupadas) & (piezasAtacante[ALFIL] | damas) & ocupadas);
+	}
+}
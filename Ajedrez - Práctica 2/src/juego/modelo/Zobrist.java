@@ -0,0 +1,79 @@
+package juego.modelo;
+
+import java.util.SplittableRandom;
+
+/**
+ * Claves aleatorias para el cálculo de la clave Zobrist de una posición.
+ *
+ * La clave de una posición es el XOR de las claves de cada pieza en su casilla,
+ * de los peones que aún pueden avanzar dos casillas y del turno. Al colocar o quitar
+ * una pieza basta con un XOR para actualizarla.
+ *
+ * Las claves se generan con una semilla fija para que sean iguales en cada ejecución.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see TableroBits
+ */
+public final class Zobrist {
+
+	/** Semilla fija del generador de claves. */
+	private static final long SEMILLA = 0x4D65507246A3B1C5L;
+
+	/** Claves de cada pieza por color, tipo y casilla. */
+	private static final long [][][] CLAVES_PIEZA =
+			new long [Color.values().length][TableroBits.NUMERO_TIPOS][TableroBits.NUMERO_CASILLAS];
+
+	/** Claves de los peones que no han realizado su primer movimiento, por casilla. */
+	private static final long [] CLAVES_PEON_SIN_MOVER = new long [TableroBits.NUMERO_CASILLAS];
+
+	/** Clave del turno de las negras. */
+	private static final long CLAVE_TURNO_NEGRO;
+
+	static {
+		SplittableRandom aleatorio = new SplittableRandom(SEMILLA);
+		for (long [][] porTipo : CLAVES_PIEZA)
+			for (long [] porCasilla : porTipo)
+				for (int i = 0; i < porCasilla.length; i++)
+					porCasilla[i] = aleatorio.nextLong();
+		for (int i = 0; i < CLAVES_PEON_SIN_MOVER.length; i++)
+			CLAVES_PEON_SIN_MOVER[i] = aleatorio.nextLong();
+		CLAVE_TURNO_NEGRO = aleatorio.nextLong();
+	}
+
+	/**
+	 * Constructor privado, clase de utilidad.
+	 */
+	private Zobrist() {
+	}
+
+	/**
+	 * Método que devuelve la clave de una pieza en una casilla.
+	 * @param color Índice (ordinal) del color.
+	 * @param tipo Índice del tipo de pieza.
+	 * @param casilla índice de la casilla.
+	 * @return clave de 64 bits.
+	 */
+	public static long clavePieza(int color, int tipo, int casilla) {
+		return CLAVES_PIEZA[color][tipo][casilla];
+	}
+
+	/**
+	 * Método que devuelve la clave de un peón sin mover en una casilla.
+	 * @param casilla índice de la casilla.
+	 * @return clave de 64 bits.
+	 */
+	public static long clavePeonSinMover(int casilla) {
+		return CLAVES_PEON_SIN_MOVER[casilla];
+	}
+
+	/**
+	 * Método que devuelve la clave asociada al turno.
+	 * @param turno Color con el turno, puede ser null si la partida no ha empezado.
+	 * @return clave del turno negro, o 0 para el blanco.
+	 */
+	public static long claveTurno(Color turno) {
+		return turno == Color.NEGRO ? CLAVE_TURNO_NEGRO : 0L;
+	}
+}
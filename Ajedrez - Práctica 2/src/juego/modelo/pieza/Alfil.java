@@ -12,6 +12,11 @@ import juego.util.Sentido;
 */
 
 public class Alfil extends PiezaAbstracta{
+
+	/**
+	 * Valor material del alfil en centésimas de peón.
+	 */
+	public static final int VALOR = 330;
 	
 	/**
 	 * Constructor de la clase.
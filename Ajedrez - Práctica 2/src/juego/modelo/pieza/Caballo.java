@@ -12,6 +12,11 @@ import juego.util.Sentido;
 */
 
 public class Caballo extends PiezaAbstracta{
+
+	/**
+	 * Valor material del caballo en centésimas de peón.
+	 */
+	public static final int VALOR = 320;
 	
 	/**
 	 * Constructor de la clase.
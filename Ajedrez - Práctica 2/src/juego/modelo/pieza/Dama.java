@@ -12,6 +12,11 @@ import juego.util.Sentido;
 */
 
 public class Dama extends PiezaAbstracta{
+
+	/**
+	 * Valor material de la dama en centésimas de peón.
+	 */
+	public static final int VALOR = 900;
 	
 	/**
 	 * Constructor de la clase.
@@ -12,6 +12,11 @@ import juego.util.Sentido;
 */
 
 public class Peon extends PiezaAbstracta{
+
+	/**
+	 * Valor material del peón, que es la unidad de las puntuaciones (centésimas de peón).
+	 */
+	public static final int VALOR = 100;
 	
 	/**
 	 * Constructor de la clase.
@@ -44,6 +44,12 @@ public interface Pieza {
 	 */
 	public void marcarPrimerMovimiento();
 	
+	/**
+	 * Método que devuelve la pieza al estado de "No ha sido movida".
+	 * Se utiliza al deshacer el primer movimiento de una pieza.
+	 */
+	public void desmarcarPrimerMovimiento();
+	
 	/**
 	 * Método que devuelve la celda actual del tablero en la que se encuentra la pieza.
 	 * @return Celda
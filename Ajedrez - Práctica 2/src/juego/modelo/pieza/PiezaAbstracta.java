@@ -3,6 +3,7 @@ package juego.modelo.pieza;
 import juego.modelo.Celda;
 import juego.modelo.Color;
 import juego.util.Sentido;
+import juego.util.TablasPrecalculadas;
 
 /**
  * Clase abstracta de la que heredarán las distintas piezas del juego.
@@ -78,6 +79,14 @@ public abstract class PiezaAbstracta implements Pieza {
 		this.primerMovimiento = false;
 	}
 	
+	/**
+	 * Método que fija el estado de la variable primerMovimiento a true.
+	 * @see primerMovimiento
+	 */
+	public void desmarcarPrimerMovimiento() {
+		this.primerMovimiento = true;
+	}
+	
 	/**
 	 * 
 	 * Método que colocar una celda pasada en su llamada.
@@ -138,33 +147,14 @@ public abstract class PiezaAbstracta implements Pieza {
 	}
 	
 	/**
-	 * Método que devuelve un array ordenado con los sentidos.
-	 * @return Array con los sentidos ordenados en el sentido de las agujas del reloj.
-	 */
-	private Sentido [] obtenerSentidos () {
-		
-		Sentido [] sentidos = {Sentido.VERTICAL_N,Sentido.DIAGONAL_NE,Sentido.HORIZONTAL_E,Sentido.DIAGONAL_SE,
-								Sentido.VERTICAL_S,Sentido.DIAGONAL_SO,Sentido.HORIZONTAL_O,Sentido.DIAGONAL_NO};
-		
-		return sentidos;
-	}
-	
-	/**
-	 * Devuelve el índice equivalente de una pieza al array de sentidos.
+	 * Devuelve el índice equivalente de un sentido en el orden de las agujas del reloj.
 	 * @param sentido Sentido del que queremos hallar la posición. 
-	 * @return Posición del sentido que está en el array Sentidos.
+	 * @return Posición del sentido empezando por el norte, par si es recto e impar si es diagonal.
+	 * @see TablasPrecalculadas#indiceHorario(Sentido)
 	 */
 	protected int queSentidoEs (Sentido sentido) {
 		
-		Sentido [] sentidos = obtenerSentidos();
-		
-		int posicion = -1;
-		
-		for (int i =0 ; i < sentidos.length; i++ ) {	//Tenemos en cuenta si la pieza no es un caballo, ya que no tiene un movimiento que no se ajusta al enum
-			if (sentido.equals(sentidos[i]))
-				posicion = i;
-		}
-		return posicion;
+		return TablasPrecalculadas.indiceHorario(sentido);
 	}
 
 	/**
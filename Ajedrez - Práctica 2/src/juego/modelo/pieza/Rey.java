@@ -13,6 +13,12 @@ import juego.util.Sentido;
 
 public class Rey extends PiezaAbstracta{
 
+	/**
+	 * Valor material del rey en centésimas de peón.
+	 * Es mayor que la suma del resto de piezas, porque no se puede cambiar.
+	 */
+	public static final int VALOR = 20000;
+
 	/**
 	 * Constructor de la clase.
 	 * Asigna la letra de la pieza y un color.
@@ -12,6 +12,11 @@ import juego.util.Sentido;
 */
 
 public class Torre extends PiezaAbstracta{
+
+	/**
+	 * Valor material de la torre en centésimas de peón.
+	 */
+	public static final int VALOR = 500;
 	
 	/**
 	 * Constructor de la clase.
@@ -0,0 +1,88 @@
+package juego.motor;
+
+import juego.modelo.Color;
+import juego.modelo.ObservadorTablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Capas ocultas de la red de evaluación de los dos bandos, actualizadas con cada cambio del tablero.
+ *
+ * Al colocar una pieza se suma a cada capa la columna de pesos de su entrada y al quitarla se
+ * resta, de modo que un movimiento cuesta unas pocas sumas de OCULTAS enteros de 16 bits por
+ * bando en lugar de recalcular la capa con todas las piezas. Los bucles recorren arrays de
+ * short sin saltos para que el compilador JIT los vectorice.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see RedNeuronal
+ */
+final class Acumulador implements ObservadorTablero {
+
+	/**
+	 * Red de la que se toman los pesos.
+	 */
+	private final RedNeuronal red;
+
+	/**
+	 * Capa oculta de cada bando, indexada por el ordinal del color.
+	 */
+	private final short [][] capas;
+
+	/**
+	 * Constructor de la clase.
+	 * @param red Red de la que se toman los pesos.
+	 */
+	Acumulador(RedNeuronal red) {
+		this.red = red;
+		this.capas = new short [Color.values().length][red.obtenerOcultas()];
+	}
+
+	/**
+	 * Método que recalcula las capas de los dos bandos con todas las piezas del tablero.
+	 * @param bits Representación en bits del tablero.
+	 */
+	void refrescar(TableroBits bits) {
+
+		for (short [] capa : capas)
+			System.arraycopy(red.obtenerSesgos(), 0, capa, 0, capa.length);
+		for (int casilla = 0; casilla < TableroBits.NUMERO_CASILLAS; casilla++) {
+			int tipo = bits.obtenerTipo(casilla);
+			if (tipo >= 0)
+				piezaColocada(bits.obtenerPieza(casilla).obtenerColor().ordinal(), tipo, casilla);
+		}
+	}
+
+	/**
+	 * Método que devuelve la capa oculta de un bando.
+	 * @param bando Índice (ordinal) del color.
+	 * @return array de la capa, no se debe modificar.
+	 */
+	short [] obtenerCapa(int bando) {
+		return capas[bando];
+	}
+
+	@Override
+	public void piezaColocada(int color, int tipo, int casilla) {
+
+		short [] pesos = red.obtenerPesos();
+		for (int bando = 0; bando < capas.length; bando++) {
+			short [] capa = capas[bando];
+			int base = RedNeuronal.entrada(bando, color, tipo, casilla) * capa.length;
+			for (int i = 0; i < capa.length; i++)
+				capa[i] += pesos[base + i];
+		}
+	}
+
+	@Override
+	public void piezaQuitada(int color, int tipo, int casilla) {
+
+		short [] pesos = red.obtenerPesos();
+		for (int bando = 0; bando < capas.length; bando++) {
+			short [] capa = capas[bando];
+			int base = RedNeuronal.entrada(bando, color, tipo, casilla) * capa.length;
+			for (int i = 0; i < capa.length; i++)
+				capa[i] -= pesos[base + i];
+		}
+	}
+}
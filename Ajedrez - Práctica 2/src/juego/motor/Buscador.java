@@ -0,0 +1,851 @@
+package juego.motor;
+
+import java.util.Arrays;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.finales.SondaFinales;
+import juego.finales.TablaFinal;
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+
+/**
+ * Búsqueda del mejor movimiento con alfa-beta de variante principal (PVS) y profundización iterativa.
+ *
+ * Trabaja directamente sobre la posición del árbitro con hacerMovimiento y deshacerMovimiento,
+ * por lo que al terminar la posición queda como estaba. Cada iteración busca primero el mejor
+ * movimiento de la anterior y el resto con ventana nula, repitiendo la búsqueda solo si alguno
+ * la mejora. Con una tabla de transposiciones, las posiciones ya buscadas a profundidad
+ * suficiente no se repiten y su mejor movimiento se busca primero. El resto se recorre por
+ * etapas: capturas por MVV-LVA, asesinos y tranquilos por historia y contramovimiento,
+ * tablas que se aprenden durante la búsqueda. Los límites de nodos y
+ * tiempo se comprueban cada pocos nodos; si se alcanzan se devuelve el resultado de la
+ * última iteración completa.
+ *
+ * Al llegar a la profundidad pedida, el modo de quiescencia sigue buscando solo capturas hasta
+ * que la posición queda tranquila, para no evaluar en mitad de un intercambio. El bando que mueve
+ * puede quedarse con la evaluación estática, y las capturas que pierden material según la
+ * evaluación estática de intercambios no se buscan.
+ *
+ * La poda selectiva se activa por separado para poder comparar cada técnica, y solo actúa en
+ * nodos de ventana nula sin jaque: el movimiento nulo cede el turno y, si aun así una búsqueda
+ * reducida supera beta, corta tras verificarlo con una búsqueda reducida sin movimiento nulo
+ * (y no se intenta cuando el bando solo tiene rey y peones, por el zugzwang);
+ * las reducciones tardías buscan a menos profundidad los tranquilos que van tarde en el orden y
+ * repiten la búsqueda si mejoran alfa; la poda de futilidad descarta cerca de las hojas los
+ * tranquilos que no dan jaque cuando la evaluación estática queda muy por debajo de alfa; y el
+ * razoring resuelve con la quiescencia los nodos de profundidad 1 que están aún más por debajo
+ * (a más profundidad dejaría sin ver los mates con movimientos tranquilos).
+ *
+ * Con ficheros de finales, las posiciones que están en ellos no se buscan: se puntúan con su
+ * distancia al mate, o como victoria sin distancia si solo está el fichero de resultados. Si la
+ * raíz ya está en ellos se elige directamente el movimiento que acerca el mate sin buscar.
+ *
+ * Un buscador no se debe usar desde varios hilos a la vez.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Arbitro#hacerMovimiento(int)
+ */
+public class Buscador {
+
+	/**
+	 * Puntuación de dar mate en la raíz. Un mate a n medios movimientos vale MATE - n.
+	 */
+	public static final int MATE = 30000;
+
+	/**
+	 * Cota superior de cualquier puntuación.
+	 */
+	public static final int INFINITO = MATE + 1;
+
+	/**
+	 * Número máximo de medios movimientos desde la raíz.
+	 */
+	public static final int MAXIMO_NIVELES = 128;
+
+	/**
+	 * Puntuación de una victoria de los ficheros de finales sin distancia al mate, que no se confunde con un mate.
+	 */
+	public static final int VICTORIA_FINAL = MATE - 2 * MAXIMO_NIVELES;
+
+	/**
+	 * Máxima evaluación estática en valor absoluto, por debajo de las victorias de los finales
+	 * a cualquier nivel, que se ajustan al nivel en la tabla de transposiciones.
+	 */
+	public static final int EVALUACION_MAXIMA = VICTORIA_FINAL - MAXIMO_NIVELES - 1;
+
+	/**
+	 * Máscara del número de nodos entre comprobaciones de los límites.
+	 */
+	private static final long NODOS_ENTRE_COMPROBACIONES = (1 << 10) - 1;
+
+	/**
+	 * Profundidad mínima y reducción base del movimiento nulo.
+	 */
+	private static final int PROFUNDIDAD_MINIMA_NULO = 3, REDUCCION_NULO = 2;
+
+	/**
+	 * Profundidad mínima y número de movimientos buscados sin reducir en las reducciones tardías.
+	 */
+	private static final int PROFUNDIDAD_MINIMA_REDUCCION = 3, MOVIMIENTOS_SIN_REDUCIR = 3;
+
+	/**
+	 * Márgenes de la poda de futilidad por profundidad restante.
+	 */
+	private static final int [] MARGENES_FUTILIDAD = {0, 200, 400};
+
+	/**
+	 * Márgenes del razoring por profundidad restante.
+	 */
+	private static final int [] MARGENES_RAZORING = {0, 300};
+
+	/**
+	 * Árbitro con la posición a analizar.
+	 */
+	protected final Arbitro arbitro;
+
+	/**
+	 * Evaluación de las hojas.
+	 */
+	protected final Evaluador evaluador;
+
+	/**
+	 * Tabla de transposiciones, puede ser compartida con otros buscadores. Null si no se usa.
+	 */
+	protected final TablaTransposicion tabla;
+
+	/**
+	 * Listas de movimientos, una por nivel.
+	 */
+	private final ListaMovimientos [] listas;
+
+	/**
+	 * Puntuaciones para ordenar los movimientos de cada nivel.
+	 */
+	private final int [][] puntuaciones;
+
+	/**
+	 * Recorridos por etapas de los movimientos, uno por nivel.
+	 */
+	private final SelectorMovimientos [] selectores;
+
+	/**
+	 * Asesinos, historia y contramovimientos.
+	 */
+	private final TablasOrden tablasOrden;
+
+	/**
+	 * Movimiento jugado en cada nivel del camino actual.
+	 */
+	private final int [] jugadas;
+
+	/**
+	 * Variante principal triangular: la fila n guarda la mejor continuación desde el nivel n.
+	 */
+	private final int [][] variantes;
+
+	/**
+	 * Longitud de la variante de cada nivel.
+	 */
+	private final int [] longitudVariante;
+
+	/**
+	 * Claves de las posiciones del camino actual, para detectar repeticiones.
+	 */
+	private final long [] claves;
+
+	/**
+	 * Nodos visitados en la búsqueda actual.
+	 */
+	protected long nodos;
+
+	/**
+	 * Límites de la búsqueda actual.
+	 */
+	private LimitesBusqueda limites;
+
+	/**
+	 * Instante en nanosegundos en el que se agota el tiempo, o Long.MAX_VALUE.
+	 */
+	private long finTiempo;
+
+	/**
+	 * Indica que la búsqueda se debe interrumpir. Se puede marcar desde otro hilo.
+	 */
+	private volatile boolean detenido;
+
+	/**
+	 * Indica si se pueden interrumpir las iteraciones; la primera siempre se completa.
+	 */
+	private boolean interrumpible;
+
+	/**
+	 * Indica si las hojas se resuelven buscando capturas.
+	 */
+	private boolean quiescencia;
+
+	/**
+	 * Indica si se usan MVV-LVA, asesinos, historia y contramovimientos para ordenar.
+	 */
+	private boolean ordenHeuristico;
+
+	/**
+	 * Técnicas de poda selectiva activadas.
+	 */
+	private boolean movimientoNulo, reduccionesTardias, podaFutilidad, razoring;
+
+	/**
+	 * Indica que se está verificando un corte por movimiento nulo, sin permitir otro.
+	 */
+	private boolean verificandoNulo;
+
+	/**
+	 * Libro de aperturas consultado antes de buscar. Null si no se usa.
+	 */
+	private LibroAperturas libro;
+
+	/**
+	 * Ficheros de finales consultados durante la búsqueda. Null si no se usan.
+	 */
+	private SondaFinales finales;
+
+//--constructores--------------------------------------
+
+	/**
+	 * Constructor con evaluación por material.
+	 * @param arbitro Árbitro con la posición a analizar.
+	 */
+	public Buscador(Arbitro arbitro) {
+		this(arbitro, new EvaluadorMaterial());
+	}
+
+	/**
+	 * Constructor de la clase.
+	 * @param arbitro Árbitro con la posición a analizar.
+	 * @param evaluador Evaluación de las hojas.
+	 */
+	public Buscador(Arbitro arbitro, Evaluador evaluador) {
+		this(arbitro, evaluador, null);
+	}
+
+	/**
+	 * Constructor con tabla de transposiciones.
+	 * @param arbitro Árbitro con la posición a analizar.
+	 * @param evaluador Evaluación de las hojas.
+	 * @param tabla Tabla de transposiciones, o null para no usarla.
+	 */
+	public Buscador(Arbitro arbitro, Evaluador evaluador, TablaTransposicion tabla) {
+		this.arbitro = arbitro;
+		this.evaluador = evaluador;
+		this.tabla = tabla;
+		this.listas = new ListaMovimientos [MAXIMO_NIVELES];
+		for (int i = 0; i < MAXIMO_NIVELES; i++)
+			listas[i] = new ListaMovimientos();
+		this.puntuaciones = new int [MAXIMO_NIVELES][Arbitro.MAXIMO_MOVIMIENTOS];
+		this.selectores = new SelectorMovimientos [MAXIMO_NIVELES];
+		for (int i = 0; i < MAXIMO_NIVELES; i++)
+			selectores[i] = new SelectorMovimientos();
+		this.tablasOrden = new TablasOrden();
+		this.jugadas = new int [MAXIMO_NIVELES];
+		this.variantes = new int [MAXIMO_NIVELES][MAXIMO_NIVELES];
+		this.longitudVariante = new int [MAXIMO_NIVELES];
+		this.claves = new long [MAXIMO_NIVELES];
+		this.quiescencia = true;
+		this.ordenHeuristico = true;
+	}
+
+//--métodos-----------------------------------------------
+
+	/**
+	 * Método que indica si una puntuación corresponde a un mate.
+	 * @param puntuacion Puntuación devuelta por la búsqueda.
+	 * @return true si es un mate a favor o en contra.
+	 */
+	public static boolean esPuntuacionMate(int puntuacion) {
+		return Math.abs(puntuacion) >= MATE - MAXIMO_NIVELES;
+	}
+
+	/**
+	 * Método que indica si una puntuación depende del nivel: un mate o una victoria de los ficheros de finales.
+	 * @param puntuacion Puntuación devuelta por la búsqueda.
+	 * @return true si es un mate o una victoria de los finales, a favor o en contra.
+	 */
+	public static boolean esPuntuacionVictoria(int puntuacion) {
+		return Math.abs(puntuacion) > EVALUACION_MAXIMA;
+	}
+
+	/**
+	 * Método que busca el mejor movimiento del color que mueve.
+	 * @param limites Límites de profundidad, nodos y tiempo.
+	 * @return resultado de la última iteración completa.
+	 */
+	public ResultadoBusqueda buscar(LimitesBusqueda limites) {
+
+		long inicio = System.nanoTime();
+		if (libro != null) {
+			int movimientoLibro = libro.obtenerMejorMovimiento(arbitro);
+			if (movimientoLibro != Movimiento.NULO)							//Posición conocida, no hace falta pensar
+				return new ResultadoBusqueda(movimientoLibro, 0, 0, 0, (System.nanoTime() - inicio) / 1_000_000, new int [] {movimientoLibro});
+		}
+		if (finales != null) {
+			ResultadoBusqueda resultadoFinal = resolverConFinales(inicio);
+			if (resultadoFinal != null)											//Final conocido, tampoco hace falta pensar
+				return resultadoFinal;
+		}
+		this.limites = limites;
+		this.finTiempo = limites.obtenerMilisegundos() > 0 ? inicio + limites.obtenerMilisegundos() * 1_000_000 : Long.MAX_VALUE;
+		this.nodos = 0;
+		this.detenido = false;
+		this.interrumpible = false;
+		tablasOrden.nuevaBusqueda();
+		prepararBusqueda();
+
+		int profundidadMaxima = limites.obtenerProfundidad() > 0 ? Math.min(limites.obtenerProfundidad(), MAXIMO_NIVELES - 1) : MAXIMO_NIVELES - 1;
+		int [] mejorVariante = new int [0];
+		int mejorPuntuacion = 0;
+		int profundidadAlcanzada = 0;
+
+		for (int profundidad = 1; profundidad <= profundidadMaxima; profundidad++) {
+			int puntuacion = buscarIteracion(profundidad, mejorVariante.length > 0 ? mejorVariante[0] : Movimiento.NULO);
+			if (detenido && interrumpible)
+				break;															//Iteración incompleta, nos quedamos con la anterior
+
+			mejorPuntuacion = puntuacion;
+			mejorVariante = Arrays.copyOf(variantes[0], longitudVariante[0]);
+			profundidadAlcanzada = profundidad;
+			interrumpible = true;
+
+			if (mejorVariante.length == 0 || detenido)							//Sin movimientos legales o límite alcanzado
+				break;
+			if (esPuntuacionMate(mejorPuntuacion) && MATE - Math.abs(mejorPuntuacion) <= profundidad)
+				break;															//Mate encontrado dentro del horizonte
+		}
+
+		long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+		return new ResultadoBusqueda(mejorVariante.length > 0 ? mejorVariante[0] : Movimiento.NULO,
+				mejorPuntuacion, profundidadAlcanzada, nodos, milisegundos, mejorVariante);
+	}
+
+	/**
+	 * Método que establece el libro de aperturas que se consulta antes de buscar. Si la posición
+	 * está en el libro, buscar devuelve su movimiento de más peso con profundidad 0 y sin nodos.
+	 * @param libro Libro de aperturas, o null para buscar siempre.
+	 */
+	public void establecerLibro(LibroAperturas libro) {
+		this.libro = libro;
+	}
+
+	/**
+	 * Método que devuelve el libro de aperturas que se consulta antes de buscar.
+	 * @return libro de aperturas, o null si no hay.
+	 */
+	public LibroAperturas obtenerLibro() {
+		return libro;
+	}
+
+	/**
+	 * Método que establece los ficheros de finales que se consultan durante la búsqueda. Si la raíz
+	 * está en ellos, buscar devuelve el movimiento que lleva antes al mate (o más lo retrasa)
+	 * con profundidad 0 y sin nodos.
+	 * @param finales Ficheros de finales, o null para buscar siempre.
+	 */
+	public void establecerFinales(SondaFinales finales) {
+		this.finales = finales;
+	}
+
+	/**
+	 * Método que devuelve los ficheros de finales que se consultan durante la búsqueda.
+	 * @return ficheros de finales, o null si no hay.
+	 */
+	public SondaFinales obtenerFinales() {
+		return finales;
+	}
+
+	/**
+	 * Método que activa o desactiva la búsqueda de capturas en las hojas.
+	 * @param quiescencia true para buscar capturas, false para evaluar directamente.
+	 */
+	public void establecerQuiescencia(boolean quiescencia) {
+		this.quiescencia = quiescencia;
+	}
+
+	/**
+	 * Método que indica si las hojas se resuelven buscando capturas.
+	 * @return true si la quiescencia está activada.
+	 */
+	public boolean esQuiescencia() {
+		return quiescencia;
+	}
+
+	/**
+	 * Método que activa o desactiva las heurísticas de orden. Sin ellas, tras el movimiento de la
+	 * tabla van las capturas y después el resto, en el orden de generación.
+	 * @param ordenHeuristico true para usar MVV-LVA, asesinos, historia y contramovimientos.
+	 */
+	public void establecerOrdenHeuristico(boolean ordenHeuristico) {
+		this.ordenHeuristico = ordenHeuristico;
+	}
+
+	/**
+	 * Método que indica si se usan las heurísticas de orden.
+	 * @return true si están activadas.
+	 */
+	public boolean esOrdenHeuristico() {
+		return ordenHeuristico;
+	}
+
+	/**
+	 * Método que activa o desactiva la poda por movimiento nulo.
+	 * @param movimientoNulo true para activarla.
+	 */
+	public void establecerMovimientoNulo(boolean movimientoNulo) {
+		this.movimientoNulo = movimientoNulo;
+	}
+
+	/**
+	 * Método que activa o desactiva las reducciones de los movimientos tardíos.
+	 * @param reduccionesTardias true para activarlas.
+	 */
+	public void establecerReduccionesTardias(boolean reduccionesTardias) {
+		this.reduccionesTardias = reduccionesTardias;
+	}
+
+	/**
+	 * Método que activa o desactiva la poda de futilidad.
+	 * @param podaFutilidad true para activarla.
+	 */
+	public void establecerPodaFutilidad(boolean podaFutilidad) {
+		this.podaFutilidad = podaFutilidad;
+	}
+
+	/**
+	 * Método que activa o desactiva el razoring.
+	 * @param razoring true para activarlo.
+	 */
+	public void establecerRazoring(boolean razoring) {
+		this.razoring = razoring;
+	}
+
+	/**
+	 * Método que activa o desactiva a la vez todas las técnicas de poda selectiva.
+	 * Por defecto están desactivadas y la búsqueda recorre todo el árbol hasta la profundidad pedida.
+	 * @param activada true para activarlas.
+	 */
+	public void establecerPodaSelectiva(boolean activada) {
+		movimientoNulo = reduccionesTardias = podaFutilidad = razoring = activada;
+	}
+
+	/**
+	 * Método que indica si alguna técnica de poda selectiva está activada.
+	 * @return true si hay alguna.
+	 */
+	public boolean esPodaSelectiva() {
+		return movimientoNulo || reduccionesTardias || podaFutilidad || razoring;
+	}
+
+	/**
+	 * Método que pide detener la búsqueda en curso, desde cualquier hilo.
+	 */
+	public void detener() {
+		detenido = true;
+	}
+
+	/**
+	 * Método que indica si se ha pedido detener la búsqueda o se ha alcanzado un límite.
+	 * @return true si la búsqueda se está deteniendo.
+	 */
+	protected boolean estaDetenido() {
+		return detenido && interrumpible;
+	}
+
+	/**
+	 * Método que se ejecuta al empezar cada búsqueda, antes de la primera iteración.
+	 */
+	protected void prepararBusqueda() {
+		if (tabla != null)
+			tabla.nuevaBusqueda();
+	}
+
+	/**
+	 * Método que realiza una iteración completa desde la raíz.
+	 * @param profundidad Profundidad de la iteración.
+	 * @param mejorAnterior Mejor movimiento de la iteración anterior, que se busca primero.
+	 * @return puntuación de la raíz.
+	 */
+	protected int buscarIteracion(int profundidad, int mejorAnterior) {
+		return alfaBeta(profundidad, -INFINITO, INFINITO, 0, mejorAnterior);
+	}
+
+	/**
+	 * Método de búsqueda alfa-beta de variante principal.
+	 * @param profundidad Profundidad restante.
+	 * @param alfa Cota inferior.
+	 * @param beta Cota superior.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param primero Movimiento que se busca primero, o Movimiento.NULO.
+	 * @return puntuación desde el punto de vista del color que mueve.
+	 */
+	protected int alfaBeta(int profundidad, int alfa, int beta, int nivel, int primero) {
+
+		longitudVariante[nivel] = nivel;
+		claves[nivel] = arbitro.obtenerClave();
+		if (nivel > 0 && esRepeticion(nivel))
+			return 0;
+		if (nivel > 0 && finales != null) {
+			int puntuacion = puntuarConFinales(nivel);
+			if (puntuacion != SondaFinales.DESCONOCIDA)
+				return puntuacion;												//Posición resuelta, no se busca
+		}
+		if (profundidad <= 0 || nivel >= MAXIMO_NIVELES - 1)
+			return evaluarHoja(alfa, beta, nivel);
+
+		contarNodo();
+		if (tabla != null) {
+			long datos = tabla.consultar(claves[nivel]);
+			if (datos != 0) {
+				if (nivel > 0 && TablaTransposicion.profundidad(datos) >= profundidad) {
+					int puntuacion = TablaTransposicion.puntuacionDesdeTabla(TablaTransposicion.puntuacion(datos), nivel);
+					int cota = TablaTransposicion.cota(datos);
+					if (cota == TablaTransposicion.COTA_EXACTA
+							|| (cota == TablaTransposicion.COTA_INFERIOR && puntuacion >= beta)
+							|| (cota == TablaTransposicion.COTA_SUPERIOR && puntuacion <= alfa))
+						return puntuacion;
+				}
+				if (primero == Movimiento.NULO)
+					primero = TablaTransposicion.movimiento(datos);			//Movimiento de la tabla primero
+			}
+		}
+
+		boolean enJaque = arbitro.estaEnJaque(arbitro.obtenerTurno());
+		boolean selectivo = beta - alfa == 1 && !enJaque && nivel > 0;		//Solo en nodos de ventana nula sin jaque
+		int estatica = selectivo && esPodaSelectiva() ? evaluador.evaluar(arbitro.obtenerTablero(), arbitro.obtenerTurno()) : 0;
+
+		if (selectivo && razoring && profundidad < MARGENES_RAZORING.length && estatica + MARGENES_RAZORING[profundidad] <= alfa) {
+			int puntuacion = quiescencia ? buscarCapturas(alfa, beta, nivel) : estatica;
+			if (puntuacion <= alfa)
+				return puntuacion;												//Ni las capturas lo salvan
+		}
+
+		if (selectivo && movimientoNulo && !verificandoNulo && profundidad >= PROFUNDIDAD_MINIMA_NULO && estatica >= beta
+				&& jugadas[nivel - 1] != Movimiento.NULO && tienePiezas()) {
+			int reduccion = REDUCCION_NULO + profundidad / 6;
+			jugadas[nivel] = Movimiento.NULO;
+			arbitro.cambiarTurno();												//Pasamos el turno sin mover
+			int puntuacion = -alfaBeta(profundidad - 1 - reduccion, -beta, -beta + 1, nivel + 1, Movimiento.NULO);
+			arbitro.cambiarTurno();
+			if (estaDetenido())
+				return 0;
+			if (puntuacion >= beta) {											//Verificamos sin movimiento nulo por si es zugzwang
+				verificandoNulo = true;
+				puntuacion = alfaBeta(profundidad - reduccion, beta - 1, beta, nivel, primero);
+				verificandoNulo = false;
+				if (estaDetenido())
+					return 0;
+				if (puntuacion >= beta)
+					return esPuntuacionMate(puntuacion) ? beta : puntuacion;
+			}
+		}
+		boolean futil = selectivo && podaFutilidad && profundidad < MARGENES_FUTILIDAD.length
+				&& estatica + MARGENES_FUTILIDAD[profundidad] <= alfa;
+
+		ListaMovimientos lista = listas[nivel];
+		if (arbitro.generarMovimientosLegales(lista) == 0)
+			return enJaque ? -MATE + nivel : 0;
+		int indiceAnterior = nivel > 0 ? TablasOrden.indiceContramovimiento(arbitro.obtenerTablero().obtenerTableroBits(), jugadas[nivel - 1]) : -1;
+		SelectorMovimientos selector = iniciarSelector(lista, nivel, primero, indiceAnterior);
+
+		int alfaOriginal = alfa;
+		int mejorMovimiento = Movimiento.NULO;
+		int mejor = -INFINITO;
+		int movimiento;
+		for (int i = 0; (movimiento = selector.siguiente()) != Movimiento.NULO; i++) {
+			jugadas[nivel] = movimiento;
+			arbitro.hacerMovimiento(movimiento);
+			boolean tardio = i > 0 && !enJaque && selector.obtenerEtapa() == SelectorMovimientos.ETAPA_TRANQUILOS;
+			if (tardio && futil && !arbitro.estaEnJaque(arbitro.obtenerTurno())) {
+				arbitro.deshacerMovimiento();									//Poda de futilidad
+				continue;
+			}
+			int puntuacion;
+			if (i == 0)
+				puntuacion = -alfaBeta(profundidad - 1, -beta, -alfa, nivel + 1, Movimiento.NULO);
+			else {
+				int reduccion = 0;
+				if (tardio && reduccionesTardias && profundidad >= PROFUNDIDAD_MINIMA_REDUCCION && i >= MOVIMIENTOS_SIN_REDUCIR
+						&& !arbitro.estaEnJaque(arbitro.obtenerTurno()))
+					reduccion = i >= 2 * MOVIMIENTOS_SIN_REDUCIR && profundidad >= 2 * PROFUNDIDAD_MINIMA_REDUCCION ? 2 : 1;
+				puntuacion = -alfaBeta(profundidad - 1 - reduccion, -alfa - 1, -alfa, nivel + 1, Movimiento.NULO);	//Ventana nula
+				if (reduccion > 0 && puntuacion > alfa)
+					puntuacion = -alfaBeta(profundidad - 1, -alfa - 1, -alfa, nivel + 1, Movimiento.NULO);
+				if (puntuacion > alfa && puntuacion < beta)
+					puntuacion = -alfaBeta(profundidad - 1, -beta, -alfa, nivel + 1, Movimiento.NULO);
+			}
+			arbitro.deshacerMovimiento();
+
+			if (estaDetenido())
+				return 0;
+			if (puntuacion > mejor) {
+				mejor = puntuacion;
+				mejorMovimiento = movimiento;
+				if (puntuacion > alfa) {
+					alfa = puntuacion;
+					actualizarVariante(nivel, movimiento);
+					if (alfa >= beta) {											//Corte beta
+						if (ordenHeuristico && !Movimiento.esCaptura(movimiento))
+							tablasOrden.anotarCorte(nivel, movimiento, arbitro.obtenerTurno(), profundidad, indiceAnterior);
+						break;
+					}
+				}
+			}
+		}
+
+		if (tabla != null) {
+			int cota = mejor >= beta ? TablaTransposicion.COTA_INFERIOR
+					: mejor > alfaOriginal ? TablaTransposicion.COTA_EXACTA : TablaTransposicion.COTA_SUPERIOR;
+			tabla.guardar(claves[nivel], cota == TablaTransposicion.COTA_SUPERIOR ? Movimiento.NULO : mejorMovimiento,
+					TablaTransposicion.puntuacionATabla(mejor, nivel), profundidad, cota);
+		}
+		return mejor;
+	}
+
+	/**
+	 * Método que puntúa un nodo hoja.
+	 * @param alfa Cota inferior.
+	 * @param beta Cota superior.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @return puntuación desde el punto de vista del color que mueve.
+	 */
+	protected int evaluarHoja(int alfa, int beta, int nivel) {
+		if (quiescencia)
+			return buscarCapturas(alfa, beta, nivel);
+		contarNodo();
+		return evaluador.evaluar(arbitro.obtenerTablero(), arbitro.obtenerTurno());
+	}
+
+	/**
+	 * Método de búsqueda de quiescencia: solo capturas que no pierden material, de la más a la menos rentable.
+	 * @param alfa Cota inferior.
+	 * @param beta Cota superior.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @return puntuación desde el punto de vista del color que mueve.
+	 */
+	protected int buscarCapturas(int alfa, int beta, int nivel) {
+
+		contarNodo();
+		int mejor = evaluador.evaluar(arbitro.obtenerTablero(), arbitro.obtenerTurno());
+		if (mejor >= beta || nivel >= MAXIMO_NIVELES - 1)
+			return mejor;														//Nos quedamos con la evaluación estática
+		if (mejor > alfa)
+			alfa = mejor;
+
+		ListaMovimientos lista = listas[nivel];
+		int [] ganancias = puntuaciones[nivel];
+		int total = arbitro.generarCapturasLegales(lista);
+		int buenas = 0;
+		for (int i = 0; i < total; i++) {
+			int ganancia = arbitro.evaluarIntercambio(lista.obtener(i));
+			if (ganancia >= 0) {												//Descartamos las que pierden material
+				lista.establecer(buenas, lista.obtener(i));
+				ganancias[buenas++] = ganancia;
+			}
+		}
+
+		for (int i = 0; i < buenas; i++) {
+			seleccionarMejor(lista, ganancias, i, buenas);
+			arbitro.hacerMovimiento(lista.obtener(i));
+			int puntuacion = -buscarCapturas(-beta, -alfa, nivel + 1);
+			arbitro.deshacerMovimiento();
+
+			if (estaDetenido())
+				return 0;
+			if (puntuacion > mejor) {
+				mejor = puntuacion;
+				if (puntuacion > alfa) {
+					alfa = puntuacion;
+					if (alfa >= beta)
+						break;
+				}
+			}
+		}
+		return mejor;
+	}
+
+	/**
+	 * Método que lleva a una posición el movimiento de mayor puntuación de las siguientes.
+	 * @param lista Movimientos.
+	 * @param puntuaciones Puntuación de cada movimiento, se intercambian con ellos.
+	 * @param desde Posición que se rellena.
+	 * @param hasta Número de movimientos considerados.
+	 */
+	protected static void seleccionarMejor(ListaMovimientos lista, int [] puntuaciones, int desde, int hasta) {
+
+		int mejor = desde;
+		for (int i = desde + 1; i < hasta; i++)
+			if (puntuaciones[i] > puntuaciones[mejor])
+				mejor = i;
+		if (mejor != desde) {
+			lista.intercambiar(desde, mejor);
+			int puntuacion = puntuaciones[desde];
+			puntuaciones[desde] = puntuaciones[mejor];
+			puntuaciones[mejor] = puntuacion;
+		}
+	}
+
+	/**
+	 * Método que ordena todos los movimientos de un nodo en el mismo orden en que los recorre la búsqueda.
+	 * @param lista Movimientos del nodo.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param primero Movimiento que se busca primero, o Movimiento.NULO.
+	 */
+	protected void ordenarMovimientos(ListaMovimientos lista, int nivel, int primero) {
+		SelectorMovimientos selector = iniciarSelector(lista, nivel, primero, -1);
+		while (selector.siguiente() != Movimiento.NULO)
+			;																	//El selector deja la lista ordenada
+	}
+
+	/**
+	 * Método que prepara el recorrido por etapas de los movimientos de un nodo.
+	 * @param lista Movimientos del nodo.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param primero Movimiento que se busca primero, o Movimiento.NULO.
+	 * @param indiceAnterior Índice de contramovimiento del movimiento anterior, o -1.
+	 * @return selector del nivel.
+	 */
+	private SelectorMovimientos iniciarSelector(ListaMovimientos lista, int nivel, int primero, int indiceAnterior) {
+
+		SelectorMovimientos selector = selectores[nivel];
+		if (ordenHeuristico)
+			selector.iniciar(lista, arbitro.obtenerTablero().obtenerTableroBits(), primero,
+					tablasOrden.obtenerAsesino(nivel, 0), tablasOrden.obtenerAsesino(nivel, 1),
+					tablasOrden.obtenerContramovimiento(indiceAnterior), tablasOrden.obtenerHistoria(arbitro.obtenerTurno()), true);
+		else
+			selector.iniciar(lista, arbitro.obtenerTablero().obtenerTableroBits(), primero,
+					Movimiento.NULO, Movimiento.NULO, Movimiento.NULO, null, false);
+		return selector;
+	}
+
+	/**
+	 * Método que cuenta un nodo y comprueba cada pocos nodos los límites de la búsqueda.
+	 */
+	protected void contarNodo() {
+
+		nodos++;
+		if ((nodos & NODOS_ENTRE_COMPROBACIONES) == 0) {
+			if ((limites.obtenerNodos() > 0 && nodos >= limites.obtenerNodos()) || System.nanoTime() >= finTiempo)
+				detenido = true;
+		}
+	}
+
+	/**
+	 * Método que copia en la variante de un nivel su mejor movimiento y la variante del siguiente.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param movimiento Mejor movimiento del nivel.
+	 */
+	protected void actualizarVariante(int nivel, int movimiento) {
+
+		variantes[nivel][nivel] = movimiento;
+		for (int i = nivel + 1; i < longitudVariante[nivel + 1]; i++)
+			variantes[nivel][i] = variantes[nivel + 1][i];
+		longitudVariante[nivel] = Math.max(longitudVariante[nivel + 1], nivel + 1);
+	}
+
+	/**
+	 * Método que devuelve el primer movimiento de la variante principal de la última búsqueda desde la raíz.
+	 * @return movimiento codificado, o Movimiento.NULO si no hay.
+	 */
+	int obtenerMejorMovimiento() {
+		return longitudVariante[0] > 0 ? variantes[0][0] : Movimiento.NULO;
+	}
+
+	/**
+	 * Método que fija las posiciones y los movimientos anteriores del camino cuando la búsqueda
+	 * empieza en un nivel interior.
+	 * @param camino Claves de las posiciones desde la raíz.
+	 * @param movimientos Movimientos jugados desde la raíz.
+	 * @param niveles Número de claves y movimientos que se copian.
+	 */
+	void establecerCamino(long [] camino, int [] movimientos, int niveles) {
+		System.arraycopy(camino, 0, claves, 0, niveles);
+		System.arraycopy(movimientos, 0, jugadas, 0, niveles);
+	}
+
+	/**
+	 * Método que comprueba si el bando que mueve tiene alguna pieza además del rey y los peones.
+	 * Sin ellas son habituales las posiciones de zugzwang, en las que pasar sería lo mejor.
+	 * @return true si tiene caballos, alfiles, torres o damas.
+	 */
+	private boolean tienePiezas() {
+		TableroBits bits = arbitro.obtenerTablero().obtenerTableroBits();
+		Color color = arbitro.obtenerTurno();
+		return (bits.obtenerOcupadas(color) & ~bits.obtenerMascara(color, TableroBits.PEON) & ~bits.obtenerMascara(color, TableroBits.REY)) != 0;
+	}
+
+	/**
+	 * Método que puntúa la posición actual con los ficheros de finales.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @return puntuación desde el punto de vista del color que mueve, o SondaFinales.DESCONOCIDA si no está.
+	 */
+	private int puntuarConFinales(int nivel) {
+
+		TableroBits bits = arbitro.obtenerTablero().obtenerTableroBits();
+		Color turno = arbitro.obtenerTurno();
+		int distancia = finales.consultarDistancia(bits, turno);
+		if (distancia == TablaFinal.TABLAS)
+			return 0;
+		if (distancia != SondaFinales.DESCONOCIDA && nivel + distancia < MAXIMO_NIVELES)
+			return TablaFinal.esGanada(distancia) ? MATE - nivel - distancia : -MATE + nivel + distancia;
+
+		int resultado = distancia != SondaFinales.DESCONOCIDA ? (TablaFinal.esGanada(distancia) ? SondaFinales.GANADA : SondaFinales.PERDIDA)
+				: finales.consultarResultado(bits, turno);
+		if (resultado == SondaFinales.DESCONOCIDA)
+			return SondaFinales.DESCONOCIDA;
+		return resultado == SondaFinales.TABLAS ? 0 : resultado * (VICTORIA_FINAL - nivel);	//Antes la victoria más cercana
+	}
+
+	/**
+	 * Método que elige el movimiento de la raíz con los ficheros de finales si la raíz y todas
+	 * las posiciones a las que se llega están en ellos con su distancia al mate.
+	 * @param inicio Instante de inicio de la búsqueda en nanosegundos.
+	 * @return resultado sin nodos, o null si hay que buscar.
+	 */
+	private ResultadoBusqueda resolverConFinales(long inicio) {
+
+		if (finales.consultarDistancia(arbitro.obtenerTablero().obtenerTableroBits(), arbitro.obtenerTurno()) == SondaFinales.DESCONOCIDA)
+			return null;
+		ListaMovimientos lista = listas[0];
+		int mejorMovimiento = Movimiento.NULO;
+		int mejor = -INFINITO;
+		arbitro.generarMovimientosLegales(lista);
+		for (int i = 0; i < lista.obtenerNumeroMovimientos(); i++) {
+			int movimiento = lista.obtener(i);
+			arbitro.hacerMovimiento(movimiento);
+			int puntuacion = puntuarConFinales(1);
+			arbitro.deshacerMovimiento();
+			if (puntuacion == SondaFinales.DESCONOCIDA || (puntuacion != 0 && !esPuntuacionMate(puntuacion)))
+				return null;													//Falta algún final o su distancia
+			if (-puntuacion > mejor) {
+				mejor = -puntuacion;
+				mejorMovimiento = movimiento;
+			}
+		}
+		if (mejorMovimiento == Movimiento.NULO)
+			return null;														//Mate o ahogado: lo resuelve la búsqueda
+		return new ResultadoBusqueda(mejorMovimiento, mejor, 0, 0, (System.nanoTime() - inicio) / 1_000_000, new int [] {mejorMovimiento});
+	}
+
+	/**
+	 * Método que comprueba si la posición de un nivel ya apareció en el camino con el mismo turno.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @return true si es una repetición, que se puntúa como tablas.
+	 */
+	private boolean esRepeticion(int nivel) {
+
+		for (int i = nivel - 2; i >= 0; i -= 2)
+			if (claves[i] == claves[nivel])
+				return true;
+		return false;
+	}
+}
@@ -0,0 +1,692 @@
+package juego.motor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+
+/**
+ * Búsqueda en paralelo que reparte el árbol entre los hilos de un ForkJoinPool
+ * según el esquema Young Brothers Wait.
+ *
+ * En la raíz y en los nodos de la variante principal el primer movimiento se busca antes que
+ * los demás, en el mismo hilo y sobre el mismo árbitro. Conocida su puntuación, cada hermano
+ * se convierte en una tarea que el pool puede robar. Los hermanos se buscan con ventana nula
+ * sobre el mejor alfa conocido y, si lo mejoran, se repiten con ventana completa como nodos de
+ * la variante principal, que a su vez se dividen. Cuando un hermano produce un corte beta se
+ * cancelan los demás y todo lo que cuelga de ellos. Por debajo de una profundidad mínima las
+ * tareas buscan en serie con un Buscador.
+ *
+ * Cada hilo reutiliza sus contextos de búsqueda, con un árbitro y un buscador en serie, durante
+ * toda la búsqueda: una tarea toma uno libre, lleva su árbitro a la posición del hermano
+ * deshaciendo y rehaciendo movimientos desde la raíz solo cuando empieza a ejecutarse, y lo
+ * devuelve al terminar. Así no se reservan tableros ni buscadores por tarea, y los asesinos y
+ * la historia de cada hilo se conservan entre tareas e iteraciones como en la búsqueda en serie.
+ * Un hilo que espera a sus hermanos puede ejecutar otras tareas, por lo que puede llegar a tener
+ * varios contextos, uno por tarea anidada.
+ *
+ * Los hilos comparten la tabla de transposiciones, de la que también se extrae la
+ * variante principal al terminar cada iteración.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Buscador
+ * @see BuscadorParalelo
+ */
+public class BuscadorDividido {
+
+	/**
+	 * Profundidad restante mínima para repartir los hermanos de un nodo entre tareas.
+	 */
+	private static final int PROFUNDIDAD_MINIMA_DIVISION = 3;
+
+	/**
+	 * Máscara del número de nodos entre comprobaciones de los límites.
+	 */
+	private static final long NODOS_ENTRE_COMPROBACIONES = (1 << 10) - 1;
+
+	/**
+	 * Árbitro con la posición a analizar.
+	 */
+	private final Arbitro arbitro;
+
+	/**
+	 * Generador de evaluadores, uno por contexto de búsqueda.
+	 */
+	private final Supplier<Evaluador> evaluadores;
+
+	/**
+	 * Tabla de transposiciones compartida.
+	 */
+	private final TablaTransposicion tabla;
+
+	/**
+	 * Nodos visitados en la búsqueda actual por todas las tareas.
+	 */
+	private final LongAdder nodos;
+
+	/**
+	 * Límites de la búsqueda actual.
+	 */
+	private LimitesBusqueda limites;
+
+	/**
+	 * Instante en nanosegundos en el que se agota el tiempo, o Long.MAX_VALUE.
+	 */
+	private long finTiempo;
+
+	/**
+	 * Indica que la búsqueda se debe interrumpir. Se puede marcar desde otro hilo.
+	 */
+	private volatile boolean detenido;
+
+	/**
+	 * Indica si se pueden interrumpir las iteraciones; la primera siempre se completa.
+	 */
+	private volatile boolean interrumpible;
+
+	/**
+	 * Mejor movimiento de la raíz en la iteración en curso.
+	 */
+	private volatile int movimientoRaiz;
+
+	/**
+	 * Contextos libres de cada hilo.
+	 */
+	private final ThreadLocal<ArrayDeque<Contexto>> libres;
+
+	/**
+	 * Número de la búsqueda actual, para descartar los contextos de las anteriores.
+	 */
+	private volatile int busqueda;
+
+	/**
+	 * Copia de la posición de la raíz que no se modifica, de la que se copian los árbitros de los contextos.
+	 */
+	private volatile Arbitro raiz;
+
+//--constructores--------------------------------------
+
+	/**
+	 * Constructor con evaluación por material.
+	 * @param arbitro Árbitro con la posición a analizar.
+	 * @param tabla Tabla de transposiciones compartida.
+	 */
+	public BuscadorDividido(Arbitro arbitro, TablaTransposicion tabla) {
+		this(arbitro, EvaluadorMaterial::new, tabla);
+	}
+
+	/**
+	 * Constructor de la clase.
+	 * @param arbitro Árbitro con la posición a analizar.
+	 * @param evaluadores Generador de un evaluador independiente para cada tarea.
+	 * @param tabla Tabla de transposiciones compartida.
+	 */
+	public BuscadorDividido(Arbitro arbitro, Supplier<Evaluador> evaluadores, TablaTransposicion tabla) {
+		if (tabla == null)
+			throw new IllegalArgumentException("La búsqueda en paralelo necesita una tabla de transposiciones");
+		this.arbitro = arbitro;
+		this.evaluadores = evaluadores;
+		this.tabla = tabla;
+		this.nodos = new LongAdder();
+		this.libres = ThreadLocal.withInitial(ArrayDeque::new);
+	}
+
+//--métodos-----------------------------------------------
+
+	/**
+	 * Método que busca el mejor movimiento repartiendo el árbol entre los hilos de un pool.
+	 * Al terminar la posición del árbitro queda como estaba.
+	 * @param limites Límites de profundidad, nodos y tiempo.
+	 * @param pool Pool de hilos.
+	 * @return resultado de la última iteración completa.
+	 */
+	public ResultadoBusqueda buscar(LimitesBusqueda limites, ForkJoinPool pool) {
+
+		long inicio = System.nanoTime();
+		this.limites = limites;
+		this.finTiempo = limites.obtenerMilisegundos() > 0 ? inicio + limites.obtenerMilisegundos() * 1_000_000 : Long.MAX_VALUE;
+		this.nodos.reset();
+		this.detenido = false;
+		this.interrumpible = false;
+		this.raiz = arbitro.copiar();
+		this.busqueda++;
+		tabla.nuevaBusqueda();
+		Contexto contextoRaiz = new Contexto(arbitro);
+
+		int profundidadMaxima = limites.obtenerProfundidad() > 0 ? Math.min(limites.obtenerProfundidad(), Buscador.MAXIMO_NIVELES - 1) : Buscador.MAXIMO_NIVELES - 1;
+		int mejorMovimiento = Movimiento.NULO;
+		int mejorPuntuacion = 0;
+		int profundidadAlcanzada = 0;
+
+		for (int profundidad = 1; profundidad <= profundidadMaxima; profundidad++) {
+			movimientoRaiz = Movimiento.NULO;
+			int puntuacion = pool.invoke(new Iteracion(contextoRaiz, profundidad, mejorMovimiento));
+			if (detenido && interrumpible)
+				break;															//Iteración incompleta, nos quedamos con la anterior
+
+			mejorPuntuacion = puntuacion;
+			mejorMovimiento = movimientoRaiz;
+			profundidadAlcanzada = profundidad;
+			interrumpible = true;
+
+			if (mejorMovimiento == Movimiento.NULO || detenido)					//Sin movimientos legales o límite alcanzado
+				break;
+			if (Buscador.esPuntuacionMate(mejorPuntuacion) && Buscador.MATE - Math.abs(mejorPuntuacion) <= profundidad)
+				break;															//Mate encontrado dentro del horizonte
+		}
+
+		raiz = null;
+		long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+		return new ResultadoBusqueda(mejorMovimiento, mejorPuntuacion, profundidadAlcanzada, nodos.sum(), milisegundos,
+				extraerVariante(mejorMovimiento, profundidadAlcanzada));
+	}
+
+	/**
+	 * Método que pide detener la búsqueda en curso, desde cualquier hilo.
+	 */
+	public void detener() {
+		detenido = true;
+	}
+
+	/**
+	 * Método que toma un contexto libre del hilo actual, creándolo si no hay ninguno.
+	 * @return contexto de la búsqueda actual.
+	 */
+	private Contexto tomarContexto() {
+
+		ArrayDeque<Contexto> contextos = libres.get();
+		Contexto contexto = contextos.pollFirst();
+		if (contexto != null && contexto.busqueda == busqueda)
+			return contexto;
+		contextos.clear();													//Son de una búsqueda anterior
+		return new Contexto(raiz.copiar());
+	}
+
+	/**
+	 * Método que devuelve un contexto al hilo actual para otra tarea.
+	 * @param contexto Contexto tomado con tomarContexto.
+	 */
+	private void devolverContexto(Contexto contexto) {
+		libres.get().addFirst(contexto);
+	}
+
+	/**
+	 * Método que busca un nodo de la variante principal repartiendo sus hermanos entre tareas.
+	 * @param contexto Contexto de la tarea, con la posición del nodo en su árbitro.
+	 * @param rama Rama de la que cuelga el nodo, para detectar la cancelación.
+	 * @param profundidad Profundidad restante.
+	 * @param alfa Cota inferior.
+	 * @param beta Cota superior.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param primero Movimiento que se busca primero, o Movimiento.NULO.
+	 * @return puntuación desde el punto de vista del color que mueve, sin sentido si la rama se canceló.
+	 */
+	private int buscarDividiendo(Contexto contexto, Rama rama, int profundidad, int alfa, int beta, int nivel, int primero) {
+
+		BuscadorTarea local = contexto.buscador;
+		if (profundidad < PROFUNDIDAD_MINIMA_DIVISION || nivel >= Buscador.MAXIMO_NIVELES - 2)
+			return local.buscar(rama, contexto, profundidad, alfa, beta, nivel, primero);
+
+		Arbitro arbitro = contexto.arbitro;
+		long [] camino = contexto.camino;
+		long clave = arbitro.obtenerClave();
+		for (int i = nivel - 2; i >= 0; i -= 2)
+			if (camino[i] == clave)
+				return 0;														//Repetición
+		camino[nivel] = clave;
+		nodos.increment();
+
+		long datos = tabla.consultar(clave);
+		if (datos != 0) {
+			if (nivel > 0 && TablaTransposicion.profundidad(datos) >= profundidad) {
+				int puntuacion = TablaTransposicion.puntuacionDesdeTabla(TablaTransposicion.puntuacion(datos), nivel);
+				int cota = TablaTransposicion.cota(datos);
+				if (cota == TablaTransposicion.COTA_EXACTA
+						|| (cota == TablaTransposicion.COTA_INFERIOR && puntuacion >= beta)
+						|| (cota == TablaTransposicion.COTA_SUPERIOR && puntuacion <= alfa))
+					return puntuacion;
+			}
+			if (primero == Movimiento.NULO)
+				primero = TablaTransposicion.movimiento(datos);
+		}
+
+		ListaMovimientos lista = new ListaMovimientos();
+		int total = arbitro.generarMovimientosLegales(lista);
+		if (total == 0)
+			return arbitro.estaEnJaque(arbitro.obtenerTurno()) ? -Buscador.MATE + nivel : 0;
+		local.ordenarMovimientos(lista, nivel, primero);
+
+		int alfaOriginal = alfa;
+		int movimiento = lista.obtener(0);									//El hermano mayor, en serie
+		contexto.jugadas[nivel] = movimiento;
+		arbitro.hacerMovimiento(movimiento);
+		int mejor = -buscarDividiendo(contexto, rama, profundidad - 1, -beta, -alfa, nivel + 1, Movimiento.NULO);
+		arbitro.deshacerMovimiento();
+		if (estaCancelada(rama))
+			return 0;
+		int mejorMovimiento = movimiento;
+
+		if (mejor < beta && total > 1) {									//Los hermanos menores, en paralelo
+			Rama hermanos = new Rama(rama, Math.max(alfa, mejor), mejor, movimiento, beta,
+					Arrays.copyOf(contexto.jugadas, nivel), Arrays.copyOf(camino, nivel + 1));
+			List<Hermano> tareas = new ArrayList<>(total - 1);
+			for (int i = 1; i < total; i++)									//Cada hermano sitúa su árbitro al ejecutarse
+				tareas.add(new Hermano(lista.obtener(i), hermanos, profundidad - 1, beta, nivel + 1));
+			ForkJoinTask.invokeAll(tareas);
+			if (estaCancelada(rama))
+				return 0;
+			mejor = hermanos.obtenerMejor();
+			mejorMovimiento = hermanos.obtenerMejorMovimiento();
+		}
+
+		if (nivel == 0)
+			movimientoRaiz = mejorMovimiento;
+		int cota = mejor >= beta ? TablaTransposicion.COTA_INFERIOR
+				: mejor > alfaOriginal ? TablaTransposicion.COTA_EXACTA : TablaTransposicion.COTA_SUPERIOR;
+		tabla.guardar(clave, cota == TablaTransposicion.COTA_SUPERIOR ? Movimiento.NULO : mejorMovimiento,
+				TablaTransposicion.puntuacionATabla(mejor, nivel), profundidad, cota);
+		return mejor;
+	}
+
+	/**
+	 * Método que indica si una rama debe abandonarse, por un corte en ella o en una superior o por los límites.
+	 * @param rama Rama a comprobar.
+	 * @return true si su resultado ya no se usará.
+	 */
+	private boolean estaCancelada(Rama rama) {
+		return (detenido && interrumpible) || rama.estaCortada();
+	}
+
+	/**
+	 * Método que suma los nodos de una tarea y comprueba los límites de la búsqueda.
+	 * @param nodosTarea Nodos contados por la tarea desde la última suma.
+	 */
+	private void sumarNodos(long nodosTarea) {
+
+		nodos.add(nodosTarea);
+		if ((limites.obtenerNodos() > 0 && nodos.sum() >= limites.obtenerNodos()) || System.nanoTime() >= finTiempo)
+			detenido = true;
+	}
+
+	/**
+	 * Método que reconstruye la variante principal siguiendo los movimientos de la tabla.
+	 * @param movimiento Mejor movimiento de la raíz.
+	 * @param profundidad Longitud máxima de la variante.
+	 * @return variante principal, vacía si no hay movimiento.
+	 */
+	private int [] extraerVariante(int movimiento, int profundidad) {
+
+		int [] variante = new int [profundidad];
+		int longitud = 0;
+		while (movimiento != Movimiento.NULO && longitud < profundidad && arbitro.esMovimientoLegal(movimiento)) {
+			variante[longitud++] = movimiento;
+			arbitro.hacerMovimiento(movimiento);
+			long datos = tabla.consultar(arbitro.obtenerClave());
+			movimiento = datos != 0 ? TablaTransposicion.movimiento(datos) : Movimiento.NULO;
+		}
+		for (int i = 0; i < longitud; i++)
+			arbitro.deshacerMovimiento();
+		return Arrays.copyOf(variante, longitud);
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Conjunto de hermanos que se buscan en paralelo. Guarda el mejor resultado y se corta
+	 * en cuanto uno supera beta; un corte cancela también las ramas que cuelgan de ella.
+	 */
+	private static final class Rama {
+
+		/**
+		 * Rama de la que cuelga, null en la raíz.
+		 */
+		private final Rama padre;
+
+		/**
+		 * Cota superior de los hermanos.
+		 */
+		private final int beta;
+
+		/**
+		 * Mejor alfa conocido.
+		 */
+		private volatile int alfa;
+
+		/**
+		 * Mejor puntuación y su movimiento.
+		 */
+		private int mejor, mejorMovimiento;
+
+		/**
+		 * Indica que algún hermano superó beta.
+		 */
+		private volatile boolean cortada;
+
+		/**
+		 * Movimientos desde la raíz hasta el nodo de los hermanos.
+		 */
+		private final int [] jugadas;
+
+		/**
+		 * Claves de las posiciones desde la raíz hasta el nodo de los hermanos, incluido.
+		 */
+		private final long [] camino;
+
+		/**
+		 * Constructor de la rama raíz, que no se corta.
+		 */
+		Rama() {
+			this(null, -Buscador.INFINITO, -Buscador.INFINITO, Movimiento.NULO, Buscador.INFINITO, new int [0], new long [0]);
+		}
+
+		/**
+		 * Constructor de una rama con el resultado del hermano mayor.
+		 * @param padre Rama de la que cuelga.
+		 * @param alfa Alfa tras el hermano mayor.
+		 * @param mejor Puntuación del hermano mayor.
+		 * @param mejorMovimiento Movimiento del hermano mayor.
+		 * @param beta Cota superior.
+		 * @param jugadas Movimientos desde la raíz hasta el nodo.
+		 * @param camino Claves de las posiciones desde la raíz hasta el nodo.
+		 */
+		Rama(Rama padre, int alfa, int mejor, int mejorMovimiento, int beta, int [] jugadas, long [] camino) {
+			this.padre = padre;
+			this.alfa = alfa;
+			this.mejor = mejor;
+			this.mejorMovimiento = mejorMovimiento;
+			this.beta = beta;
+			this.jugadas = jugadas;
+			this.camino = camino;
+		}
+
+		/**
+		 * Método que anota el resultado de un hermano.
+		 * @param puntuacion Puntuación del hermano.
+		 * @param movimiento Movimiento del hermano.
+		 */
+		synchronized void anotar(int puntuacion, int movimiento) {
+			if (puntuacion > mejor) {
+				mejor = puntuacion;
+				mejorMovimiento = movimiento;
+				if (puntuacion > alfa)
+					alfa = puntuacion;
+				if (puntuacion >= beta)
+					cortada = true;
+			}
+		}
+
+		/**
+		 * Método que indica si esta rama o alguna superior se ha cortado.
+		 * @return true si se ha cortado.
+		 */
+		boolean estaCortada() {
+			for (Rama rama = this; rama != null; rama = rama.padre)
+				if (rama.cortada)
+					return true;
+			return false;
+		}
+
+		/**
+		 * Método que devuelve el mejor alfa conocido.
+		 * @return alfa.
+		 */
+		int obtenerAlfa() {
+			return alfa;
+		}
+
+		/**
+		 * Método que devuelve la mejor puntuación.
+		 * @return mejor puntuación de los hermanos.
+		 */
+		synchronized int obtenerMejor() {
+			return mejor;
+		}
+
+		/**
+		 * Método que devuelve el mejor movimiento.
+		 * @return movimiento de la mejor puntuación.
+		 */
+		synchronized int obtenerMejorMovimiento() {
+			return mejorMovimiento;
+		}
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Tarea que busca una iteración completa desde la raíz.
+	 */
+	private final class Iteracion extends RecursiveTask<Integer> {
+
+		/** Número de versión para la serialización. */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Contexto con el árbitro de la raíz.
+		 */
+		private final Contexto contexto;
+
+		/**
+		 * Profundidad de la iteración.
+		 */
+		private final int profundidad;
+
+		/**
+		 * Mejor movimiento de la iteración anterior.
+		 */
+		private final int mejorAnterior;
+
+		/**
+		 * Constructor de la tarea.
+		 * @param contexto Contexto con el árbitro de la raíz.
+		 * @param profundidad Profundidad de la iteración.
+		 * @param mejorAnterior Mejor movimiento de la iteración anterior, que se busca primero.
+		 */
+		Iteracion(Contexto contexto, int profundidad, int mejorAnterior) {
+			this.contexto = contexto;
+			this.profundidad = profundidad;
+			this.mejorAnterior = mejorAnterior;
+		}
+
+		@Override
+		protected Integer compute() {
+			return buscarDividiendo(contexto, new Rama(), profundidad, -Buscador.INFINITO, Buscador.INFINITO, 0, mejorAnterior);
+		}
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Tarea que busca un hermano menor sobre un contexto del hilo que la ejecuta.
+	 */
+	private final class Hermano extends RecursiveAction {
+
+		/** Número de versión para la serialización. */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Movimiento que lleva al hermano.
+		 */
+		private final int movimiento;
+
+		/**
+		 * Rama de los hermanos.
+		 */
+		private final Rama rama;
+
+		/**
+		 * Profundidad restante, beta del nodo padre y nivel del hermano.
+		 */
+		private final int profundidad, beta, nivel;
+
+		/**
+		 * Constructor de la tarea.
+		 * @param movimiento Movimiento que lleva al hermano.
+		 * @param rama Rama de los hermanos.
+		 * @param profundidad Profundidad restante del hermano.
+		 * @param beta Cota superior del nodo padre.
+		 * @param nivel Nivel del hermano.
+		 */
+		Hermano(int movimiento, Rama rama, int profundidad, int beta, int nivel) {
+			this.movimiento = movimiento;
+			this.rama = rama;
+			this.profundidad = profundidad;
+			this.beta = beta;
+			this.nivel = nivel;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (estaCancelada(rama))
+				return;														//Cortado antes de empezar: ni siquiera se sitúa el árbitro
+			Contexto contexto = tomarContexto();
+			try {
+				contexto.situar(rama.jugadas, movimiento);
+				System.arraycopy(rama.camino, 0, contexto.camino, 0, rama.camino.length);
+				int alfa = rama.obtenerAlfa();
+				int puntuacion = -contexto.buscador.buscar(rama, contexto, profundidad, -alfa - 1, -alfa, nivel, Movimiento.NULO);
+				if (puntuacion > alfa && puntuacion < beta && !estaCancelada(rama))
+					puntuacion = -buscarDividiendo(contexto, rama, profundidad, -beta, -alfa, nivel, Movimiento.NULO);
+				if (!estaCancelada(rama))
+					rama.anotar(puntuacion, movimiento);
+			}
+			finally {
+				devolverContexto(contexto);
+			}
+		}
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Árbitro y buscador en serie de un hilo, que se reutilizan de una tarea a otra.
+	 * Entre tareas el árbitro queda en la posición de la última, que se anota para situarlo
+	 * en la siguiente con los menos movimientos posibles.
+	 */
+	private final class Contexto {
+
+		/**
+		 * Árbitro propio del contexto.
+		 */
+		private final Arbitro arbitro;
+
+		/**
+		 * Buscador en serie sobre el árbitro.
+		 */
+		private final BuscadorTarea buscador;
+
+		/**
+		 * Búsqueda en la que se creó.
+		 */
+		private final int busqueda;
+
+		/**
+		 * Movimientos desde la raíz: los hechos en el árbitro y, durante una tarea, los del camino actual.
+		 */
+		private final int [] jugadas = new int [Buscador.MAXIMO_NIVELES];
+
+		/**
+		 * Claves de las posiciones desde la raíz.
+		 */
+		private final long [] camino = new long [Buscador.MAXIMO_NIVELES];
+
+		/**
+		 * Número de movimientos hechos en el árbitro desde la raíz.
+		 */
+		private int hechos;
+
+		/**
+		 * Constructor del contexto.
+		 * @param arbitro Árbitro en la posición de la raíz, que pasa a ser del contexto.
+		 */
+		Contexto(Arbitro arbitro) {
+			this.arbitro = arbitro;
+			this.buscador = new BuscadorTarea(arbitro);
+			this.busqueda = BuscadorDividido.this.busqueda;
+		}
+
+		/**
+		 * Método que lleva el árbitro a la posición de un hermano, deshaciendo solo los movimientos
+		 * que no comparte con la posición anterior.
+		 * @param hasta Movimientos desde la raíz hasta el nodo padre.
+		 * @param movimiento Movimiento del hermano.
+		 */
+		void situar(int [] hasta, int movimiento) {
+
+			int longitud = hasta.length + 1;
+			int comunes = 0;
+			while (comunes < hechos && comunes < longitud
+					&& jugadas[comunes] == (comunes < hasta.length ? hasta[comunes] : movimiento))
+				comunes++;
+			for (; hechos > comunes; hechos--)
+				arbitro.deshacerMovimiento();
+			for (; hechos < longitud; hechos++) {
+				jugadas[hechos] = hechos < hasta.length ? hasta[hechos] : movimiento;
+				arbitro.hacerMovimiento(jugadas[hechos]);
+			}
+		}
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Buscador en serie de un contexto. Se detiene cuando se cancela la rama de su tarea o se alcanzan los límites.
+	 */
+	private final class BuscadorTarea extends Buscador {
+
+		/**
+		 * Rama de la que cuelga la tarea actual.
+		 */
+		private Rama rama;
+
+		/**
+		 * Constructor del buscador de un contexto.
+		 * @param arbitro Árbitro del contexto.
+		 */
+		BuscadorTarea(Arbitro arbitro) {
+			super(arbitro, evaluadores.get(), BuscadorDividido.this.tabla);
+		}
+
+		/**
+		 * Método que busca en serie desde un nivel interior.
+		 * @param rama Rama de la que cuelga la búsqueda.
+		 * @param contexto Contexto con los movimientos y las claves desde la raíz.
+		 * @param profundidad Profundidad restante.
+		 * @param alfa Cota inferior.
+		 * @param beta Cota superior.
+		 * @param nivel Medios movimientos desde la raíz.
+		 * @param primero Movimiento que se busca primero, o Movimiento.NULO.
+		 * @return puntuación desde el punto de vista del color que mueve.
+		 */
+		int buscar(Rama rama, Contexto contexto, int profundidad, int alfa, int beta, int nivel, int primero) {
+			this.rama = rama;
+			this.nodos = 0;
+			establecerCamino(contexto.camino, contexto.jugadas, nivel);
+			int puntuacion = alfaBeta(profundidad, alfa, beta, nivel, primero);
+			sumarNodos(nodos & NODOS_ENTRE_COMPROBACIONES);
+			if (nivel == 0 && !estaDetenido())
+				movimientoRaiz = obtenerMejorMovimiento();
+			return puntuacion;
+		}
+
+		@Override
+		protected boolean estaDetenido() {
+			return estaCancelada(rama);
+		}
+
+		@Override
+		protected void contarNodo() {
+			nodos++;
+			if ((nodos & NODOS_ENTRE_COMPROBACIONES) == 0)
+				sumarNodos(NODOS_ENTRE_COMPROBACIONES + 1);
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package juego.motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import juego.control.Arbitro;
+import juego.finales.SondaFinales;
+
+/**
+ * Búsqueda en varios hilos según el esquema Lazy SMP.
+ *
+ * El hilo que llama busca sobre el árbitro original y cada hilo auxiliar sobre su propia copia,
+ * todos desde la misma raíz. Solo comparten la tabla de transposiciones, de modo que lo que
+ * encuentra un hilo acelera a los demás. Los auxiliares impares buscan una profundidad más en
+ * cada iteración para que los hilos no recorran el árbol al mismo ritmo. El resultado es el del
+ * hilo principal; al terminar este se detienen los auxiliares. Los ficheros de finales también
+ * se comparten, ya que sus consultas se pueden hacer desde varios hilos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Buscador
+ */
+public class BuscadorParalelo implements AutoCloseable {
+
+	/**
+	 * Árbitro con la posición a analizar.
+	 */
+	private final Arbitro arbitro;
+
+	/**
+	 * Generador de evaluadores, uno por hilo.
+	 */
+	private final Supplier<Evaluador> evaluadores;
+
+	/**
+	 * Tabla de transposiciones compartida.
+	 */
+	private final TablaTransposicion tabla;
+
+	/**
+	 * Número total de hilos, incluido el que llama.
+	 */
+	private final int hilos;
+
+	/**
+	 * Hilos auxiliares, null si solo hay uno.
+	 */
+	private final ExecutorService auxiliares;
+
+	/**
+	 * Indica que la búsqueda principal ha terminado.
+	 */
+	private volatile boolean terminado;
+
+	/**
+	 * Ficheros de finales de todos los hilos, null si no se usan.
+	 */
+	private SondaFinales finales;
+
+//--constructores--------------------------------------
+
+	/**
+	 * Constructor con evaluación por material.
+	 * @param arbitro Árbitro con la posición a analizar.
+	 * @param tabla Tabla de transposiciones compartida.
+	 * @param hilos Número total de hilos, al menos 1.
+	 */
+	public BuscadorParalelo(Arbitro arbitro, TablaTransposicion tabla, int hilos) {
+		this(arbitro, EvaluadorMaterial::new, tabla, hilos);
+	}
+
+	/**
+	 * Constructor de la clase.
+	 * @param arbitro Árbitro con la posición a analizar.
+	 * @param evaluadores Generador de un evaluador independiente para cada hilo.
+	 * @param tabla Tabla de transposiciones compartida.
+	 * @param hilos Número total de hilos, al menos 1.
+	 */
+	public BuscadorParalelo(Arbitro arbitro, Supplier<Evaluador> evaluadores, TablaTransposicion tabla, int hilos) {
+		if (hilos < 1)
+			throw new IllegalArgumentException("El número de hilos debe ser al menos 1: " + hilos);
+		if (tabla == null)
+			throw new IllegalArgumentException("La búsqueda en paralelo necesita una tabla de transposiciones");
+		this.arbitro = arbitro;
+		this.evaluadores = evaluadores;
+		this.tabla = tabla;
+		this.hilos = hilos;
+		this.auxiliares = hilos > 1 ? Executors.newFixedThreadPool(hilos - 1, tarea -> {
+			Thread hilo = new Thread(tarea, "BuscadorParalelo");
+			hilo.setDaemon(true);
+			return hilo;
+		}) : null;
+	}
+
+//--métodos-----------------------------------------------
+
+	/**
+	 * Método que busca el mejor movimiento con todos los hilos.
+	 * @param limites Límites de la búsqueda principal.
+	 * @return resultado del hilo principal, con los nodos de todos los hilos.
+	 */
+	public ResultadoBusqueda buscar(LimitesBusqueda limites) {
+
+		terminado = false;
+		tabla.nuevaBusqueda();
+		List<BuscadorHilo> buscadores = new ArrayList<>(hilos - 1);
+		List<Future<?>> tareas = new ArrayList<>(hilos - 1);
+		int profundidadAuxiliar = limites.obtenerProfundidad() > 0 ? limites.obtenerProfundidad() + 1 : 0;
+		LimitesBusqueda limitesAuxiliares = new LimitesBusqueda(profundidadAuxiliar, 0, limites.obtenerMilisegundos());
+
+		for (int i = 1; i < hilos; i++) {
+			BuscadorHilo auxiliar = new BuscadorHilo(arbitro.copiar(), i % 2);
+			buscadores.add(auxiliar);
+			tareas.add(auxiliares.submit(() -> auxiliar.buscar(limitesAuxiliares)));
+		}
+
+		ResultadoBusqueda principal = new BuscadorHilo(arbitro, 0).buscar(limites);
+
+		terminado = true;
+		for (BuscadorHilo auxiliar : buscadores)
+			auxiliar.detener();
+		long nodos = principal.obtenerNodos();
+		try {
+			for (int i = 0; i < tareas.size(); i++) {
+				tareas.get(i).get();
+				nodos += buscadores.get(i).nodos;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			throw new RuntimeException("Error en un hilo de búsqueda", e.getCause());
+		}
+
+		return new ResultadoBusqueda(principal.obtenerMovimiento(), principal.obtenerPuntuacion(), principal.obtenerProfundidad(),
+				nodos, principal.obtenerMilisegundos(), principal.obtenerVariantePrincipal());
+	}
+
+	/**
+	 * Método que establece los ficheros de finales que consultan todos los hilos.
+	 * @param finales Ficheros de finales, o null para no usarlos.
+	 * @see Buscador#establecerFinales(SondaFinales)
+	 */
+	public void establecerFinales(SondaFinales finales) {
+		this.finales = finales;
+	}
+
+	/**
+	 * Método que devuelve el número total de hilos.
+	 * @return hilos, incluido el que llama a buscar.
+	 */
+	public int obtenerHilos() {
+		return hilos;
+	}
+
+	/**
+	 * Método que libera los hilos auxiliares.
+	 */
+	@Override
+	public void close() {
+		if (auxiliares != null)
+			auxiliares.shutdownNow();
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Buscador de uno de los hilos. Los auxiliares trabajan sobre su propia copia del árbitro.
+	 * La edad de la tabla se avanza una sola vez por búsqueda, antes de lanzar los hilos.
+	 */
+	private class BuscadorHilo extends Buscador {
+
+		/**
+		 * Profundidad que se añade a cada iteración.
+		 */
+		private final int desfase;
+
+		/**
+		 * Constructor del buscador de un hilo.
+		 * @param copia Árbitro propio del hilo.
+		 * @param desfase Profundidad que se añade a cada iteración.
+		 */
+		BuscadorHilo(Arbitro copia, int desfase) {
+			super(copia, evaluadores.get(), BuscadorParalelo.this.tabla);
+			this.desfase = desfase;
+			establecerFinales(finales);
+		}
+
+		@Override
+		protected void prepararBusqueda() {
+			if (terminado)														//La principal terminó antes de empezar
+				detener();
+		}
+
+		@Override
+		protected int buscarIteracion(int profundidad, int mejorAnterior) {
+			return super.buscarIteracion(profundidad + desfase, mejorAnterior);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package juego.motor;
+
+import juego.modelo.Color;
+import juego.modelo.Tablero;
+
+/**
+ * Interfaz de la evaluación estática de una posición.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+public interface Evaluador {
+
+	/**
+	 * Método que puntúa una posición sin buscar.
+	 * @param tablero Tablero con la posición.
+	 * @param turno Color que mueve.
+	 * @return puntuación en centésimas de peón desde el punto de vista del color que mueve.
+	 */
+	public int evaluar(Tablero tablero, Color turno);
+}
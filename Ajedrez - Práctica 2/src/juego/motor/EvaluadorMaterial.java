@@ -0,0 +1,33 @@
+package juego.motor;
+
+import juego.modelo.Color;
+import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Evaluación por diferencia de material, con el material que el tablero mantiene al mover las piezas.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+public class EvaluadorMaterial implements Evaluador {
+
+	/**
+	 * Método que devuelve el material de un color, sin contar el rey.
+	 * @param bits Representación en bits del tablero.
+	 * @param color Color de las piezas.
+	 * @return suma de los valores de sus piezas.
+	 * @see TableroBits#obtenerMaterial(Color)
+	 */
+	public static int obtenerMaterial(TableroBits bits, Color color) {
+		return bits.obtenerMaterial(color);
+	}
+
+	@Override
+	public int evaluar(Tablero tablero, Color turno) {
+
+		TableroBits bits = tablero.obtenerTableroBits();
+		return obtenerMaterial(bits, turno) - obtenerMaterial(bits, turno.obtenerContrario());
+	}
+}
@@ -0,0 +1,167 @@
+package juego.motor;
+
+import juego.modelo.Color;
+import juego.modelo.TablasPosicion;
+import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Evaluación posicional con la estructura de peones: doblados, aislados y pasados.
+ *
+ * A la evaluación por material y casillas le suma una penalización por cada peón doblado
+ * en su columna y por cada peón sin peones propios en las columnas vecinas, y una bonificación
+ * por cada peón sin peones rivales delante en su columna ni en las vecinas, mayor cuanto más
+ * avanzado. Como solo depende de los peones, se guarda en una tabla indexada por la clave de
+ * peones del tablero y se recalcula únicamente cuando la estructura no está en ella.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see TablaPeones
+ */
+public class EvaluadorPeones extends EvaluadorPosicional {
+
+	/**
+	 * Entradas por defecto de la tabla de peones.
+	 */
+	public static final int ENTRADAS_TABLA = 1 << 14;
+
+	/**
+	 * Penalización por peón doblado en medio juego y final.
+	 */
+	private static final int DOBLADO_MEDIO = -10, DOBLADO_FINAL = -20;
+
+	/**
+	 * Penalización por peón aislado en medio juego y final.
+	 */
+	private static final int AISLADO_MEDIO = -15, AISLADO_FINAL = -20;
+
+	/**
+	 * Bonificación por peón pasado según las filas que ha avanzado, en medio juego.
+	 * Sin coronación, un peón en la última fila ya no avanza y no se bonifica.
+	 */
+	private static final int [] PASADO_MEDIO = {0, 5, 10, 20, 35, 60, 0, 0};
+
+	/**
+	 * Bonificación por peón pasado según las filas que ha avanzado, en el final.
+	 */
+	private static final int [] PASADO_FINAL = {0, 10, 20, 40, 70, 110, 0, 0};
+
+	/**
+	 * Fila inicial de los peones de cada color.
+	 */
+	private static final int [] FILA_INICIAL = {6, 1};
+
+	/**
+	 * Máscara de cada columna.
+	 */
+	private static final long [] COLUMNAS = new long [Tablero.NUMERO_COLUMNAS];
+
+	/**
+	 * Máscara de las columnas vecinas de cada columna.
+	 */
+	private static final long [] VECINAS = new long [Tablero.NUMERO_COLUMNAS];
+
+	/**
+	 * Casillas por delante de cada casilla en su columna y las vecinas, por color.
+	 */
+	private static final long [][] DELANTE = new long [Color.values().length][TableroBits.NUMERO_CASILLAS];
+
+	static {
+		for (int columna = 0; columna < Tablero.NUMERO_COLUMNAS; columna++)
+			COLUMNAS[columna] = 0x0101010101010101L << columna;
+		for (int columna = 0; columna < Tablero.NUMERO_COLUMNAS; columna++)
+			VECINAS[columna] = (columna > 0 ? COLUMNAS[columna - 1] : 0) | (columna < Tablero.NUMERO_COLUMNAS - 1 ? COLUMNAS[columna + 1] : 0);
+		for (int casilla = 0; casilla < TableroBits.NUMERO_CASILLAS; casilla++) {
+			int fila = TableroBits.fila(casilla);
+			long zona = COLUMNAS[TableroBits.columna(casilla)] | VECINAS[TableroBits.columna(casilla)];
+			long norte = fila == 0 ? 0 : -1L >>> (Long.SIZE - fila * Tablero.NUMERO_COLUMNAS);	//Filas menores
+			long sur = fila == Tablero.NUMERO_FILAS - 1 ? 0 : -1L << ((fila + 1) * Tablero.NUMERO_COLUMNAS);
+			DELANTE[Color.BLANCO.ordinal()][casilla] = zona & norte;
+			DELANTE[Color.NEGRO.ordinal()][casilla] = zona & sur;
+		}
+	}
+
+	/**
+	 * Tabla de estructuras de peones ya evaluadas.
+	 */
+	private final TablaPeones tabla;
+
+	/**
+	 * Constructor con la tabla de tamaño por defecto.
+	 */
+	public EvaluadorPeones() {
+		this(ENTRADAS_TABLA);
+	}
+
+	/**
+	 * Constructor de la clase.
+	 * @param entradas Número de entradas de la tabla de peones.
+	 */
+	public EvaluadorPeones(int entradas) {
+		this.tabla = new TablaPeones(entradas);
+	}
+
+	/**
+	 * Método que devuelve la tabla de peones, para consultar sus estadísticas.
+	 * @return tabla de peones.
+	 */
+	public TablaPeones obtenerTabla() {
+		return tabla;
+	}
+
+	@Override
+	public int evaluar(Tablero tablero, Color turno) {
+
+		TableroBits bits = tablero.obtenerTableroBits();
+		long clave = bits.obtenerClavePeones();
+		int indice = tabla.consultar(clave);
+		if (indice < 0)
+			indice = evaluarEstructura(bits, clave);
+
+		int fase = bits.obtenerFase();
+		int estructura = (tabla.obtenerMedioJuego(indice) * fase
+				+ tabla.obtenerFinal(indice) * (TablasPosicion.FASE_MAXIMA - fase)) / TablasPosicion.FASE_MAXIMA;
+		return super.evaluar(tablero, turno) + (turno == Color.BLANCO ? estructura : -estructura);
+	}
+
+	/**
+	 * Método que evalúa la estructura de peones y la guarda en la tabla.
+	 * @param bits Representación en bits del tablero.
+	 * @param clave Clave Zobrist de los peones.
+	 * @return índice de la entrada guardada.
+	 */
+	private int evaluarEstructura(TableroBits bits, long clave) {
+
+		int medio = 0, fin = 0;
+		long pasados = 0;
+		for (Color color : Color.values()) {
+			long propios = bits.obtenerMascara(color, TableroBits.PEON);
+			long rivales = bits.obtenerMascara(color.obtenerContrario(), TableroBits.PEON);
+			int signo = color == Color.BLANCO ? 1 : -1;
+
+			for (int columna = 0; columna < Tablero.NUMERO_COLUMNAS; columna++) {
+				int enColumna = Long.bitCount(propios & COLUMNAS[columna]);
+				if (enColumna > 1) {
+					medio += signo * DOBLADO_MEDIO * (enColumna - 1);
+					fin += signo * DOBLADO_FINAL * (enColumna - 1);
+				}
+				if (enColumna > 0 && (propios & VECINAS[columna]) == 0) {
+					medio += signo * AISLADO_MEDIO * enColumna;
+					fin += signo * AISLADO_FINAL * enColumna;
+				}
+			}
+
+			for (long peones = propios; peones != 0; peones &= peones - 1) {
+				int casilla = Long.numberOfTrailingZeros(peones);
+				if ((rivales & DELANTE[color.ordinal()][casilla]) == 0) {
+					int avance = Math.abs(TableroBits.fila(casilla) - FILA_INICIAL[color.ordinal()]);
+					pasados |= 1L << casilla;
+					medio += signo * PASADO_MEDIO[avance];
+					fin += signo * PASADO_FINAL[avance];
+				}
+			}
+		}
+		return tabla.guardar(clave, medio, fin, pasados);
+	}
+}
@@ -0,0 +1,33 @@
+package juego.motor;
+
+import juego.modelo.Color;
+import juego.modelo.TablasPosicion;
+import juego.modelo.TableroBits;
+import juego.modelo.Tablero;
+
+/**
+ * Evaluación por material y casillas de las piezas, graduada según la fase de la partida.
+ *
+ * Interpola entre la puntuación de medio juego y la de final con la fase del tablero:
+ * con todas las piezas cuenta solo la de medio juego y con solo reyes y peones la de final.
+ * Todas las sumas las mantiene el tablero al colocar y quitar piezas, de modo que evaluar
+ * no recorre el tablero.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see TablasPosicion
+ */
+public class EvaluadorPosicional implements Evaluador {
+
+	@Override
+	public int evaluar(Tablero tablero, Color turno) {
+
+		TableroBits bits = tablero.obtenerTableroBits();
+		Color rival = turno.obtenerContrario();
+		int medio = bits.obtenerMedioJuego(turno) - bits.obtenerMedioJuego(rival);
+		int fin = bits.obtenerFinal(turno) - bits.obtenerFinal(rival);
+		int fase = bits.obtenerFase();
+		return (medio * fase + fin * (TablasPosicion.FASE_MAXIMA - fase)) / TablasPosicion.FASE_MAXIMA;
+	}
+}
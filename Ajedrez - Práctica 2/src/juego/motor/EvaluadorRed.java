@@ -0,0 +1,62 @@
+package juego.motor;
+
+import juego.modelo.Color;
+import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Evaluación con una red neuronal actualizable de forma eficiente.
+ *
+ * La primera vez que evalúa un tablero se registra como su observador y calcula las capas
+ * ocultas con todas las piezas; desde entonces el tablero le avisa de cada pieza colocada
+ * o quitada, también al mover y al simular movimientos en el árbitro, y evaluar solo calcula
+ * la capa de salida. Al pasar a otro tablero deja de observar el anterior.
+ *
+ * Cada evaluador tiene sus capas y no se debe usar desde varios hilos; la red sí se puede
+ * compartir, por ejemplo con {@code () -> new EvaluadorRed(red)} en la búsqueda paralela.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see RedNeuronal
+ */
+public class EvaluadorRed implements Evaluador {
+
+	/**
+	 * Capas ocultas del tablero observado.
+	 */
+	private final Acumulador acumulador;
+
+	/**
+	 * Red de evaluación.
+	 */
+	private final RedNeuronal red;
+
+	/**
+	 * Tablero observado, o null si aún no ha evaluado ninguno.
+	 */
+	private TableroBits observado;
+
+	/**
+	 * Constructor de la clase.
+	 * @param red Red de evaluación.
+	 */
+	public EvaluadorRed(RedNeuronal red) {
+		this.red = red;
+		this.acumulador = new Acumulador(red);
+	}
+
+	@Override
+	public int evaluar(Tablero tablero, Color turno) {
+
+		TableroBits bits = tablero.obtenerTableroBits();
+		if (bits != observado || bits.obtenerObservador() != acumulador) {
+			if (observado != null && observado.obtenerObservador() == acumulador)
+				observado.establecerObservador(null);
+			bits.establecerObservador(acumulador);
+			acumulador.refrescar(bits);
+			observado = bits;
+		}
+		return red.propagar(acumulador.obtenerCapa(turno.ordinal()), acumulador.obtenerCapa(turno.obtenerContrario().ordinal()));
+	}
+}
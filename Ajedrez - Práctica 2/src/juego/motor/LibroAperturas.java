@@ -0,0 +1,296 @@
+package juego.motor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Libro de aperturas con el formato de fichero de Polyglot, consultado directamente sobre el fichero.
+ *
+ * Cada entrada ocupa 16 bytes big-endian: clave de la posición (8), movimiento (2), peso (2)
+ * y aprendizaje (4), con las entradas ordenadas por clave. El movimiento guarda en sus bits
+ * 0-2 la columna de destino, 3-5 la fila de destino (0 es la fila 1 del ajedrez), 6-8 y 9-11
+ * las de origen y 12-14 la coronación, que aquí no existe.
+ *
+ * La clave es la de Arbitro.obtenerClave y no la de Polyglot: este juego no tiene enroques
+ * ni captura al paso y su clave distingue los peones que aún pueden avanzar dos casillas, así
+ * que un libro de Polyglot se debe convertir con escribir a partir de sus posiciones.
+ *
+ * El fichero se proyecta en memoria en trozos de hasta TAMANO_TROZO bytes y se busca por
+ * bisección sin copiar nada al heap, de modo que abrir un libro de varios gigabytes no cuesta
+ * ni tiempo ni memoria. Un libro abierto es inmutable y se puede compartir entre hilos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Arbitro#obtenerClave()
+ */
+public final class LibroAperturas {
+
+	/**
+	 * Bytes de cada entrada.
+	 */
+	public static final int BYTES_ENTRADA = 16;
+
+	/**
+	 * Bytes máximos de cada trozo proyectado, múltiplo de BYTES_ENTRADA.
+	 */
+	private static final int TAMANO_TROZO = 1 << 30;
+
+	/**
+	 * Entradas de cada trozo completo.
+	 */
+	private static final int ENTRADAS_TROZO = TAMANO_TROZO / BYTES_ENTRADA;
+
+	/**
+	 * Desplazamientos del movimiento y del peso en la entrada.
+	 */
+	private static final int POSICION_MOVIMIENTO = 8, POSICION_PESO = 10;
+
+	/**
+	 * Bits de una coordenada en el movimiento de Polyglot.
+	 */
+	private static final int BITS_COORDENADA = 3, MASCARA_COORDENADA = 7;
+
+	/**
+	 * Trozos proyectados del fichero.
+	 */
+	private final ByteBuffer [] trozos;
+
+	/**
+	 * Número de entradas del libro.
+	 */
+	private final long entradas;
+
+	/**
+	 * Constructor de la clase.
+	 * @param trozos Trozos proyectados.
+	 * @param entradas Número de entradas.
+	 */
+	private LibroAperturas(ByteBuffer [] trozos, long entradas) {
+		this.trozos = trozos;
+		this.entradas = entradas;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que abre un libro proyectando el fichero en memoria.
+	 * @param fichero Ruta del libro.
+	 * @return libro abierto.
+	 * @throws IOException si no se puede leer o su tamaño no es múltiplo de BYTES_ENTRADA.
+	 */
+	public static LibroAperturas abrir(Path fichero) throws IOException {
+
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+			long tamano = canal.size();
+			if (tamano % BYTES_ENTRADA != 0)
+				throw new IOException("Tamaño de libro incorrecto: " + fichero);
+			int numeroTrozos = (int) ((tamano + TAMANO_TROZO - 1) / TAMANO_TROZO);
+			ByteBuffer [] trozos = new ByteBuffer [numeroTrozos];
+			for (int i = 0; i < numeroTrozos; i++) {						//La proyección sigue válida al cerrar el canal
+				long desde = (long) i * TAMANO_TROZO;
+				MappedByteBuffer trozo = canal.map(FileChannel.MapMode.READ_ONLY, desde, Math.min(TAMANO_TROZO, tamano - desde));
+				trozos[i] = trozo.order(ByteOrder.BIG_ENDIAN);
+			}
+			return new LibroAperturas(trozos, tamano / BYTES_ENTRADA);
+		}
+	}
+
+	/**
+	 * Método que devuelve el número de entradas del libro.
+	 * @return número de entradas.
+	 */
+	public long obtenerNumeroEntradas() {
+		return entradas;
+	}
+
+	/**
+	 * Método que devuelve el movimiento de más peso del libro para la posición del árbitro.
+	 * @param arbitro Árbitro con la posición.
+	 * @return movimiento legal codificado como los generados por el árbitro, o Movimiento.NULO si no hay.
+	 */
+	public int obtenerMejorMovimiento(Arbitro arbitro) {
+		return elegir(arbitro, null);
+	}
+
+	/**
+	 * Método que elige al azar un movimiento del libro para la posición del árbitro, con probabilidad proporcional a su peso.
+	 * @param arbitro Árbitro con la posición.
+	 * @param aleatorio Generador de números aleatorios.
+	 * @return movimiento legal codificado como los generados por el árbitro, o Movimiento.NULO si no hay.
+	 */
+	public int elegirMovimiento(Arbitro arbitro, SplittableRandom aleatorio) {
+		return elegir(arbitro, aleatorio);
+	}
+
+	/**
+	 * Método que elige entre los movimientos legales del libro para una posición.
+	 * @param arbitro Árbitro con la posición.
+	 * @param aleatorio Generador para elegir según el peso, o null para el de más peso.
+	 * @return movimiento codificado, o Movimiento.NULO si no hay.
+	 */
+	private int elegir(Arbitro arbitro, SplittableRandom aleatorio) {
+
+		long clave = arbitro.obtenerClave();
+		long primera = buscarPrimera(clave);
+		if (primera >= entradas || leerClave(primera) != clave)
+			return Movimiento.NULO;
+
+		ListaMovimientos legales = new ListaMovimientos();
+		arbitro.generarMovimientosLegales(legales);
+		int elegido = Movimiento.NULO;
+		long pesoTotal = 0;
+		int mayorPeso = -1;
+		for (long i = primera; i < entradas && leerClave(i) == clave; i++) {
+			int movimiento = buscarLegal(legales, leerCorto(i, POSICION_MOVIMIENTO));
+			int peso = leerCorto(i, POSICION_PESO);
+			if (movimiento == Movimiento.NULO)
+				continue;														//Entrada que no corresponde a esta posición
+			if (aleatorio == null) {
+				if (peso > mayorPeso) {
+					mayorPeso = peso;
+					elegido = movimiento;
+				}
+			}
+			else if (peso > 0) {												//Muestreo proporcional al peso en una pasada
+				pesoTotal += peso;
+				if (aleatorio.nextLong(pesoTotal) < peso)
+					elegido = movimiento;
+			}
+		}
+		return elegido;
+	}
+
+	/**
+	 * Método que busca por bisección la primera entrada con clave mayor o igual que la dada.
+	 * Las claves se comparan sin signo, como las ordena Polyglot.
+	 * @param clave Clave buscada.
+	 * @return índice de la entrada, o el número de entradas si no hay ninguna.
+	 */
+	private long buscarPrimera(long clave) {
+		long desde = 0, hasta = entradas;
+		while (desde < hasta) {
+			long medio = (desde + hasta) >>> 1;
+			if (Long.compareUnsigned(leerClave(medio), clave) < 0)
+				desde = medio + 1;
+			else
+				hasta = medio;
+		}
+		return desde;
+	}
+
+	/**
+	 * Método que lee la clave de una entrada.
+	 * @param indice Índice de la entrada.
+	 * @return clave.
+	 */
+	private long leerClave(long indice) {
+		return trozos[(int) (indice / ENTRADAS_TROZO)].getLong((int) (indice % ENTRADAS_TROZO) * BYTES_ENTRADA);
+	}
+
+	/**
+	 * Método que lee un campo de 16 bits sin signo de una entrada.
+	 * @param indice Índice de la entrada.
+	 * @param posicion Desplazamiento del campo en la entrada.
+	 * @return valor del campo.
+	 */
+	private int leerCorto(long indice, int posicion) {
+		return trozos[(int) (indice / ENTRADAS_TROZO)].getChar((int) (indice % ENTRADAS_TROZO) * BYTES_ENTRADA + posicion);
+	}
+
+	/**
+	 * Método que busca entre los movimientos legales el de un movimiento de Polyglot.
+	 * @param legales Movimientos legales de la posición.
+	 * @param polyglot Movimiento en formato Polyglot.
+	 * @return movimiento legal codificado, o Movimiento.NULO si no es legal.
+	 */
+	private static int buscarLegal(ListaMovimientos legales, int polyglot) {
+		int casillas = Movimiento.casillas(decodificarMovimiento(polyglot));
+		for (int i = 0; i < legales.obtenerNumeroMovimientos(); i++)
+			if (Movimiento.casillas(legales.obtener(i)) == casillas)
+				return legales.obtener(i);
+		return Movimiento.NULO;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que convierte un movimiento de Polyglot en uno codificado, sin banderas.
+	 * @param polyglot Movimiento en formato Polyglot.
+	 * @return movimiento codificado.
+	 */
+	public static int decodificarMovimiento(int polyglot) {
+		int destino = casilla(polyglot);
+		int origen = casilla(polyglot >>> (2 * BITS_COORDENADA));
+		return Movimiento.codificar(origen, destino);
+	}
+
+	/**
+	 * Método que convierte un movimiento codificado en uno de Polyglot.
+	 * @param movimiento Movimiento codificado.
+	 * @return movimiento en formato Polyglot.
+	 */
+	public static int codificarMovimiento(int movimiento) {
+		return (coordenadas(Movimiento.origen(movimiento)) << (2 * BITS_COORDENADA)) | coordenadas(Movimiento.destino(movimiento));
+	}
+
+	/**
+	 * Método que obtiene la casilla de las seis coordenadas bajas de un movimiento de Polyglot.
+	 * @param bits Columna en los bits 0-2 y fila desde la fila 1 en los bits 3-5.
+	 * @return índice de la casilla.
+	 */
+	private static int casilla(int bits) {
+		int columna = bits & MASCARA_COORDENADA;
+		int fila = (bits >>> BITS_COORDENADA) & MASCARA_COORDENADA;
+		return TableroBits.casilla(Tablero.NUMERO_FILAS - 1 - fila, columna);
+	}
+
+	/**
+	 * Método que obtiene las coordenadas de Polyglot de una casilla.
+	 * @param casilla índice de la casilla.
+	 * @return columna en los bits 0-2 y fila desde la fila 1 en los bits 3-5.
+	 */
+	private static int coordenadas(int casilla) {
+		return ((Tablero.NUMERO_FILAS - 1 - TableroBits.fila(casilla)) << BITS_COORDENADA) | TableroBits.columna(casilla);
+	}
+
+	/**
+	 * Método que escribe un libro ordenando sus entradas por clave.
+	 * @param fichero Ruta del libro.
+	 * @param claves Clave de la posición de cada entrada.
+	 * @param movimientos Movimiento codificado de cada entrada.
+	 * @param pesos Peso de cada entrada, entre 0 y 65535.
+	 * @throws IOException si no se puede escribir.
+	 * @throws IllegalArgumentException si los arrays no tienen la misma longitud.
+	 */
+	public static void escribir(Path fichero, long [] claves, int [] movimientos, int [] pesos) throws IOException {
+
+		if (claves.length != movimientos.length || claves.length != pesos.length)
+			throw new IllegalArgumentException("Las entradas del libro no tienen la misma longitud");
+		Integer [] orden = new Integer [claves.length];
+		for (int i = 0; i < orden.length; i++)
+			orden[i] = i;
+		Arrays.sort(orden, (a, b) -> Long.compareUnsigned(claves[a], claves[b]));
+
+		ByteBuffer buffer = ByteBuffer.allocate(claves.length * BYTES_ENTRADA).order(ByteOrder.BIG_ENDIAN);
+		for (int i : orden)
+			buffer.putLong(claves[i]).putShort((short) codificarMovimiento(movimientos[i])).putShort((short) pesos[i]).putInt(0);
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				canal.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package juego.motor;
+
+/**
+ * Límites de una búsqueda: profundidad máxima, número de nodos y tiempo.
+ *
+ * Un valor 0 indica que ese límite no se aplica. La búsqueda termina al alcanzar el
+ * primero de ellos, devolviendo el resultado de la última iteración completa.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+public final class LimitesBusqueda {
+
+	/**
+	 * Profundidad máxima en movimientos.
+	 */
+	private final int profundidad;
+
+	/**
+	 * Número máximo de nodos.
+	 */
+	private final long nodos;
+
+	/**
+	 * Tiempo máximo en milisegundos.
+	 */
+	private final long milisegundos;
+
+	/**
+	 * Constructor de la clase.
+	 * @param profundidad Profundidad máxima, 0 para no limitarla.
+	 * @param nodos Número máximo de nodos, 0 para no limitarlo.
+	 * @param milisegundos Tiempo máximo en milisegundos, 0 para no limitarlo.
+	 */
+	public LimitesBusqueda(int profundidad, long nodos, long milisegundos) {
+		this.profundidad = profundidad;
+		this.nodos = nodos;
+		this.milisegundos = milisegundos;
+	}
+
+	/**
+	 * Método que crea unos límites solo de profundidad.
+	 * @param profundidad Profundidad máxima.
+	 * @return límites de la búsqueda.
+	 */
+	public static LimitesBusqueda porProfundidad(int profundidad) {
+		return new LimitesBusqueda(profundidad, 0, 0);
+	}
+
+	/**
+	 * Método que crea unos límites solo de nodos.
+	 * @param nodos Número máximo de nodos.
+	 * @return límites de la búsqueda.
+	 */
+	public static LimitesBusqueda porNodos(long nodos) {
+		return new LimitesBusqueda(0, nodos, 0);
+	}
+
+	/**
+	 * Método que crea unos límites solo de tiempo.
+	 * @param milisegundos Tiempo máximo en milisegundos.
+	 * @return límites de la búsqueda.
+	 */
+	public static LimitesBusqueda porTiempo(long milisegundos) {
+		return new LimitesBusqueda(0, 0, milisegundos);
+	}
+
+	/**
+	 * Método que devuelve la profundidad máxima.
+	 * @return profundidad, 0 si no hay límite.
+	 */
+	public int obtenerProfundidad() {
+		return profundidad;
+	}
+
+	/**
+	 * Método que devuelve el número máximo de nodos.
+	 * @return nodos, 0 si no hay límite.
+	 */
+	public long obtenerNodos() {
+		return nodos;
+	}
+
+	/**
+	 * Método que devuelve el tiempo máximo.
+	 * @return milisegundos, 0 si no hay límite.
+	 */
+	public long obtenerMilisegundos() {
+		return milisegundos;
+	}
+}
@@ -0,0 +1,259 @@
+package juego.motor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+
+/**
+ * Pesos cuantizados de una red de evaluación actualizable de forma eficiente (estilo NNUE).
+ *
+ * La entrada tiene una neurona por color relativo (propio o rival), tipo de pieza y casilla
+ * vista desde cada bando: 2 x 6 x 64 = 768. La primera capa, de OCULTAS neuronas, se calcula
+ * por separado para cada bando sumando a los sesgos la columna de pesos de cada pieza, lo que
+ * permite mantenerla al colocar y quitar piezas. La salida concatena las dos capas ocultas, la
+ * del bando que mueve primero, las recorta a [0, ACTIVACION_MAXIMA] y las multiplica por los
+ * pesos de salida.
+ *
+ * Los pesos se leen de un fichero binario en orden little-endian a través de un buffer
+ * proyectado en memoria:
+ * <pre>
+ * int   MAGICO, VERSION, ocultas
+ * short pesos[768 * ocultas]      columna de cada entrada seguida
+ * short sesgos[ocultas]
+ * short pesosSalida[2 * ocultas]
+ * int   sesgoSalida
+ * </pre>
+ * Una red es inmutable y se puede compartir entre hilos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see EvaluadorRed
+ */
+public final class RedNeuronal {
+
+	/**
+	 * Número mágico al inicio del fichero: "RNAJ".
+	 */
+	public static final int MAGICO = 0x4A414E52;
+
+	/**
+	 * Versión del formato del fichero.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Número de entradas: color relativo, tipo y casilla.
+	 */
+	public static final int ENTRADAS = 2 * TableroBits.NUMERO_TIPOS * TableroBits.NUMERO_CASILLAS;
+
+	/**
+	 * Valor máximo de la activación de la capa oculta.
+	 */
+	public static final int ACTIVACION_MAXIMA = 255;
+
+	/**
+	 * Escala de los pesos de salida.
+	 */
+	public static final int ESCALA_SALIDA = 64;
+
+	/**
+	 * Centésimas de peón por unidad de salida, antes de dividir por las escalas.
+	 */
+	public static final int ESCALA_EVALUACION = 400;
+
+	/**
+	 * Evaluación máxima en valor absoluto, por debajo de las victorias de los finales y de los mates
+	 * y dentro de los 16 bits de la tabla de transposición.
+	 */
+	public static final int EVALUACION_MAXIMA = Buscador.EVALUACION_MAXIMA;
+
+	/**
+	 * Bytes de la cabecera.
+	 */
+	private static final int BYTES_CABECERA = 3 * Integer.BYTES;
+
+	/**
+	 * Pesos de la primera capa, OCULTAS seguidos por entrada.
+	 */
+	private final short [] pesos;
+
+	/**
+	 * Sesgos de la primera capa.
+	 */
+	private final short [] sesgos;
+
+	/**
+	 * Pesos de salida: primero los de la capa del bando que mueve, después los del rival.
+	 */
+	private final short [] pesosSalida;
+
+	/**
+	 * Sesgo de salida.
+	 */
+	private final int sesgoSalida;
+
+	/**
+	 * Constructor de la clase.
+	 * @param pesos Pesos de la primera capa.
+	 * @param sesgos Sesgos de la primera capa.
+	 * @param pesosSalida Pesos de salida.
+	 * @param sesgoSalida Sesgo de salida.
+	 */
+	private RedNeuronal(short [] pesos, short [] sesgos, short [] pesosSalida, int sesgoSalida) {
+		this.pesos = pesos;
+		this.sesgos = sesgos;
+		this.pesosSalida = pesosSalida;
+		this.sesgoSalida = sesgoSalida;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que carga una red de un fichero, proyectándolo en memoria.
+	 * @param fichero Ruta del fichero de pesos.
+	 * @return red cargada.
+	 * @throws IOException si no se puede leer o el formato no es válido.
+	 */
+	public static RedNeuronal cargar(Path fichero) throws IOException {
+
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+			long tamano = canal.size();
+			if (tamano < BYTES_CABECERA)
+				throw new IOException("Fichero de red demasiado corto: " + fichero);
+			MappedByteBuffer proyectado = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+			ByteBuffer buffer = proyectado.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.getInt() != MAGICO || buffer.getInt() != VERSION)
+				throw new IOException("Formato de red incorrecto: " + fichero);
+			int ocultas = buffer.getInt();
+			if (ocultas <= 0 || tamano != tamanoFichero(ocultas))
+				throw new IOException("Tamaño de red incorrecto: " + fichero);
+
+			short [] pesos = new short [ENTRADAS * ocultas];
+			short [] sesgos = new short [ocultas];
+			short [] pesosSalida = new short [2 * ocultas];
+			buffer.asShortBuffer().get(pesos).get(sesgos).get(pesosSalida);	//Copia a arrays, más rápidos que el buffer
+			int sesgoSalida = buffer.getInt(BYTES_CABECERA + (pesos.length + sesgos.length + pesosSalida.length) * Short.BYTES);
+			return new RedNeuronal(pesos, sesgos, pesosSalida, sesgoSalida);
+		}
+	}
+
+	/**
+	 * Método que genera una red con pesos aleatorios, para pruebas y medidas de velocidad.
+	 * @param ocultas Número de neuronas de la capa oculta.
+	 * @param semilla Semilla del generador.
+	 * @return red generada.
+	 * @throws IllegalArgumentException si el número de neuronas no es positivo.
+	 */
+	public static RedNeuronal generar(int ocultas, long semilla) {
+
+		if (ocultas <= 0)
+			throw new IllegalArgumentException("El número de neuronas debe ser positivo: " + ocultas);
+		SplittableRandom aleatorio = new SplittableRandom(semilla);
+		short [] pesos = new short [ENTRADAS * ocultas];
+		short [] sesgos = new short [ocultas];
+		short [] pesosSalida = new short [2 * ocultas];
+		for (int i = 0; i < pesos.length; i++)
+			pesos[i] = (short) aleatorio.nextInt(-8, 9);
+		for (int i = 0; i < sesgos.length; i++)
+			sesgos[i] = (short) aleatorio.nextInt(0, 64);
+		for (int i = 0; i < pesosSalida.length; i++)
+			pesosSalida[i] = (short) aleatorio.nextInt(-32, 33);
+		return new RedNeuronal(pesos, sesgos, pesosSalida, 0);
+	}
+
+	/**
+	 * Método que guarda la red en un fichero con el formato que lee cargar.
+	 * @param fichero Ruta del fichero de pesos.
+	 * @throws IOException si no se puede escribir.
+	 */
+	public void guardar(Path fichero) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) tamanoFichero(obtenerOcultas())).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGICO).putInt(VERSION).putInt(obtenerOcultas());
+		for (short peso : pesos)
+			buffer.putShort(peso);
+		for (short sesgo : sesgos)
+			buffer.putShort(sesgo);
+		for (short peso : pesosSalida)
+			buffer.putShort(peso);
+		buffer.putInt(sesgoSalida);
+		Files.write(fichero, buffer.array());
+	}
+
+	/**
+	 * Método que calcula el tamaño del fichero de una red.
+	 * @param ocultas Número de neuronas de la capa oculta.
+	 * @return tamaño en bytes.
+	 */
+	private static long tamanoFichero(int ocultas) {
+		return BYTES_CABECERA + ((long) ENTRADAS * ocultas + ocultas + 2L * ocultas) * Short.BYTES + Integer.BYTES;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que calcula el índice de entrada de una pieza vista desde un bando.
+	 * Las casillas se reflejan para las negras, de modo que cada bando ve sus piezas abajo.
+	 * @param bando Índice (ordinal) del color desde el que se ve.
+	 * @param color Índice (ordinal) del color de la pieza.
+	 * @param tipo Índice del tipo de pieza.
+	 * @param casilla índice de la casilla.
+	 * @return índice de entrada entre 0 y ENTRADAS - 1.
+	 */
+	static int entrada(int bando, int color, int tipo, int casilla) {
+		int relativo = color == bando ? 0 : 1;
+		int vista = bando == Color.BLANCO.ordinal() ? casilla : casilla ^ 56;
+		return (relativo * TableroBits.NUMERO_TIPOS + tipo) * TableroBits.NUMERO_CASILLAS + vista;
+	}
+
+	/**
+	 * Método que devuelve el número de neuronas de la capa oculta.
+	 * @return neuronas de la capa oculta.
+	 */
+	public int obtenerOcultas() {
+		return sesgos.length;
+	}
+
+	/**
+	 * Método que devuelve los pesos de la primera capa.
+	 * @return array compartido, no se debe modificar.
+	 */
+	short [] obtenerPesos() {
+		return pesos;
+	}
+
+	/**
+	 * Método que devuelve los sesgos de la primera capa.
+	 * @return array compartido, no se debe modificar.
+	 */
+	short [] obtenerSesgos() {
+		return sesgos;
+	}
+
+	/**
+	 * Método que calcula la salida de la red a partir de las capas ocultas de los dos bandos.
+	 * @param propia Capa oculta del bando que mueve.
+	 * @param rival Capa oculta del otro bando.
+	 * @return evaluación en centésimas de peón para el bando que mueve, entre -EVALUACION_MAXIMA y EVALUACION_MAXIMA.
+	 */
+	int propagar(short [] propia, short [] rival) {
+
+		int ocultas = sesgos.length;
+		long suma = 0;
+		for (int i = 0; i < ocultas; i++)								//Bucles simples que el compilador JIT puede vectorizar
+			suma += Math.min(Math.max(propia[i], 0), ACTIVACION_MAXIMA) * pesosSalida[i];
+		for (int i = 0; i < ocultas; i++)
+			suma += Math.min(Math.max(rival[i], 0), ACTIVACION_MAXIMA) * pesosSalida[ocultas + i];
+		long evaluacion = (suma + sesgoSalida) * ESCALA_EVALUACION / (ACTIVACION_MAXIMA * ESCALA_SALIDA);
+		return (int) Math.min(Math.max(evaluacion, -EVALUACION_MAXIMA), EVALUACION_MAXIMA);	//Unos pesos saturados no deben parecer un mate
+	}
+}
@@ -0,0 +1,131 @@
+package juego.motor;
+
+import juego.control.Movimiento;
+
+/**
+ * Resultado de una búsqueda: mejor movimiento, puntuación, variante principal y estadísticas.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Buscador
+ */
+public final class ResultadoBusqueda {
+
+	/**
+	 * Mejor movimiento codificado, Movimiento.NULO si no hay movimientos legales.
+	 */
+	private final int movimiento;
+
+	/**
+	 * Puntuación desde el punto de vista del color que mueve.
+	 */
+	private final int puntuacion;
+
+	/**
+	 * Profundidad de la última iteración completa.
+	 */
+	private final int profundidad;
+
+	/**
+	 * Nodos visitados en toda la búsqueda.
+	 */
+	private final long nodos;
+
+	/**
+	 * Tiempo empleado en milisegundos.
+	 */
+	private final long milisegundos;
+
+	/**
+	 * Variante principal, empezando por el mejor movimiento.
+	 */
+	private final int [] variante;
+
+	/**
+	 * Constructor de la clase.
+	 * @param movimiento Mejor movimiento codificado.
+	 * @param puntuacion Puntuación del mejor movimiento.
+	 * @param profundidad Profundidad alcanzada.
+	 * @param nodos Nodos visitados.
+	 * @param milisegundos Tiempo empleado.
+	 * @param variante Variante principal, se copia.
+	 */
+	public ResultadoBusqueda(int movimiento, int puntuacion, int profundidad, long nodos, long milisegundos, int [] variante) {
+		this.movimiento = movimiento;
+		this.puntuacion = puntuacion;
+		this.profundidad = profundidad;
+		this.nodos = nodos;
+		this.milisegundos = milisegundos;
+		this.variante = variante.clone();
+	}
+
+	/**
+	 * Método que devuelve el mejor movimiento.
+	 * @return movimiento codificado, Movimiento.NULO si no hay ninguno.
+	 */
+	public int obtenerMovimiento() {
+		return movimiento;
+	}
+
+	/**
+	 * Método que devuelve la puntuación.
+	 * @return puntuación en centésimas de peón desde el punto de vista del color que mueve.
+	 */
+	public int obtenerPuntuacion() {
+		return puntuacion;
+	}
+
+	/**
+	 * Método que devuelve la profundidad alcanzada.
+	 * @return profundidad de la última iteración completa.
+	 */
+	public int obtenerProfundidad() {
+		return profundidad;
+	}
+
+	/**
+	 * Método que devuelve los nodos visitados.
+	 * @return número de nodos.
+	 */
+	public long obtenerNodos() {
+		return nodos;
+	}
+
+	/**
+	 * Método que devuelve el tiempo empleado.
+	 * @return milisegundos.
+	 */
+	public long obtenerMilisegundos() {
+		return milisegundos;
+	}
+
+	/**
+	 * Método que devuelve la variante principal.
+	 * @return copia de los movimientos codificados.
+	 */
+	public int [] obtenerVariantePrincipal() {
+		return variante.clone();
+	}
+
+	/**
+	 * Método que indica si la puntuación es de mate, a favor o en contra.
+	 * @return true si es un mate.
+	 */
+	public boolean esMate() {
+		return Buscador.esPuntuacionMate(puntuacion);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder texto = new StringBuilder();
+		texto.append("profundidad ").append(profundidad)
+			.append(" puntuacion ").append(puntuacion)
+			.append(" nodos ").append(nodos)
+			.append(" tiempo ").append(milisegundos).append(" ms")
+			.append(" variante");
+		for (int jugada : variante)
+			texto.append(' ').append(Movimiento.aTexto(jugada));
+		return texto.toString();
+	}
+}
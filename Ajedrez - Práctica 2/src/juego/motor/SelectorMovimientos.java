@@ -0,0 +1,238 @@
+package juego.motor;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.TableroBits;
+
+/**
+ * Recorrido por etapas de los movimientos de un nodo, del más al menos prometedor.
+ *
+ * Primero el movimiento de la tabla de transposiciones, después las capturas por víctima de mayor
+ * valor y atacante de menor valor (MVV-LVA), después los asesinos del nivel y por último los
+ * movimientos tranquilos según la historia, con el contramovimiento delante. Cada etapa solo
+ * puntúa sus movimientos cuando se llega a ella, de modo que tras un corte temprano no se
+ * ordena el resto. Los movimientos se reordenan dentro de la propia lista: al terminar,
+ * los n primeros son los n devueltos.
+ *
+ * Se crea uno por nivel y se reutiliza; no crea objetos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see TablasOrden
+ */
+final class SelectorMovimientos {
+
+	/**
+	 * Etapas del recorrido.
+	 */
+	static final int ETAPA_HASH = 0, ETAPA_CAPTURAS = 1, ETAPA_ASESINOS = 2, ETAPA_TRANQUILOS = 3, ETAPA_FIN = 4;
+
+	/**
+	 * Etapas intermedias en las que se puntúan los movimientos de la etapa siguiente.
+	 */
+	private static final int PREPARAR_CAPTURAS = 5, PREPARAR_TRANQUILOS = 6;
+
+	/**
+	 * Bonificación del contramovimiento, mayor que cualquier valor de historia.
+	 */
+	private static final int BONO_CONTRAMOVIMIENTO = 1 << 24;
+
+	/**
+	 * Puntuación de cada movimiento de la lista.
+	 */
+	private final int [] puntuaciones;
+
+	/**
+	 * Movimientos del nodo.
+	 */
+	private ListaMovimientos lista;
+
+	/**
+	 * Tablero del nodo, para los tipos de las piezas.
+	 */
+	private TableroBits bits;
+
+	/**
+	 * Movimiento de la tabla, asesinos y contramovimiento, o Movimiento.NULO.
+	 */
+	private int movimientoHash, asesino0, asesino1, contramovimiento;
+
+	/**
+	 * Historia del color que mueve, o null para no ordenar los tranquilos.
+	 */
+	private int [] historia;
+
+	/**
+	 * Indica si las capturas se ordenan por MVV-LVA.
+	 */
+	private boolean ordenarCapturas;
+
+	/**
+	 * Etapa actual.
+	 */
+	private int etapa;
+
+	/**
+	 * Posición del siguiente movimiento y final de la etapa actual.
+	 */
+	private int siguiente, finEtapa;
+
+	/**
+	 * Etapa del último movimiento devuelto.
+	 */
+	private int etapaDevuelto;
+
+	/**
+	 * Constructor de la clase.
+	 */
+	SelectorMovimientos() {
+		puntuaciones = new int [Arbitro.MAXIMO_MOVIMIENTOS];
+	}
+
+	/**
+	 * Método que prepara el recorrido de los movimientos de un nodo.
+	 * @param lista Movimientos legales del nodo.
+	 * @param bits Representación en bits del tablero del nodo.
+	 * @param movimientoHash Movimiento de la tabla de transposiciones, o Movimiento.NULO.
+	 * @param asesino0 Asesino más reciente del nivel, o Movimiento.NULO.
+	 * @param asesino1 Segundo asesino del nivel, o Movimiento.NULO.
+	 * @param contramovimiento Contramovimiento del movimiento anterior, o Movimiento.NULO.
+	 * @param historia Historia del color que mueve, o null para dejar los tranquilos sin ordenar.
+	 * @param ordenarCapturas true para ordenar las capturas por MVV-LVA.
+	 */
+	void iniciar(ListaMovimientos lista, TableroBits bits, int movimientoHash, int asesino0, int asesino1,
+			int contramovimiento, int [] historia, boolean ordenarCapturas) {
+		this.lista = lista;
+		this.bits = bits;
+		this.movimientoHash = movimientoHash;
+		this.asesino0 = asesino0;
+		this.asesino1 = asesino1;
+		this.contramovimiento = contramovimiento;
+		this.historia = historia;
+		this.ordenarCapturas = ordenarCapturas;
+		this.etapa = ETAPA_HASH;
+		this.siguiente = 0;
+	}
+
+	/**
+	 * Método que devuelve el siguiente movimiento.
+	 * @return movimiento codificado, o Movimiento.NULO si no quedan.
+	 */
+	int siguiente() {
+
+		int total = lista.obtenerNumeroMovimientos();
+		while (true) {
+			switch (etapa) {
+			case ETAPA_HASH:
+				etapa = PREPARAR_CAPTURAS;
+				if (movimientoHash != Movimiento.NULO && traerAlFrente(movimientoHash))
+					return devolver(ETAPA_HASH);
+				break;
+
+			case PREPARAR_CAPTURAS:
+				finEtapa = siguiente;
+				for (int i = siguiente; i < total; i++) {
+					int movimiento = lista.obtener(i);
+					if (Movimiento.esCaptura(movimiento)) {
+						lista.intercambiar(finEtapa, i);
+						puntuaciones[finEtapa++] = ordenarCapturas ? puntuarCaptura(movimiento) : 0;
+					}
+				}
+				etapa = ETAPA_CAPTURAS;
+				break;
+
+			case ETAPA_CAPTURAS:
+				if (siguiente < finEtapa) {
+					Buscador.seleccionarMejor(lista, puntuaciones, siguiente, finEtapa);
+					return devolver(ETAPA_CAPTURAS);
+				}
+				etapa = ETAPA_ASESINOS;
+				break;
+
+			case ETAPA_ASESINOS:										//Las capturas ya han salido, solo quedan tranquilos
+				if (asesino0 != Movimiento.NULO) {
+					int asesino = asesino0;
+					asesino0 = Movimiento.NULO;
+					if (traerAlFrente(asesino))
+						return devolver(ETAPA_ASESINOS);
+				}
+				if (asesino1 != Movimiento.NULO) {
+					int asesino = asesino1;
+					asesino1 = Movimiento.NULO;
+					if (traerAlFrente(asesino))
+						return devolver(ETAPA_ASESINOS);
+				}
+				etapa = PREPARAR_TRANQUILOS;
+				break;
+
+			case PREPARAR_TRANQUILOS:
+				if (historia != null) {
+					int contra = Movimiento.casillas(contramovimiento);
+					for (int i = siguiente; i < total; i++) {
+						int casillas = Movimiento.casillas(lista.obtener(i));
+						puntuaciones[i] = historia[casillas] + (casillas == contra ? BONO_CONTRAMOVIMIENTO : 0);
+					}
+				}
+				etapa = ETAPA_TRANQUILOS;
+				break;
+
+			case ETAPA_TRANQUILOS:
+				if (siguiente < total) {
+					if (historia != null)
+						Buscador.seleccionarMejor(lista, puntuaciones, siguiente, total);
+					return devolver(ETAPA_TRANQUILOS);
+				}
+				etapa = ETAPA_FIN;
+				break;
+
+			default:
+				return Movimiento.NULO;
+			}
+		}
+	}
+
+	/**
+	 * Método que devuelve la etapa del último movimiento devuelto.
+	 * @return ETAPA_HASH, ETAPA_CAPTURAS, ETAPA_ASESINOS o ETAPA_TRANQUILOS.
+	 */
+	int obtenerEtapa() {
+		return etapaDevuelto;
+	}
+
+	/**
+	 * Método que avanza al siguiente movimiento de la lista.
+	 * @param etapa Etapa a la que pertenece.
+	 * @return movimiento devuelto.
+	 */
+	private int devolver(int etapa) {
+		etapaDevuelto = etapa;
+		return lista.obtener(siguiente++);
+	}
+
+	/**
+	 * Método que busca un movimiento entre los pendientes y lo coloca el siguiente.
+	 * @param movimiento Movimiento a buscar, se comparan solo origen y destino.
+	 * @return true si estaba entre los pendientes.
+	 */
+	private boolean traerAlFrente(int movimiento) {
+		int casillas = Movimiento.casillas(movimiento);
+		for (int i = siguiente; i < lista.obtenerNumeroMovimientos(); i++)
+			if (Movimiento.casillas(lista.obtener(i)) == casillas) {
+				lista.intercambiar(siguiente, i);
+				return true;
+			}
+		return false;
+	}
+
+	/**
+	 * Método que puntúa una captura: primero la víctima de más valor y, a igualdad, el atacante de menos.
+	 * @param movimiento Captura codificada.
+	 * @return puntuación MVV-LVA.
+	 */
+	private int puntuarCaptura(int movimiento) {
+		return bits.obtenerTipo(Movimiento.destino(movimiento)) * TableroBits.NUMERO_TIPOS
+				+ TableroBits.NUMERO_TIPOS - 1 - bits.obtenerTipo(Movimiento.origen(movimiento));
+	}
+}
@@ -0,0 +1,444 @@
+package juego.motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+
+/**
+ * Búsqueda de mates forzados con números de prueba en profundidad (df-pn).
+ *
+ * Responde si el color que mueve da mate en como mucho un número de movimientos y con qué
+ * variante. Cada posición tiene un número de prueba (cuántas posiciones hay que demostrar como
+ * mínimo para probar el mate) y uno de refutación (cuántas para probar que no lo hay). La
+ * búsqueda baja siempre por el hijo más prometedor mientras sus números no superen los umbrales
+ * que le pasa su padre, de modo que el árbol crece solo donde el mate está más cerca de probarse
+ * o refutarse, en lugar de recorrer todas las respuestas a la misma profundidad como alfa-beta.
+ *
+ * Los números se guardan como phi y delta desde el punto de vista del que mueve: en los nodos
+ * del atacante phi es el de prueba y delta el de refutación, y en los del defensor al revés.
+ * Cada posición nueva empieza con phi 1 y delta igual a su número de movimientos legales, y
+ * los mates, ahogados y posiciones sin medios movimientos restantes se resuelven al verlas.
+ *
+ * Las posiciones se guardan en una tabla de tamaño fijo indexada por la clave Zobrist y los
+ * medios movimientos restantes, que se reemplaza siempre; como esos medios movimientos bajan en
+ * cada nivel, una posición no se puede repetir en el camino. Los números de movimientos se prueban
+ * de uno en uno, así el primer mate encontrado es el más corto.
+ *
+ * Un solucionador no se debe usar desde varios hilos a la vez; para resolver muchas posiciones
+ * en paralelo está resolverEnParalelo, que usa un solucionador por posición.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Buscador
+ */
+public class SolucionadorMates {
+
+	/**
+	 * Mayor número de movimientos del atacante que se puede pedir.
+	 */
+	public static final int MAXIMO_MOVIMIENTOS = (Buscador.MAXIMO_NIVELES - 1) / 2;
+
+	/**
+	 * Entradas de la tabla por defecto.
+	 */
+	public static final int ENTRADAS_TABLA = 1 << 18;
+
+	/**
+	 * Número de prueba o refutación de una posición resuelta en contra.
+	 */
+	private static final int INFINITO = 100_000_000;
+
+	/**
+	 * Constante para mezclar los medios movimientos restantes con la clave Zobrist.
+	 */
+	private static final long MEZCLA_PROFUNDIDAD = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Árbitro con la posición a resolver.
+	 */
+	private final Arbitro arbitro;
+
+	/**
+	 * Claves de las entradas de la tabla, 0 si está vacía.
+	 */
+	private final long [] claves;
+
+	/**
+	 * Phi y delta de las entradas de la tabla.
+	 */
+	private final int [] phis, deltas;
+
+	/**
+	 * Máscara del índice de la tabla.
+	 */
+	private final int mascara;
+
+	/**
+	 * Movimientos legales de cada nivel.
+	 */
+	private final ListaMovimientos [] listas;
+
+	/**
+	 * Phi y delta de los hijos de cada nivel.
+	 */
+	private final int [][] phisHijos, deltasHijos;
+
+	/**
+	 * Phi y delta del último nodo resuelto o inicializado.
+	 */
+	private int ultimoPhi, ultimoDelta;
+
+	/**
+	 * Número de nodos visitados.
+	 */
+	private long nodos;
+
+	/**
+	 * Nodos a partir de los cuales se abandona, 0 sin límite.
+	 */
+	private long nodosMaximos;
+
+	/**
+	 * Indica que se ha superado el límite de nodos.
+	 */
+	private boolean agotado;
+
+//--constructores--------------------------------------
+
+	/**
+	 * Constructor con la tabla por defecto.
+	 * @param arbitro Árbitro con la posición a resolver.
+	 */
+	public SolucionadorMates(Arbitro arbitro) {
+		this(arbitro, ENTRADAS_TABLA);
+	}
+
+	/**
+	 * Constructor de la clase.
+	 * @param arbitro Árbitro con la posición a resolver.
+	 * @param entradas Entradas de la tabla, se redondea a la potencia de dos inferior.
+	 * @throws IllegalArgumentException si no hay al menos una entrada.
+	 */
+	public SolucionadorMates(Arbitro arbitro, int entradas) {
+		if (entradas < 1)
+			throw new IllegalArgumentException("La tabla debe tener alguna entrada: " + entradas);
+		this.arbitro = arbitro;
+		int tamano = Integer.highestOneBit(entradas);
+		this.claves = new long [tamano];
+		this.phis = new int [tamano];
+		this.deltas = new int [tamano];
+		this.mascara = tamano - 1;
+		this.listas = new ListaMovimientos [Buscador.MAXIMO_NIVELES];
+		for (int i = 0; i < Buscador.MAXIMO_NIVELES; i++)
+			listas[i] = new ListaMovimientos();
+		this.phisHijos = new int [Buscador.MAXIMO_NIVELES][Arbitro.MAXIMO_MOVIMIENTOS];
+		this.deltasHijos = new int [Buscador.MAXIMO_NIVELES][Arbitro.MAXIMO_MOVIMIENTOS];
+	}
+
+//--métodos-----------------------------------------------
+
+	/**
+	 * Método que busca el mate más corto del color que mueve, sin límite de nodos.
+	 * @param movimientos Mayor número de movimientos del atacante.
+	 * @return resultado con el primer movimiento y la variante del mate, o Movimiento.NULO si no lo hay.
+	 * @see #resolver(int, long)
+	 */
+	public ResultadoBusqueda resolver(int movimientos) {
+		return resolver(movimientos, 0);
+	}
+
+	/**
+	 * Método que busca el mate más corto del color que mueve. La posición del árbitro queda como estaba.
+	 *
+	 * Si hay mate en n movimientos, la puntuación es Buscador.MATE - (2n - 1) y la variante sigue
+	 * la defensa que más lo retrasa. La profundidad del resultado son los medios movimientos
+	 * (2n - 1) del último número de movimientos resuelto: si no es mate, hasta ahí se ha comprobado
+	 * que no lo hay, y si se agotan los nodos puede ser menor que la pedida.
+	 * @param movimientos Mayor número de movimientos del atacante.
+	 * @param nodosMaximos Nodos a partir de los cuales se abandona, 0 sin límite.
+	 * @return resultado con el primer movimiento y la variante del mate, o Movimiento.NULO si no lo hay.
+	 * @throws IllegalArgumentException si el número de movimientos no está entre 1 y MAXIMO_MOVIMIENTOS.
+	 */
+	public ResultadoBusqueda resolver(int movimientos, long nodosMaximos) {
+
+		if (movimientos < 1 || movimientos > MAXIMO_MOVIMIENTOS)
+			throw new IllegalArgumentException("Número de movimientos fuera de rango: " + movimientos);
+		long inicio = System.nanoTime();
+		this.nodos = 0;
+		this.nodosMaximos = nodosMaximos;
+		this.agotado = false;
+
+		int resueltos = 0, mateEn = 0;
+		int [] variante = new int [0];
+		for (int n = 1; n <= movimientos; n++) {
+			boolean mate = resolverNodo(0, 2 * n - 1);
+			if (agotado)
+				break;
+			resueltos = n;
+			if (mate) {
+				mateEn = n;
+				List<Integer> jugadas = new ArrayList<>();
+				construirVariante(0, 2 * n - 1, jugadas);
+				variante = jugadas.stream().mapToInt(Integer::intValue).toArray();
+				break;
+			}
+		}
+
+		long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+		int puntuacion = mateEn > 0 ? Buscador.MATE - (2 * mateEn - 1) : 0;
+		return new ResultadoBusqueda(variante.length > 0 ? variante[0] : Movimiento.NULO, puntuacion,
+				Math.max(0, 2 * resueltos - 1), nodos, milisegundos, variante);
+	}
+
+	/**
+	 * Método que resuelve varias posiciones independientes en paralelo, con un solucionador y
+	 * una copia del árbitro por posición.
+	 * @param posiciones Árbitros con las posiciones, que no se modifican.
+	 * @param movimientos Mayor número de movimientos del atacante.
+	 * @param entradas Entradas de la tabla de cada solucionador.
+	 * @param pool Pool de hilos.
+	 * @return resultado de cada posición, en el mismo orden.
+	 */
+	public static ResultadoBusqueda [] resolverEnParalelo(Arbitro [] posiciones, int movimientos, int entradas, ForkJoinPool pool) {
+
+		List<Future<ResultadoBusqueda>> tareas = new ArrayList<>(posiciones.length);
+		for (Arbitro posicion : posiciones) {
+			Arbitro copia = posicion.copiar();									//Se copia en este hilo, antes de lanzar la tarea
+			tareas.add(pool.submit(() -> new SolucionadorMates(copia, entradas).resolver(movimientos)));
+		}
+
+		ResultadoBusqueda [] resultados = new ResultadoBusqueda [posiciones.length];
+		try {
+			for (int i = 0; i < resultados.length; i++)
+				resultados[i] = tareas.get(i).get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Resolución de mates interrumpida", e);
+		}
+		catch (ExecutionException e) {
+			throw new RuntimeException("Error en un hilo de resolución de mates", e.getCause());
+		}
+		return resultados;
+	}
+
+	/**
+	 * Método que devuelve los nodos de la última resolución.
+	 * @return nodos visitados.
+	 */
+	public long obtenerNodos() {
+		return nodos;
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que resuelve por completo la posición actual si la tabla no la tiene ya resuelta.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param restantes Medios movimientos restantes, impar si mueve el atacante.
+	 * @return true si está probado el mate del atacante.
+	 */
+	private boolean resolverNodo(int nivel, int restantes) {
+
+		int entrada = consultar(clave(restantes));
+		if (entrada >= 0 && (phis[entrada] == 0 || deltas[entrada] == 0)) {
+			ultimoPhi = phis[entrada];
+			ultimoDelta = deltas[entrada];
+		}
+		else if (inicializar(nivel, restantes))
+			buscar(nivel, restantes, INFINITO, INFINITO);
+		return !agotado && (esAtacante(restantes) ? ultimoPhi : ultimoDelta) == 0;
+	}
+
+	/**
+	 * Método principal de df-pn: expande la posición actual hasta que su phi o su delta alcanzan su umbral.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param restantes Medios movimientos restantes.
+	 * @param umbralPhi Umbral de phi.
+	 * @param umbralDelta Umbral de delta.
+	 */
+	private void buscar(int nivel, int restantes, int umbralPhi, int umbralDelta) {
+
+		nodos++;
+		if (nodosMaximos > 0 && nodos > nodosMaximos)
+			agotado = true;
+		long clave = clave(restantes);
+		ListaMovimientos lista = listas[nivel];
+		arbitro.generarMovimientosLegales(lista);
+		int [] phisNivel = phisHijos[nivel], deltasNivel = deltasHijos[nivel];
+
+		while (true) {
+			int numero = lista.obtenerNumeroMovimientos();
+			int phi = INFINITO, segundo = INFINITO, delta = 0, mejor = -1;
+			for (int i = 0; i < numero; i++) {
+				arbitro.hacerMovimiento(lista.obtener(i));
+				int entrada = consultar(clave(restantes - 1));
+				if (entrada >= 0) {
+					phisNivel[i] = phis[entrada];
+					deltasNivel[i] = deltas[entrada];
+				}
+				else {
+					inicializar(nivel + 1, restantes - 1);
+					phisNivel[i] = ultimoPhi;
+					deltasNivel[i] = ultimoDelta;
+				}
+				arbitro.deshacerMovimiento();
+
+				delta = Math.min(INFINITO, delta + phisNivel[i]);
+				if (deltasNivel[i] < phi) {											//El hijo con menor delta es el más prometedor
+					segundo = phi;
+					phi = deltasNivel[i];
+					mejor = i;
+				}
+				else if (deltasNivel[i] < segundo)
+					segundo = deltasNivel[i];
+			}
+
+			if (phi >= umbralPhi || delta >= umbralDelta || agotado) {
+				guardar(clave, phi, delta);
+				ultimoPhi = phi;
+				ultimoDelta = delta;
+				return;
+			}
+			int umbralPhiHijo = umbralDelta >= INFINITO ? INFINITO : Math.min(INFINITO, umbralDelta - delta + phisNivel[mejor]);
+			int umbralDeltaHijo = Math.min(umbralPhi, segundo >= INFINITO ? INFINITO : segundo + 1);
+			arbitro.hacerMovimiento(lista.obtener(mejor));
+			buscar(nivel + 1, restantes - 1, umbralPhiHijo, umbralDeltaHijo);
+			arbitro.deshacerMovimiento();
+		}
+	}
+
+	/**
+	 * Método que calcula los números iniciales de una posición nueva y los guarda en la tabla.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param restantes Medios movimientos restantes.
+	 * @return true si la posición queda sin resolver.
+	 */
+	private boolean inicializar(int nivel, int restantes) {
+
+		nodos++;
+		boolean enJaque = arbitro.estaEnJaque(arbitro.obtenerTurno());
+		int numero = restantes == 0 && !enJaque ? 1 : arbitro.generarMovimientosLegales(listas[nivel]);	//Sin jaque no hace falta generar
+		if (numero == 0) {
+			if (enJaque || esAtacante(restantes))
+				establecerUltimos(INFINITO, 0);									//Pierde el que mueve
+			else
+				establecerUltimos(0, INFINITO);									//El defensor ahogado hace tablas
+		}
+		else if (restantes == 0)
+			establecerUltimos(0, INFINITO);										//El defensor ha resistido
+		else
+			establecerUltimos(1, numero);
+		guardar(clave(restantes), ultimoPhi, ultimoDelta);
+		return ultimoPhi != 0 && ultimoDelta != 0;
+	}
+
+	/**
+	 * Método que construye la variante de un mate ya probado, con la defensa que más lo retrasa.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param restantes Medios movimientos restantes en los que está probado el mate.
+	 * @param variante Lista a la que se añaden los movimientos.
+	 */
+	private void construirVariante(int nivel, int restantes, List<Integer> variante) {
+
+		ListaMovimientos lista = listas[nivel];
+		if (arbitro.generarMovimientosLegales(lista) == 0 || restantes == 0)
+			return;
+		int elegido = Movimiento.NULO, restantesElegido = 0;
+		for (int i = 0; i < lista.obtenerNumeroMovimientos() && !agotado; i++) {
+			int movimiento = lista.obtener(i);
+			arbitro.hacerMovimiento(movimiento);
+			if (esAtacante(restantes)) {
+				if (resolverNodo(nivel + 1, restantes - 1)) {
+					elegido = movimiento;
+					restantesElegido = restantes - 1;
+				}
+			}
+			else {
+				int necesarios = 1;												//Mate más corto tras la respuesta
+				while (necesarios < restantes - 1 && !resolverNodo(nivel + 1, necesarios) && !agotado)
+					necesarios += 2;
+				if (necesarios > restantesElegido) {
+					elegido = movimiento;
+					restantesElegido = necesarios;
+				}
+			}
+			arbitro.deshacerMovimiento();
+			if (elegido != Movimiento.NULO && esAtacante(restantes))
+				break;
+		}
+		if (elegido == Movimiento.NULO)
+			return;
+		variante.add(elegido);
+		arbitro.hacerMovimiento(elegido);
+		construirVariante(nivel + 1, restantesElegido, variante);
+		arbitro.deshacerMovimiento();
+	}
+
+	/**
+	 * Método que indica si en un nodo mueve el atacante.
+	 * @param restantes Medios movimientos restantes.
+	 * @return true si es impar.
+	 */
+	private static boolean esAtacante(int restantes) {
+		return (restantes & 1) == 1;
+	}
+
+	/**
+	 * Método que fija phi y delta del último nodo.
+	 * @param phi Phi del nodo.
+	 * @param delta Delta del nodo.
+	 */
+	private void establecerUltimos(int phi, int delta) {
+		ultimoPhi = phi;
+		ultimoDelta = delta;
+	}
+
+	/**
+	 * Método que calcula la clave de la posición actual con los medios movimientos restantes.
+	 * @param restantes Medios movimientos restantes.
+	 * @return clave distinta de 0.
+	 */
+	private long clave(int restantes) {
+		long clave = arbitro.obtenerClave() + (restantes + 1) * MEZCLA_PROFUNDIDAD;
+		return clave != 0 ? clave : 1;
+	}
+
+	/**
+	 * Método que busca una posición en la tabla.
+	 * @param clave Clave de la posición.
+	 * @return índice de la entrada, o -1 si no está.
+	 */
+	private int consultar(long clave) {
+		int indice = indice(clave);
+		return claves[indice] == clave ? indice : -1;
+	}
+
+	/**
+	 * Método que guarda una posición en la tabla, reemplazando la que hubiera.
+	 * @param clave Clave de la posición.
+	 * @param phi Phi de la posición.
+	 * @param delta Delta de la posición.
+	 */
+	private void guardar(long clave, int phi, int delta) {
+		int indice = indice(clave);
+		claves[indice] = clave;
+		phis[indice] = phi;
+		deltas[indice] = delta;
+	}
+
+	/**
+	 * Método que calcula el índice de una clave en la tabla.
+	 * @param clave Clave de la posición.
+	 * @return índice de la entrada.
+	 */
+	private int indice(long clave) {
+		return (int) (clave ^ (clave >>> 32)) & mascara;
+	}
+}
@@ -0,0 +1,189 @@
+package juego.motor;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de estructura de peones de acceso directo, indexada por la clave Zobrist de los peones.
+ *
+ * La estructura de peones cambia en pocos movimientos, así que su evaluación se guarda por
+ * clave de peones: cada entrada tiene la clave, las puntuaciones de medio juego y final desde
+ * el punto de vista de las blancas y la máscara de peones pasados de ambos colores. Una entrada
+ * nueva sustituye siempre a la anterior del mismo índice.
+ *
+ * No se comparte entre hilos: cada evaluador tiene la suya.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see juego.modelo.TableroBits#obtenerClavePeones()
+ */
+public class TablaPeones {
+
+	/**
+	 * Desplazamiento de la puntuación de final en los datos, la de medio juego ocupa los 32 bits bajos.
+	 */
+	private static final int DESPLAZAMIENTO_FINAL = 32;
+
+	/**
+	 * Claves de cada entrada.
+	 */
+	private final long [] claves;
+
+	/**
+	 * Puntuaciones de medio juego y final de cada entrada.
+	 */
+	private final long [] puntuaciones;
+
+	/**
+	 * Peones pasados de cada entrada.
+	 */
+	private final long [] pasados;
+
+	/**
+	 * Indica si cada entrada se ha escrito.
+	 */
+	private final boolean [] ocupadas;
+
+	/**
+	 * Máscara del índice de entrada.
+	 */
+	private final int mascara;
+
+	/**
+	 * Número de consultas.
+	 */
+	private long consultas;
+
+	/**
+	 * Número de consultas que encontraron la estructura.
+	 */
+	private long aciertos;
+
+	/**
+	 * Constructor de la clase.
+	 * @param entradas Número de entradas, se redondea a la potencia de dos inferior.
+	 * @throws IllegalArgumentException si no es positivo.
+	 */
+	public TablaPeones(int entradas) {
+
+		if (entradas <= 0)
+			throw new IllegalArgumentException("El número de entradas debe ser positivo: " + entradas);
+		int tamano = Integer.highestOneBit(entradas);
+		this.claves = new long [tamano];
+		this.puntuaciones = new long [tamano];
+		this.pasados = new long [tamano];
+		this.ocupadas = new boolean [tamano];
+		this.mascara = tamano - 1;
+	}
+
+	/**
+	 * Método que busca una estructura de peones.
+	 * @param clave Clave Zobrist de los peones.
+	 * @return índice de la entrada, o -1 si no está.
+	 */
+	public int consultar(long clave) {
+
+		consultas++;
+		int indice = indice(clave);
+		if (ocupadas[indice] && claves[indice] == clave) {
+			aciertos++;
+			return indice;
+		}
+		return -1;
+	}
+
+	/**
+	 * Método que guarda la evaluación de una estructura de peones.
+	 * @param clave Clave Zobrist de los peones.
+	 * @param medioJuego Puntuación de medio juego desde el punto de vista de las blancas.
+	 * @param finalPartida Puntuación de final desde el punto de vista de las blancas.
+	 * @param peonesPasados Máscara de los peones pasados de ambos colores.
+	 * @return índice de la entrada.
+	 */
+	public int guardar(long clave, int medioJuego, int finalPartida, long peonesPasados) {
+
+		int indice = indice(clave);
+		claves[indice] = clave;
+		puntuaciones[indice] = ((long) finalPartida << DESPLAZAMIENTO_FINAL) | (medioJuego & 0xFFFFFFFFL);
+		pasados[indice] = peonesPasados;
+		ocupadas[indice] = true;
+		return indice;
+	}
+
+	/**
+	 * Método que devuelve la puntuación de medio juego de una entrada.
+	 * @param indice Índice devuelto por consultar o guardar.
+	 * @return puntuación desde el punto de vista de las blancas.
+	 */
+	public int obtenerMedioJuego(int indice) {
+		return (int) puntuaciones[indice];
+	}
+
+	/**
+	 * Método que devuelve la puntuación de final de una entrada.
+	 * @param indice Índice devuelto por consultar o guardar.
+	 * @return puntuación desde el punto de vista de las blancas.
+	 */
+	public int obtenerFinal(int indice) {
+		return (int) (puntuaciones[indice] >> DESPLAZAMIENTO_FINAL);
+	}
+
+	/**
+	 * Método que devuelve los peones pasados de una entrada.
+	 * @param indice Índice devuelto por consultar o guardar.
+	 * @return máscara de los peones pasados de ambos colores.
+	 */
+	public long obtenerPasados(int indice) {
+		return pasados[indice];
+	}
+
+	/**
+	 * Método que vacía la tabla y reinicia las estadísticas.
+	 */
+	public void vaciar() {
+		Arrays.fill(ocupadas, false);
+		consultas = 0;
+		aciertos = 0;
+	}
+
+	/**
+	 * Método que devuelve el número de entradas.
+	 * @return número de entradas.
+	 */
+	public int obtenerNumeroEntradas() {
+		return claves.length;
+	}
+
+	/**
+	 * Método que devuelve el número de consultas.
+	 * @return consultas desde la creación o el último vaciado.
+	 */
+	public long obtenerConsultas() {
+		return consultas;
+	}
+
+	/**
+	 * Método que devuelve el número de consultas que encontraron la estructura.
+	 * @return aciertos desde la creación o el último vaciado.
+	 */
+	public long obtenerAciertos() {
+		return aciertos;
+	}
+
+	/**
+	 * Método que devuelve la proporción de consultas que encontraron la estructura.
+	 * @return valor entre 0 y 1, 0 si no hay consultas.
+	 */
+	public double obtenerTasaAciertos() {
+		return consultas == 0 ? 0 : (double) aciertos / consultas;
+	}
+
+	/**
+	 * Método que calcula el índice de entrada de una clave.
+	 * @param clave Clave Zobrist de los peones.
+	 * @return índice de la entrada.
+	 */
+	private int indice(long clave) {
+		return (int) (clave ^ (clave >>> 32)) & mascara;
+	}
+}
@@ -0,0 +1,320 @@
+package juego.motor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tabla de transposiciones de tamaño fijo, indexada por la clave Zobrist de la posición.
+ *
+ * Cada entrada ocupa dos long: la clave XOR los datos, y los datos (movimiento, puntuación,
+ * profundidad, tipo de cota y edad). Al leer se comprueba que la clave XOR los datos
+ * coincide con la clave buscada, de modo que una entrada escrita a medias por otro hilo
+ * se descarta como un fallo. Así varios hilos comparten la tabla sin sincronización.
+ *
+ * Las entradas se agrupan en cubos de dos: la primera se reemplaza solo si es de una búsqueda
+ * anterior o si la nueva es al menos igual de profunda; la segunda se reemplaza siempre.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see juego.modelo.Zobrist
+ */
+public class TablaTransposicion {
+
+	/**
+	 * Cota exacta: la puntuación es el valor de la posición.
+	 */
+	public static final int COTA_EXACTA = 1;
+
+	/**
+	 * Cota inferior: hubo corte beta y el valor es al menos la puntuación.
+	 */
+	public static final int COTA_INFERIOR = 2;
+
+	/**
+	 * Cota superior: ningún movimiento superó alfa y el valor es como mucho la puntuación.
+	 */
+	public static final int COTA_SUPERIOR = 3;
+
+	/**
+	 * Número de long por entrada.
+	 */
+	private static final int LONGS_ENTRADA = 2;
+
+	/**
+	 * Número de entradas por cubo.
+	 */
+	private static final int ENTRADAS_CUBO = 2;
+
+	/**
+	 * Número de long por cubo.
+	 */
+	private static final int LONGS_CUBO = LONGS_ENTRADA * ENTRADAS_CUBO;
+
+	/**
+	 * Desplazamientos de cada campo en los datos.
+	 */
+	private static final int DESPLAZAMIENTO_PUNTUACION = 16, DESPLAZAMIENTO_PROFUNDIDAD = 32,
+			DESPLAZAMIENTO_COTA = 40, DESPLAZAMIENTO_EDAD = 42;
+
+	/**
+	 * Máscara de la edad, que cuenta las búsquedas módulo 256.
+	 */
+	private static final int MASCARA_EDAD = 0xFF;
+
+	/**
+	 * Número de cubos que se muestrean para calcular la ocupación.
+	 */
+	private static final int CUBOS_MUESTRA = 1000;
+
+	/**
+	 * Bytes en un megabyte.
+	 */
+	private static final long BYTES_MEGABYTE = 1L << 20;
+
+	/**
+	 * Entradas de la tabla.
+	 */
+	private final long [] entradas;
+
+	/**
+	 * Máscara del índice de cubo.
+	 */
+	private final int mascaraCubos;
+
+	/**
+	 * Edad de la búsqueda actual.
+	 */
+	private volatile int edad;
+
+	/**
+	 * Número de consultas.
+	 */
+	private final LongAdder consultas;
+
+	/**
+	 * Número de consultas que encontraron la posición.
+	 */
+	private final LongAdder aciertos;
+
+	/**
+	 * Constructor de la clase.
+	 * @param megabytes Tamaño máximo en megabytes, se redondea a la potencia de dos inferior.
+	 */
+	public TablaTransposicion(int megabytes) {
+
+		long cubos = Long.highestOneBit(Math.max(1, megabytes * BYTES_MEGABYTE / (LONGS_CUBO * Long.BYTES)));
+		cubos = Math.min(cubos, Integer.highestOneBit(Integer.MAX_VALUE / LONGS_CUBO));
+		this.entradas = new long [(int) cubos * LONGS_CUBO];
+		this.mascaraCubos = (int) cubos - 1;
+		this.consultas = new LongAdder();
+		this.aciertos = new LongAdder();
+	}
+
+	/**
+	 * Método que busca una posición.
+	 * @param clave Clave Zobrist de la posición.
+	 * @return datos de la entrada, o 0 si no está.
+	 * @see movimiento
+	 * @see puntuacion
+	 * @see profundidad
+	 * @see cota
+	 */
+	public long consultar(long clave) {
+
+		consultas.increment();
+		int cubo = indiceCubo(clave);
+		for (int i = cubo; i < cubo + LONGS_CUBO; i += LONGS_ENTRADA) {
+			long datos = entradas[i + 1];
+			if ((entradas[i] ^ datos) == clave && datos != 0) {
+				aciertos.increment();
+				return datos;
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * Método que guarda el resultado de buscar una posición.
+	 * @param clave Clave Zobrist de la posición.
+	 * @param movimiento Mejor movimiento codificado, o Movimiento.NULO.
+	 * @param puntuacion Puntuación ya ajustada con puntuacionATabla.
+	 * @param profundidad Profundidad de la búsqueda, entre 0 y 255.
+	 * @param cota COTA_EXACTA, COTA_INFERIOR o COTA_SUPERIOR.
+	 */
+	public void guardar(long clave, int movimiento, int puntuacion, int profundidad, int cota) {
+
+		int cubo = indiceCubo(clave);
+		int edadActual = edad;
+		long primera = entradas[cubo + 1];
+		int destino;
+
+		if ((entradas[cubo] ^ primera) == clave)
+			destino = cubo;													//Misma posición, actualizamos su entrada
+		else if ((entradas[cubo + LONGS_ENTRADA] ^ entradas[cubo + LONGS_ENTRADA + 1]) == clave)
+			destino = cubo + LONGS_ENTRADA;
+		else if (primera == 0 || edad(primera) != edadActual || profundidad >= profundidad(primera))
+			destino = cubo;													//Entrada vacía, antigua o menos profunda
+		else
+			destino = cubo + LONGS_ENTRADA;									//Entrada de reemplazo siempre
+
+		long anterior = entradas[destino + 1];
+		if (movimiento == 0 && (entradas[destino] ^ anterior) == clave)
+			movimiento = movimiento(anterior);								//Conservamos el movimiento conocido
+
+		long datos = (movimiento & 0xFFFFL)
+				| ((puntuacion & 0xFFFFL) << DESPLAZAMIENTO_PUNTUACION)
+				| ((long) (profundidad & 0xFF) << DESPLAZAMIENTO_PROFUNDIDAD)
+				| ((long) cota << DESPLAZAMIENTO_COTA)
+				| ((long) edadActual << DESPLAZAMIENTO_EDAD);
+		entradas[destino] = clave ^ datos;
+		entradas[destino + 1] = datos;
+	}
+
+	/**
+	 * Método que marca el comienzo de una búsqueda nueva, envejeciendo las entradas existentes.
+	 */
+	public void nuevaBusqueda() {
+		edad = (edad + 1) & MASCARA_EDAD;
+	}
+
+	/**
+	 * Método que borra todas las entradas y las estadísticas.
+	 * No se debe llamar mientras otros hilos usan la tabla.
+	 */
+	public void vaciar() {
+		Arrays.fill(entradas, 0L);
+		consultas.reset();
+		aciertos.reset();
+	}
+
+	/**
+	 * Método que devuelve el número de entradas de la tabla.
+	 * @return número de entradas.
+	 */
+	public int obtenerNumeroEntradas() {
+		return entradas.length / LONGS_ENTRADA;
+	}
+
+	/**
+	 * Método que devuelve el número de consultas.
+	 * @return consultas desde la creación o el último vaciado.
+	 */
+	public long obtenerConsultas() {
+		return consultas.sum();
+	}
+
+	/**
+	 * Método que devuelve el número de aciertos.
+	 * @return consultas que encontraron la posición.
+	 */
+	public long obtenerAciertos() {
+		return aciertos.sum();
+	}
+
+	/**
+	 * Método que devuelve la proporción de consultas que encontraron la posición.
+	 * @return tasa entre 0 y 1.
+	 */
+	public double obtenerTasaAciertos() {
+		long total = consultas.sum();
+		return total == 0 ? 0.0 : (double) aciertos.sum() / total;
+	}
+
+	/**
+	 * Método que estima la ocupación de la tabla con entradas de la búsqueda actual.
+	 * @return ocupación en tantos por mil.
+	 */
+	public int obtenerOcupacion() {
+
+		int cubos = Math.min(CUBOS_MUESTRA, mascaraCubos + 1);
+		int ocupadas = 0;
+		for (int i = 0; i < cubos * LONGS_CUBO; i += LONGS_ENTRADA) {
+			long datos = entradas[i + 1];
+			if (datos != 0 && edad(datos) == edad)
+				ocupadas++;
+		}
+		return ocupadas * 1000 / (cubos * ENTRADAS_CUBO);
+	}
+
+//-------------------------------------------------------------------------------
+	/**
+	 * Método que extrae el movimiento de los datos de una entrada.
+	 * @param datos Datos devueltos por consultar.
+	 * @return movimiento codificado.
+	 */
+	public static int movimiento(long datos) {
+		return (int) (datos & 0xFFFF);
+	}
+
+	/**
+	 * Método que extrae la puntuación de los datos de una entrada.
+	 * @param datos Datos devueltos por consultar.
+	 * @return puntuación, que se debe ajustar con puntuacionDesdeTabla.
+	 */
+	public static int puntuacion(long datos) {
+		return (short) (datos >>> DESPLAZAMIENTO_PUNTUACION);
+	}
+
+	/**
+	 * Método que extrae la profundidad de los datos de una entrada.
+	 * @param datos Datos devueltos por consultar.
+	 * @return profundidad de la búsqueda guardada.
+	 */
+	public static int profundidad(long datos) {
+		return (int) (datos >>> DESPLAZAMIENTO_PROFUNDIDAD) & 0xFF;
+	}
+
+	/**
+	 * Método que extrae el tipo de cota de los datos de una entrada.
+	 * @param datos Datos devueltos por consultar.
+	 * @return COTA_EXACTA, COTA_INFERIOR o COTA_SUPERIOR.
+	 */
+	public static int cota(long datos) {
+		return (int) (datos >>> DESPLAZAMIENTO_COTA) & 0x3;
+	}
+
+	/**
+	 * Método que extrae la edad de los datos de una entrada.
+	 * @param datos Datos de una entrada.
+	 * @return edad de la búsqueda que la guardó.
+	 */
+	private static int edad(long datos) {
+		return (int) (datos >>> DESPLAZAMIENTO_EDAD) & MASCARA_EDAD;
+	}
+
+	/**
+	 * Método que convierte una puntuación de mate o de victoria de los finales relativa a la raíz
+	 * en relativa a la posición guardada.
+	 * @param puntuacion Puntuación de la búsqueda.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @return puntuación para guardar.
+	 * @see Buscador#esPuntuacionVictoria(int)
+	 */
+	public static int puntuacionATabla(int puntuacion, int nivel) {
+		if (!Buscador.esPuntuacionVictoria(puntuacion))
+			return puntuacion;
+		return puntuacion > 0 ? puntuacion + nivel : puntuacion - nivel;
+	}
+
+	/**
+	 * Método que convierte una puntuación guardada en relativa a la raíz de la búsqueda actual.
+	 * @param puntuacion Puntuación guardada.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @return puntuación para la búsqueda.
+	 */
+	public static int puntuacionDesdeTabla(int puntuacion, int nivel) {
+		if (!Buscador.esPuntuacionVictoria(puntuacion))
+			return puntuacion;
+		return puntuacion > 0 ? puntuacion - nivel : puntuacion + nivel;
+	}
+
+	/**
+	 * Método que calcula la posición del primer long del cubo de una clave.
+	 * @param clave Clave Zobrist.
+	 * @return índice en el array de entradas.
+	 */
+	private int indiceCubo(long clave) {
+		return ((int) (clave ^ (clave >>> 32)) & mascaraCubos) * LONGS_CUBO;
+	}
+}
@@ -0,0 +1,142 @@
+package juego.motor;
+
+import java.util.Arrays;
+
+import juego.control.Movimiento;
+import juego.modelo.Color;
+import juego.modelo.TableroBits;
+
+/**
+ * Tablas que aprenden durante la búsqueda qué movimientos tranquilos suelen producir cortes beta.
+ *
+ * Los asesinos guardan, por nivel, los dos últimos movimientos tranquilos que cortaron. La historia
+ * de mariposa suma, por color, origen y destino, el cuadrado de la profundidad de cada corte.
+ * El contramovimiento guarda, por tipo de pieza y casilla de destino del movimiento anterior, el
+ * movimiento que lo refutó. Todas son arrays de enteros indexados con las casillas del movimiento
+ * codificado, sin objetos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see SelectorMovimientos
+ */
+final class TablasOrden {
+
+	/**
+	 * Número de asesinos por nivel.
+	 */
+	static final int ASESINOS_NIVEL = 2;
+
+	/**
+	 * Valor de historia a partir del cual se reducen todas las entradas a la mitad.
+	 */
+	private static final int MAXIMO_HISTORIA = 1 << 20;
+
+	/**
+	 * Número de pares origen y destino.
+	 */
+	private static final int PARES_CASILLAS = TableroBits.NUMERO_CASILLAS * TableroBits.NUMERO_CASILLAS;
+
+	/**
+	 * Asesinos de cada nivel, ASESINOS_NIVEL seguidos.
+	 */
+	private final int [] asesinos;
+
+	/**
+	 * Historia de mariposa de cada color, indexada por las casillas de origen y destino del movimiento.
+	 */
+	private final int [][] historia;
+
+	/**
+	 * Contramovimientos, indexados por tipo * 64 + destino del movimiento anterior.
+	 */
+	private final int [] contramovimientos;
+
+	/**
+	 * Constructor de la clase.
+	 */
+	TablasOrden() {
+		asesinos = new int [Buscador.MAXIMO_NIVELES * ASESINOS_NIVEL];
+		historia = new int [Color.values().length][PARES_CASILLAS];
+		contramovimientos = new int [TableroBits.NUMERO_TIPOS * TableroBits.NUMERO_CASILLAS];
+	}
+
+	/**
+	 * Método que prepara las tablas para una búsqueda nueva: olvida los asesinos y atenúa la historia.
+	 */
+	void nuevaBusqueda() {
+		Arrays.fill(asesinos, Movimiento.NULO);
+		for (int [] historiaColor : historia)
+			for (int i = 0; i < PARES_CASILLAS; i++)
+				historiaColor[i] >>= 1;
+	}
+
+	/**
+	 * Método que anota un movimiento tranquilo que ha producido un corte beta.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param movimiento Movimiento que cortó.
+	 * @param color Color que lo juega.
+	 * @param profundidad Profundidad restante del nodo.
+	 * @param indiceAnterior Índice de contramovimiento del movimiento anterior, o -1.
+	 */
+	void anotarCorte(int nivel, int movimiento, Color color, int profundidad, int indiceAnterior) {
+
+		int base = nivel * ASESINOS_NIVEL;
+		if (Movimiento.casillas(asesinos[base]) != Movimiento.casillas(movimiento)) {
+			asesinos[base + 1] = asesinos[base];
+			asesinos[base] = movimiento;
+		}
+
+		int [] historiaColor = historia[color.ordinal()];
+		int par = Movimiento.casillas(movimiento);
+		historiaColor[par] += profundidad * profundidad;
+		if (historiaColor[par] >= MAXIMO_HISTORIA)
+			for (int i = 0; i < PARES_CASILLAS; i++)
+				historiaColor[i] >>= 1;
+
+		if (indiceAnterior >= 0)
+			contramovimientos[indiceAnterior] = movimiento;
+	}
+
+	/**
+	 * Método que devuelve un asesino de un nivel.
+	 * @param nivel Medios movimientos desde la raíz.
+	 * @param indice 0 para el más reciente.
+	 * @return movimiento, o Movimiento.NULO.
+	 */
+	int obtenerAsesino(int nivel, int indice) {
+		return asesinos[nivel * ASESINOS_NIVEL + indice];
+	}
+
+	/**
+	 * Método que devuelve la historia de un color.
+	 * @param color Color que mueve.
+	 * @return array indexado por las casillas del movimiento codificado.
+	 * @see Movimiento#casillas(int)
+	 */
+	int [] obtenerHistoria(Color color) {
+		return historia[color.ordinal()];
+	}
+
+	/**
+	 * Método que devuelve el contramovimiento de un movimiento anterior.
+	 * @param indiceAnterior Índice de contramovimiento del movimiento anterior, o -1.
+	 * @return movimiento, o Movimiento.NULO.
+	 */
+	int obtenerContramovimiento(int indiceAnterior) {
+		return indiceAnterior >= 0 ? contramovimientos[indiceAnterior] : Movimiento.NULO;
+	}
+
+	/**
+	 * Método que calcula el índice de contramovimiento de un movimiento ya hecho.
+	 * @param bits Representación en bits del tablero tras el movimiento.
+	 * @param movimiento Movimiento hecho, o Movimiento.NULO.
+	 * @return tipo de la pieza movida * 64 + destino, o -1 si no hay movimiento.
+	 */
+	static int indiceContramovimiento(TableroBits bits, int movimiento) {
+		if (movimiento == Movimiento.NULO)
+			return -1;
+		int destino = Movimiento.destino(movimiento);
+		return bits.obtenerTipo(destino) * TableroBits.NUMERO_CASILLAS + destino;
+	}
+}
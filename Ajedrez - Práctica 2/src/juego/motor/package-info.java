@@ -0,0 +1,9 @@
+/**
+ * Paquete con el motor de búsqueda que calcula el mejor movimiento
+ * de una posición a partir del árbitro.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+package juego.motor;
@@ -1,8 +1,12 @@
 package juego.textui;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 import juego.control.Arbitro;
+import juego.finales.SondaFinales;
+import juego.finales.TablaFinal;
 import juego.modelo.Celda;
 import juego.modelo.Color;
 import juego.modelo.CoordenadasIncorrectasException;
@@ -14,6 +18,11 @@ import juego.modelo.Tablero;
  * Se abusa del uso de static tanto en atributos como en métodos para comprobar
  * su similitud a variables globales y funciones globales de otros lenguajes.
  *
+ * Uso: Ajedrez [directorio de finales]
+ *
+ * Con un directorio de ficheros de finales, la partida se da por terminada en cuanto se llega a
+ * una posición de alguno de ellos, anunciando el resultado que se alcanza con el mejor juego.
+ *
  * @author <a href="rmartico@ubu.es">Raúl Marticorena</a>
  * @author Jorge Ruiz Gómez
  * @since 1.0
@@ -44,6 +53,12 @@ public class Ajedrez {
 	 * Estado partida.
 	 */
 	private static boolean estaAcabada;
+
+	/**
+	 * Ficheros de finales para arbitrar la partida, null si no se usan.
+	 */
+	private static SondaFinales finales;
+
 	/**
 	 * Método raíz.
 	 * 
@@ -55,6 +70,8 @@ public class Ajedrez {
 			mostrarMensajeAutor();
 			mostrarMensajeBienvenida();
 			inicializarPartida();	
+			if (args.length > 0)
+				abrirFinales(args[0]);
 			
 			while (estaAcabada == false) {
 				
@@ -129,10 +146,25 @@ public class Ajedrez {
 				} else {
 					arbitro.mover(origen, destino);
 					arbitro.cambiarTurno();
-					if (arbitro.estaEnJaque(arbitro.obtenerTurno())) {
+					switch (arbitro.obtenerEstado()) {
+					case JAQUE:
 						// si el rey del turno actual está
 						// amenazado
 						System.out.println("\nJaque al rey\n");
+						arbitrarConFinales();
+						break;
+					case JAQUE_MATE:
+						mostrarTableroEnPantalla();
+						System.out.println("\nJaque mate. Partida ganada por " + arbitro.obtenerTurno().obtenerContrario() + ".\n");
+						terminarPartida();
+						break;
+					case AHOGADO:
+						mostrarTableroEnPantalla();
+						System.out.println("\nRey ahogado. La partida termina en tablas.\n");
+						terminarPartida();
+						break;
+					default:
+						arbitrarConFinales();
 					}
 				}
 			} else {
@@ -145,6 +177,58 @@ public class Ajedrez {
 		}
 	}
 
+	/**
+	 * Abre los ficheros de finales del directorio. Si no se pueden leer se juega sin ellos.
+	 *
+	 * @param directorio directorio de los ficheros
+	 */
+	private static void abrirFinales(String directorio) {
+		try {
+			finales = SondaFinales.abrir(Paths.get(directorio));
+			System.out.println("Ficheros de finales cargados: " + finales.obtenerNumeroFicheros() + "\n");
+		} catch (IOException ex) {
+			System.out.println("No se pueden leer los finales de " + directorio + ": " + ex.getMessage() + "\n");
+		}
+	}
+
+	/**
+	 * Termina la partida si la posición está en los ficheros de finales, anunciando
+	 * el resultado con el mejor juego de ambos.
+	 */
+	private static void arbitrarConFinales() {
+		if (finales == null)
+			return;
+		Color turno = arbitro.obtenerTurno();
+		Color rival = turno.obtenerContrario();
+		int distancia = finales.consultarDistancia(tablero.obtenerTableroBits(), turno);
+		int resultado = distancia != SondaFinales.DESCONOCIDA ? SondaFinales.DESCONOCIDA
+				: finales.consultarResultado(tablero.obtenerTableroBits(), turno);
+		if (distancia == SondaFinales.DESCONOCIDA && resultado == SondaFinales.DESCONOCIDA)
+			return;
+
+		mostrarTableroEnPantalla();
+		if (distancia == TablaFinal.TABLAS || resultado == SondaFinales.TABLAS)
+			System.out.println("Final de tablas.");
+		else {
+			boolean gana = distancia != SondaFinales.DESCONOCIDA ? TablaFinal.esGanada(distancia) : resultado == SondaFinales.GANADA;
+			System.out.print("Final ganado por " + (gana ? turno : rival));
+			if (distancia > 0) {
+				int movimientos = (distancia + 1) / 2;
+				System.out.print(": mate en " + movimientos + (movimientos == 1 ? " movimiento" : " movimientos"));
+			}
+			System.out.println(".");
+		}
+		terminarPartida();
+	}
+
+	/**
+	 * Da la partida por terminada tras un jaque mate, un rey ahogado o un final resuelto.
+	 */
+	private static void terminarPartida() {
+		finalizarPartida();
+		estaAcabada = true;
+	}
+
 	/**
 	 * Muestra el mensaje de bienvenida con instrucciones para finalizar la partida.
 	 */
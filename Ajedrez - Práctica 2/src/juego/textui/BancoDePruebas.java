@@ -0,0 +1,508 @@
+package juego.textui;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+import juego.motor.Buscador;
+import juego.motor.BuscadorDividido;
+import juego.motor.BuscadorParalelo;
+import juego.motor.LimitesBusqueda;
+import juego.motor.RedNeuronal;
+import juego.motor.ResultadoBusqueda;
+import juego.motor.SolucionadorMates;
+import juego.motor.Evaluador;
+import juego.motor.EvaluadorMaterial;
+import juego.motor.EvaluadorPeones;
+import juego.motor.EvaluadorPosicional;
+import juego.motor.EvaluadorRed;
+import juego.motor.TablaPeones;
+import juego.motor.TablaTransposicion;
+
+/**
+ * Banco de pruebas del motor en modo texto.
+ *
+ * Uso: BancoDePruebas smp|ybw [profundidad] [hilos...]
+ *      BancoDePruebas orden [profundidad]
+ *      BancoDePruebas poda [profundidad]
+ *      BancoDePruebas peones [profundidad]
+ *      BancoDePruebas red [profundidad] [fichero]
+ *      BancoDePruebas mates [hilos...]
+ *
+ * Los modos smp e ybw miden el tiempo hasta alcanzar una profundidad fija con la búsqueda
+ * Lazy SMP o con la división Young Brothers Wait, respectivamente, para cada número de hilos,
+ * sobre un conjunto fijo de posiciones y con la tabla de transposiciones vacía en cada medida.
+ *
+ * El modo orden cuenta los nodos de una búsqueda en serie a profundidad fija en cada posición,
+ * sin y con las heurísticas de orden de movimientos, para comparar cuánto podan.
+ *
+ * El modo poda hace lo mismo con cada técnica de poda selectiva por separado y con todas juntas,
+ * resuelve el conjunto de posiciones tácticas con y sin ellas y mide la profundidad que alcanza
+ * cada búsqueda en un tiempo fijo.
+ *
+ * El modo peones busca cada posición con la evaluación de estructura de peones y muestra
+ * la proporción de evaluaciones que encuentran la estructura en la tabla de peones.
+ *
+ * El modo red compara las evaluaciones por segundo de la red neuronal con las de los evaluadores
+ * escritos a mano, evaluando tras cada movimiento de recorridos aleatorios de la profundidad dada
+ * desde cada posición. Si no se indica un fichero de pesos se genera una red aleatoria.
+ *
+ * El modo mates resuelve cada problema de mate con el solucionador de números de prueba y con
+ * la búsqueda alfa-beta a la profundidad del mate, comparando nodos y tiempo, y después mide el
+ * tiempo de resolver todos los problemas a la vez con cada número de hilos.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ */
+public class BancoDePruebas {
+
+	/** Posiciones de prueba en notación FEN. */
+	static final String [] POSICIONES = {
+		"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - -",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - -",
+		"r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w - -",
+		"r2q1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w - -",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
+		"6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - -"
+	};
+
+	/** Posiciones tácticas en notación FEN, con la jugada que las resuelve y la profundidad necesaria. */
+	static final String [][] TACTICAS = {
+		{"q3k3/8/8/1N6/8/8/8/4K3 w - -", "b5c7", "4"},
+		{"4q3/8/8/4k3/8/8/8/R5K1 w - -", "a1e1", "4"},
+		{"4k3/8/8/4r3/8/8/4B3/4R1K1 w - -", "e2b5", "4"},
+		{"3r2k1/5ppp/8/8/8/8/5PPP/3RR1K1 w - -", "d1d8", "4"},
+		{"r1b2rk1/pp1p1ppp/1qn1pn2/8/2PNP3/2N1B3/PP3PPP/R2QKB1R w - -", "d4e6", "5"},
+		{"r1b1k2r/ppppqppp/2n5/4N3/2B1n3/8/PPPP1PPP/RNBQR1K1 w - -", "e5f7", "5"},
+		{"kbK5/pp6/1P6/8/8/8/8/R7 w - -", "a1a6", "8"}
+	};
+
+	/** Problemas de mate en notación FEN, con el primer movimiento y el número de movimientos del mate. */
+	static final String [][] MATES = {
+		{"r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w - -", "h5f7", "1"},
+		{"3r2k1/5ppp/8/8/8/8/5PPP/3RR1K1 w - -", "d1d8", "1"},
+		{"kbK5/pp6/1P6/8/8/8/8/R7 w - -", "a1a6", "2"},
+		{"6k1/pp4p1/2p5/2bp4/8/P5Pb/1P3rrP/2BRRN1K b - -", "g2g1", "2"},
+		{"k7/8/2K5/8/8/8/8/7R w - -", "c6c7", "2"},
+		{"r5rk/5p1p/5R2/4B3/8/8/7P/7K w - -", "f6a6", "3"},
+		{"2r3k1/p4p2/3Rp2p/1p2P1pK/8/1P4P1/P3Q2P/1q6 b - -", "b1g6", "3"}
+	};
+
+	/** Profundidad por defecto. */
+	private static final int PROFUNDIDAD = 6;
+
+	/** Hilos por defecto de la búsqueda Lazy SMP. */
+	private static final int [] HILOS = {1, 2, 4, 8, 16};
+
+	/** Hilos por defecto de la búsqueda dividida. */
+	private static final int [] HILOS_DIVISION = {1, 2, 4, 8, 16, 32};
+
+	/** Tiempo por posición al medir la profundidad alcanzada, en milisegundos. */
+	private static final long TIEMPO_POSICION = 1000;
+
+	/** Recorridos aleatorios por posición al medir las evaluaciones por segundo. */
+	private static final int RECORRIDOS = 20000;
+
+	/** Neuronas de la capa oculta de la red aleatoria. */
+	private static final int OCULTAS_RED = 256;
+
+	/** Tamaño de la tabla de transposiciones en megabytes. */
+	private static final int MEGABYTES_TABLA = 64;
+
+	/**
+	 * Método raíz.
+	 *
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+
+		if (args.length == 0) {
+			mostrarUso();
+			return;
+		}
+
+		try {
+			int primerHilo = args[0].equals("mates") ? 1 : 2;					//El modo mates no tiene profundidad
+			int profundidad = args.length > 1 && primerHilo == 2 ? Integer.parseInt(args[1]) : PROFUNDIDAD;
+			int [] hilos = args[0].equals("ybw") ? HILOS_DIVISION : HILOS;
+			if (args.length > primerHilo && !args[0].equals("red")) {
+				hilos = new int [args.length - primerHilo];
+				for (int i = primerHilo; i < args.length; i++)
+					hilos[i - primerHilo] = Integer.parseInt(args[i]);
+			}
+
+			switch (args[0]) {
+			case "smp":	medirEscaladoSMP(profundidad, hilos);	break;
+			case "ybw":	medirEscaladoDivision(profundidad, hilos);	break;
+			case "orden":	compararNodos(profundidad, "orden", Buscador::establecerOrdenHeuristico);	break;
+			case "poda":	medirPodaSelectiva(profundidad);	break;
+			case "peones":	medirTablaPeones(profundidad);	break;
+			case "red":		medirRed(profundidad, args.length > 2 ? args[2] : null);	break;
+			case "mates":	medirMates(hilos);	break;
+			default:	mostrarUso();
+			}
+		}
+		catch (NumberFormatException e) {
+			System.err.println("Argumentos incorrectos: " + e.getMessage());
+			mostrarUso();
+		}
+	}
+
+	/**
+	 * Mide el tiempo hasta una profundidad con la búsqueda Lazy SMP para cada número de hilos.
+	 *
+	 * @param profundidad profundidad fija de cada búsqueda
+	 * @param hilos números de hilos a medir
+	 */
+	private static void medirEscaladoSMP(int profundidad, int [] hilos) {
+
+		System.out.println("Lazy SMP, tiempo hasta profundidad " + profundidad + " en " + POSICIONES.length + " posiciones");
+		System.out.println("hilos\ttiempo(ms)\taceleracion\tnodos\tnodos/s");
+		TablaTransposicion tabla = new TablaTransposicion(MEGABYTES_TABLA);
+		double tiempoBase = 0;
+		buscarPosicionesSMP(tabla, profundidad, 1);								//Calentamiento del compilador JIT
+
+		for (int numeroHilos : hilos) {
+			long inicio = System.nanoTime();
+			long nodos = buscarPosicionesSMP(tabla, profundidad, numeroHilos);
+			double milisegundos = (System.nanoTime() - inicio) / 1e6;
+			if (tiempoBase == 0)
+				tiempoBase = milisegundos;
+			System.out.printf("%d\t%.0f\t\t%.2f\t\t%d\t%.0f%n", numeroHilos, milisegundos, tiempoBase / milisegundos,
+					nodos, nodos / Math.max(milisegundos / 1000, 1e-9));
+		}
+	}
+
+	/**
+	 * Mide el tiempo hasta una profundidad con la búsqueda dividida para cada número de hilos del pool.
+	 *
+	 * @param profundidad profundidad fija de cada búsqueda
+	 * @param hilos números de hilos a medir
+	 */
+	private static void medirEscaladoDivision(int profundidad, int [] hilos) {
+
+		System.out.println("Young Brothers Wait, tiempo hasta profundidad " + profundidad + " en " + POSICIONES.length + " posiciones");
+		System.out.println("hilos\ttiempo(ms)\taceleracion\tnodos\tnodos/s");
+		TablaTransposicion tabla = new TablaTransposicion(MEGABYTES_TABLA);
+		double tiempoBase = 0;
+		buscarPosicionesDivision(tabla, profundidad, 1);						//Calentamiento del compilador JIT
+
+		for (int numeroHilos : hilos) {
+			long inicio = System.nanoTime();
+			long nodos = buscarPosicionesDivision(tabla, profundidad, numeroHilos);
+			double milisegundos = (System.nanoTime() - inicio) / 1e6;
+			if (tiempoBase == 0)
+				tiempoBase = milisegundos;
+			System.out.printf("%d\t%.0f\t\t%.2f\t\t%d\t%.0f%n", numeroHilos, milisegundos, tiempoBase / milisegundos,
+					nodos, nodos / Math.max(milisegundos / 1000, 1e-9));
+		}
+	}
+
+	/**
+	 * Cuenta los nodos de una búsqueda a profundidad fija en cada posición con una opción del buscador
+	 * desactivada y activada.
+	 *
+	 * @param profundidad profundidad fija de cada búsqueda
+	 * @param nombre nombre de la opción
+	 * @param opcion método del buscador que activa o desactiva la opción
+	 */
+	private static void compararNodos(int profundidad, String nombre, BiConsumer<Buscador, Boolean> opcion) {
+
+		System.out.println("Nodos a profundidad " + profundidad + " sin y con " + nombre);
+		System.out.println("posicion\tsin\tcon\tproporcion");
+		TablaTransposicion tabla = new TablaTransposicion(MEGABYTES_TABLA);
+		long [] totales = new long [2];
+
+		for (int i = 0; i < POSICIONES.length; i++) {
+			long [] nodos = new long [2];
+			for (int activada = 0; activada < 2; activada++) {
+				tabla.vaciar();
+				Buscador buscador = new Buscador(crearArbitro(POSICIONES[i]), new EvaluadorMaterial(), tabla);
+				opcion.accept(buscador, activada == 1);
+				nodos[activada] = buscador.buscar(LimitesBusqueda.porProfundidad(profundidad)).obtenerNodos();
+				totales[activada] += nodos[activada];
+			}
+			System.out.printf("%d\t\t%d\t%d\t%.2f%n", i + 1, nodos[0], nodos[1], (double) nodos[1] / nodos[0]);
+		}
+		System.out.printf("total\t\t%d\t%d\t%.2f%n", totales[0], totales[1], (double) totales[1] / totales[0]);
+	}
+
+	/**
+	 * Compara cada técnica de poda selectiva y todas juntas en nodos, posiciones tácticas resueltas
+	 * y profundidad alcanzada en un tiempo fijo.
+	 *
+	 * @param profundidad profundidad fija de las búsquedas que cuentan nodos
+	 */
+	private static void medirPodaSelectiva(int profundidad) {
+
+		compararNodos(profundidad, "movimiento nulo", Buscador::establecerMovimientoNulo);
+		compararNodos(profundidad, "reducciones tardias", Buscador::establecerReduccionesTardias);
+		compararNodos(profundidad, "poda de futilidad", Buscador::establecerPodaFutilidad);
+		compararNodos(profundidad, "razoring", Buscador::establecerRazoring);
+		compararNodos(profundidad, "toda la poda selectiva", Buscador::establecerPodaSelectiva);
+
+		System.out.println("Posiciones tacticas sin y con poda selectiva");
+		System.out.println("posicion\tesperada\tsin\tcon");
+		TablaTransposicion tabla = new TablaTransposicion(MEGABYTES_TABLA);
+		int [] resueltas = new int [2];
+		for (int i = 0; i < TACTICAS.length; i++) {
+			String [] jugadas = new String [2];
+			for (int activada = 0; activada < 2; activada++) {
+				tabla.vaciar();
+				Buscador buscador = new Buscador(crearArbitro(TACTICAS[i][0]), new EvaluadorMaterial(), tabla);
+				buscador.establecerPodaSelectiva(activada == 1);
+				int movimiento = buscador.buscar(LimitesBusqueda.porProfundidad(Integer.parseInt(TACTICAS[i][2])))
+						.obtenerMovimiento();
+				jugadas[activada] = Movimiento.aTexto(movimiento);
+				if (jugadas[activada].equals(TACTICAS[i][1]))
+					resueltas[activada]++;
+			}
+			System.out.printf("%d\t\t%s\t\t%s\t%s%n", i + 1, TACTICAS[i][1], jugadas[0], jugadas[1]);
+		}
+		System.out.printf("resueltas\t\t\t%d/%d\t%d/%d%n", resueltas[0], TACTICAS.length, resueltas[1], TACTICAS.length);
+
+		System.out.println("Profundidad alcanzada en " + TIEMPO_POSICION + " ms sin y con poda selectiva");
+		System.out.println("posicion\tsin\tcon");
+		for (int i = 0; i < POSICIONES.length; i++) {
+			int [] alcanzada = new int [2];
+			for (int activada = 0; activada < 2; activada++) {
+				tabla.vaciar();
+				Buscador buscador = new Buscador(crearArbitro(POSICIONES[i]), new EvaluadorMaterial(), tabla);
+				buscador.establecerPodaSelectiva(activada == 1);
+				alcanzada[activada] = buscador.buscar(LimitesBusqueda.porTiempo(TIEMPO_POSICION)).obtenerProfundidad();
+			}
+			System.out.printf("%d\t\t%d\t%d%n", i + 1, alcanzada[0], alcanzada[1]);
+		}
+	}
+
+	/**
+	 * Busca cada posición con la evaluación de estructura de peones y muestra los aciertos de su tabla.
+	 *
+	 * @param profundidad profundidad fija de cada búsqueda
+	 */
+	private static void medirTablaPeones(int profundidad) {
+
+		System.out.println("Tabla de peones a profundidad " + profundidad);
+		System.out.println("posicion\tconsultas\taciertos\ttasa");
+		TablaTransposicion tabla = new TablaTransposicion(MEGABYTES_TABLA);
+		long consultas = 0, aciertos = 0;
+		for (int i = 0; i < POSICIONES.length; i++) {
+			tabla.vaciar();
+			EvaluadorPeones evaluador = new EvaluadorPeones();
+			new Buscador(crearArbitro(POSICIONES[i]), evaluador, tabla).buscar(LimitesBusqueda.porProfundidad(profundidad));
+			TablaPeones peones = evaluador.obtenerTabla();
+			consultas += peones.obtenerConsultas();
+			aciertos += peones.obtenerAciertos();
+			System.out.printf("%d\t\t%d\t\t%d\t\t%.3f%n", i + 1, peones.obtenerConsultas(), peones.obtenerAciertos(),
+					peones.obtenerTasaAciertos());
+		}
+		System.out.printf("total\t\t%d\t\t%d\t\t%.3f%n", consultas, aciertos, consultas == 0 ? 0 : (double) aciertos / consultas);
+	}
+
+	/**
+	 * Compara las evaluaciones por segundo de la red neuronal y de los evaluadores escritos a mano.
+	 *
+	 * @param profundidad movimientos de cada recorrido aleatorio
+	 * @param fichero ruta del fichero de pesos, o null para generar una red aleatoria
+	 */
+	private static void medirRed(int profundidad, String fichero) {
+
+		RedNeuronal red;
+		try {
+			Path ruta;
+			if (fichero != null)
+				ruta = Paths.get(fichero);
+			else {
+				ruta = Files.createTempFile("red", ".bin");
+				ruta.toFile().deleteOnExit();
+				RedNeuronal.generar(OCULTAS_RED, 1).guardar(ruta);
+			}
+			red = RedNeuronal.cargar(ruta);
+		}
+		catch (IOException e) {
+			System.err.println("No se puede cargar la red: " + e.getMessage());
+			return;
+		}
+
+		String [] nombres = {"sin evaluar", "material", "posicional", "peones", "red " + red.obtenerOcultas()};
+		System.out.println("Evaluaciones por segundo en recorridos aleatorios de " + profundidad + " movimientos");
+		System.out.println("evaluador\ttiempo(ms)\tevaluaciones\tevaluaciones/s\tns/evaluacion");
+		for (int pasada = 0; pasada < 2; pasada++) {								//La primera calienta el compilador JIT
+			double tiempoBase = 0;
+			for (int i = 0; i < nombres.length; i++) {
+				Evaluador [] evaluador = {null, new EvaluadorMaterial(), new EvaluadorPosicional(), new EvaluadorPeones(),
+						new EvaluadorRed(red)};
+				long inicio = System.nanoTime();
+				long evaluaciones = recorrerAleatoriamente(evaluador[i], profundidad);
+				double milisegundos = (System.nanoTime() - inicio) / 1e6;
+				if (i == 0)
+					tiempoBase = milisegundos;
+				else if (pasada == 1)
+					System.out.printf("%s\t%.0f\t\t%d\t\t%.0f\t\t%.0f%n", nombres[i], milisegundos, evaluaciones,
+							evaluaciones / (milisegundos / 1000), Math.max(milisegundos - tiempoBase, 0) * 1e6 / evaluaciones);
+			}
+			if (pasada == 1)
+				System.out.printf("sin evaluar\t%.0f%n", tiempoBase);
+		}
+		System.out.println("(evaluaciones/s incluye hacer y deshacer los movimientos; ns/evaluacion descuenta"
+				+ " el tiempo sin evaluar e incluye las actualizaciones incrementales)");
+	}
+
+	/**
+	 * Hace recorridos aleatorios desde cada posición de prueba evaluando tras cada movimiento.
+	 *
+	 * @param evaluador evaluador a medir, o null para solo recorrer
+	 * @param profundidad movimientos de cada recorrido
+	 * @return número de evaluaciones
+	 */
+	private static long recorrerAleatoriamente(Evaluador evaluador, int profundidad) {
+
+		SplittableRandom aleatorio = new SplittableRandom(1);					//Mismos recorridos para todos
+		ListaMovimientos lista = new ListaMovimientos();
+		long evaluaciones = 0;
+		int suma = 0;
+		for (String fen : POSICIONES) {
+			Arbitro arbitro = crearArbitro(fen);
+			for (int recorrido = 0; recorrido < RECORRIDOS; recorrido++) {
+				int hechos = 0;
+				for (; hechos < profundidad && arbitro.generarMovimientosLegales(lista) > 0; hechos++) {
+					arbitro.hacerMovimiento(lista.obtener(aleatorio.nextInt(lista.obtenerNumeroMovimientos())));
+					if (evaluador != null) {
+						suma += evaluador.evaluar(arbitro.obtenerTablero(), arbitro.obtenerTurno());
+						evaluaciones++;
+					}
+				}
+				for (; hechos > 0; hechos--)
+					arbitro.deshacerMovimiento();
+			}
+		}
+		return suma == Integer.MIN_VALUE ? -1 : evaluaciones;						//Usamos la suma para que no se elimine
+	}
+
+	/**
+	 * Busca todas las posiciones de prueba vaciando la tabla antes de cada una.
+	 *
+	 * @param tabla tabla de transposiciones compartida
+	 * @param profundidad profundidad fija de cada búsqueda
+	 * @param hilos número de hilos
+	 * @return nodos visitados entre todos los hilos
+	 */
+	private static long buscarPosicionesSMP(TablaTransposicion tabla, int profundidad, int hilos) {
+		long nodos = 0;
+		for (String fen : POSICIONES) {
+			tabla.vaciar();
+			try (BuscadorParalelo buscador = new BuscadorParalelo(crearArbitro(fen), tabla, hilos)) {
+				ResultadoBusqueda resultado = buscador.buscar(LimitesBusqueda.porProfundidad(profundidad));
+				nodos += resultado.obtenerNodos();
+			}
+		}
+		return nodos;
+	}
+
+	/**
+	 * Busca todas las posiciones de prueba con la búsqueda dividida vaciando la tabla antes de cada una.
+	 *
+	 * @param tabla tabla de transposiciones compartida
+	 * @param profundidad profundidad fija de cada búsqueda
+	 * @param hilos número de hilos del pool
+	 * @return nodos visitados entre todos los hilos
+	 */
+	private static long buscarPosicionesDivision(TablaTransposicion tabla, int profundidad, int hilos) {
+		ForkJoinPool pool = new ForkJoinPool(hilos);
+		try {
+			long nodos = 0;
+			for (String fen : POSICIONES) {
+				tabla.vaciar();
+				ResultadoBusqueda resultado = new BuscadorDividido(crearArbitro(fen), tabla)
+						.buscar(LimitesBusqueda.porProfundidad(profundidad), pool);
+				nodos += resultado.obtenerNodos();
+			}
+			return nodos;
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Compara el solucionador de mates con la búsqueda alfa-beta y mide la resolución en paralelo.
+	 *
+	 * @param hilos números de hilos a medir
+	 */
+	private static void medirMates(int [] hilos) {
+
+		System.out.println("Problemas de mate con números de prueba (df-pn) y con alfa-beta a la profundidad del mate");
+		System.out.println("problema\tmate en\tdfpn nodos\tms\talfabeta nodos\tms\tjugadas");
+		TablaTransposicion tabla = new TablaTransposicion(MEGABYTES_TABLA);
+		Arbitro [] posiciones = new Arbitro [MATES.length];
+		int movimientosMaximos = 0;
+		for (int i = 0; i < MATES.length; i++) {
+			posiciones[i] = crearArbitro(MATES[i][0]);
+			int movimientos = Integer.parseInt(MATES[i][2]);
+			movimientosMaximos = Math.max(movimientosMaximos, movimientos);
+			ResultadoBusqueda mate = new SolucionadorMates(posiciones[i]).resolver(movimientos);
+			tabla.vaciar();
+			ResultadoBusqueda busqueda = new Buscador(posiciones[i], new EvaluadorMaterial(), tabla)
+					.buscar(LimitesBusqueda.porProfundidad(2 * movimientos));	//El mate se ve al generar las respuestas
+			System.out.printf("%d\t\t%s\t%d\t\t%d\t%d\t\t%d\t%s %s%n", i + 1, mate.esMate() ? (Buscador.MATE - mate.obtenerPuntuacion() + 1) / 2 : "-",
+					mate.obtenerNodos(), mate.obtenerMilisegundos(), busqueda.obtenerNodos(), busqueda.obtenerMilisegundos(),
+					Movimiento.aTexto(mate.obtenerMovimiento()), Movimiento.aTexto(busqueda.obtenerMovimiento()));
+		}
+
+		System.out.println("Todos los problemas en paralelo, con mate en hasta " + movimientosMaximos + " movimientos");
+		System.out.println("hilos\ttiempo(ms)\taceleracion\tresueltos");
+		double tiempoBase = 0;
+		for (int numeroHilos : hilos) {
+			ForkJoinPool pool = new ForkJoinPool(numeroHilos);
+			try {
+				long inicio = System.nanoTime();
+				ResultadoBusqueda [] resultados = SolucionadorMates.resolverEnParalelo(posiciones, movimientosMaximos,
+						SolucionadorMates.ENTRADAS_TABLA, pool);
+				double milisegundos = (System.nanoTime() - inicio) / 1e6;
+				if (tiempoBase == 0)
+					tiempoBase = milisegundos;
+				int resueltos = 0;
+				for (int i = 0; i < resultados.length; i++)
+					if (Movimiento.aTexto(resultados[i].obtenerMovimiento()).equals(MATES[i][1]))
+						resueltos++;
+				System.out.printf("%d\t%.0f\t\t%.2f\t\t%d/%d%n", numeroHilos, milisegundos, tiempoBase / milisegundos, resueltos, MATES.length);
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Crea un árbitro con una posición.
+	 *
+	 * @param fen posición en notación FEN
+	 * @return árbitro con la posición colocada
+	 */
+	static Arbitro crearArbitro(String fen) {
+		Arbitro arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(fen);
+		return arbitro;
+	}
+
+	/**
+	 * Muestra la forma de uso del programa.
+	 */
+	private static void mostrarUso() {
+		System.out.println("Uso: BancoDePruebas smp|ybw [profundidad] [hilos...]");
+		System.out.println("     BancoDePruebas orden [profundidad]");
+		System.out.println("     BancoDePruebas poda [profundidad]");
+		System.out.println("     BancoDePruebas peones [profundidad]");
+		System.out.println("     BancoDePruebas red [profundidad] [fichero]");
+		System.out.println("     BancoDePruebas mates [hilos...]");
+	}
+}
@@ -0,0 +1,153 @@
+package juego.textui;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import juego.finales.FicheroFinal;
+import juego.finales.GeneradorFinales;
+import juego.finales.TablaFinal;
+
+/**
+ * Generación de tablas de finales en modo texto.
+ *
+ * Uso: ConsolaFinales final... [-directorio d] [-hilos n] [-control segundos]
+ *
+ * Cada final se escribe con las letras inglesas de las piezas, como KQK o KBNK. Las tablas
+ * se guardan en el directorio (el actual por defecto) junto con las de los finales a los que
+ * se llega capturando. Si la generación se interrumpe, al volver a lanzarla continúa desde
+ * el último punto de control.
+ *
+ * Al terminar, cada tabla del directorio se comprime también en los ficheros de consulta que
+ * usan la búsqueda y el arbitraje de partidas: uno de resultados (.wdl) y otro de distancias
+ * al mate (.dtm).
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see GeneradorFinales
+ */
+public class ConsolaFinales {
+
+	/** Nanosegundos en un segundo. */
+	private static final double NANOS_POR_SEGUNDO = 1e9;
+
+	/**
+	 * Método raíz.
+	 *
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+
+		if (args.length == 0) {
+			mostrarUso();
+			return;
+		}
+
+		try {
+			List<String> finales = new ArrayList<>();
+			Path directorio = Paths.get(".");
+			int hilos = Runtime.getRuntime().availableProcessors();
+			long segundosControl = -1;
+
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "-directorio":	directorio = Paths.get(args[++i]);				break;
+				case "-hilos":		hilos = Integer.parseInt(args[++i]);			break;
+				case "-control":	segundosControl = Long.parseLong(args[++i]);	break;
+				default:
+					if (args[i].startsWith("-")) {
+						mostrarUso();
+						return;
+					}
+					finales.add(args[i]);
+				}
+			}
+
+			ForkJoinPool pool = new ForkJoinPool(hilos);
+			GeneradorFinales generador = new GeneradorFinales(directorio, pool);
+			if (segundosControl >= 0)
+				generador.establecerIntervaloPuntosControl(segundosControl * 1000);
+			try {
+				for (String nombre : finales)
+					generar(generador, nombre);
+				comprimir(directorio);
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Error de entrada/salida: " + e.getMessage());
+		}
+		catch (RuntimeException e) {
+			System.err.println("Argumentos incorrectos: " + e.getMessage());
+			mostrarUso();
+		}
+	}
+
+	/**
+	 * Genera un final y muestra un resumen.
+	 *
+	 * @param generador generador de finales
+	 * @param nombre nombre del final
+	 * @throws IOException si no se pueden leer o escribir los ficheros
+	 */
+	private static void generar(GeneradorFinales generador, String nombre) throws IOException {
+
+		long inicio = System.nanoTime();
+		TablaFinal tabla = generador.generar(nombre);
+		double segundos = (System.nanoTime() - inicio) / NANOS_POR_SEGUNDO;
+
+		int ganadas = 0, perdidas = 0;
+		for (int i = 0; i < tabla.obtenerNumeroPosiciones(); i++) {
+			int distancia = tabla.obtenerDistancia(i);
+			if (TablaFinal.esGanada(distancia))
+				ganadas++;
+			else if (distancia != TablaFinal.TABLAS)
+				perdidas++;
+		}
+		System.out.println(tabla.obtenerMaterial() + ":");
+		System.out.println("Posiciones: " + tabla.obtenerNumeroPosiciones() + " (" + ganadas + " ganadas, " + perdidas
+				+ " perdidas por el que mueve)");
+		System.out.println("Mate más largo: " + tabla.obtenerDistanciaMaxima() + " medios movimientos");
+		System.out.println("Bits por posición: " + tabla.obtenerBitsPorPosicion());
+		System.out.printf("Tiempo: %.3f s%n", segundos);
+	}
+
+	/**
+	 * Escribe los ficheros de consulta de todas las tablas del directorio.
+	 *
+	 * @param directorio directorio de las tablas
+	 * @throws IOException si no se pueden leer o escribir los ficheros
+	 */
+	private static void comprimir(Path directorio) throws IOException {
+
+		try (DirectoryStream<Path> tablas = Files.newDirectoryStream(directorio, "*" + GeneradorFinales.EXTENSION)) {
+			for (Path fichero : tablas) {
+				TablaFinal tabla = TablaFinal.cargar(fichero);
+				long tamano = 0;
+				for (int tipo = FicheroFinal.RESULTADOS; tipo <= FicheroFinal.DISTANCIAS; tipo++) {
+					Path destino = directorio.resolve(tabla.obtenerMaterial() + FicheroFinal.EXTENSIONES[tipo]);
+					FicheroFinal.escribir(tabla, tipo, destino);
+					tamano += Files.size(destino);
+				}
+				System.out.println("Ficheros de consulta de " + tabla.obtenerMaterial() + ": " + tamano + " bytes (la tabla ocupa "
+						+ Files.size(fichero) + ")");
+			}
+		}
+	}
+
+	/**
+	 * Muestra la forma de uso del programa.
+	 */
+	private static void mostrarUso() {
+		System.out.println("Uso: ConsolaFinales final... [-directorio d] [-hilos n] [-control segundos]");
+		System.out.println("Ejemplo: ConsolaFinales KQK KRK KBNK -directorio finales");
+	}
+}
@@ -0,0 +1,113 @@
+package juego.textui;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import juego.control.Arbitro;
+import juego.control.Perft;
+import juego.modelo.Tablero;
+
+/**
+ * Recuento perft en modo texto.
+ *
+ * Uso: ConsolaPerft profundidad [-fen "posición"] [-dividir] [-hilos n] [-tabla bits]
+ *
+ * Sin -fen se parte de la posición inicial. Muestra el número de nodos hoja, el tiempo
+ * empleado y los nodos por segundo.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Perft
+ */
+public class ConsolaPerft {
+
+	/** Nanosegundos en un segundo. */
+	private static final double NANOS_POR_SEGUNDO = 1e9;
+
+	/**
+	 * Método raíz.
+	 *
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+
+		if (args.length == 0) {
+			mostrarUso();
+			return;
+		}
+
+		try {
+			int profundidad = Integer.parseInt(args[0]);
+			String fen = null;
+			boolean dividir = false;
+			int hilos = 1;
+			int bitsTabla = 0;
+
+			for (int i = 1; i < args.length; i++) {
+				switch (args[i]) {
+				case "-fen":		fen = args[++i];						break;
+				case "-dividir":	dividir = true;							break;
+				case "-hilos":		hilos = Integer.parseInt(args[++i]);	break;
+				case "-tabla":		bitsTabla = Integer.parseInt(args[++i]);	break;
+				default:
+					mostrarUso();
+					return;
+				}
+			}
+
+			Arbitro arbitro = new Arbitro(new Tablero());
+			if (fen == null)
+				arbitro.colocarPiezas();
+			else
+				arbitro.colocarPiezas(fen);
+
+			ejecutar(new Perft(arbitro, bitsTabla), profundidad, dividir, hilos);
+		}
+		catch (RuntimeException e) {
+			System.err.println("Argumentos incorrectos: " + e.getMessage());
+			mostrarUso();
+		}
+	}
+
+	/**
+	 * Ejecuta el recuento y muestra los resultados.
+	 *
+	 * @param perft recuento sobre la posición de partida
+	 * @param profundidad número de movimientos
+	 * @param dividir true para mostrar el recuento de cada movimiento raíz
+	 * @param hilos número de hilos, 1 para no usar el pool
+	 */
+	private static void ejecutar(Perft perft, int profundidad, boolean dividir, int hilos) {
+
+		ForkJoinPool pool = hilos > 1 ? new ForkJoinPool(hilos) : null;
+		long inicio = System.nanoTime();
+		long nodos = 0;
+
+		if (dividir) {
+			Map<String, Long> recuentos = pool == null ? perft.dividir(profundidad) : perft.dividirEnParalelo(profundidad, pool);
+			for (Map.Entry<String, Long> recuento : recuentos.entrySet()) {
+				System.out.println(recuento.getKey() + ": " + recuento.getValue());
+				nodos += recuento.getValue();
+			}
+			System.out.println("Movimientos: " + recuentos.size());
+		}
+		else
+			nodos = pool == null ? perft.contar(profundidad) : perft.contarEnParalelo(profundidad, pool);
+
+		double segundos = (System.nanoTime() - inicio) / NANOS_POR_SEGUNDO;
+		if (pool != null)
+			pool.shutdown();
+
+		System.out.println("Nodos: " + nodos);
+		System.out.printf("Tiempo: %.3f s%n", segundos);
+		System.out.printf("Nodos por segundo: %.0f%n", nodos / Math.max(segundos, 1 / NANOS_POR_SEGUNDO));
+	}
+
+	/**
+	 * Muestra la forma de uso del programa.
+	 */
+	private static void mostrarUso() {
+		System.out.println("Uso: ConsolaPerft profundidad [-fen \"posición\"] [-dividir] [-hilos n] [-tabla bits]");
+	}
+}
@@ -0,0 +1,198 @@
+package juego.util;
+
+/**
+ * Tablas precalculadas con la geometría del tablero de 8x8.
+ *
+ * Las casillas se indexan como fila * 8 + columna. Las tablas se construyen una única vez
+ * al cargar la clase y evitan recalcular el sentido y las casillas intermedias en cada
+ * consulta del árbitro.
+ *
+ * @author Jorge Ruiz Gómez
+ * @since JDK 11
+ * @version 2.0
+ * @see Sentido
+ */
+public final class TablasPrecalculadas {
+
+	/** Lado del tablero. */
+	private static final int LADO = 8;
+
+	/** Número de casillas del tablero. */
+	private static final int NUMERO_CASILLAS = LADO * LADO;
+
+	/**
+	 * Sentidos ordenados en el sentido de las agujas del reloj empezando por el norte.
+	 * Los índices pares son rectos y los impares diagonales.
+	 */
+	private static final Sentido [] SENTIDOS_HORARIOS = {Sentido.VERTICAL_N, Sentido.DIAGONAL_NE, Sentido.HORIZONTAL_E,
+			Sentido.DIAGONAL_SE, Sentido.VERTICAL_S, Sentido.DIAGONAL_SO, Sentido.HORIZONTAL_O, Sentido.DIAGONAL_NO};
+
+	/** Índice en SENTIDOS_HORARIOS de cada sentido, indexado por su ordinal. */
+	private static final int [] INDICE_HORARIO = new int [Sentido.values().length];
+
+	/** Sentido entre dos casillas, null si no están alineadas. */
+	private static final Sentido [][] SENTIDO_ENTRE = new Sentido [NUMERO_CASILLAS][NUMERO_CASILLAS];
+
+	/** Máscara con las casillas estrictamente entre dos casillas alineadas. */
+	private static final long [][] ENTRE_MEDIAS = new long [NUMERO_CASILLAS][NUMERO_CASILLAS];
+
+	/** Rayo completo desde cada casilla en cada sentido, indexado por el índice horario. */
+	private static final long [][] RAYOS = new long [SENTIDOS_HORARIOS.length][NUMERO_CASILLAS];
+
+	/** Indica por índice horario si el rayo avanza hacia casillas de índice mayor. */
+	private static final boolean [] RAYO_CRECIENTE = new boolean [SENTIDOS_HORARIOS.length];
+
+	/** Casillas a las que salta un caballo desde cada casilla. */
+	private static final long [] ATAQUES_CABALLO = new long [NUMERO_CASILLAS];
+
+	/** Casillas adyacentes a cada casilla. */
+	private static final long [] ATAQUES_REY = new long [NUMERO_CASILLAS];
+
+	/** Casillas atacadas por un peón que avanza hacia el norte (fila decreciente). */
+	private static final long [] ATAQUES_PEON_NORTE = new long [NUMERO_CASILLAS];
+
+	/** Casillas atacadas por un peón que avanza hacia el sur (fila creciente). */
+	private static final long [] ATAQUES_PEON_SUR = new long [NUMERO_CASILLAS];
+
+	/** Saltos del caballo en filas y columnas. */
+	private static final int [][] SALTOS_CABALLO = {{-2, -1}, {-2, +1}, {-1, +2}, {+1, +2}, {+2, +1}, {+2, -1}, {+1, -2}, {-1, -2}};
+
+	static {
+		for (int i = 0; i < SENTIDOS_HORARIOS.length; i++) {
+			INDICE_HORARIO[SENTIDOS_HORARIOS[i].ordinal()] = i;
+			RAYO_CRECIENTE[i] = SENTIDOS_HORARIOS[i].obtenerDesplazamientoEnFilas() * LADO
+					+ SENTIDOS_HORARIOS[i].obtenerDesplazamientoEnColumnas() > 0;
+		}
+
+		for (int origen = 0; origen < NUMERO_CASILLAS; origen++) {
+			for (Sentido sentido : SENTIDOS_HORARIOS) {					//Avanzamos en cada sentido desde la casilla de origen
+				int fila = origen / LADO + sentido.obtenerDesplazamientoEnFilas();
+				int columna = origen % LADO + sentido.obtenerDesplazamientoEnColumnas();
+				long recorrido = 0L;
+
+				while (fila >= 0 && fila < LADO && columna >= 0 && columna < LADO) {
+					int destino = fila * LADO + columna;
+					SENTIDO_ENTRE[origen][destino] = sentido;
+					ENTRE_MEDIAS[origen][destino] = recorrido;			//Casillas recorridas antes de llegar a destino
+					recorrido |= 1L << destino;
+					if (recorrido == 1L << destino)
+						ATAQUES_REY[origen] |= recorrido;				//La primera casilla de cada sentido es adyacente
+					fila += sentido.obtenerDesplazamientoEnFilas();
+					columna += sentido.obtenerDesplazamientoEnColumnas();
+				}
+				RAYOS[INDICE_HORARIO[sentido.ordinal()]][origen] = recorrido;
+			}
+
+			int filaOrigen = origen / LADO;
+			int columnaOrigen = origen % LADO;
+			for (int [] salto : SALTOS_CABALLO)
+				ATAQUES_CABALLO[origen] |= mascara(filaOrigen + salto[0], columnaOrigen + salto[1]);
+			ATAQUES_PEON_NORTE[origen] = mascara(filaOrigen - 1, columnaOrigen - 1) | mascara(filaOrigen - 1, columnaOrigen + 1);
+			ATAQUES_PEON_SUR[origen]   = mascara(filaOrigen + 1, columnaOrigen - 1) | mascara(filaOrigen + 1, columnaOrigen + 1);
+		}
+	}
+
+	/**
+	 * Constructor privado, clase de utilidad.
+	 */
+	private TablasPrecalculadas() {
+	}
+
+	/**
+	 * Método que devuelve la máscara de una casilla, o 0 si está fuera del tablero.
+	 * @param fila de la casilla.
+	 * @param columna de la casilla.
+	 * @return máscara con un único bit o 0.
+	 */
+	private static long mascara(int fila, int columna) {
+		if (fila < 0 || fila >= LADO || columna < 0 || columna >= LADO)
+			return 0L;
+		return 1L << (fila * LADO + columna);
+	}
+
+	/**
+	 * Método que devuelve el sentido entre dos casillas.
+	 * @param origen índice de la casilla de origen.
+	 * @param destino índice de la casilla de destino.
+	 * @return Sentido o null si no están en la misma fila, columna o diagonal.
+	 */
+	public static Sentido sentidoEntre(int origen, int destino) {
+		return SENTIDO_ENTRE[origen][destino];
+	}
+
+	/**
+	 * Método que devuelve la máscara de casillas entre dos casillas alineadas.
+	 * @param origen índice de la casilla de origen.
+	 * @param destino índice de la casilla de destino.
+	 * @return máscara con las casillas intermedias, 0 si son adyacentes o no están alineadas.
+	 */
+	public static long entreMedias(int origen, int destino) {
+		return ENTRE_MEDIAS[origen][destino];
+	}
+
+	/**
+	 * Método que devuelve el rayo desde una casilla hasta el borde del tablero en un sentido.
+	 * @param indiceHorario índice del sentido en el orden de las agujas del reloj.
+	 * @param casilla índice de la casilla de origen (no incluida).
+	 * @return máscara con las casillas del rayo.
+	 */
+	public static long rayo(int indiceHorario, int casilla) {
+		return RAYOS[indiceHorario][casilla];
+	}
+
+	/**
+	 * Método que indica si las casillas de un rayo tienen índices crecientes desde el origen.
+	 * Los sentidos hacia el sur y el este avanzan hacia índices mayores.
+	 * @param indiceHorario índice del sentido en el orden de las agujas del reloj.
+	 * @return true si el rayo crece, false si decrece.
+	 */
+	public static boolean esRayoCreciente(int indiceHorario) {
+		return RAYO_CRECIENTE[indiceHorario];
+	}
+
+	/**
+	 * Método que devuelve las casillas a las que salta un caballo.
+	 * @param casilla índice de la casilla de origen.
+	 * @return máscara de destinos.
+	 */
+	public static long ataquesCaballo(int casilla) {
+		return ATAQUES_CABALLO[casilla];
+	}
+
+	/**
+	 * Método que devuelve las casillas adyacentes a una casilla.
+	 * @param casilla índice de la casilla de origen.
+	 * @return máscara de destinos.
+	 */
+	public static long ataquesRey(int casilla) {
+		return ATAQUES_REY[casilla];
+	}
+
+	/**
+	 * Método que devuelve las casillas que ataca en diagonal un peón.
+	 * @param haciaNorte true si el peón avanza hacia filas menores (blancas), false si avanza hacia el sur.
+	 * @param casilla índice de la casilla del peón.
+	 * @return máscara de casillas atacadas.
+	 */
+	public static long ataquesPeon(boolean haciaNorte, int casilla) {
+		return haciaNorte ? ATAQUES_PEON_NORTE[casilla] : ATAQUES_PEON_SUR[casilla];
+	}
+
+	/**
+	 * Método que devuelve la posición de un sentido en el orden de las agujas del reloj.
+	 * @param sentido Sentido a consultar.
+	 * @return índice entre 0 y 7, par si es recto e impar si es diagonal.
+	 */
+	public static int indiceHorario(Sentido sentido) {
+		return INDICE_HORARIO[sentido.ordinal()];
+	}
+
+	/**
+	 * Método que devuelve un sentido a partir de su posición en el orden de las agujas del reloj.
+	 * @param indice índice entre 0 y 7.
+	 * @return Sentido.
+	 */
+	public static Sentido sentidoHorario(int indice) {
+		return SENTIDOS_HORARIOS[indice];
+	}
+}
@@ -0,0 +1,124 @@
+package juego.control;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.Color;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+import juego.modelo.pieza.Peon;
+import juego.modelo.pieza.Pieza;
+import juego.modelo.pieza.Rey;
+
+/**
+ * Pruebas de la clave Zobrist de la posición mantenida por el árbitro.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de clave Zobrist en árbitro")
+public class ArbitroClaveZobristTest {
+
+	/** Tablero para testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Juega una secuencia de jugadas con mover y cambiarTurno.
+	 * 
+	 * @param arbitro árbitro
+	 * @param tablero tablero
+	 * @param jugadas jugadas en notación origen-destino
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	private static void jugar(Arbitro arbitro, Tablero tablero, String... jugadas) throws CoordenadasIncorrectasException {
+		for (String jugada : jugadas) {
+			arbitro.mover(tablero.obtenerCeldaParaNotacionAlgebraica(jugada.substring(0, 2)),
+					tablero.obtenerCeldaParaNotacionAlgebraica(jugada.substring(2, 4)));
+			arbitro.cambiarTurno();
+		}
+	}
+
+	/**
+	 * Comprueba que la clave incremental coincide con la recalculada.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("La clave incremental coincide con la recalculada")
+	@Test
+	void comprobarClaveIncremental() throws CoordenadasIncorrectasException {
+		jugar(arbitro, tablero, ArbitroPartidasCompletasTest.ALEKHINE_PARTIDA_8);
+		assertThat("Clave incremental incorrecta", tablero.obtenerClave(),
+				is(tablero.obtenerTableroBits().calcularClave()));
+	}
+
+	/**
+	 * Comprueba que dos órdenes de jugadas distintos llegan a la misma clave.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Una transposición produce la misma clave")
+	@Test
+	void comprobarTransposicion() throws CoordenadasIncorrectasException {
+		Tablero otroTablero = new Tablero();
+		Arbitro otroArbitro = new Arbitro(otroTablero);
+		otroArbitro.colocarPiezas();
+
+		jugar(arbitro, tablero, "g1f3", "g8f6", "b1c3", "b8c6");
+		jugar(otroArbitro, otroTablero, "b1c3", "b8c6", "g1f3", "g8f6");
+		assertThat("Las transposiciones tienen claves distintas", arbitro.obtenerClave(), is(otroArbitro.obtenerClave()));
+	}
+
+	/**
+	 * Comprueba que la clave distingue el turno y el primer movimiento de los peones.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("La clave incluye turno y peones sin mover")
+	@Test
+	void comprobarTurnoYPeonesSinMover() throws CoordenadasIncorrectasException {
+		long inicial = arbitro.obtenerClave();
+		arbitro.cambiarTurno();
+		assertThat("El turno no cambia la clave", arbitro.obtenerClave(), is(not(inicial)));
+		arbitro.cambiarTurno();
+
+		// misma colocación, con el peón de e2 sin mover y ya movido
+		long [] claves = new long [2];
+		for (int movido = 0; movido < 2; movido++) {
+			Tablero otroTablero = new Tablero();
+			Arbitro otroArbitro = new Arbitro(otroTablero);
+			Rey blanco = new Rey(Color.BLANCO), negro = new Rey(Color.NEGRO);
+			Peon peon = new Peon(Color.BLANCO);
+			if (movido == 1)
+				peon.marcarPrimerMovimiento();
+			otroArbitro.colocarPiezas(new Pieza [] {blanco, negro, peon}, new int [][] {{7, 4}, {0, 4}, {6, 4}}, negro, blanco);
+			claves[movido] = otroArbitro.obtenerClave();
+			assertThat("Clave incremental incorrecta", claves[movido], is(otroTablero.obtenerTableroBits().calcularClave()));
+		}
+		assertThat("La clave no distingue el peón sin mover", claves[1], is(not(claves[0])));
+
+		// el caballo va y vuelve y el primer movimiento de un peón se deshace
+		jugar(arbitro, tablero, "g1f3", "a7a6", "f3g1", "a6a5");
+		long sinPeonMovido = arbitro.obtenerClave();
+		arbitro.hacerMovimiento(tablero.obtenerCelda(6, 4), tablero.obtenerCelda(5, 4));
+		arbitro.deshacerMovimiento();
+		assertThat("Deshacer no restaura la clave", arbitro.obtenerClave(), is(sinPeonMovido));
+	}
+}
@@ -0,0 +1,148 @@
+package juego.control;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.Celda;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas del estado de la partida: jaque, jaque mate y rey ahogado, comparando la comprobación
+ * que para en el primer movimiento con la generación de todos los movimientos legales.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests del estado de la partida")
+public class ArbitroEstadoPartidaTest {
+
+	/** Tablero para testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/** Buffers de movimientos de cada nivel del recorrido. */
+	private final int [][] movimientos = new int [4][Arbitro.MAXIMO_MOVIMIENTOS];
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Coloca una posición y comprueba su estado y su número de movimientos legales.
+	 * @param fen Posición en notación FEN.
+	 * @param estado Estado esperado.
+	 * @param legales Número de movimientos legales esperado.
+	 */
+	private void comprobar(String fen, EstadoPartida estado, int legales) {
+		arbitro.colocarPiezas(fen);
+		assertThat("Estado incorrecto en " + fen, arbitro.obtenerEstado(), is(estado));
+		assertThat("Movimientos incorrectos en " + fen, arbitro.generarMovimientosLegales(movimientos[0]), is(legales));
+		assertThat(arbitro.tieneMovimientosLegales(), is(legales > 0));
+	}
+
+	/**
+	 * Comprueba el estado esperado según la generación completa en todas las posiciones
+	 * hasta una profundidad.
+	 * @param profundidad número de movimientos.
+	 * @return número de posiciones finales encontradas.
+	 */
+	private int recorrer(int profundidad) {
+		int total = arbitro.generarMovimientosLegales(movimientos[profundidad]);
+		boolean jaque = arbitro.estaEnJaque(arbitro.obtenerTurno());
+		EstadoPartida esperado = total > 0 ? (jaque ? EstadoPartida.JAQUE : EstadoPartida.NORMAL)
+				: (jaque ? EstadoPartida.JAQUE_MATE : EstadoPartida.AHOGADO);
+		assertThat(arbitro.obtenerEstado(), is(esperado));
+		if (profundidad == 0)
+			return esperado.esFinal() ? 1 : 0;
+		int finales = 0;
+		for (int i = 0; i < total; i++) {
+			arbitro.hacerMovimiento(movimientos[profundidad][i]);
+			finales += recorrer(profundidad - 1);
+			arbitro.deshacerMovimiento();
+		}
+		return finales;
+	}
+
+	/**
+	 * Comprueba el estado de la posición inicial y de una partida sin empezar.
+	 */
+	@DisplayName("Posición inicial y partida sin empezar")
+	@Test
+	void comprobarInicial() {
+		assertThat(arbitro.obtenerEstado(), is(EstadoPartida.NORMAL));
+		assertThat(arbitro.obtenerEstado().esFinal(), is(false));
+		Arbitro sinEmpezar = new Arbitro(new Tablero());
+		assertThat(sinEmpezar.obtenerEstado(), is(EstadoPartida.NORMAL));
+		assertThat(sinEmpezar.tieneMovimientosLegales(), is(false));
+	}
+
+	/**
+	 * Comprueba que tras el jaque del pastor las negras están en jaque mate.
+	 *
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Jaque del pastor")
+	@Test
+	void comprobarJaquePastor() throws CoordenadasIncorrectasException {
+		for (String jugada : new ArbitroPartidasCompletasTest().JAQUE_PASTOR) {
+			assertThat("Estado final antes de " + jugada, arbitro.obtenerEstado().esFinal(), is(false));
+			Celda origen = tablero.obtenerCeldaParaNotacionAlgebraica(jugada.substring(0, 2));
+			Celda destino = tablero.obtenerCeldaParaNotacionAlgebraica(jugada.substring(2, 4));
+			arbitro.mover(origen, destino);
+			arbitro.cambiarTurno();
+		}
+		assertThat(arbitro.obtenerEstado(), is(EstadoPartida.JAQUE_MATE));
+		assertThat(arbitro.obtenerEstado().esFinal(), is(true));
+	}
+
+	/**
+	 * Comprueba las formas de salir del jaque: huida del rey, captura de la pieza que lo da
+	 * e interposición, y los casos en que no hay ninguna.
+	 */
+	@DisplayName("Jaque, jaque mate y rey ahogado")
+	@Test
+	void comprobarEstados() {
+		comprobar("4k3/8/8/8/8/8/8/4R2K b - -", EstadoPartida.JAQUE, 4);						//Solo huidas del rey
+		comprobar("k7/1Q6/1K6/8/8/8/8/8 b - -", EstadoPartida.JAQUE_MATE, 0);
+		comprobar("k7/8/1QK5/8/8/8/8/8 b - -", EstadoPartida.AHOGADO, 0);
+		comprobar("R5k1/5ppp/8/8/4b3/8/8/6K1 b - -", EstadoPartida.JAQUE, 1);					//Solo capturando la torre
+		comprobar("R5k1/5ppp/8/8/8/8/3r4/6K1 b - -", EstadoPartida.JAQUE, 1);					//Solo interponiendo la torre
+		comprobar("R5k1/5bpp/8/8/8/8/8/6K1 b - -", EstadoPartida.JAQUE, 1);						//Interponiendo el alfil
+		comprobar("R5k1/5bpp/8/8/8/1B6/8/6K1 b - -", EstadoPartida.JAQUE_MATE, 0);				//El alfil está clavado
+		comprobar("3qR2k/5Npp/8/8/8/8/8/6K1 b - -", EstadoPartida.JAQUE_MATE, 0);				//Jaque doble: no vale capturar
+		comprobar("7k/8/8/5Q2/8/8/8/6K1 b - -", EstadoPartida.NORMAL, 2);						//Solo mueve el rey
+		comprobar("7k/5Q2/8/8/8/8/P7/6K1 w - -", EstadoPartida.NORMAL, 29);
+	}
+
+	/**
+	 * Comprueba que el estado coincide con la generación completa en todas las posiciones
+	 * de varios árboles, en los que aparecen jaques, mates y reyes ahogados.
+	 */
+	@DisplayName("Estado igual a la generación completa")
+	@Test
+	void comprobarRecorridos() {
+		assertThat("Mates en la posición inicial", recorrer(3), is(0));
+		arbitro.colocarPiezas(PerftTest.POSICION_3);
+		recorrer(3);
+		arbitro.colocarPiezas(PerftTest.POSICION_6);
+		recorrer(2);
+		arbitro.colocarPiezas("r5rk/5p1p/5R2/4B3/8/8/7P/7K w - -");
+		assertTrue(recorrer(3) > 0, "Debería haber mates en tres medios movimientos");
+		arbitro.colocarPiezas("7k/8/5K2/6Q1/8/8/8/8 w - -");
+		assertTrue(recorrer(1) > 0, "Debería haber mates y ahogados en un medio movimiento");
+	}
+}
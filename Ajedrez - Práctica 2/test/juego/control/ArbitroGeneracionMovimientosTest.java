@@ -0,0 +1,193 @@
+package juego.control;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.Celda;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Color;
+import juego.modelo.Tablero;
+import juego.modelo.pieza.Caballo;
+import juego.modelo.pieza.Dama;
+import juego.modelo.pieza.Pieza;
+import juego.modelo.pieza.Rey;
+import juego.modelo.pieza.Torre;
+
+/**
+ * Pruebas del generador de movimientos legales del árbitro, comparando con
+ * la comprobación de todos los pares de celdas.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de generación de movimientos legales en árbitro")
+public class ArbitroGeneracionMovimientosTest {
+
+	/** Tablero para testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/** Buffer de movimientos. */
+	private int[] movimientos = new int[Arbitro.MAXIMO_MOVIMIENTOS];
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Obtiene los movimientos legales probando todos los pares de celdas.
+	 * 
+	 * @return movimientos codificados ordenados
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	private int[] movimientosPorFuerzaBruta() throws CoordenadasIncorrectasException {
+		int[] resultado = new int[Arbitro.MAXIMO_MOVIMIENTOS];
+		int total = 0;
+		for (int origen = 0; origen < 64; origen++) {
+			for (int destino = 0; destino < 64; destino++) {
+				Celda celdaOrigen = tablero.obtenerCelda(origen);
+				Celda celdaDestino = tablero.obtenerCelda(destino);
+				if (arbitro.esMovimientoLegal(celdaOrigen, celdaDestino)
+						&& !arbitro.estaEnJaqueTrasSimularMovimientoConTurnoActual(celdaOrigen, celdaDestino))
+					resultado[total++] = arbitro.codificarMovimiento(celdaOrigen, celdaDestino);
+			}
+		}
+		int[] legales = Arrays.copyOf(resultado, total);
+		Arrays.sort(legales);
+		return legales;
+	}
+
+	/**
+	 * Obtiene los movimientos legales con el generador.
+	 * 
+	 * @return movimientos codificados ordenados
+	 */
+	private int[] movimientosGenerados() {
+		int[] legales = Arrays.copyOf(movimientos, arbitro.generarMovimientosLegales(movimientos));
+		Arrays.sort(legales);
+		return legales;
+	}
+
+	/**
+	 * Recorre una partida comparando en cada posición el generador con la fuerza bruta.
+	 * 
+	 * @param partida jugadas de la partida
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	private void compararEnPartida(String[] partida) throws CoordenadasIncorrectasException {
+		for (String jugada : partida) {
+			assertThat("Movimientos distintos antes de " + jugada, movimientosGenerados(), is(movimientosPorFuerzaBruta()));
+			Celda origen = tablero.obtenerCeldaParaNotacionAlgebraica(jugada.substring(0, 2));
+			Celda destino = tablero.obtenerCeldaParaNotacionAlgebraica(jugada.substring(2, 4));
+			if (!arbitro.esMovimientoLegal(origen, destino))
+				break; // enroque no implementado
+			arbitro.mover(origen, destino);
+			arbitro.cambiarTurno();
+		}
+		assertThat("Movimientos distintos al final", movimientosGenerados(), is(movimientosPorFuerzaBruta()));
+	}
+
+	/**
+	 * Comprueba los 20 movimientos de la posición inicial.
+	 */
+	@DisplayName("Veinte movimientos en la posición inicial")
+	@Test
+	void comprobarPosicionInicial() {
+		assertThat("Número de movimientos iniciales incorrecto", arbitro.generarMovimientosLegales(movimientos), is(20));
+	}
+
+	/**
+	 * Compara con la fuerza bruta en todas las posiciones del jaque pastor.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Generador igual a fuerza bruta en Jaque Pastor")
+	@Test
+	void compararEnJaquePastor() throws CoordenadasIncorrectasException {
+		compararEnPartida(new ArbitroPartidasCompletasTest().JAQUE_PASTOR);
+		assertThat("El jaque mate debería dejar sin movimientos", arbitro.generarMovimientosLegales(movimientos), is(0));
+	}
+
+	/**
+	 * Compara con la fuerza bruta en todas las posiciones de la partida de Karpov.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Generador igual a fuerza bruta en KARPOV_PARTIDA_2")
+	@Test
+	void compararEnKarpov() throws CoordenadasIncorrectasException {
+		compararEnPartida(new ArbitroPartidasCompletasTest().KARPOV_PARTIDA_2);
+	}
+
+	/**
+	 * Compara con la fuerza bruta en todas las posiciones de la partida de Alekhine.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Generador igual a fuerza bruta en ALEKHINE_PARTIDA_8")
+	@Test
+	void compararEnAlekhine() throws CoordenadasIncorrectasException {
+		compararEnPartida(ArbitroPartidasCompletasTest.ALEKHINE_PARTIDA_8);
+	}
+
+	/**
+	 * Comprueba que una torre clavada solo se mueve por la línea de la clavada.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Pieza clavada solo se mueve por la línea de la clavada")
+	@Test
+	void comprobarPiezaClavada() throws CoordenadasIncorrectasException {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		Rey blanco = new Rey(Color.BLANCO);
+		Rey negro = new Rey(Color.NEGRO);
+		arbitro.colocarPiezas(new Pieza[] { blanco, negro, new Torre(Color.BLANCO), new Torre(Color.NEGRO) },
+				new int[][] { { 7, 4 }, { 0, 0 }, { 4, 4 }, { 0, 4 } }, negro, blanco);
+
+		int[] legales = movimientosGenerados();
+		assertThat("Movimientos distintos con pieza clavada", legales, is(movimientosPorFuerzaBruta()));
+		int movimientosTorre = 0;
+		for (int movimiento : legales)
+			if (arbitro.obtenerCeldaOrigen(movimiento) == tablero.obtenerCelda(4, 4)) {
+				movimientosTorre++;
+				assertThat("La torre clavada se sale de la columna", arbitro.obtenerCeldaDestino(movimiento).obtenerColumna(), is(4));
+			}
+		assertThat("Número de movimientos de la torre clavada incorrecto", movimientosTorre, is(6));
+	}
+
+	/**
+	 * Comprueba que con jaque doble solo puede mover el rey.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Con jaque doble solo mueve el rey")
+	@Test
+	void comprobarJaqueDoble() throws CoordenadasIncorrectasException {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		Rey blanco = new Rey(Color.BLANCO);
+		Rey negro = new Rey(Color.NEGRO);
+		arbitro.colocarPiezas(new Pieza[] { blanco, negro, new Dama(Color.BLANCO), new Torre(Color.NEGRO), new Caballo(Color.NEGRO) },
+				new int[][] { { 7, 4 }, { 0, 0 }, { 4, 0 }, { 0, 4 }, { 5, 3 } }, negro, blanco);
+
+		int[] legales = movimientosGenerados();
+		assertThat("Movimientos distintos con jaque doble", legales, is(movimientosPorFuerzaBruta()));
+		for (int movimiento : legales)
+			assertThat("Con jaque doble solo puede mover el rey", arbitro.obtenerCeldaOrigen(movimiento), is(tablero.obtenerCelda(7, 4)));
+	}
+}
@@ -0,0 +1,98 @@
+package juego.control;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.Celda;
+import juego.modelo.Color;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+import juego.modelo.pieza.Pieza;
+
+/**
+ * Pruebas de los movimientos reversibles del árbitro.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de hacer y deshacer movimientos en árbitro")
+public class ArbitroHacerDeshacerTest {
+
+	/** Tablero para testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Obtiene la celda a partir de su notación algebraica.
+	 * 
+	 * @param texto coordenada en notación algebraica
+	 * @return celda
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	private Celda celda(String texto) throws CoordenadasIncorrectasException {
+		return tablero.obtenerCeldaParaNotacionAlgebraica(texto);
+	}
+
+	/**
+	 * Comprueba que deshacer una secuencia con capturas deja el tablero como estaba.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Deshacer una secuencia con capturas restaura el tablero")
+	@Test
+	void comprobarDeshacerSecuenciaConCapturas() throws CoordenadasIncorrectasException {
+		String inicial = tablero.toString();
+		String[] jugadas = { "e2e4", "d7d5", "e4d5", "d8d5", "b1c3", "d5a2" };
+
+		for (String jugada : jugadas)
+			arbitro.hacerMovimiento(celda(jugada.substring(0, 2)), celda(jugada.substring(2, 4)));
+
+		assertThat("El turno debería volver a blancas", arbitro.obtenerTurno(), is(Color.BLANCO));
+		assertThat("Número de piezas blancas incorrecto tras capturas", tablero.obtenerNumeroPiezas(Color.BLANCO), is(14));
+
+		for (int i = 0; i < jugadas.length; i++)
+			arbitro.deshacerMovimiento();
+
+		assertThat("El tablero ha cambiado tras deshacer", tablero.toString(), is(inicial));
+		assertThat("El número de jugadas no debería cambiar", arbitro.obtenerNumeroJugada(), is(0));
+		assertThat("El turno debería ser de blancas", arbitro.obtenerTurno(), is(Color.BLANCO));
+	}
+
+	/**
+	 * Comprueba que se restaura el estado de primer movimiento y las referencias a celdas.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Deshacer restaura primer movimiento y celdas de las piezas")
+	@Test
+	void comprobarRestauracionDeEstadoDePiezas() throws CoordenadasIncorrectasException {
+		Pieza peon = celda("e2").obtenerPieza();
+		arbitro.hacerMovimiento(celda("e2"), celda("e4"));
+		assertThat("El peón debería estar marcado como movido", peon.esPrimerMovimiento(), is(false));
+		assertThat("Turno no cambiado", arbitro.obtenerTurno(), is(Color.NEGRO));
+
+		arbitro.deshacerMovimiento();
+		assertThat("El peón debería volver a su primer movimiento", peon.esPrimerMovimiento(), is(true));
+		assertThat("Celda del peón no restaurada", peon.obtenerCelda(), is(celda("e2")));
+		assertThat("Celda de destino no vacía", celda("e4").obtenerPieza(), is(nullValue()));
+		assertThat("Movimiento de dos casillas no legal tras deshacer",
+				arbitro.esMovimientoLegal(celda("e2"), celda("e4")), is(true));
+	}
+}
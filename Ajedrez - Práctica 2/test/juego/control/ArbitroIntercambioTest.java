@@ -0,0 +1,122 @@
+package juego.control;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+import juego.modelo.pieza.Caballo;
+import juego.modelo.pieza.Dama;
+import juego.modelo.pieza.Peon;
+import juego.modelo.pieza.Torre;
+
+/**
+ * Pruebas de la evaluación estática de intercambios y de la generación de capturas.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de evaluación estática de intercambios")
+public class ArbitroIntercambioTest {
+
+	/** Tablero para testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Método auxiliar que evalúa un movimiento en notación algebraica en una posición.
+	 * 
+	 * @param fen posición en notación FEN
+	 * @param movimiento movimiento en notación algebraica
+	 * @return ganancia del bando que mueve
+	 */
+	private int evaluar(String fen, String movimiento) {
+		arbitro.colocarPiezas(fen);
+		return arbitro.evaluarIntercambio(Movimiento.desdeTexto(movimiento));
+	}
+
+	/**
+	 * Comprueba capturas de piezas indefensas y defendidas, y los atacantes en rayos X.
+	 */
+	@DisplayName("Resuelve los intercambios en una casilla")
+	@Test
+	void comprobarIntercambios() {
+		assertThat("Peón indefenso", evaluar("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - -", "e1e5"), is(Peon.VALOR));
+		assertThat("Caballo por peón defendido", evaluar("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - -", "d3e5"),
+				is(Peon.VALOR - Caballo.VALOR));
+		assertThat("Dama por peón defendido", evaluar("4k3/8/2p5/3p4/8/8/3Q4/4K3 w - -", "d2d5"), is(Peon.VALOR - Dama.VALOR));
+		assertThat("Dama a casilla atacada", evaluar("4k3/8/2p5/8/8/8/3Q4/4K3 w - -", "d2d5"), is(-Dama.VALOR));
+		assertThat("Torre con dama detrás en rayos X", evaluar("4k3/8/8/3r4/8/8/3Q4/3RK3 w - -", "d2d5"), is(Torre.VALOR));
+		assertThat("Movimiento tranquilo seguro", evaluar("4k3/8/8/8/8/8/3Q4/4K3 w - -", "d2d5"), is(0));
+	}
+
+	/**
+	 * Comprueba que el rey no captura una pieza defendida.
+	 */
+	@DisplayName("El rey no captura piezas defendidas")
+	@Test
+	void comprobarRey() {
+		assertThat("Rey captura torre indefensa", evaluar("4k3/8/8/8/8/8/3r4/4K3 w - -", "e1d2"), is(Torre.VALOR));
+		assertThat("Torre defendida por dama", evaluar("4k3/8/8/8/8/8/3r4/3QK3 b - -", "d2d1"), is(Dama.VALOR - Torre.VALOR));
+		assertThat("Captura con la dama defendida por el rey", evaluar("3qk3/8/8/8/8/8/8/3RK3 w - -", "d1d8"), is(Dama.VALOR - Torre.VALOR));
+		assertThat("Rey no captura dama defendida", evaluar("3k4/8/8/8/8/8/3q4/3RK3 b - -", "d2d1"), is(Torre.VALOR - Dama.VALOR));
+	}
+
+	/**
+	 * Comprueba el aviso de piezas colgadas.
+	 * 
+	 * @throws CoordenadasIncorrectasException si las coordenadas son incorrectas
+	 */
+	@DisplayName("Detecta las piezas colgadas")
+	@Test
+	void comprobarAmenazas() throws CoordenadasIncorrectasException {
+		arbitro.colocarPiezas("4k3/8/4p3/3r4/8/8/3Q4/4K3 w - -");
+		assertThat("Torre defendida por peón", arbitro.evaluarAmenaza(tablero.obtenerCelda(3, 3)), is(0));
+		assertThat("Dama atacada por torre y defendida por el rey", arbitro.evaluarAmenaza(tablero.obtenerCelda(6, 3)),
+				is(Dama.VALOR - Torre.VALOR));
+		assertThat("Celda vacía", arbitro.evaluarAmenaza(tablero.obtenerCelda(4, 4)), is(0));
+		assertThat("Rey sin atacar", arbitro.evaluarAmenaza(tablero.obtenerCelda(7, 4)), is(0));
+
+		arbitro.colocarPiezas("4k3/8/8/3r4/8/8/3Q4/3RK3 w - -");
+		assertThat("Torre atacada dos veces", arbitro.evaluarAmenaza(tablero.obtenerCelda(3, 3)), is(Torre.VALOR));
+	}
+
+	/**
+	 * Comprueba que solo se generan las capturas de entre los movimientos legales.
+	 */
+	@DisplayName("Genera solo las capturas legales")
+	@Test
+	void comprobarCapturas() {
+		for (String fen : new String[] { "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - -",
+				"4k3/8/8/3r4/8/8/3Q4/3RK3 w - -", "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR b - -" }) {
+			arbitro.colocarPiezas(fen);
+			ListaMovimientos todos = new ListaMovimientos();
+			ListaMovimientos capturas = new ListaMovimientos();
+			arbitro.generarMovimientosLegales(todos);
+			arbitro.generarCapturasLegales(capturas);
+			int esperadas = 0;
+			for (int i = 0; i < todos.obtenerNumeroMovimientos(); i++)
+				if (Movimiento.esCaptura(todos.obtener(i))) {
+					esperadas++;
+					assertThat("Falta " + Movimiento.aTexto(todos.obtener(i)), capturas.buscar(todos.obtener(i)) >= 0, is(true));
+				}
+			assertThat("Número de capturas en " + fen, capturas.obtenerNumeroMovimientos(), is(esperadas));
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package juego.control;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.Celda;
+import juego.modelo.Color;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas de la codificación de movimientos y de la lista de movimientos.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de movimientos codificados")
+public class MovimientoTest {
+
+	/** Tablero para testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Comprueba que la codificación conserva origen, destino y banderas en 16 bits.
+	 */
+	@DisplayName("Codificación de origen, destino y banderas")
+	@Test
+	void comprobarCodificacion() {
+		for (int origen = 0; origen < 64; origen++) {
+			for (int destino = 0; destino < 64; destino++) {
+				int movimiento = Movimiento.codificar(origen, destino, Movimiento.CAPTURA | Movimiento.DOBLE_AVANCE);
+				assertThat("Origen incorrecto", Movimiento.origen(movimiento), is(origen));
+				assertThat("Destino incorrecto", Movimiento.destino(movimiento), is(destino));
+				assertThat("No es captura", Movimiento.esCaptura(movimiento), is(true));
+				assertThat("No es doble avance", Movimiento.esDobleAvance(movimiento), is(true));
+				assertThat("No cabe en 16 bits", movimiento >>> 16, is(0));
+				assertThat("Casillas incorrectas", Movimiento.casillas(movimiento), is(Movimiento.codificar(origen, destino)));
+			}
+		}
+	}
+
+	/**
+	 * Comprueba la conversión a notación algebraica y desde ella.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Conversión a texto y desde texto")
+	@Test
+	void comprobarTexto() throws CoordenadasIncorrectasException {
+		Celda origen = tablero.obtenerCeldaParaNotacionAlgebraica("g1");
+		Celda destino = tablero.obtenerCeldaParaNotacionAlgebraica("f3");
+		int movimiento = arbitro.codificarMovimiento(origen, destino);
+
+		assertThat("Texto incorrecto", Movimiento.aTexto(movimiento), is("g1f3"));
+		assertThat("Texto distinto al de las celdas", arbitro.obtenerJugadaEnNotacionAlgebraica(movimiento),
+				is(arbitro.obtenerJugadaEnNotacionAlgebraica(origen, destino)));
+		assertThat("Lectura incorrecta", Movimiento.desdeTexto("g1f3"), is(movimiento));
+		assertThat("Celda de origen incorrecta", arbitro.obtenerCeldaOrigen(movimiento), is(origen));
+		assertThat("Celda de destino incorrecta", arbitro.obtenerCeldaDestino(movimiento), is(destino));
+		assertThat("Debería ser nulo", Movimiento.desdeTexto("i1f3"), is(Movimiento.NULO));
+		assertThat("Debería ser nulo", Movimiento.desdeTexto("g1g1"), is(Movimiento.NULO));
+		assertThat("Debería ser nulo", Movimiento.desdeTexto("g1f"), is(Movimiento.NULO));
+	}
+
+	/**
+	 * Comprueba las banderas de los movimientos generados.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Banderas de captura y doble avance en los movimientos generados")
+	@Test
+	void comprobarBanderasGeneradas() throws CoordenadasIncorrectasException {
+		ListaMovimientos lista = new ListaMovimientos();
+		arbitro.generarMovimientosLegales(lista);
+		assertThat("Doble avance sin bandera", Movimiento.esDobleAvance(lista.obtener(lista.buscar(Movimiento.desdeTexto("e2e4")))), is(true));
+		assertThat("Avance simple con bandera", Movimiento.esDobleAvance(lista.obtener(lista.buscar(Movimiento.desdeTexto("e2e3")))), is(false));
+
+		arbitro.colocarPiezas("4k3/8/8/3p4/4P3/8/8/4K3 w - -");
+		arbitro.generarMovimientosLegales(lista);
+		int captura = lista.obtener(lista.buscar(Movimiento.desdeTexto("e4d5")));
+		assertThat("Captura sin bandera", Movimiento.esCaptura(captura), is(true));
+		assertThat("Bandera distinta a la de las celdas", captura,
+				is(arbitro.codificarMovimiento(arbitro.obtenerCeldaOrigen(captura), arbitro.obtenerCeldaDestino(captura))));
+		assertThat("Movimiento legal rechazado", arbitro.esMovimientoLegal(captura), is(true));
+
+		long clave = arbitro.obtenerClave();
+		arbitro.hacerMovimiento(captura);
+		assertThat("Pieza no capturada", tablero.obtenerNumeroPiezas(Color.NEGRO), is(1));
+		arbitro.deshacerMovimiento();
+		assertThat("Clave no restaurada", arbitro.obtenerClave(), is(clave));
+	}
+
+	/**
+	 * Comprueba las operaciones de la lista de movimientos.
+	 */
+	@DisplayName("Operaciones de la lista de movimientos")
+	@Test
+	void comprobarLista() {
+		ListaMovimientos lista = new ListaMovimientos(1);
+		assertThat("Debería estar vacía", lista.estaVacia(), is(true));
+		lista.anadir(Movimiento.desdeTexto("e2e4"));
+		lista.anadir(Movimiento.desdeTexto("d2d4"));
+		lista.anadir(Movimiento.desdeTexto("g1f3"));
+		assertThat("Número de movimientos incorrecto", lista.obtenerNumeroMovimientos(), is(3));
+		lista.intercambiar(0, 2);
+		assertThat("Intercambio incorrecto", lista.toString(), is("g1f3 d2d4 e2e4"));
+		lista.establecer(1, Movimiento.desdeTexto("c2c4"));
+		assertThat("Búsqueda incorrecta", lista.buscar(Movimiento.desdeTexto("c2c4")), is(1));
+		assertThat("Búsqueda incorrecta", lista.buscar(Movimiento.desdeTexto("d2d4")), is(-1));
+		lista.vaciar();
+		assertThat("Debería estar vacía", lista.estaVacia(), is(true));
+	}
+}
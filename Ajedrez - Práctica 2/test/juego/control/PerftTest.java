@@ -0,0 +1,221 @@
+package juego.control;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.Celda;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas del recuento perft con posiciones de referencia y con posiciones
+ * de las partidas completas, comparando con la comprobación de todos los pares de celdas.
+ *
+ * Las reglas de este juego no incluyen enroque, captura al paso ni promoción, por lo que
+ * solo se usan las profundidades de referencia en las que no aparecen.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de recuento perft")
+public class PerftTest {
+
+	/** Posición 3 de las posiciones de referencia de perft. */
+	static final String POSICION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -";
+
+	/** Posición 6 de las posiciones de referencia de perft, sin derechos de enroque. */
+	static final String POSICION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+	/** Pool de hilos compartido por los tests. */
+	private static ForkJoinPool pool;
+
+	/** Tablero para testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Creación del pool de hilos.
+	 */
+	@BeforeAll
+	static void crearPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	/**
+	 * Cierre del pool de hilos.
+	 */
+	@AfterAll
+	static void cerrarPool() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Recuento perft probando todos los pares de celdas con esMovimientoLegal.
+	 *
+	 * @param profundidad número de movimientos
+	 * @return número de nodos hoja
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	private long contarPorFuerzaBruta(int profundidad) throws CoordenadasIncorrectasException {
+		if (profundidad == 0)
+			return 1;
+		long nodos = 0;
+		for (int origen = 0; origen < 64; origen++) {
+			for (int destino = 0; destino < 64; destino++) {
+				Celda celdaOrigen = tablero.obtenerCelda(origen);
+				Celda celdaDestino = tablero.obtenerCelda(destino);
+				if (arbitro.esMovimientoLegal(celdaOrigen, celdaDestino)
+						&& !arbitro.estaEnJaqueTrasSimularMovimientoConTurnoActual(celdaOrigen, celdaDestino)) {
+					arbitro.hacerMovimiento(celdaOrigen, celdaDestino);
+					nodos += contarPorFuerzaBruta(profundidad - 1);
+					arbitro.deshacerMovimiento();
+				}
+			}
+		}
+		return nodos;
+	}
+
+	/**
+	 * Recorre una partida comparando cada pocas jugadas el perft con la fuerza bruta.
+	 *
+	 * @param partida jugadas de la partida
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	private void compararEnPartida(String[] partida) throws CoordenadasIncorrectasException {
+		for (int i = 0; i < partida.length; i++) {
+			if (i % 8 == 0)
+				assertThat("Perft distinto antes de " + partida[i], new Perft(arbitro).contar(2), is(contarPorFuerzaBruta(2)));
+			Celda origen = tablero.obtenerCeldaParaNotacionAlgebraica(partida[i].substring(0, 2));
+			Celda destino = tablero.obtenerCeldaParaNotacionAlgebraica(partida[i].substring(2, 4));
+			if (!arbitro.esMovimientoLegal(origen, destino))
+				break; // enroque no implementado
+			arbitro.mover(origen, destino);
+			arbitro.cambiarTurno();
+		}
+		assertThat("Perft distinto al final", new Perft(arbitro).contar(2), is(contarPorFuerzaBruta(2)));
+	}
+
+	/**
+	 * Comprueba los recuentos de referencia de la posición inicial.
+	 */
+	@DisplayName("Recuentos de referencia de la posición inicial")
+	@Test
+	void comprobarPosicionInicial() {
+		Perft perft = new Perft(arbitro);
+		assertThat("Perft 0 incorrecto", perft.contar(0), is(1L));
+		assertThat("Perft 1 incorrecto", perft.contar(1), is(20L));
+		assertThat("Perft 2 incorrecto", perft.contar(2), is(400L));
+		assertThat("Perft 3 incorrecto", perft.contar(3), is(8902L));
+		assertThat("La posición no se ha restaurado", new Perft(arbitro).contar(1), is(20L));
+	}
+
+	/**
+	 * Comprueba los recuentos de profundidad 4 y 5 en paralelo, con y sin tabla.
+	 */
+	@DisplayName("Recuentos de profundidad 4 y 5 en paralelo con y sin tabla")
+	@Test
+	void comprobarPosicionInicialEnParalelo() {
+		assertThat("Perft 4 en paralelo incorrecto", new Perft(arbitro).contarEnParalelo(4, pool), is(197281L));
+		assertThat("Perft 4 con tabla incorrecto", new Perft(arbitro, 16).contar(4), is(197281L));
+		assertThat("Perft 4 en paralelo con tabla incorrecto", new Perft(arbitro, 16).contarEnParalelo(4, pool), is(197281L));
+		// 4865609 de referencia menos las 258 capturas al paso, que este juego no tiene
+		assertThat("Perft 5 en paralelo con tabla incorrecto", new Perft(arbitro, 18).contarEnParalelo(5, pool), is(4865351L));
+	}
+
+	/**
+	 * Comprueba los recuentos de referencia de la posición 3.
+	 */
+	@DisplayName("Recuentos de referencia de la posición 3")
+	@Test
+	void comprobarPosicion3() {
+		arbitro.colocarPiezas(POSICION_3);
+		Perft perft = new Perft(arbitro);
+		assertThat("Perft 1 incorrecto", perft.contar(1), is(14L));
+		assertThat("Perft 2 incorrecto", perft.contar(2), is(191L));
+	}
+
+	/**
+	 * Comprueba los recuentos de referencia de la posición 6.
+	 */
+	@DisplayName("Recuentos de referencia de la posición 6")
+	@Test
+	void comprobarPosicion6() {
+		arbitro.colocarPiezas(POSICION_6);
+		Perft perft = new Perft(arbitro, 12);
+		assertThat("Perft 1 incorrecto", perft.contar(1), is(46L));
+		assertThat("Perft 2 incorrecto", perft.contar(2), is(2079L));
+		assertThat("Perft 3 incorrecto", perft.contarEnParalelo(3, pool), is(89890L));
+	}
+
+	/**
+	 * Comprueba que el desglose por movimiento raíz suma el total, en serie y en paralelo.
+	 */
+	@DisplayName("El desglose suma el recuento total")
+	@Test
+	void comprobarDividir() {
+		Perft perft = new Perft(arbitro);
+		Map<String, Long> recuentos = perft.dividir(3);
+		assertThat("Número de movimientos raíz incorrecto", recuentos.size(), is(20));
+		assertThat("Recuento de e2e4 incorrecto", recuentos.get("e2e4"), is(600L));
+		assertThat("Desglose en paralelo distinto", perft.dividirEnParalelo(3, pool), is(recuentos));
+		long total = 0;
+		for (long nodos : recuentos.values())
+			total += nodos;
+		assertThat("El desglose no suma el total", total, is(8902L));
+	}
+
+	/**
+	 * Compara con la fuerza bruta a lo largo de la partida de Karpov.
+	 *
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Perft igual a fuerza bruta en KARPOV_PARTIDA_2")
+	@Test
+	void compararEnKarpov() throws CoordenadasIncorrectasException {
+		compararEnPartida(new ArbitroPartidasCompletasTest().KARPOV_PARTIDA_2);
+	}
+
+	/**
+	 * Compara con la fuerza bruta a lo largo de la partida de Alekhine.
+	 *
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Perft igual a fuerza bruta en ALEKHINE_PARTIDA_8")
+	@Test
+	void compararEnAlekhine() throws CoordenadasIncorrectasException {
+		compararEnPartida(ArbitroPartidasCompletasTest.ALEKHINE_PARTIDA_8);
+	}
+
+	/**
+	 * Comprueba que la posición FEN inicial equivale a colocar las piezas.
+	 */
+	@DisplayName("La posición FEN inicial equivale a colocarPiezas")
+	@Test
+	void comprobarFenInicial() {
+		long clave = arbitro.obtenerClave();
+		arbitro.colocarPiezas("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1");
+		assertThat("Clave distinta con FEN", arbitro.obtenerClave(), is(clave));
+		assertThat("Clave distinta en la copia", arbitro.copiar().obtenerClave(), is(clave));
+	}
+}
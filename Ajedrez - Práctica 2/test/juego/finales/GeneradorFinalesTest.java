@@ -0,0 +1,180 @@
+package juego.finales;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import juego.control.Arbitro;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas de la generación de tablas de finales por análisis retrógrado.
+ *
+ * Las distancias máximas de KQK (10 movimientos) y KRK (16) son las conocidas del ajedrez,
+ * ya que en estos finales no influyen el enroque, la captura al paso ni la coronación.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de generación de finales")
+public class GeneradorFinalesTest {
+
+	/** Directorio de las tablas generadas. */
+	@TempDir
+	static Path directorio;
+
+	/** Pool de hilos compartido por los tests. */
+	private static ForkJoinPool pool;
+
+	/** Tablas de referencia. */
+	private static TablaFinal damaContraRey, torreContraRey;
+
+	/**
+	 * Generación de las tablas de referencia.
+	 *
+	 * @throws IOException si no se pueden escribir las tablas
+	 */
+	@BeforeAll
+	static void generar() throws IOException {
+		pool = new ForkJoinPool(2);
+		GeneradorFinales generador = new GeneradorFinales(directorio, pool);
+		damaContraRey = generador.generar("KQK");
+		torreContraRey = generador.generar("KRK");
+	}
+
+	/**
+	 * Cierre del pool de hilos.
+	 */
+	@AfterAll
+	static void cerrarPool() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Consulta la distancia al mate de una posición.
+	 * @param tabla Tabla del final.
+	 * @param fen Posición en notación FEN.
+	 * @return distancia al mate.
+	 */
+	private static int consultar(TablaFinal tabla, String fen) {
+		Arbitro arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(fen);
+		int indice = tabla.indice(arbitro.obtenerTablero().obtenerTableroBits(), arbitro.obtenerTurno());
+		assertTrue(indice >= 0, "Piezas distintas de las del final: " + fen);
+		return tabla.obtenerDistancia(indice);
+	}
+
+	/**
+	 * Calcula la mayor distancia de las victorias de las blancas con su turno.
+	 * @param tabla Tabla del final.
+	 * @return distancia en medios movimientos.
+	 */
+	private static int victoriaMasLarga(TablaFinal tabla) {
+		int maxima = TablaFinal.TABLAS;
+		for (int i = 0; i < tabla.obtenerNumeroPosiciones() / 2; i++)
+			if (TablaFinal.esGanada(tabla.obtenerDistancia(i)))
+				maxima = Math.max(maxima, tabla.obtenerDistancia(i));
+		return maxima;
+	}
+
+	/**
+	 * Comprueba las distancias máximas conocidas y algunas posiciones concretas.
+	 */
+	@DisplayName("Distancias al mate de KQK y KRK")
+	@Test
+	void comprobarDistancias() {
+		assertThat("KQK se gana en 10 movimientos", victoriaMasLarga(damaContraRey), is(19));
+		assertThat("KRK se gana en 16 movimientos", victoriaMasLarga(torreContraRey), is(31));
+		assertThat("Jaque mate", consultar(damaContraRey, "k7/1Q6/1K6/8/8/8/8/8 b - -"), is(0));
+		assertThat("Mate en uno", consultar(damaContraRey, "k7/8/1K6/8/8/8/8/6Q1 w - -"), is(1));
+		assertThat("Rey ahogado", consultar(damaContraRey, "k7/2Q5/1K6/8/8/8/8/8 b - -"), is(TablaFinal.TABLAS));
+		assertThat("Dama colgada", consultar(damaContraRey, "8/8/8/8/8/2k5/2Q5/6K1 b - -"), is(TablaFinal.TABLAS));
+		assertThat("Mate en dos con la torre", consultar(torreContraRey, "k7/8/2K5/8/8/8/8/7R w - -"), is(3));
+	}
+
+	/**
+	 * Comprueba que sin coronación el rey y peón contra rey no se gana nunca.
+	 *
+	 * @throws IOException si no se puede escribir la tabla
+	 */
+	@DisplayName("KPK es tablas sin coronación")
+	@Test
+	void comprobarPeonSinCoronacion() throws IOException {
+		TablaFinal peon = new GeneradorFinales(directorio, pool).generar("KPK");
+		assertThat(peon.obtenerDistanciaMaxima(), is(TablaFinal.TABLAS));
+		assertThat(peon.obtenerBitsPorPosicion(), is(1));
+	}
+
+	/**
+	 * Comprueba que una tabla guardada se carga igual y que se rechazan los ficheros incorrectos.
+	 *
+	 * @param otro directorio temporal
+	 * @throws IOException si no se pueden escribir los ficheros
+	 */
+	@DisplayName("Guardar y cargar una tabla")
+	@Test
+	void comprobarFichero(@TempDir Path otro) throws IOException {
+		Path fichero = directorio.resolve("KQK" + GeneradorFinales.EXTENSION);
+		TablaFinal cargada = TablaFinal.cargar(fichero);
+		assertThat(cargada.obtenerMaterial(), is("KQK"));
+		assertThat(cargada.obtenerBitsPorPosicion(), is(5));
+		for (int i = 0; i < cargada.obtenerNumeroPosiciones(); i++)
+			assertThat(cargada.obtenerDistancia(i), is(damaContraRey.obtenerDistancia(i)));
+
+		byte [] datos = Files.readAllBytes(fichero);
+		Path cortado = otro.resolve("cortado.tfa");
+		Files.write(cortado, Arrays.copyOf(datos, datos.length - 1));
+		assertThrows(IOException.class, () -> TablaFinal.cargar(cortado));
+		datos[0] ^= 1;
+		Path corrupto = otro.resolve("corrupto.tfa");
+		Files.write(corrupto, datos);
+		assertThrows(IOException.class, () -> TablaFinal.cargar(corrupto));
+	}
+
+	/**
+	 * Comprueba que una generación detenida continúa desde su punto de control con el mismo resultado.
+	 *
+	 * @param temporal directorio temporal
+	 * @throws IOException si no se pueden escribir los ficheros
+	 */
+	@DisplayName("Continuar desde un punto de control")
+	@Test
+	void comprobarPuntoControl(@TempDir Path temporal) throws IOException {
+		Path otro = Files.createDirectory(temporal.resolve("control"));	//El directorio temporal es el de la clase
+		GeneradorFinales detenido = new GeneradorFinales(otro, pool);
+		detenido.establecerIntervaloPuntosControl(Long.MAX_VALUE);
+		detenido.establecerIteracionesMaximas(12);
+		assertThrows(InterruptedIOException.class, () -> detenido.generar("KRK"));
+		assertTrue(Files.exists(otro.resolve("KRK.pc")), "No se ha guardado el punto de control");
+
+		TablaFinal continuada = new GeneradorFinales(otro, pool).generar("KRK");
+		assertTrue(Files.notExists(otro.resolve("KRK.pc")), "No se ha borrado el punto de control");
+		for (int i = 0; i < continuada.obtenerNumeroPosiciones(); i++)
+			assertThat(continuada.obtenerDistancia(i), is(torreContraRey.obtenerDistancia(i)));
+	}
+
+	/**
+	 * Comprueba que se rechazan los finales mal escritos o con demasiadas piezas.
+	 */
+	@DisplayName("Finales incorrectos")
+	@Test
+	void comprobarFinalesIncorrectos() {
+		GeneradorFinales generador = new GeneradorFinales(directorio, pool);
+		for (String nombre : new String [] {"KQ", "QKK", "KXK", "KQKRR", "KKK"})
+			assertThrows(IllegalArgumentException.class, () -> generador.generar(nombre), nombre);
+	}
+}
@@ -0,0 +1,208 @@
+package juego.finales;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import juego.control.Arbitro;
+import juego.modelo.Tablero;
+import juego.motor.Buscador;
+import juego.motor.LimitesBusqueda;
+import juego.motor.ResultadoBusqueda;
+
+/**
+ * Pruebas de la consulta de los ficheros de finales comprimidos y de su uso en la búsqueda.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de consulta de finales")
+public class SondaFinalesTest {
+
+	/** Directorio de las tablas y los ficheros de consulta. */
+	@TempDir
+	static Path directorio;
+
+	/** Tablas de referencia. */
+	private static TablaFinal damaContraRey, torreContraRey;
+
+	/** Sonda con los ficheros de KQK y KRK. */
+	private static SondaFinales sonda;
+
+	/**
+	 * Generación de las tablas y escritura de sus ficheros de consulta.
+	 *
+	 * @throws IOException si no se pueden escribir los ficheros
+	 */
+	@BeforeAll
+	static void generar() throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			GeneradorFinales generador = new GeneradorFinales(directorio, pool);
+			damaContraRey = generador.generar("KQK");
+			torreContraRey = generador.generar("KRK");
+		}
+		finally {
+			pool.shutdown();
+		}
+		for (TablaFinal tabla : new TablaFinal [] {damaContraRey, torreContraRey})
+			for (int tipo = FicheroFinal.RESULTADOS; tipo <= FicheroFinal.DISTANCIAS; tipo++)
+				FicheroFinal.escribir(tabla, tipo, directorio.resolve(tabla.obtenerMaterial() + FicheroFinal.EXTENSIONES[tipo]));
+		sonda = SondaFinales.abrir(directorio);
+	}
+
+	/**
+	 * Crea un árbitro con una posición.
+	 * @param fen Posición en notación FEN.
+	 * @return árbitro con la posición.
+	 */
+	private static Arbitro crearArbitro(String fen) {
+		Arbitro arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(fen);
+		return arbitro;
+	}
+
+	/**
+	 * Consulta la distancia al mate de una posición.
+	 * @param fen Posición en notación FEN.
+	 * @return distancia al mate.
+	 */
+	private static int distancia(String fen) {
+		Arbitro arbitro = crearArbitro(fen);
+		return sonda.consultarDistancia(arbitro.obtenerTablero().obtenerTableroBits(), arbitro.obtenerTurno());
+	}
+
+	/**
+	 * Consulta el resultado de una posición.
+	 * @param fen Posición en notación FEN.
+	 * @return resultado para el que mueve.
+	 */
+	private static int resultado(String fen) {
+		Arbitro arbitro = crearArbitro(fen);
+		return sonda.consultarResultado(arbitro.obtenerTablero().obtenerTableroBits(), arbitro.obtenerTurno());
+	}
+
+	/**
+	 * Comprueba que los ficheros comprimidos guardan lo mismo que la tabla, con una caché de dos
+	 * bloques que obliga a descartar bloques.
+	 *
+	 * @throws IOException si no se pueden leer los ficheros
+	 */
+	@DisplayName("Ficheros comprimidos iguales a la tabla")
+	@Test
+	void comprobarFicheros() throws IOException {
+		FicheroFinal distancias = FicheroFinal.abrir(directorio.resolve("KRK.dtm"), 2);
+		FicheroFinal resultados = FicheroFinal.abrir(directorio.resolve("KRK.wdl"), 2);
+		assertThat(distancias.obtenerMaterial(), is("KRK"));
+		assertThat(resultados.obtenerTipo(), is(FicheroFinal.RESULTADOS));
+		for (int i = 0; i < torreContraRey.obtenerNumeroPosiciones(); i++) {
+			int distancia = torreContraRey.obtenerDistancia(i);
+			assertThat(distancias.obtenerValor(i) - 1, is(distancia));
+			assertThat(resultados.obtenerValor(i), is(distancia == TablaFinal.TABLAS ? 0
+					: TablaFinal.esGanada(distancia) ? FicheroFinal.RESULTADO_GANADA : FicheroFinal.RESULTADO_PERDIDA));
+		}
+		int bloques = torreContraRey.obtenerNumeroPosiciones() / FicheroFinal.POSICIONES_BLOQUE;
+		assertThat(distancias.obtenerFallos(), is((long) bloques));
+		assertThat(distancias.obtenerAciertos(), is((long) torreContraRey.obtenerNumeroPosiciones() - bloques));
+
+		distancias.obtenerValor(0);
+		distancias.obtenerValor(FicheroFinal.POSICIONES_BLOQUE);
+		distancias.obtenerValor(0);													//Sigue en la caché
+		distancias.obtenerValor(2 * FicheroFinal.POSICIONES_BLOQUE);				//Descarta el bloque 1
+		distancias.obtenerValor(0);
+		assertThat(distancias.obtenerFallos(), is((long) bloques + 3));
+		assertTrue(Files.size(directorio.resolve("KRK.wdl")) < Files.size(directorio.resolve("KRK.tfa")),
+				"El fichero de resultados no es más pequeño que la tabla");
+	}
+
+	/**
+	 * Comprueba las consultas de posiciones con las piezas de cualquier color.
+	 */
+	@DisplayName("Consultas con los colores cambiados")
+	@Test
+	void comprobarConsultas() {
+		assertThat(sonda.obtenerNumeroFicheros(), is(4));
+		assertTrue(sonda.tieneFinal("KQK") && sonda.tieneFinal("KRK") && !sonda.tieneFinal("KBK"), "Finales incorrectos");
+		assertThat("Mate en uno", distancia("k7/8/1K6/8/8/8/8/6Q1 w - -"), is(1));
+		assertThat("Mate en uno de las negras", distancia("6q1/8/8/8/8/1k6/8/K7 b - -"), is(1));
+		assertThat("Jaque mate a las blancas", distancia("8/8/8/8/8/1k6/1q6/K7 w - -"), is(0));
+		assertThat("Mate en dos de las negras", distancia("7r/8/8/8/8/2k5/8/K7 b - -"), is(3));
+		assertThat(resultado("8/8/8/8/8/1k6/1q6/K7 w - -"), is(SondaFinales.PERDIDA));
+		assertThat(resultado("6q1/8/8/8/8/1k6/8/K7 b - -"), is(SondaFinales.GANADA));
+		assertThat("Rey ahogado", resultado("8/8/8/8/8/1k6/2q5/K7 w - -"), is(SondaFinales.TABLAS));
+		assertThat("Solo los reyes", distancia("8/8/8/8/8/1k6/8/K7 w - -"), is(TablaFinal.TABLAS));
+		assertThat("Sin fichero", resultado("8/8/8/8/8/1k6/1b6/K7 w - -"), is(SondaFinales.DESCONOCIDA));
+		assertThat("Demasiadas piezas", resultado("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - -"), is(SondaFinales.DESCONOCIDA));
+	}
+
+	/**
+	 * Comprueba que se rechazan los ficheros cortados o con una cabecera incorrecta.
+	 *
+	 * @param otro directorio temporal
+	 * @throws IOException si no se pueden escribir los ficheros
+	 */
+	@DisplayName("Ficheros incorrectos")
+	@Test
+	void comprobarFicherosIncorrectos(@TempDir Path otro) throws IOException {
+		byte [] datos = Files.readAllBytes(directorio.resolve("KQK.dtm"));
+		Path cortado = otro.resolve("cortado.dtm");
+		Files.write(cortado, Arrays.copyOf(datos, datos.length - 1));
+		assertThrows(IOException.class, () -> FicheroFinal.abrir(cortado, 1));
+		datos[0] ^= 1;
+		Path corrupto = otro.resolve("corrupto.dtm");
+		Files.write(corrupto, datos);
+		assertThrows(IOException.class, () -> FicheroFinal.abrir(corrupto, 1));
+		assertThrows(IllegalArgumentException.class, () -> FicheroFinal.abrir(directorio.resolve("KQK.dtm"), 0));
+	}
+
+	/**
+	 * Comprueba que la búsqueda elige sin nodos el movimiento que da mate antes cuando la raíz
+	 * está en los ficheros.
+	 */
+	@DisplayName("Raíz resuelta con los ficheros")
+	@Test
+	void comprobarRaiz() {
+		Arbitro arbitro = crearArbitro("k7/8/2K5/8/8/8/8/7R w - -");
+		Buscador buscador = new Buscador(arbitro);
+		buscador.establecerFinales(sonda);
+		ResultadoBusqueda resultado = buscador.buscar(LimitesBusqueda.porProfundidad(6));
+		assertThat(resultado.obtenerNodos(), is(0L));
+		assertThat(resultado.obtenerPuntuacion(), is(Buscador.MATE - 3));
+		arbitro.hacerMovimiento(resultado.obtenerMovimiento());
+		assertThat(sonda.consultarDistancia(arbitro.obtenerTablero().obtenerTableroBits(), arbitro.obtenerTurno()), is(2));
+	}
+
+	/**
+	 * Comprueba que con solo los ficheros de resultados la búsqueda corta al llegar a ellos,
+	 * sin confundir la victoria con un mate.
+	 *
+	 * @param otro directorio temporal
+	 * @throws IOException si no se pueden escribir los ficheros
+	 */
+	@DisplayName("Búsqueda cortada con los resultados")
+	@Test
+	void comprobarResultadosEnBusqueda(@TempDir Path otro) throws IOException {
+		Path resultados = Files.createDirectory(otro.resolve("resultados"));	//El directorio temporal es el de la clase
+		FicheroFinal.escribir(damaContraRey, FicheroFinal.RESULTADOS, resultados.resolve("KQK.wdl"));
+		SondaFinales soloResultados = SondaFinales.abrir(resultados);
+
+		Buscador buscador = new Buscador(crearArbitro("8/8/3k4/8/8/3K4/8/4Q3 w - -"));
+		buscador.establecerFinales(soloResultados);
+		ResultadoBusqueda resultado = buscador.buscar(LimitesBusqueda.porProfundidad(4));
+		assertTrue(resultado.obtenerNodos() > 0, "La raíz sin distancias se debe buscar");
+		assertThat(resultado.obtenerPuntuacion(), is(Buscador.VICTORIA_FINAL - 1));
+		assertTrue(!Buscador.esPuntuacionMate(resultado.obtenerPuntuacion()), "La victoria no es un mate");
+	}
+}
@@ -0,0 +1,145 @@
+package juego.modelo;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.modelo.pieza.Caballo;
+import juego.modelo.pieza.Dama;
+import juego.modelo.pieza.Peon;
+import juego.modelo.pieza.Pieza;
+import juego.modelo.pieza.Rey;
+import juego.modelo.pieza.Torre;
+
+/**
+ * Pruebas unitarias sobre la representación en mapas de bits del tablero.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests sobre TableroBits")
+public class TableroBitsTest {
+
+	/** Tablero de testing. */
+	private Tablero tablero;
+
+	/** Representación en bits del tablero. */
+	private TableroBits bits;
+
+	/** Inicializa valores para cada test. */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		bits = tablero.obtenerTableroBits();
+	}
+
+	/**
+	 * Comprueba que un tablero nuevo no tiene casillas ocupadas.
+	 */
+	@DisplayName("Tablero vacío sin bits activos")
+	@Test
+	void comprobarTableroVacio() {
+		assertThat("Hay casillas ocupadas en un tablero vacío", bits.obtenerOcupadas(), is(0L));
+	}
+
+	/**
+	 * Comprueba que colocar y eliminar piezas mantiene las máscaras sincronizadas.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Colocar y eliminar piezas actualiza las máscaras")
+	@Test
+	void comprobarSincronizacionConCeldas() throws CoordenadasIncorrectasException {
+		Pieza dama = new Dama(Color.BLANCO);
+		tablero.colocar(dama, 3, 4);
+		int casilla = TableroBits.casilla(3, 4);
+
+		assertThat("Máscara de damas blancas incorrecta", bits.obtenerMascara(Color.BLANCO, TableroBits.DAMA), is(1L << casilla));
+		assertThat("Máscara de blancas incorrecta", bits.obtenerOcupadas(Color.BLANCO), is(1L << casilla));
+		assertThat("Máscara de negras incorrecta", bits.obtenerOcupadas(Color.NEGRO), is(0L));
+		assertThat("Pieza de la casilla incorrecta", bits.obtenerPieza(casilla), is(dama));
+
+		// sustituimos directamente la pieza en la celda
+		tablero.obtenerCelda(3, 4).establecerPieza(new Peon(Color.NEGRO));
+		assertThat("La dama sigue en la máscara", bits.obtenerMascara(Color.BLANCO, TableroBits.DAMA), is(0L));
+		assertThat("Máscara de peones negros incorrecta", bits.obtenerMascara(Color.NEGRO, TableroBits.PEON), is(1L << casilla));
+
+		tablero.obtenerCelda(3, 4).eliminarPieza();
+		assertThat("Casilla no vacía tras eliminar", bits.estaVacia(casilla), is(true));
+		assertThat("Quedan casillas ocupadas", bits.obtenerOcupadas(), is(0L));
+	}
+
+	/**
+	 * Comprueba la detección de piezas entre medias con la máscara de ocupación.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Camino libre entre casillas alineadas")
+	@Test
+	void comprobarCaminoLibre() throws CoordenadasIncorrectasException {
+		tablero.colocar(new Torre(Color.NEGRO), 4, 4);
+		int origen = TableroBits.casilla(4, 0);
+
+		assertThat("Camino horizontal bloqueado", bits.caminoLibre(origen, TableroBits.casilla(4, 7)), is(false));
+		assertThat("Camino horizontal hasta la pieza libre", bits.caminoLibre(origen, TableroBits.casilla(4, 4)), is(true));
+		assertThat("Camino diagonal bloqueado", bits.caminoLibre(TableroBits.casilla(7, 1), TableroBits.casilla(1, 7)), is(false));
+		assertThat("Camino vertical libre", bits.caminoLibre(origen, TableroBits.casilla(0, 0)), is(true));
+		assertThat("Casillas no alineadas con camino", bits.caminoLibre(origen, TableroBits.casilla(2, 1)), is(true));
+	}
+
+	/**
+	 * Comprueba la localización del rey y el recuento de piezas a partir de las máscaras.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Rey y número de piezas a partir de las máscaras")
+	@Test
+	void comprobarReyYNumeroDePiezas() throws CoordenadasIncorrectasException {
+		assertThat("Hay rey en un tablero vacío", tablero.obtenerCeldaRey(Color.BLANCO), is(nullValue()));
+
+		tablero.colocar(new Rey(Color.BLANCO), 7, 4);
+		tablero.colocar(new Peon(Color.BLANCO), 6, 4);
+		tablero.colocar(new Peon(Color.NEGRO), 1, 4);
+
+		assertThat("Celda del rey incorrecta", tablero.obtenerCeldaRey(Color.BLANCO), is(tablero.obtenerCelda(7, 4)));
+		assertThat("Número de piezas blancas incorrecto", tablero.obtenerNumeroPiezas(Color.BLANCO), is(2));
+		assertThat("Celdas ocupadas por negras incorrectas", tablero.obtenerCeldasOcupadas(Color.NEGRO),
+				is(Arrays.asList(tablero.obtenerCelda(1, 4))));
+
+		tablero.obtenerCelda(7, 4).eliminarPieza();
+		assertThat("El rey sigue localizado tras eliminarlo", tablero.obtenerCeldaRey(Color.BLANCO), is(nullValue()));
+	}
+
+	/**
+	 * Comprueba la detección de ataques desde la casilla atacada.
+	 * 
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Detección de ataques desde la casilla atacada")
+	@Test
+	void comprobarCasillaAtacada() throws CoordenadasIncorrectasException {
+		int objetivo = TableroBits.casilla(4, 4);
+		tablero.colocar(new Torre(Color.NEGRO), 4, 0);
+		assertThat("Torre en la misma fila no detectada", bits.estaAtacada(objetivo, Color.NEGRO), is(true));
+
+		tablero.colocar(new Peon(Color.BLANCO), 4, 2);
+		assertThat("Torre bloqueada detectada", bits.estaAtacada(objetivo, Color.NEGRO), is(false));
+
+		tablero.colocar(new Caballo(Color.NEGRO), 2, 5);
+		assertThat("Caballo no detectado", bits.obtenerAtacantes(objetivo, Color.NEGRO, bits.obtenerOcupadas()),
+				is(1L << TableroBits.casilla(2, 5)));
+		tablero.obtenerCelda(2, 5).eliminarPieza();
+
+		tablero.colocar(new Peon(Color.NEGRO), 5, 3);
+		assertThat("Peón negro ataca hacia atrás", bits.estaAtacada(objetivo, Color.NEGRO), is(false));
+		tablero.colocar(new Peon(Color.NEGRO), 3, 3);
+		assertThat("Peón negro en diagonal no detectado", bits.estaAtacada(objetivo, Color.NEGRO), is(true));
+		assertThat("Peón blanco detectado como atacante", bits.estaAtacada(objetivo, Color.BLANCO), is(false));
+	}
+}
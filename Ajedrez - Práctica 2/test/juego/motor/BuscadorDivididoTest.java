@@ -0,0 +1,118 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas de la búsqueda dividida entre los hilos de un pool.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de búsqueda dividida Young Brothers Wait")
+public class BuscadorDivididoTest {
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/** Pool de hilos. */
+	private ForkJoinPool pool;
+
+	/**
+	 * Inicialización del tablero y el pool antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas();
+		pool = new ForkJoinPool(3);
+	}
+
+	/**
+	 * Liberación del pool después de cada test.
+	 */
+	@AfterEach
+	void liberar() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Comprueba que la puntuación coincide con la búsqueda en serie y que la posición se restaura.
+	 */
+	@DisplayName("Misma puntuación que la búsqueda en serie")
+	@Test
+	void comprobarIgualQueSerie() {
+		for (String fen : new String[] { BuscadorTest.MEDIO_JUEGO, "4k3/8/8/3q4/4P3/8/8/4K3 w - -",
+				"r2q1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w - -" }) {
+			arbitro.colocarPiezas(fen);
+			long clave = arbitro.obtenerClave();
+			for (int profundidad = 1; profundidad <= 4; profundidad++) {
+				ResultadoBusqueda dividido = new BuscadorDividido(arbitro, new TablaTransposicion(4))
+						.buscar(LimitesBusqueda.porProfundidad(profundidad), pool);
+				assertThat("Puntuación distinta en " + fen + " a profundidad " + profundidad, dividido.obtenerPuntuacion(),
+						is(new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(profundidad)).obtenerPuntuacion()));
+				assertThat("Movimiento no legal", arbitro.esMovimientoLegal(dividido.obtenerMovimiento()), is(true));
+				assertThat("Variante no empieza por el mejor movimiento", dividido.obtenerVariantePrincipal()[0], is(dividido.obtenerMovimiento()));
+			}
+			assertThat("Posición no restaurada", arbitro.obtenerClave(), is(clave));
+		}
+	}
+
+	/**
+	 * Comprueba que un mismo buscador sigue coincidiendo con la búsqueda en serie después de
+	 * mover en el árbitro, sin reutilizar los contextos de los hilos de la búsqueda anterior.
+	 */
+	@DisplayName("Búsquedas sucesivas con el mismo buscador")
+	@Test
+	void comprobarBusquedasSucesivas() {
+		arbitro.colocarPiezas(BuscadorTest.MEDIO_JUEGO);
+		BuscadorDividido buscador = new BuscadorDividido(arbitro, new TablaTransposicion(4));
+		for (int jugada = 0; jugada < 4; jugada++) {
+			long clave = arbitro.obtenerClave();
+			ResultadoBusqueda dividido = buscador.buscar(LimitesBusqueda.porProfundidad(4), pool);
+			assertThat("Puntuación distinta en la jugada " + jugada, dividido.obtenerPuntuacion(),
+					is(new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(4)).obtenerPuntuacion()));
+			assertThat("Posición no restaurada", arbitro.obtenerClave(), is(clave));
+			arbitro.hacerMovimiento(dividido.obtenerMovimiento());
+		}
+	}
+
+	/**
+	 * Comprueba que encuentra el mate del jaque pastor.
+	 */
+	@DisplayName("Encuentra el mate del jaque pastor")
+	@Test
+	void comprobarMate() {
+		arbitro.colocarPiezas(BuscadorTest.JAQUE_PASTOR);
+		ResultadoBusqueda resultado = new BuscadorDividido(arbitro, new TablaTransposicion(1)).buscar(LimitesBusqueda.porProfundidad(4), pool);
+		assertThat("Movimiento incorrecto", Movimiento.aTexto(resultado.obtenerMovimiento()), is("h5f7"));
+		assertThat("Debería ser mate", resultado.esMate(), is(true));
+	}
+
+	/**
+	 * Comprueba que una búsqueda limitada por tiempo termina con un movimiento legal.
+	 */
+	@DisplayName("Termina a tiempo con un movimiento legal")
+	@Test
+	void comprobarLimiteTiempo() {
+		arbitro.colocarPiezas(BuscadorTest.MEDIO_JUEGO);
+		long clave = arbitro.obtenerClave();
+		long inicio = System.nanoTime();
+		ResultadoBusqueda resultado = new BuscadorDividido(arbitro, new TablaTransposicion(4)).buscar(LimitesBusqueda.porTiempo(50), pool);
+		assertTrue((System.nanoTime() - inicio) / 1_000_000 < 2000, "Demasiado tiempo");
+		assertThat("Movimiento no legal", arbitro.esMovimientoLegal(resultado.obtenerMovimiento()), is(true));
+		assertThat("Posición no restaurada", arbitro.obtenerClave(), is(clave));
+	}
+}
@@ -0,0 +1,86 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas de la búsqueda en varios hilos.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de búsqueda en paralelo")
+public class BuscadorParaleloTest {
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Comprueba que con varios hilos encuentra el mate y la captura, dejando la posición como estaba.
+	 */
+	@DisplayName("Encuentra el mate y la captura con varios hilos")
+	@Test
+	void comprobarMovimientos() {
+		for (int hilos = 2; hilos <= 4; hilos++) {
+			arbitro.colocarPiezas(BuscadorTest.JAQUE_PASTOR);
+			try (BuscadorParalelo buscador = new BuscadorParalelo(arbitro, new TablaTransposicion(1), hilos)) {
+				ResultadoBusqueda resultado = buscador.buscar(LimitesBusqueda.porProfundidad(4));
+				assertThat("Movimiento incorrecto con " + hilos + " hilos", Movimiento.aTexto(resultado.obtenerMovimiento()), is("h5f7"));
+				assertThat("Debería ser mate", resultado.esMate(), is(true));
+
+				arbitro.colocarPiezas("4k3/8/8/3q4/4P3/8/8/4K3 w - -");
+				long clave = arbitro.obtenerClave();
+				resultado = buscador.buscar(LimitesBusqueda.porProfundidad(4));
+				assertThat("Movimiento incorrecto con " + hilos + " hilos", Movimiento.aTexto(resultado.obtenerMovimiento()), is("e4d5"));
+				assertThat("Posición no restaurada", arbitro.obtenerClave(), is(clave));
+			}
+		}
+	}
+
+	/**
+	 * Comprueba que una búsqueda limitada por tiempo termina y devuelve un movimiento legal.
+	 */
+	@DisplayName("Termina a tiempo con un movimiento legal")
+	@Test
+	void comprobarLimiteTiempo() {
+		arbitro.colocarPiezas(BuscadorTest.MEDIO_JUEGO);
+		try (BuscadorParalelo buscador = new BuscadorParalelo(arbitro, new TablaTransposicion(4), 3)) {
+			long inicio = System.nanoTime();
+			ResultadoBusqueda resultado = buscador.buscar(LimitesBusqueda.porTiempo(50));
+			assertTrue((System.nanoTime() - inicio) / 1_000_000 < 2000, "Demasiado tiempo");
+			assertThat("Movimiento no legal", arbitro.esMovimientoLegal(resultado.obtenerMovimiento()), is(true));
+			assertTrue(resultado.obtenerNodos() > 0, "Sin nodos");
+		}
+	}
+
+	/**
+	 * Comprueba los argumentos no válidos.
+	 */
+	@DisplayName("Rechaza argumentos no válidos")
+	@Test
+	void comprobarArgumentos() {
+		assertThrows(IllegalArgumentException.class, () -> new BuscadorParalelo(arbitro, new TablaTransposicion(1), 0),
+				"Debería rechazar 0 hilos");
+		assertThrows(IllegalArgumentException.class, () -> new BuscadorParalelo(arbitro, null, 2),
+				"Debería necesitar una tabla");
+	}
+}
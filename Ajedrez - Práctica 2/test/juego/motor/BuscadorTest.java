@@ -0,0 +1,165 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+import juego.modelo.pieza.Dama;
+import juego.modelo.pieza.Peon;
+
+/**
+ * Pruebas de la búsqueda alfa-beta con profundización iterativa.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de búsqueda del mejor movimiento")
+public class BuscadorTest {
+
+	/** Posición del jaque pastor antes del mate Dxf7. */
+	static final String JAQUE_PASTOR = "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w - -";
+
+	/** Posición de medio juego sin enroques. */
+	static final String MEDIO_JUEGO = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - -";
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Negamax sin poda para comparar puntuaciones.
+	 * 
+	 * @param profundidad profundidad restante
+	 * @param nivel medios movimientos desde la raíz
+	 * @return puntuación desde el punto de vista del color que mueve
+	 */
+	private int negamax(int profundidad, int nivel) {
+		if (profundidad == 0)
+			return new EvaluadorMaterial().evaluar(arbitro.obtenerTablero(), arbitro.obtenerTurno());
+		ListaMovimientos lista = new ListaMovimientos();
+		if (arbitro.generarMovimientosLegales(lista) == 0)
+			return arbitro.estaEnJaque(arbitro.obtenerTurno()) ? -Buscador.MATE + nivel : 0;
+		int mejor = -Buscador.INFINITO;
+		for (int i = 0; i < lista.obtenerNumeroMovimientos(); i++) {
+			arbitro.hacerMovimiento(lista.obtener(i));
+			mejor = Math.max(mejor, -negamax(profundidad - 1, nivel + 1));
+			arbitro.deshacerMovimiento();
+		}
+		return mejor;
+	}
+
+	/**
+	 * Comprueba que encuentra el mate en uno del jaque pastor.
+	 */
+	@DisplayName("Encuentra el mate del jaque pastor")
+	@Test
+	void comprobarMateEnUno() {
+		arbitro.colocarPiezas(JAQUE_PASTOR);
+		ResultadoBusqueda resultado = new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(4));
+		assertThat("Movimiento incorrecto", Movimiento.aTexto(resultado.obtenerMovimiento()), is("h5f7"));
+		assertThat("Puntuación incorrecta", resultado.obtenerPuntuacion(), is(Buscador.MATE - 1));
+		assertThat("Debería ser mate", resultado.esMate(), is(true));
+	}
+
+	/**
+	 * Comprueba que captura una dama sin defender y deja la posición como estaba.
+	 */
+	@DisplayName("Captura la dama indefensa y restaura la posición")
+	@Test
+	void comprobarCaptura() {
+		arbitro.colocarPiezas("4k3/8/8/3q4/4P3/8/8/4K3 w - -");
+		long clave = arbitro.obtenerClave();
+		ResultadoBusqueda resultado = new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(3));
+		assertThat("Movimiento incorrecto", Movimiento.aTexto(resultado.obtenerMovimiento()), is("e4d5"));
+		assertThat("Variante no empieza por el mejor movimiento", resultado.obtenerVariantePrincipal()[0], is(resultado.obtenerMovimiento()));
+		assertThat("Posición no restaurada", arbitro.obtenerClave(), is(clave));
+	}
+
+	/**
+	 * Comprueba que la puntuación coincide con la de negamax sin poda.
+	 */
+	@DisplayName("Misma puntuación que negamax sin poda")
+	@Test
+	void comprobarIgualQueNegamax() {
+		for (String fen : new String[] { MEDIO_JUEGO, "4k3/8/8/3q4/4P3/8/8/4K3 w - -",
+				"rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w - -" }) {
+			arbitro.colocarPiezas(fen);
+			for (int profundidad = 1; profundidad <= 3; profundidad++) {
+				Buscador buscador = new Buscador(arbitro);
+				buscador.establecerQuiescencia(false);
+				assertThat("Puntuación distinta en " + fen + " a profundidad " + profundidad,
+						buscador.buscar(LimitesBusqueda.porProfundidad(profundidad)).obtenerPuntuacion(),
+						is(negamax(profundidad, 0)));
+			}
+		}
+	}
+
+	/**
+	 * Comprueba que la quiescencia evita capturar un peón defendido con la dama en el horizonte.
+	 */
+	@DisplayName("La quiescencia resuelve los intercambios del horizonte")
+	@Test
+	void comprobarQuiescencia() {
+		arbitro.colocarPiezas("4k3/8/2p5/3p4/8/8/3Q4/4K3 w - -");
+		Buscador sinQuiescencia = new Buscador(arbitro);
+		sinQuiescencia.establecerQuiescencia(false);
+		assertThat("Sin quiescencia debería capturar", Movimiento.aTexto(sinQuiescencia.buscar(LimitesBusqueda.porProfundidad(1)).obtenerMovimiento()),
+				is("d2d5"));
+
+		Buscador conQuiescencia = new Buscador(arbitro);
+		assertThat("Quiescencia activada por defecto", conQuiescencia.esQuiescencia(), is(true));
+		ResultadoBusqueda resultado = conQuiescencia.buscar(LimitesBusqueda.porProfundidad(1));
+		assertTrue(!Movimiento.aTexto(resultado.obtenerMovimiento()).equals("d2d5"), "No debería entregar la dama");
+		assertThat("Puntuación incorrecta", resultado.obtenerPuntuacion(), is(Dama.VALOR - 2 * Peon.VALOR));
+	}
+
+	/**
+	 * Comprueba las posiciones sin movimientos legales.
+	 */
+	@DisplayName("Sin movimientos en mate y ahogado")
+	@Test
+	void comprobarSinMovimientos() {
+		arbitro.colocarPiezas("k7/8/1Q6/8/8/8/8/7K b - -");
+		ResultadoBusqueda ahogado = new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(3));
+		assertThat("Debería no haber movimiento", ahogado.obtenerMovimiento(), is(Movimiento.NULO));
+		assertThat("El ahogado son tablas", ahogado.obtenerPuntuacion(), is(0));
+
+		arbitro.colocarPiezas("k7/1Q6/1K6/8/8/8/8/8 b - -");
+		ResultadoBusqueda mate = new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(3));
+		assertThat("Debería no haber movimiento", mate.obtenerMovimiento(), is(Movimiento.NULO));
+		assertThat("Puntuación de mate incorrecta", mate.obtenerPuntuacion(), is(-Buscador.MATE));
+	}
+
+	/**
+	 * Comprueba que se respetan los límites de nodos y tiempo.
+	 */
+	@DisplayName("Respeta los límites de nodos y tiempo")
+	@Test
+	void comprobarLimites() {
+		arbitro.colocarPiezas(MEDIO_JUEGO);
+		ResultadoBusqueda porNodos = new Buscador(arbitro).buscar(LimitesBusqueda.porNodos(20000));
+		assertTrue(porNodos.obtenerNodos() < 20000 + 1024, "Demasiados nodos");
+		assertThat("Movimiento no legal", arbitro.esMovimientoLegal(porNodos.obtenerMovimiento()), is(true));
+
+		long inicio = System.nanoTime();
+		ResultadoBusqueda porTiempo = new Buscador(arbitro).buscar(LimitesBusqueda.porTiempo(50));
+		assertTrue((System.nanoTime() - inicio) / 1_000_000 < 1000, "Demasiado tiempo");
+		assertTrue(porTiempo.obtenerProfundidad() >= 2, "Profundidad insuficiente");
+	}
+}
@@ -0,0 +1,104 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.Movimiento;
+import juego.modelo.Color;
+import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Pruebas de la evaluación de estructura de peones y de su tabla.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de estructura de peones")
+public class EvaluadorPeonesTest {
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/** Evaluador a probar. */
+	private EvaluadorPeones evaluador;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		arbitro = new Arbitro(new Tablero());
+		evaluador = new EvaluadorPeones(1 << 10);
+	}
+
+	/**
+	 * Evalúa una posición y devuelve solo el término de estructura de peones.
+	 * @param fen Posición en notación FEN.
+	 * @return diferencia con la evaluación posicional, para el color que mueve.
+	 */
+	private int evaluarEstructura(String fen) {
+		arbitro.colocarPiezas(fen);
+		Tablero tablero = arbitro.obtenerTablero();
+		return evaluador.evaluar(tablero, arbitro.obtenerTurno())
+				- new EvaluadorPosicional().evaluar(tablero, arbitro.obtenerTurno());
+	}
+
+	/**
+	 * Comprueba las penalizaciones y bonificaciones de cada término.
+	 */
+	@DisplayName("Doblados y aislados penalizan, pasados bonifican")
+	@Test
+	void comprobarTerminos() {
+		assertThat("Estructura simétrica desigualada", evaluarEstructura("4k3/pp4pp/8/8/8/8/PP4PP/4K3 w - -"), is(0));
+		assertTrue(evaluarEstructura("4k3/p1p5/8/8/8/2P5/2P5/4K3 w - -") < 0, "Peones doblados y aislados");
+		assertTrue(evaluarEstructura("4k3/8/1P6/8/8/8/8/4K3 w - -") > 0, "Peón pasado");
+		assertTrue(evaluarEstructura("4k3/8/1P6/8/8/8/8/4K3 w - -") > evaluarEstructura("4k3/8/8/8/8/1P6/8/4K3 w - -"),
+				"El peón pasado avanzado vale más");
+		assertThat("Pasado bloqueado por un peón vecino", evaluarEstructura("4k3/p7/1P6/8/8/8/8/4K3 w - -")
+				< evaluarEstructura("4k3/8/1P6/8/8/8/8/4K3 w - -"), is(true));
+	}
+
+	/**
+	 * Comprueba que la tabla guarda los peones pasados y acierta al repetir la estructura.
+	 */
+	@DisplayName("La tabla guarda los pasados y acierta")
+	@Test
+	void comprobarTabla() {
+		arbitro.colocarPiezas("4k3/p7/8/3P4/8/8/7P/4K3 w - -");
+		TableroBits bits = arbitro.obtenerTablero().obtenerTableroBits();
+		evaluador.evaluar(arbitro.obtenerTablero(), Color.BLANCO);
+		TablaPeones tabla = evaluador.obtenerTabla();
+		int indice = tabla.consultar(bits.obtenerClavePeones());
+		assertTrue(indice >= 0, "Estructura no guardada");
+		long pasados = (1L << TableroBits.casilla(3, 3)) | (1L << TableroBits.casilla(6, 7)) | (1L << TableroBits.casilla(1, 0));
+		assertThat("Peones pasados incorrectos", tabla.obtenerPasados(indice), is(pasados));
+
+		arbitro.hacerMovimiento(Movimiento.desdeTexto("e1d1"));			//Mover el rey no cambia la clave de peones
+		assertThat(bits.obtenerClavePeones(), is(bits.calcularClavePeones()));
+		assertTrue(tabla.consultar(bits.obtenerClavePeones()) >= 0, "El rey ha cambiado la clave de peones");
+		arbitro.hacerMovimiento(Movimiento.desdeTexto("a7a6"));
+		assertThat(bits.obtenerClavePeones(), is(bits.calcularClavePeones()));
+		assertThat("Estructura nueva encontrada", tabla.consultar(bits.obtenerClavePeones()), is(-1));
+	}
+
+	/**
+	 * Comprueba la tasa de aciertos durante una búsqueda.
+	 */
+	@DisplayName("Tasa de aciertos alta en una búsqueda")
+	@Test
+	void comprobarTasaAciertos() {
+		arbitro.colocarPiezas("r2q1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w - -");
+		EvaluadorPeones porDefecto = new EvaluadorPeones();
+		new Buscador(arbitro, porDefecto, new TablaTransposicion(4)).buscar(LimitesBusqueda.porProfundidad(5));
+		assertTrue(porDefecto.obtenerTabla().obtenerTasaAciertos() > 0.9);
+		assertThrows(IllegalArgumentException.class, () -> new TablaPeones(0));
+	}
+}
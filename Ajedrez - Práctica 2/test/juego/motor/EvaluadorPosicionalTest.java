@@ -0,0 +1,105 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.Color;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.TablasPosicion;
+import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Pruebas de la evaluación incremental por material y casillas.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de evaluación incremental")
+public class EvaluadorPosicionalTest {
+
+	/** Tablero de testing. */
+	private Tablero tablero;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/** Evaluador a probar. */
+	private Evaluador evaluador;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		tablero = new Tablero();
+		arbitro = new Arbitro(tablero);
+		arbitro.colocarPiezas();
+		evaluador = new EvaluadorPosicional();
+	}
+
+	/**
+	 * Comprueba los valores de la posición inicial.
+	 */
+	@DisplayName("Posición inicial simétrica y en fase máxima")
+	@Test
+	void comprobarPosicionInicial() {
+		TableroBits bits = tablero.obtenerTableroBits();
+		assertThat("Material blanco incorrecto", bits.obtenerMaterial(Color.BLANCO), is(4000));
+		assertThat("Material negro incorrecto", bits.obtenerMaterial(Color.NEGRO), is(4000));
+		assertThat("Fase incorrecta", bits.obtenerFase(), is(TablasPosicion.FASE_MAXIMA));
+		assertThat("La posición inicial no está igualada", evaluador.evaluar(tablero, Color.BLANCO), is(0));
+		assertThat("La posición inicial no está igualada", evaluador.evaluar(tablero, Color.NEGRO), is(0));
+	}
+
+	/**
+	 * Comprueba que las sumas incrementales coinciden con las recalculadas al hacer, deshacer y mover.
+	 *
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Las sumas incrementales coinciden con las recalculadas")
+	@Test
+	void comprobarActualizacionIncremental() throws CoordenadasIncorrectasException {
+		TableroBits bits = tablero.obtenerTableroBits();
+		SplittableRandom aleatorio = new SplittableRandom(7);
+		ListaMovimientos lista = new ListaMovimientos();
+
+		for (int partida = 0; partida < 20; partida++) {
+			int hechos = 0;
+			for (; hechos < 40 && arbitro.generarMovimientosLegales(lista) > 0; hechos++) {
+				arbitro.hacerMovimiento(lista.obtener(aleatorio.nextInt(lista.obtenerNumeroMovimientos())));
+				assertTrue(bits.comprobarEvaluacion());
+			}
+			for (; hechos > 0; hechos--)
+				arbitro.deshacerMovimiento();
+			assertThat("No se ha restaurado la evaluación", evaluador.evaluar(tablero, Color.BLANCO), is(0));
+		}
+
+		int movimiento = Movimiento.desdeTexto("b1c3");
+		arbitro.mover(arbitro.obtenerCeldaOrigen(movimiento), arbitro.obtenerCeldaDestino(movimiento));
+		assertTrue(bits.comprobarEvaluacion());
+		assertTrue(evaluador.evaluar(tablero, Color.BLANCO) > 0);
+		assertThat(evaluador.evaluar(tablero, Color.NEGRO), is(-evaluador.evaluar(tablero, Color.BLANCO)));
+	}
+
+	/**
+	 * Comprueba que sin piezas mayores ni menores cuenta solo la tabla de final.
+	 */
+	@DisplayName("En el final el rey centralizado es mejor")
+	@Test
+	void comprobarFinal() {
+		arbitro.colocarPiezas("8/8/8/3k4/8/8/8/K7 w - -");
+		assertThat("Fase incorrecta", tablero.obtenerTableroBits().obtenerFase(), is(0));
+		assertTrue(evaluador.evaluar(tablero, Color.NEGRO) > 0);
+	}
+}
@@ -0,0 +1,188 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.Color;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas de la evaluación con red neuronal y de su actualización incremental.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de evaluación con red neuronal")
+public class EvaluadorRedTest {
+
+	/** Posición de medio juego. */
+	private static final String MEDIO_JUEGO = "r2q1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w - -";
+
+	/** Misma posición con los colores cambiados y el tablero reflejado. */
+	private static final String REFLEJADA = "r2qkb1r/pp3ppp/2n1pn2/2pp4/3P4/2N1PN2/PP2BPPP/R2Q1RK1 b - -";
+
+	/** Red de pruebas. */
+	private RedNeuronal red;
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización de la red y del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		red = RedNeuronal.generar(32, 5);
+		arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(MEDIO_JUEGO);
+	}
+
+	/**
+	 * Evalúa recalculando las capas con todas las piezas.
+	 * @param tablero Tablero a evaluar.
+	 * @param turno Color que mueve.
+	 * @return evaluación.
+	 */
+	private int evaluarDesdeCero(Tablero tablero, Color turno) {
+		Acumulador acumulador = new Acumulador(red);
+		acumulador.refrescar(tablero.obtenerTableroBits());
+		return red.propagar(acumulador.obtenerCapa(turno.ordinal()), acumulador.obtenerCapa(turno.obtenerContrario().ordinal()));
+	}
+
+	/**
+	 * Comprueba que la evaluación incremental coincide con la recalculada al hacer, deshacer y mover.
+	 *
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("La actualización incremental coincide con el recálculo")
+	@Test
+	void comprobarActualizacionIncremental() throws CoordenadasIncorrectasException {
+		EvaluadorRed evaluador = new EvaluadorRed(red);
+		Tablero tablero = arbitro.obtenerTablero();
+		evaluador.evaluar(tablero, Color.BLANCO);
+		SplittableRandom aleatorio = new SplittableRandom(3);
+		ListaMovimientos lista = new ListaMovimientos();
+
+		for (int recorrido = 0; recorrido < 20; recorrido++) {
+			int hechos = 0;
+			for (; hechos < 30 && arbitro.generarMovimientosLegales(lista) > 0; hechos++) {
+				arbitro.hacerMovimiento(lista.obtener(aleatorio.nextInt(lista.obtenerNumeroMovimientos())));
+				assertThat(evaluador.evaluar(tablero, arbitro.obtenerTurno()), is(evaluarDesdeCero(tablero, arbitro.obtenerTurno())));
+			}
+			for (; hechos > 0; hechos--)
+				arbitro.deshacerMovimiento();
+		}
+
+		int movimiento = Movimiento.desdeTexto("f3e5");
+		arbitro.mover(arbitro.obtenerCeldaOrigen(movimiento), arbitro.obtenerCeldaDestino(movimiento));
+		assertThat(evaluador.evaluar(tablero, Color.NEGRO), is(evaluarDesdeCero(tablero, Color.NEGRO)));
+	}
+
+	/**
+	 * Comprueba que cada bando ve la posición igual que el otro en la posición reflejada.
+	 */
+	@DisplayName("Evaluación simétrica entre colores")
+	@Test
+	void comprobarSimetria() {
+		Arbitro reflejado = new Arbitro(new Tablero());
+		reflejado.colocarPiezas(REFLEJADA);
+		EvaluadorRed evaluador = new EvaluadorRed(red);
+		int original = evaluador.evaluar(arbitro.obtenerTablero(), Color.BLANCO);
+		assertThat(evaluador.evaluar(reflejado.obtenerTablero(), Color.NEGRO), is(original));
+		assertThat("No ha dejado de observar el primer tablero",
+				arbitro.obtenerTablero().obtenerTableroBits().obtenerObservador(), is(nullValue()));
+	}
+
+	/**
+	 * Comprueba que una red guardada y cargada desde el fichero evalúa igual y que se rechazan ficheros incorrectos.
+	 *
+	 * @param directorio directorio temporal
+	 * @throws IOException si no se puede escribir el fichero
+	 */
+	@DisplayName("Guardar y cargar la red")
+	@Test
+	void comprobarFichero(@TempDir Path directorio) throws IOException {
+		Path fichero = directorio.resolve("red.bin");
+		red.guardar(fichero);
+		RedNeuronal cargada = RedNeuronal.cargar(fichero);
+		assertThat(cargada.obtenerOcultas(), is(red.obtenerOcultas()));
+		assertThat(new EvaluadorRed(cargada).evaluar(arbitro.obtenerTablero(), Color.BLANCO),
+				is(new EvaluadorRed(red).evaluar(arbitro.obtenerTablero(), Color.BLANCO)));
+
+		byte [] datos = Files.readAllBytes(fichero);
+		Path cortado = directorio.resolve("cortada.bin");
+		Files.write(cortado, Arrays.copyOf(datos, datos.length - 2));
+		assertThrows(IOException.class, () -> RedNeuronal.cargar(cortado));
+		datos[0] ^= 1;
+		Path corrupto = directorio.resolve("corrupta.bin");
+		Files.write(corrupto, datos);
+		assertThrows(IOException.class, () -> RedNeuronal.cargar(corrupto));
+	}
+
+	/**
+	 * Escribe una red con todas las neuronas ocultas activadas al máximo y los pesos de salida saturados.
+	 * @param fichero Ruta del fichero de pesos.
+	 * @param ocultas Número de neuronas de la capa oculta.
+	 * @param pesoSalida Peso de salida de todas las neuronas.
+	 * @throws IOException si no se puede escribir el fichero
+	 */
+	private static void escribirRedSaturada(Path fichero, int ocultas, short pesoSalida) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(3 * Integer.BYTES + (RedNeuronal.ENTRADAS * ocultas + 3 * ocultas) * Short.BYTES
+				+ Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(RedNeuronal.MAGICO).putInt(RedNeuronal.VERSION).putInt(ocultas);
+		buffer.position(buffer.position() + RedNeuronal.ENTRADAS * ocultas * Short.BYTES);		//Pesos de la primera capa a cero
+		for (int i = 0; i < ocultas; i++)
+			buffer.putShort((short) RedNeuronal.ACTIVACION_MAXIMA);
+		for (int i = 0; i < 2 * ocultas; i++)
+			buffer.putShort(pesoSalida);
+		buffer.putInt(pesoSalida > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE);
+		Files.write(fichero, buffer.array());
+	}
+
+	/**
+	 * Comprueba que la salida de una red con pesos saturados se recorta por debajo de las
+	 * puntuaciones de mate y de la tabla de transposición, también dentro de la búsqueda.
+	 *
+	 * @param directorio directorio temporal
+	 * @throws IOException si no se puede escribir el fichero
+	 */
+	@DisplayName("Salida recortada con pesos saturados")
+	@Test
+	void comprobarSalidaSaturada(@TempDir Path directorio) throws IOException {
+		Path positiva = directorio.resolve("positiva.bin");
+		Path negativa = directorio.resolve("negativa.bin");
+		escribirRedSaturada(positiva, 256, Short.MAX_VALUE);
+		escribirRedSaturada(negativa, 256, Short.MIN_VALUE);
+		EvaluadorRed evaluador = new EvaluadorRed(RedNeuronal.cargar(positiva));
+		assertThat(evaluador.evaluar(arbitro.obtenerTablero(), Color.BLANCO), is(RedNeuronal.EVALUACION_MAXIMA));
+		assertThat(new EvaluadorRed(RedNeuronal.cargar(negativa)).evaluar(arbitro.obtenerTablero(), Color.BLANCO),
+				is(-RedNeuronal.EVALUACION_MAXIMA));
+		assertTrue(!Buscador.esPuntuacionMate(RedNeuronal.EVALUACION_MAXIMA), "La evaluación máxima no debe ser un mate");
+
+		TablaTransposicion tabla = new TablaTransposicion(1);
+		ResultadoBusqueda resultado = new Buscador(arbitro, evaluador, tabla).buscar(LimitesBusqueda.porProfundidad(3));
+		assertThat(Math.abs(resultado.obtenerPuntuacion()), is(RedNeuronal.EVALUACION_MAXIMA));
+		assertThat("Puntuación de la tabla desbordada", TablaTransposicion.puntuacion(tabla.consultar(arbitro.obtenerClave())),
+				is(resultado.obtenerPuntuacion()));
+	}
+}
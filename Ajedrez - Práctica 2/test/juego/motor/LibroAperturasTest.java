@@ -0,0 +1,142 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import juego.control.Arbitro;
+import juego.control.Movimiento;
+import juego.modelo.CoordenadasIncorrectasException;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas del libro de aperturas proyectado en memoria.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests del libro de aperturas")
+public class LibroAperturasTest {
+
+	/** Arbitro con la posición inicial. */
+	private Arbitro arbitro;
+
+	/** Libro con la posición inicial y la respuesta a e2e4. */
+	private LibroAperturas libro;
+
+	/**
+	 * Escribe y abre un libro pequeño antes de cada test.
+	 *
+	 * @param directorio directorio temporal
+	 * @throws IOException si no se puede escribir el libro
+	 */
+	@BeforeEach
+	void inicializar(@TempDir Path directorio) throws IOException {
+		arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas();
+		long inicial = arbitro.obtenerClave();
+		arbitro.hacerMovimiento(Movimiento.desdeTexto("e2e4"));
+		long tras = arbitro.obtenerClave();
+		arbitro.deshacerMovimiento();
+
+		Path fichero = directorio.resolve("libro.bin");
+		LibroAperturas.escribir(fichero,
+				new long [] {tras, inicial, inicial, inicial, 1L, -1L},
+				new int [] {Movimiento.desdeTexto("c7c5"), Movimiento.desdeTexto("d2d4"), Movimiento.desdeTexto("e2e4"),
+						Movimiento.desdeTexto("e2e5"), Movimiento.desdeTexto("a2a3"), Movimiento.desdeTexto("h2h3")},
+				new int [] {10, 30, 50000, 60000, 1, 1});
+		libro = LibroAperturas.abrir(fichero);
+	}
+
+	/**
+	 * Comprueba la conversión de movimientos con el formato de Polyglot.
+	 */
+	@DisplayName("Formato de movimientos de Polyglot")
+	@Test
+	void comprobarFormatoMovimientos() {
+		int e2e4 = (4 << 6) | (1 << 9) | 4 | (3 << 3);						//Columna e, filas 2 y 4 contadas desde 0
+		assertThat(LibroAperturas.codificarMovimiento(Movimiento.desdeTexto("e2e4")), is(e2e4));
+		assertThat(Movimiento.aTexto(LibroAperturas.decodificarMovimiento(e2e4)), is("e2e4"));
+	}
+
+	/**
+	 * Comprueba que se elige el movimiento legal de más peso y que se puede jugar con mover.
+	 *
+	 * @throws CoordenadasIncorrectasException si hay algún error con las coordenadas
+	 */
+	@DisplayName("Movimiento de más peso jugable con mover")
+	@Test
+	void comprobarMejorMovimiento() throws CoordenadasIncorrectasException {
+		assertThat(libro.obtenerNumeroEntradas(), is(6L));
+		int movimiento = libro.obtenerMejorMovimiento(arbitro);
+		assertThat("Se ha elegido una entrada ilegal o de menos peso", Movimiento.aTexto(movimiento), is("e2e4"));
+		assertTrue(arbitro.esMovimientoLegal(movimiento));
+		assertThat("Faltan las banderas del movimiento generado", (movimiento & Movimiento.DOBLE_AVANCE) != 0, is(true));
+
+		arbitro.mover(arbitro.obtenerCeldaOrigen(movimiento), arbitro.obtenerCeldaDestino(movimiento));
+		arbitro.cambiarTurno();
+		assertThat(Movimiento.aTexto(libro.obtenerMejorMovimiento(arbitro)), is("c7c5"));
+		arbitro.hacerMovimiento(Movimiento.desdeTexto("c7c5"));
+		assertThat("Posición fuera del libro", libro.obtenerMejorMovimiento(arbitro), is(Movimiento.NULO));
+	}
+
+	/**
+	 * Comprueba que la elección aleatoria solo devuelve movimientos legales del libro.
+	 */
+	@DisplayName("Elección aleatoria por peso")
+	@Test
+	void comprobarEleccionAleatoria() {
+		SplittableRandom aleatorio = new SplittableRandom(7);
+		int d2d4 = 0;
+		for (int i = 0; i < 2000; i++) {
+			String movimiento = Movimiento.aTexto(libro.elegirMovimiento(arbitro, aleatorio));
+			assertTrue(movimiento.equals("e2e4") || movimiento.equals("d2d4"), movimiento);
+			if (movimiento.equals("d2d4"))
+				d2d4++;
+		}
+		assertTrue(d2d4 < 20, "El peso no se respeta: " + d2d4);
+	}
+
+	/**
+	 * Comprueba que el buscador devuelve el movimiento del libro sin buscar.
+	 */
+	@DisplayName("El buscador juega del libro")
+	@Test
+	void comprobarBuscador() {
+		Buscador buscador = new Buscador(arbitro);
+		buscador.establecerLibro(libro);
+		ResultadoBusqueda resultado = buscador.buscar(LimitesBusqueda.porProfundidad(4));
+		assertThat(Movimiento.aTexto(resultado.obtenerMovimiento()), is("e2e4"));
+		assertThat(resultado.obtenerNodos(), is(0L));
+
+		arbitro.hacerMovimiento(Movimiento.desdeTexto("a2a3"));
+		assertTrue(buscador.buscar(LimitesBusqueda.porProfundidad(2)).obtenerNodos() > 0, "Fuera del libro no busca");
+	}
+
+	/**
+	 * Comprueba que se rechaza un fichero con un tamaño que no es múltiplo de una entrada.
+	 *
+	 * @param directorio directorio temporal
+	 * @throws IOException si no se puede escribir el fichero
+	 */
+	@DisplayName("Fichero de tamaño incorrecto")
+	@Test
+	void comprobarFicheroIncorrecto(@TempDir Path directorio) throws IOException {
+		Path cortado = directorio.resolve("cortado.bin");
+		Files.write(cortado, new byte [LibroAperturas.BYTES_ENTRADA + 3]);
+		assertThrows(IOException.class, () -> LibroAperturas.abrir(cortado));
+		assertThrows(IllegalArgumentException.class,
+				() -> LibroAperturas.escribir(cortado, new long [1], new int [0], new int [1]));
+	}
+}
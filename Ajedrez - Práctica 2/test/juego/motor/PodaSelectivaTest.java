@@ -0,0 +1,88 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas de la poda selectiva: movimiento nulo, reducciones tardías, futilidad y razoring.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de poda selectiva")
+public class PodaSelectivaTest {
+
+	/** Posiciones tácticas, con la jugada que las resuelve y la profundidad necesaria. */
+	private static final String [][] TACTICAS = {
+		{"q3k3/8/8/1N6/8/8/8/4K3 w - -", "b5c7", "4"},
+		{"4q3/8/8/4k3/8/8/8/R5K1 w - -", "a1e1", "4"},
+		{"4k3/8/8/4r3/8/8/4B3/4R1K1 w - -", "e2b5", "4"},
+		{"3r2k1/5ppp/8/8/8/8/5PPP/3RR1K1 w - -", "d1d8", "4"},
+		{"r1b2rk1/pp1p1ppp/1qn1pn2/8/2PNP3/2N1B3/PP3PPP/R2QKB1R w - -", "d4e6", "5"},
+		{"r1b1k2r/ppppqppp/2n5/4N3/2B1n3/8/PPPP1PPP/RNBQR1K1 w - -", "e5f7", "5"},
+		{"kbK5/pp6/1P6/8/8/8/8/R7 w - -", "a1a6", "8"}
+	};
+
+	/** Posición de medio juego para contar nodos. */
+	private static final String MEDIO_JUEGO = "r2q1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w - -";
+
+	/**
+	 * Crea un buscador con una posición.
+	 * @param fen Posición en notación FEN.
+	 * @param poda true para activar toda la poda selectiva.
+	 * @return buscador.
+	 */
+	private Buscador crearBuscador(String fen, boolean poda) {
+		Arbitro arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(fen);
+		Buscador buscador = new Buscador(arbitro, new EvaluadorMaterial(), new TablaTransposicion(1));
+		buscador.establecerPodaSelectiva(poda);
+		return buscador;
+	}
+
+	/**
+	 * Comprueba que la poda selectiva está desactivada por defecto.
+	 */
+	@DisplayName("Desactivada por defecto")
+	@Test
+	void comprobarDesactivadaPorDefecto() {
+		Arbitro arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(MEDIO_JUEGO);
+		Buscador buscador = new Buscador(arbitro, new EvaluadorMaterial());
+		assertThat(buscador.esPodaSelectiva(), is(false));
+		buscador.establecerRazoring(true);
+		assertThat(buscador.esPodaSelectiva(), is(true));
+	}
+
+	/**
+	 * Comprueba que se resuelven todas las posiciones tácticas con la poda selectiva activada.
+	 */
+	@DisplayName("Resuelve las posiciones tácticas")
+	@Test
+	void comprobarTacticas() {
+		for (String [] tactica : TACTICAS) {
+			ResultadoBusqueda resultado = crearBuscador(tactica[0], true)
+					.buscar(LimitesBusqueda.porProfundidad(Integer.parseInt(tactica[2])));
+			assertThat(tactica[0], Movimiento.aTexto(resultado.obtenerMovimiento()), is(tactica[1]));
+		}
+	}
+
+	/**
+	 * Comprueba que con la poda selectiva se visitan menos nodos a la misma profundidad.
+	 */
+	@DisplayName("Visita menos nodos")
+	@Test
+	void comprobarMenosNodos() {
+		long sinPoda = crearBuscador(MEDIO_JUEGO, false).buscar(LimitesBusqueda.porProfundidad(5)).obtenerNodos();
+		long conPoda = crearBuscador(MEDIO_JUEGO, true).buscar(LimitesBusqueda.porProfundidad(5)).obtenerNodos();
+		assertTrue(conPoda < sinPoda);
+	}
+}
@@ -0,0 +1,146 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.Color;
+import juego.modelo.Tablero;
+import juego.modelo.TableroBits;
+
+/**
+ * Pruebas del recorrido por etapas de los movimientos y de las tablas de orden.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de orden de movimientos")
+public class SelectorMovimientosTest {
+
+	/** Posición con capturas de distinto valor: Dxd5, cxd5, Cxd5 y Txa7. */
+	private static final String CAPTURAS = "4k3/r7/8/3q4/2P5/2N5/3Q4/R3K3 w - -";
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/** Movimientos de la posición. */
+	private ListaMovimientos lista;
+
+	/** Selector a probar. */
+	private SelectorMovimientos selector;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(CAPTURAS);
+		lista = new ListaMovimientos();
+		arbitro.generarMovimientosLegales(lista);
+		selector = new SelectorMovimientos();
+	}
+
+	/**
+	 * Comprueba el orden de las etapas y que cada movimiento sale una sola vez.
+	 */
+	@DisplayName("Recorre hash, capturas, asesinos y tranquilos")
+	@Test
+	void comprobarEtapas() {
+		int total = lista.obtenerNumeroMovimientos();
+		int [] historia = new int [TableroBits.NUMERO_CASILLAS * TableroBits.NUMERO_CASILLAS];
+		historia[Movimiento.casillas(Movimiento.desdeTexto("e1f1"))] = 50;
+		historia[Movimiento.casillas(Movimiento.desdeTexto("a1b1"))] = 10;
+		selector.iniciar(lista, arbitro.obtenerTablero().obtenerTableroBits(), Movimiento.desdeTexto("d2d3"),
+				Movimiento.desdeTexto("c3e4"), Movimiento.desdeTexto("a1a7"), Movimiento.desdeTexto("d2h6"), historia, true);
+
+		String [] esperados = { "d2d3", "c4d5", "c3d5", "d2d5", "a1a7", "c3e4", "d2h6", "e1f1", "a1b1" };
+		int [] etapas = { SelectorMovimientos.ETAPA_HASH, SelectorMovimientos.ETAPA_CAPTURAS, SelectorMovimientos.ETAPA_CAPTURAS,
+				SelectorMovimientos.ETAPA_CAPTURAS, SelectorMovimientos.ETAPA_CAPTURAS, SelectorMovimientos.ETAPA_ASESINOS,
+				SelectorMovimientos.ETAPA_TRANQUILOS, SelectorMovimientos.ETAPA_TRANQUILOS, SelectorMovimientos.ETAPA_TRANQUILOS };
+		for (int i = 0; i < esperados.length; i++) {
+			assertThat("Movimiento " + i + " incorrecto", Movimiento.aTexto(selector.siguiente()), is(esperados[i]));
+			assertThat("Etapa del movimiento " + i + " incorrecta", selector.obtenerEtapa(), is(etapas[i]));
+		}
+
+		boolean [] vistos = new boolean [1 << 12];
+		for (String texto : esperados)
+			vistos[Movimiento.casillas(Movimiento.desdeTexto(texto))] = true;
+		int devueltos = esperados.length;
+		int movimiento;
+		while ((movimiento = selector.siguiente()) != Movimiento.NULO) {
+			assertThat("Movimiento repetido " + Movimiento.aTexto(movimiento), vistos[Movimiento.casillas(movimiento)], is(false));
+			vistos[Movimiento.casillas(movimiento)] = true;
+			devueltos++;
+		}
+		assertThat("Faltan movimientos", devueltos, is(total));
+		assertThat("La lista no queda en el orden devuelto", Movimiento.aTexto(lista.obtener(1)), is("c4d5"));
+	}
+
+	/**
+	 * Comprueba que un asesino que es captura o que no es legal no se repite ni se inventa.
+	 */
+	@DisplayName("Ignora asesinos ya devueltos o inexistentes")
+	@Test
+	void comprobarAsesinosIgnorados() {
+		selector.iniciar(lista, arbitro.obtenerTablero().obtenerTableroBits(), Movimiento.NULO,
+				Movimiento.desdeTexto("c4d5"), Movimiento.desdeTexto("h7h8"), Movimiento.NULO, null, true);
+		int devueltos = 0;
+		while (selector.siguiente() != Movimiento.NULO) {
+			assertTrue(selector.obtenerEtapa() != SelectorMovimientos.ETAPA_ASESINOS, "No debería haber asesinos");
+			devueltos++;
+		}
+		assertThat("Número de movimientos incorrecto", devueltos, is(lista.obtenerNumeroMovimientos()));
+	}
+
+	/**
+	 * Comprueba que las tablas anotan asesinos, historia y contramovimientos.
+	 */
+	@DisplayName("Las tablas aprenden de los cortes")
+	@Test
+	void comprobarTablas() {
+		TablasOrden tablas = new TablasOrden();
+		tablas.nuevaBusqueda();
+		int primero = Movimiento.desdeTexto("e1f1"), segundo = Movimiento.desdeTexto("a1b1");
+		arbitro.hacerMovimiento(Movimiento.desdeTexto("c4d5"));
+		int anterior = TablasOrden.indiceContramovimiento(arbitro.obtenerTablero().obtenerTableroBits(), Movimiento.desdeTexto("c4d5"));
+		arbitro.deshacerMovimiento();
+		assertThat("Índice de contramovimiento incorrecto", anterior,
+				is(TableroBits.PEON * TableroBits.NUMERO_CASILLAS + Movimiento.destino(Movimiento.desdeTexto("c4d5"))));
+
+		tablas.anotarCorte(3, primero, Color.BLANCO, 4, anterior);
+		tablas.anotarCorte(3, segundo, Color.BLANCO, 2, -1);
+		tablas.anotarCorte(3, segundo, Color.BLANCO, 2, -1);
+		assertThat("Asesino reciente incorrecto", tablas.obtenerAsesino(3, 0), is(segundo));
+		assertThat("Segundo asesino incorrecto", tablas.obtenerAsesino(3, 1), is(primero));
+		assertThat("Historia incorrecta", tablas.obtenerHistoria(Color.BLANCO)[Movimiento.casillas(primero)], is(16));
+		assertThat("Historia de otro color", tablas.obtenerHistoria(Color.NEGRO)[Movimiento.casillas(primero)], is(0));
+		assertThat("Contramovimiento incorrecto", tablas.obtenerContramovimiento(anterior), is(primero));
+
+		tablas.nuevaBusqueda();
+		assertThat("Asesinos no olvidados", tablas.obtenerAsesino(3, 0), is(Movimiento.NULO));
+		assertThat("Historia no atenuada", tablas.obtenerHistoria(Color.BLANCO)[Movimiento.casillas(primero)], is(8));
+	}
+
+	/**
+	 * Comprueba que las heurísticas reducen los nodos sin cambiar la puntuación.
+	 */
+	@DisplayName("Las heurísticas reducen los nodos")
+	@Test
+	void comprobarReduccionNodos() {
+		arbitro.colocarPiezas(BuscadorTest.MEDIO_JUEGO);
+		Buscador sinOrden = new Buscador(arbitro, new EvaluadorMaterial(), new TablaTransposicion(4));
+		sinOrden.establecerOrdenHeuristico(false);
+		ResultadoBusqueda sin = sinOrden.buscar(LimitesBusqueda.porProfundidad(5));
+		ResultadoBusqueda con = new Buscador(arbitro, new EvaluadorMaterial(), new TablaTransposicion(4)).buscar(LimitesBusqueda.porProfundidad(5));
+		assertThat("Puntuación distinta", con.obtenerPuntuacion(), is(sin.obtenerPuntuacion()));
+		assertTrue(con.obtenerNodos() < sin.obtenerNodos(), "No reduce los nodos: " + con.obtenerNodos() + " frente a " + sin.obtenerNodos());
+	}
+}
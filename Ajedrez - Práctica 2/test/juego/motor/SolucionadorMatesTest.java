@@ -0,0 +1,157 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.ListaMovimientos;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas del solucionador de mates por números de prueba.
+ *
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests del solucionador de mates")
+public class SolucionadorMatesTest {
+
+	/** Problemas de mate en notación FEN, con el primer movimiento y el número de movimientos del mate. */
+	private static final String [][] MATES = {
+		{BuscadorTest.JAQUE_PASTOR, "h5f7", "1"},
+		{"kbK5/pp6/1P6/8/8/8/8/R7 w - -", "a1a6", "2"},
+		{"6k1/pp4p1/2p5/2bp4/8/P5Pb/1P3rrP/2BRRN1K b - -", "g2g1", "2"},
+		{"r5rk/5p1p/5R2/4B3/8/8/7P/7K w - -", "f6a6", "3"}
+	};
+
+	/** Arbitro. */
+	private Arbitro arbitro;
+
+	/**
+	 * Inicialización del tablero antes de cada test.
+	 */
+	@BeforeEach
+	void inicializar() {
+		arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas();
+	}
+
+	/**
+	 * Comprueba que la variante de un resultado termina en jaque mate, jugándola sobre una copia.
+	 * @param resultado Resultado del solucionador.
+	 */
+	private void comprobarVariante(ResultadoBusqueda resultado) {
+		Arbitro copia = arbitro.copiar();
+		for (int movimiento : resultado.obtenerVariantePrincipal()) {
+			assertTrue(copia.esMovimientoLegal(movimiento), "Movimiento ilegal en la variante: " + Movimiento.aTexto(movimiento));
+			copia.hacerMovimiento(movimiento);
+		}
+		assertThat("La variante no acaba en mate", copia.generarMovimientosLegales(new ListaMovimientos()), is(0));
+		assertThat("La variante no acaba en mate", copia.estaEnJaque(copia.obtenerTurno()), is(true));
+	}
+
+	/**
+	 * Comprueba que encuentra el mate más corto de cada problema, con su variante, y deja la posición como estaba.
+	 */
+	@DisplayName("Mate más corto de cada problema")
+	@Test
+	void comprobarMates() {
+		for (String [] problema : MATES) {
+			arbitro.colocarPiezas(problema[0]);
+			long clave = arbitro.obtenerClave();
+			int movimientos = Integer.parseInt(problema[2]);
+			ResultadoBusqueda resultado = new SolucionadorMates(arbitro).resolver(SolucionadorMates.MAXIMO_MOVIMIENTOS);
+			assertThat("Movimiento incorrecto en " + problema[0], Movimiento.aTexto(resultado.obtenerMovimiento()), is(problema[1]));
+			assertThat("Mate de longitud incorrecta en " + problema[0], resultado.obtenerPuntuacion(), is(Buscador.MATE - (2 * movimientos - 1)));
+			assertThat(resultado.obtenerProfundidad(), is(2 * movimientos - 1));
+			assertThat(resultado.obtenerVariantePrincipal().length, is(2 * movimientos - 1));
+			assertThat("Posición no restaurada", arbitro.obtenerClave(), is(clave));
+			comprobarVariante(resultado);
+		}
+	}
+
+	/**
+	 * Comprueba que no encuentra mates que no hay: más cortos que el real, en la posición inicial
+	 * o cuando el que mueve ya está mateado.
+	 */
+	@DisplayName("Sin mate")
+	@Test
+	void comprobarSinMate() {
+		arbitro.colocarPiezas("r5rk/5p1p/5R2/4B3/8/8/7P/7K w - -");
+		ResultadoBusqueda resultado = new SolucionadorMates(arbitro).resolver(2);
+		assertThat(resultado.obtenerMovimiento(), is(Movimiento.NULO));
+		assertThat(resultado.esMate(), is(false));
+		assertThat("Debería comprobar hasta el mate en dos", resultado.obtenerProfundidad(), is(3));
+
+		arbitro.colocarPiezas();
+		assertThat(new SolucionadorMates(arbitro).resolver(2).obtenerMovimiento(), is(Movimiento.NULO));
+		arbitro.colocarPiezas("k7/1Q6/1K6/8/8/8/8/8 b - -");
+		assertThat(new SolucionadorMates(arbitro).resolver(1).obtenerMovimiento(), is(Movimiento.NULO));
+		arbitro.colocarPiezas("k7/8/1QK5/8/8/8/8/8 b - -");									//Ahogado
+		assertThat(new SolucionadorMates(arbitro).resolver(1).obtenerMovimiento(), is(Movimiento.NULO));
+	}
+
+	/**
+	 * Comprueba que visita muchos menos nodos que la búsqueda alfa-beta hasta el mismo mate.
+	 */
+	@DisplayName("Menos nodos que alfa-beta")
+	@Test
+	void comprobarNodos() {
+		arbitro.colocarPiezas("r5rk/5p1p/5R2/4B3/8/8/7P/7K w - -");
+		long nodosMate = new SolucionadorMates(arbitro).resolver(3).obtenerNodos();
+		ResultadoBusqueda busqueda = new Buscador(arbitro, new EvaluadorMaterial(), new TablaTransposicion(16))
+				.buscar(LimitesBusqueda.porProfundidad(6));
+		assertThat("Alfa-beta debería ver el mismo mate", busqueda.obtenerPuntuacion(), is(Buscador.MATE - 5));
+		assertTrue(nodosMate * 4 < busqueda.obtenerNodos(), "Nodos: " + nodosMate + " frente a " + busqueda.obtenerNodos());
+	}
+
+	/**
+	 * Comprueba que al agotar los nodos se abandona sin dar un mate y con una tabla muy pequeña sigue acertando.
+	 */
+	@DisplayName("Límite de nodos y tabla pequeña")
+	@Test
+	void comprobarLimites() {
+		arbitro.colocarPiezas("r5rk/5p1p/5R2/4B3/8/8/7P/7K w - -");
+		ResultadoBusqueda resultado = new SolucionadorMates(arbitro).resolver(3, 100);
+		assertThat(resultado.esMate(), is(false));
+		assertTrue(resultado.obtenerProfundidad() < 5, "No debería haber resuelto el mate en tres");
+
+		arbitro.colocarPiezas("kbK5/pp6/1P6/8/8/8/8/R7 w - -");
+		assertThat(Movimiento.aTexto(new SolucionadorMates(arbitro, 64).resolver(2).obtenerMovimiento()), is("a1a6"));
+		assertThrows(IllegalArgumentException.class, () -> new SolucionadorMates(arbitro).resolver(0));
+		assertThrows(IllegalArgumentException.class, () -> new SolucionadorMates(arbitro, 0));
+	}
+
+	/**
+	 * Comprueba que resolver los problemas en paralelo da lo mismo que de uno en uno.
+	 */
+	@DisplayName("Problemas en paralelo")
+	@Test
+	void comprobarParalelo() {
+		Arbitro [] posiciones = new Arbitro [MATES.length];
+		for (int i = 0; i < MATES.length; i++) {
+			posiciones[i] = new Arbitro(new Tablero());
+			posiciones[i].colocarPiezas(MATES[i][0]);
+		}
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			ResultadoBusqueda [] resultados = SolucionadorMates.resolverEnParalelo(posiciones, 3, SolucionadorMates.ENTRADAS_TABLA, pool);
+			for (int i = 0; i < MATES.length; i++) {
+				assertThat(Movimiento.aTexto(resultados[i].obtenerMovimiento()), is(MATES[i][1]));
+				assertThat(resultados[i].obtenerPuntuacion(), is(Buscador.MATE - (2 * Integer.parseInt(MATES[i][2]) - 1)));
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package juego.motor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import juego.control.Arbitro;
+import juego.control.Movimiento;
+import juego.modelo.Tablero;
+
+/**
+ * Pruebas de la tabla de transposiciones.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests de la tabla de transposiciones")
+public class TablaTransposicionTest {
+
+	/**
+	 * Comprueba que se recuperan los campos guardados.
+	 */
+	@DisplayName("Guarda y recupera movimiento, puntuación, profundidad y cota")
+	@Test
+	void comprobarGuardarYConsultar() {
+		TablaTransposicion tabla = new TablaTransposicion(1);
+		int movimiento = Movimiento.codificar(52, 36, Movimiento.DOBLE_AVANCE);
+		tabla.guardar(0x123456789ABCDEFL, movimiento, -345, 7, TablaTransposicion.COTA_INFERIOR);
+
+		long datos = tabla.consultar(0x123456789ABCDEFL);
+		assertThat("Movimiento incorrecto", TablaTransposicion.movimiento(datos), is(movimiento));
+		assertThat("Puntuación incorrecta", TablaTransposicion.puntuacion(datos), is(-345));
+		assertThat("Profundidad incorrecta", TablaTransposicion.profundidad(datos), is(7));
+		assertThat("Cota incorrecta", TablaTransposicion.cota(datos), is(TablaTransposicion.COTA_INFERIOR));
+		assertThat("No debería estar", tabla.consultar(0x123456789ABCDEEL), is(0L));
+		assertThat("Tasa de aciertos incorrecta", tabla.obtenerTasaAciertos(), is(0.5));
+		assertThat("Número de entradas incorrecto", tabla.obtenerNumeroEntradas(), is(1 << 16));
+	}
+
+	/**
+	 * Comprueba el ajuste de las puntuaciones de mate al nivel.
+	 */
+	@DisplayName("Ajuste de las puntuaciones de mate")
+	@Test
+	void comprobarAjusteMate() {
+		int mate = Buscador.MATE - 5;
+		assertThat("Ida y vuelta incorrecta", TablaTransposicion.puntuacionDesdeTabla(TablaTransposicion.puntuacionATabla(mate, 3), 3), is(mate));
+		assertThat("Mate relativo incorrecto", TablaTransposicion.puntuacionATabla(mate, 3), is(Buscador.MATE - 2));
+		assertThat("Mate en contra incorrecto", TablaTransposicion.puntuacionATabla(-mate, 3), is(-Buscador.MATE + 2));
+		assertThat("Puntuación normal alterada", TablaTransposicion.puntuacionATabla(120, 3), is(120));
+		assertThat("Evaluación máxima alterada", TablaTransposicion.puntuacionATabla(Buscador.EVALUACION_MAXIMA, 3),
+				is(Buscador.EVALUACION_MAXIMA));
+	}
+
+	/**
+	 * Comprueba que las victorias de los ficheros de finales se ajustan al nivel como los mates,
+	 * de modo que la más cercana sigue siendo mejor al leerla desde otro nivel.
+	 */
+	@DisplayName("Ajuste de las victorias de los finales")
+	@Test
+	void comprobarAjusteVictoriaFinal() {
+		int victoria = Buscador.VICTORIA_FINAL - 5;											//Final alcanzado a 5 del nodo raíz
+		assertThat(TablaTransposicion.puntuacionATabla(victoria, 3), is(Buscador.VICTORIA_FINAL - 2));
+		assertThat(TablaTransposicion.puntuacionDesdeTabla(TablaTransposicion.puntuacionATabla(victoria, 3), 7),
+				is(Buscador.VICTORIA_FINAL - 9));
+		assertThat(TablaTransposicion.puntuacionATabla(-victoria, 3), is(-Buscador.VICTORIA_FINAL + 2));
+		assertThat(TablaTransposicion.puntuacionDesdeTabla(-Buscador.VICTORIA_FINAL + 2, 7), is(-Buscador.VICTORIA_FINAL + 9));
+		int lejana = Buscador.VICTORIA_FINAL - (Buscador.MAXIMO_NIVELES - 1);
+		assertThat(TablaTransposicion.puntuacionDesdeTabla(TablaTransposicion.puntuacionATabla(lejana, 100), 100), is(lejana));
+		assertTrue(Buscador.esPuntuacionVictoria(lejana) && !Buscador.esPuntuacionMate(lejana), "Victoria de los finales mal clasificada");
+	}
+
+	/**
+	 * Comprueba que la entrada profunda se conserva frente a otra menos profunda de la misma búsqueda,
+	 * pero no frente a una de una búsqueda posterior.
+	 */
+	@DisplayName("Reemplazo por profundidad y edad")
+	@Test
+	void comprobarReemplazo() {
+		TablaTransposicion tabla = new TablaTransposicion(1);
+		int cubos = tabla.obtenerNumeroEntradas() / 2;
+		long profunda = 5;
+		long[] otras = { profunda + cubos, profunda + 2L * cubos, profunda + 3L * cubos };	// mismo cubo
+
+		tabla.guardar(profunda, 1, 10, 9, TablaTransposicion.COTA_EXACTA);
+		tabla.guardar(otras[0], 2, 20, 1, TablaTransposicion.COTA_EXACTA);
+		tabla.guardar(otras[1], 3, 30, 1, TablaTransposicion.COTA_EXACTA);
+		assertTrue(tabla.consultar(profunda) != 0, "Se perdió la entrada profunda");
+		assertThat("Se perdió la última entrada", TablaTransposicion.movimiento(tabla.consultar(otras[1])), is(3));
+
+		tabla.nuevaBusqueda();
+		tabla.guardar(otras[2], 4, 40, 1, TablaTransposicion.COTA_EXACTA);
+		assertThat("La entrada antigua debería reemplazarse", tabla.consultar(profunda), is(0L));
+	}
+
+	/**
+	 * Comprueba que con escrituras concurrentes nunca se devuelven datos de otra clave.
+	 * 
+	 * @throws InterruptedException si se interrumpe la espera de los hilos
+	 */
+	@DisplayName("Sin entradas mezcladas con escrituras concurrentes")
+	@Test
+	void comprobarConcurrencia() throws InterruptedException {
+		TablaTransposicion tabla = new TablaTransposicion(1);
+		AtomicInteger errores = new AtomicInteger();
+		Thread[] hilos = new Thread[4];
+		for (int h = 0; h < hilos.length; h++) {
+			final int semilla = h;
+			hilos[h] = new Thread(() -> {
+				SplittableRandom aleatorio = new SplittableRandom(semilla);
+				for (int i = 0; i < 200_000; i++) {
+					long clave = aleatorio.nextLong(1 << 18);	// pocas claves para forzar colisiones
+					long datos = tabla.consultar(clave);
+					if (datos != 0 && TablaTransposicion.puntuacion(datos) != (short) clave)
+						errores.incrementAndGet();
+					tabla.guardar(clave, (int) clave & 0xFFF, (short) clave, (int) clave & 0x3F, TablaTransposicion.COTA_EXACTA);
+				}
+			});
+			hilos[h].start();
+		}
+		for (Thread hilo : hilos)
+			hilo.join();
+		assertThat("Entradas mezcladas", errores.get(), is(0));
+	}
+
+	/**
+	 * Comprueba que la búsqueda con tabla da la misma puntuación con menos nodos.
+	 */
+	@DisplayName("Búsqueda con tabla: misma puntuación y menos nodos")
+	@Test
+	void comprobarBusquedaConTabla() {
+		Arbitro arbitro = new Arbitro(new Tablero());
+		arbitro.colocarPiezas(BuscadorTest.MEDIO_JUEGO);
+		for (int profundidad = 1; profundidad <= 3; profundidad++) {
+			ResultadoBusqueda sin = new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(profundidad));
+			ResultadoBusqueda con = new Buscador(arbitro, new EvaluadorMaterial(), new TablaTransposicion(4))
+					.buscar(LimitesBusqueda.porProfundidad(profundidad));
+			assertThat("Puntuación distinta a profundidad " + profundidad, con.obtenerPuntuacion(), is(sin.obtenerPuntuacion()));
+		}
+
+		arbitro.colocarPiezas();
+		TablaTransposicion tabla = new TablaTransposicion(4);
+		long sinTabla = new Buscador(arbitro).buscar(LimitesBusqueda.porProfundidad(5)).obtenerNodos();
+		long conTabla = new Buscador(arbitro, new EvaluadorMaterial(), tabla).buscar(LimitesBusqueda.porProfundidad(5)).obtenerNodos();
+		assertTrue(conTabla < sinTabla, "La tabla debería ahorrar nodos: " + conTabla + " frente a " + sinTabla);
+		assertTrue(tabla.obtenerTasaAciertos() > 0, "Debería haber transposiciones");
+	}
+}
@@ -0,0 +1,63 @@
+package juego.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas unitarias sobre las tablas precalculadas.
+ * 
+ * @author Jorge Ruiz Gómez
+ * @version 2.0
+ */
+@DisplayName("Tests sobre TablasPrecalculadas")
+public class TablasPrecalculadasTest {
+
+	/**
+	 * Sentido correcto entre casillas alineadas y nulo entre casillas no alineadas.
+	 */
+	@DisplayName("Comprobar sentido entre casillas")
+	@Test
+	public void probarSentidoEntre() {
+		assertAll("sentidos correctos",
+			() -> assertThat("Sentido norte mal calculado", TablasPrecalculadas.sentidoEntre(60, 4), is(Sentido.VERTICAL_N)),
+			() -> assertThat("Sentido este mal calculado", TablasPrecalculadas.sentidoEntre(32, 39), is(Sentido.HORIZONTAL_E)),
+			() -> assertThat("Diagonal NE mal calculada", TablasPrecalculadas.sentidoEntre(56, 7), is(Sentido.DIAGONAL_NE)),
+			() -> assertThat("Diagonal SO mal calculada", TablasPrecalculadas.sentidoEntre(7, 56), is(Sentido.DIAGONAL_SO)),
+			() -> assertThat("Casillas no alineadas con sentido", TablasPrecalculadas.sentidoEntre(0, 17), is(nullValue())),
+			() -> assertThat("Misma casilla con sentido", TablasPrecalculadas.sentidoEntre(9, 9), is(nullValue())));
+	}
+
+	/**
+	 * Máscaras de casillas intermedias.
+	 */
+	@DisplayName("Comprobar casillas entre medias")
+	@Test
+	public void probarEntreMedias() {
+		assertAll("máscaras correctas",
+			() -> assertThat("Diagonal completa incorrecta", TablasPrecalculadas.entreMedias(0, 63),
+					is((1L << 9) | (1L << 18) | (1L << 27) | (1L << 36) | (1L << 45) | (1L << 54))),
+			() -> assertThat("Máscara no simétrica", TablasPrecalculadas.entreMedias(63, 0),
+					is(TablasPrecalculadas.entreMedias(0, 63))),
+			() -> assertThat("Casillas adyacentes con intermedias", TablasPrecalculadas.entreMedias(0, 1), is(0L)),
+			() -> assertThat("Casillas no alineadas con intermedias", TablasPrecalculadas.entreMedias(0, 17), is(0L)));
+	}
+
+	/**
+	 * Orden horario de los sentidos: pares rectos e impares diagonales.
+	 */
+	@DisplayName("Comprobar índice horario de los sentidos")
+	@Test
+	public void probarIndiceHorario() {
+		for (int i = 0; i < Sentido.values().length; i++) {
+			Sentido sentido = TablasPrecalculadas.sentidoHorario(i);
+			assertThat("Índice horario incorrecto", TablasPrecalculadas.indiceHorario(sentido), is(i));
+			boolean recto = sentido.obtenerDesplazamientoEnFilas() == 0 || sentido.obtenerDesplazamientoEnColumnas() == 0;
+			assertThat("Paridad del índice incorrecta", i % 2 == 0, is(recto));
+		}
+	}
+}